@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic benchmark inputs.
+ */
+
+public final class JPBenchmarkText
+{
+  private static final String[] VOCABULARY = {
+    "Pellentesque",
+    "mauris",
+    "lectus,",
+    "facilisis",
+    "at",
+    "rhoncus",
+    "non,",
+    "efficitur",
+    "lorem.",
+    "Nulla",
+    "nisl",
+    "elit,",
+    "gravida",
+    "ultricies",
+    "magna",
+    "ac,",
+    "molestie",
+    "ipsum.",
+    "sagittis",
+    "dapibus",
+    "tellus",
+    "vel",
+    "dictum.",
+    "Donec",
+    "ullamcorper",
+    "mattis",
+    "purus",
+    "in",
+    "Aenean",
+    "diam",
+    "imperdiet,",
+    "interdum",
+    "eros",
+    "convallis",
+    "https://www.io7m.com/software/jpita/documentation/index.xhtml",
+  };
+
+  private JPBenchmarkText()
+  {
+    throw new AssertionError("Unreachable code!");
+  }
+
+  /**
+   * Generate a paragraph of words. The same seed and size always yield the
+   * same paragraph. Roughly one word in a hundred is too long to fit on a
+   * narrow line, so that the overflow paths are exercised.
+   *
+   * @param size The number of words
+   *
+   * @return A list of words
+   */
+
+  public static List<String> words(
+    final int size)
+  {
+    final SplittableRandom random = new SplittableRandom(0x6a706974L);
+    final List<String> words = new ArrayList<>(size);
+    final int last = VOCABULARY.length - 1;
+    for (int index = 0; index < size; ++index) {
+      if (random.nextInt(100) == 0) {
+        words.add(VOCABULARY[last]);
+      } else {
+        words.add(VOCABULARY[random.nextInt(last)]);
+      }
+    }
+    return words;
+  }
+
+  /**
+   * Join the given words into a single text, separated by single spaces.
+   *
+   * @param words The words
+   *
+   * @return The text
+   */
+
+  public static String text(
+    final List<String> words)
+  {
+    return String.join(" ", words);
+  }
+
+  /**
+   * Calculate the {@code [start, end)} bounds of each word in the result of
+   * {@link #text(List)}.
+   *
+   * @param words The words
+   *
+   * @return An array of {@code 2 * words.size()} bounds
+   */
+
+  public static int[] bounds(
+    final List<String> words)
+  {
+    final int[] bounds = new int[words.size() * 2];
+    int offset = 0;
+    for (int index = 0; index < words.size(); ++index) {
+      final int length = words.get(index).length();
+      bounds[index * 2] = offset;
+      bounds[index * 2 + 1] = offset + length;
+      offset += length + 1;
+    }
+    return bounds;
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPBufferReceiver;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for writing formatted lines directly into a direct buffer,
+ * compared with copying the strings returned by
+ * {@link JPAlignerType#finish()} into the buffer.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPBufferReceiverBenchmark
+{
+  private static final JPLayoutSpec SPEC =
+    JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      80);
+
+  /**
+   * The number of words in the text.
+   */
+
+  @Param({"10000"})
+  public int size;
+
+  private String text;
+  private ByteBuffer output;
+  private JPAlignerType aligner;
+  private JPBufferReceiver receiver;
+  private JPAlignerType aligner_utf8;
+  private JPBufferReceiver receiver_cells;
+  private JPAlignerType aligner_cells;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPBufferReceiverBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    this.text = JPBenchmarkText.text(JPBenchmarkText.words(this.size));
+    this.output = ByteBuffer.allocateDirect(this.text.length() * 8)
+      .order(ByteOrder.nativeOrder());
+    this.aligner = SPEC.createAligner();
+    this.receiver = JPBufferReceiver.utf8(this.output, "\n");
+    this.aligner_utf8 = SPEC.createAligner(this.receiver);
+    this.receiver_cells =
+      JPBufferReceiver.cells(this.output, 80, SPEC.measurer());
+    this.aligner_cells = SPEC.createAligner(this.receiver_cells);
+  }
+
+  /**
+   * Format the text, and encode the returned lines into the buffer.
+   *
+   * @return The output buffer
+   */
+
+  @Benchmark
+  public ByteBuffer formatCopy()
+  {
+    this.output.clear();
+    this.aligner.addText(this.text);
+    final List<String> lines = this.aligner.finish();
+    for (int index = 0; index < lines.size(); ++index) {
+      this.output.put(lines.get(index).getBytes(StandardCharsets.UTF_8));
+      this.output.put((byte) '\n');
+    }
+    return this.output;
+  }
+
+  /**
+   * Format the text, encoding each line as UTF-8 directly into the buffer.
+   *
+   * @return The output buffer
+   */
+
+  @Benchmark
+  public ByteBuffer formatReceiverUtf8()
+  {
+    this.output.clear();
+    this.aligner_utf8.addText(this.text);
+    this.aligner_utf8.finish();
+    return this.output;
+  }
+
+  /**
+   * Format the text, writing each line as a row of cells directly into the
+   * buffer.
+   *
+   * @return The output buffer
+   */
+
+  @Benchmark
+  public ByteBuffer formatReceiverCells()
+  {
+    this.output.clear();
+    this.aligner_cells.addText(this.text);
+    this.aligner_cells.finish();
+    return this.output;
+  }
+}
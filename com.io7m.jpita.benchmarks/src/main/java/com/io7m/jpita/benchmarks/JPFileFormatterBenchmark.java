@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPFileFormatter;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for formatting one file into another through memory-mapped
+ * windows, compared with reading the whole file into a string, formatting
+ * it, and writing the lines.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPFileFormatterBenchmark
+{
+  private static final JPLayoutSpec SPEC =
+    JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      80);
+
+  /**
+   * The number of words in the file.
+   */
+
+  @Param({"1000000"})
+  public int size;
+
+  private Path directory;
+  private Path input;
+  private Path output;
+  private JPFileFormatter formatter;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPFileFormatterBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+    throws IOException
+  {
+    this.directory = Files.createTempDirectory("jpita-benchmark-");
+    this.input = this.directory.resolve("input.txt");
+    this.output = this.directory.resolve("output.txt");
+    Files.writeString(
+      this.input,
+      JPBenchmarkText.text(JPBenchmarkText.words(this.size)),
+      StandardCharsets.UTF_8);
+    this.formatter = JPFileFormatter.create(SPEC);
+  }
+
+  /**
+   * Delete the files created for the benchmark.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+    throws IOException
+  {
+    Files.deleteIfExists(this.input);
+    Files.deleteIfExists(this.output);
+    Files.deleteIfExists(this.directory);
+  }
+
+  /**
+   * Format the file through memory-mapped windows.
+   *
+   * @return The size of the output
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Benchmark
+  public long formatMapped()
+    throws IOException
+  {
+    return this.formatter.format(this.input, this.output);
+  }
+
+  /**
+   * Read the file into a string, format it, and write the lines.
+   *
+   * @return The size of the output
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Benchmark
+  public long formatReadWrite()
+    throws IOException
+  {
+    final String text = Files.readString(this.input, StandardCharsets.UTF_8);
+    final List<String> lines = JPLayouts.formatText(SPEC, text);
+    Files.write(this.output, lines, StandardCharsets.UTF_8);
+    return Files.size(this.output);
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPHyphenationPatterns;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutMode;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for hyphenation. The patterns are generated deterministically
+ * and are of a similar number and length to a typical TeX pattern file.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPHyphenationBenchmark
+{
+  /**
+   * The layout engine.
+   */
+
+  @Param({"MODE_ALIGN_LEFT", "MODE_JUSTIFY", "MODE_JUSTIFY_OPTIMAL"})
+  public String mode;
+
+  /**
+   * Whether or not hyphenation is enabled.
+   */
+
+  @Param({"false", "true"})
+  public boolean hyphenate;
+
+  private JPHyphenationPatterns patterns;
+  private List<String> paragraph;
+  private JPAlignerType streaming;
+  private long received;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPHyphenationBenchmark()
+  {
+
+  }
+
+  private static JPHyphenationPatterns generatePatterns()
+  {
+    final SplittableRandom random = new SplittableRandom(0x68797068L);
+    final List<String> patterns = new ArrayList<>(4500);
+    final StringBuilder pattern = new StringBuilder(16);
+    for (int index = 0; index < 4500; ++index) {
+      pattern.setLength(0);
+      if (random.nextInt(10) == 0) {
+        pattern.append('.');
+      }
+      final int letters = 2 + random.nextInt(4);
+      final int digit = random.nextInt(letters + 1);
+      for (int letter = 0; letter <= letters; ++letter) {
+        if (letter == digit) {
+          pattern.append((char) ('1' + random.nextInt(5)));
+        }
+        if (letter < letters) {
+          pattern.append((char) ('a' + random.nextInt(26)));
+        }
+      }
+      patterns.add(pattern.toString());
+    }
+    return JPHyphenationPatterns.compile(patterns, List.of(), 2, 3);
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    this.patterns = generatePatterns();
+    this.paragraph = JPBenchmarkText.words(2000);
+
+    final JPLayoutSpec spec =
+      new JPLayoutSpec(
+        JPLayoutMode.valueOf(this.mode),
+        40,
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        JPWidthMeasurers.CODE_UNITS,
+        this.hyphenate ? this.patterns : JPHyphenationPatterns.none());
+
+    this.streaming = spec.createAligner(this::receive);
+  }
+
+  private void receive(
+    final CharSequence line)
+  {
+    this.received += line.length();
+  }
+
+  /**
+   * Add every word of the paragraph to a streaming aligner and finish.
+   *
+   * @return The number of characters received so far
+   */
+
+  @Benchmark
+  public long addWordStreaming()
+  {
+    final List<String> p = this.paragraph;
+    for (int index = 0; index < p.size(); ++index) {
+      this.streaming.addWord(p.get(index));
+    }
+    this.streaming.finish();
+    return this.received;
+  }
+
+  /**
+   * Hyphenate every word of the paragraph without the per-word cache used
+   * by the aligners.
+   *
+   * @return The total number of hyphenation points
+   */
+
+  @Benchmark
+  public long hyphenateUncached()
+  {
+    final List<String> p = this.paragraph;
+    long points = 0L;
+    for (int index = 0; index < p.size(); ++index) {
+      points += this.patterns.hyphenate(p.get(index)).length;
+    }
+    return points;
+  }
+}
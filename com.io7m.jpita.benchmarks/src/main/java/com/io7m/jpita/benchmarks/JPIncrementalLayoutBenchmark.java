@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPIncrementalLayout;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutChange;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for incremental layout, compared with laying out the whole
+ * paragraph again after each edit.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPIncrementalLayoutBenchmark
+{
+  private static final JPLayoutSpec SPEC =
+    JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      80);
+
+  /**
+   * The number of words in the paragraph.
+   */
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private List<String> words;
+  private JPIncrementalLayout layout;
+  private int middle;
+  private boolean toggle;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPIncrementalLayoutBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    this.words = JPBenchmarkText.words(this.size);
+    this.layout = JPIncrementalLayout.create(SPEC, this.words);
+    this.middle = this.size / 2;
+  }
+
+  /**
+   * Insert and then delete a word in the middle of the paragraph, as when
+   * a word is typed and then removed.
+   *
+   * @return The last change
+   */
+
+  @Benchmark
+  public JPLayoutChange insertDeleteIncremental()
+  {
+    this.layout.insert(this.middle, "keystroke");
+    return this.layout.delete(this.middle);
+  }
+
+  /**
+   * Replace a word in the middle of the paragraph with a word of a
+   * different length.
+   *
+   * @return The change
+   */
+
+  @Benchmark
+  public JPLayoutChange replaceIncremental()
+  {
+    this.toggle = !this.toggle;
+    return this.layout.replace(this.middle, this.toggle ? "a" : "abcdefgh");
+  }
+
+  /**
+   * Lay out the whole paragraph, as an application without incremental
+   * layout would after every edit.
+   *
+   * @return The lines
+   */
+
+  @Benchmark
+  public List<String> formatFull()
+  {
+    return JPLayouts.format(SPEC, this.words);
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link JPJustifierBasic}.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPJustifierBasicBenchmark
+{
+  /**
+   * The number of words in the paragraph.
+   */
+
+  @Param({"40", "2000"})
+  public int words;
+
+  /**
+   * The maximum line width.
+   */
+
+  @Param({"20", "120"})
+  public int width;
+
+  /**
+   * The overflow behaviour.
+   */
+
+  @Param({"OVERFLOW_TRUNCATE", "OVERFLOW_ANYWAY"})
+  public JPOverflowBehaviour overflow;
+
+  /**
+   * The justification decision function.
+   */
+
+  @Param({"JUSTIFY_UNDER_HALF", "JUSTIFY_ALWAYS"})
+  public String decider;
+
+  private List<String> paragraph;
+  private String paragraphText;
+  private int[] paragraphBounds;
+  private StringBuilder output;
+  private JPAlignerType streaming;
+  private long received;
+  private JPAlignerType aligner;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPJustifierBasicBenchmark()
+  {
+
+  }
+
+  private JPAlignerType create()
+  {
+    return JPJustifierBasic.create(
+      this.overflow,
+      deciderOf(this.decider),
+      this.width);
+  }
+
+  private static JPJustifierBasic.SpaceTextDecisionType deciderOf(
+    final String name)
+  {
+    return switch (name) {
+      case "JUSTIFY_UNDER_HALF" -> JPJustifierBasic.JUSTIFY_UNDER_HALF;
+      case "JUSTIFY_ALWAYS" -> JPJustifierBasic.JUSTIFY_ALWAYS;
+      default -> throw new IllegalArgumentException(
+        "Unrecognized decider: " + name);
+    };
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    this.paragraph = JPBenchmarkText.words(this.words);
+    this.paragraphText = JPBenchmarkText.text(this.paragraph);
+    this.paragraphBounds = JPBenchmarkText.bounds(this.paragraph);
+    this.output = new StringBuilder(this.paragraphText.length() * 2);
+    this.streaming =
+      JPJustifierBasic.create(
+        this.overflow,
+        deciderOf(this.decider),
+        this.width,
+        this::receive);
+    this.aligner = this.create();
+  }
+
+  /**
+   * Add every word of the paragraph and finish.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> addWordFinish()
+  {
+    final List<String> p = this.paragraph;
+    for (int index = 0; index < p.size(); ++index) {
+      this.aligner.addWord(p.get(index));
+    }
+    return this.aligner.finish();
+  }
+
+  /**
+   * Add every word of the paragraph by range from a single text, and
+   * finish.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> addWordRangeFinish()
+  {
+    final String t = this.paragraphText;
+    final int[] b = this.paragraphBounds;
+    for (int index = 0; index < b.length; index += 2) {
+      this.aligner.addWord(t, b[index], b[index + 1]);
+    }
+    return this.aligner.finish();
+  }
+
+  private void receive(
+    final CharSequence line)
+  {
+    this.received += line.length();
+  }
+
+  /**
+   * Add every word of the paragraph to a streaming aligner and finish. The
+   * receiver only counts characters, so this measures the cost of layout
+   * without the cost of retaining the output.
+   *
+   * @return The number of characters received so far
+   */
+
+  @Benchmark
+  public long addWordStreaming()
+  {
+    final List<String> p = this.paragraph;
+    for (int index = 0; index < p.size(); ++index) {
+      this.streaming.addWord(p.get(index));
+    }
+    this.streaming.finish();
+    return this.received;
+  }
+
+  /**
+   * Add every word of the paragraph and finish into a reused output buffer.
+   *
+   * @return The output buffer
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Benchmark
+  public StringBuilder addWordFinishTo()
+    throws IOException
+  {
+    final List<String> p = this.paragraph;
+    for (int index = 0; index < p.size(); ++index) {
+      this.aligner.addWord(p.get(index));
+    }
+    this.output.setLength(0);
+    this.aligner.finishTo(this.output, "\n");
+    return this.output;
+  }
+
+  /**
+   * Add the paragraph as a single text using the built-in tokenizer, and
+   * finish.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> addTextFinish()
+  {
+    this.aligner.addText(this.paragraphText);
+    return this.aligner.finish();
+  }
+
+  /**
+   * Add every word of the paragraph, breaking the line every eight words,
+   * and finish.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> addWordBreakLineFinish()
+  {
+    final List<String> p = this.paragraph;
+    for (int index = 0; index < p.size(); ++index) {
+      this.aligner.addWord(p.get(index));
+      if ((index & 7) == 7) {
+        this.aligner.breakLine();
+      }
+    }
+    return this.aligner.finish();
+  }
+
+  /**
+   * Finish a layout containing a single word. This is dominated by the
+   * fixed cost of {@code finish()}.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> finishSingleWord()
+  {
+    this.aligner.addWord(this.paragraph.get(0));
+    return this.aligner.finish();
+  }
+
+  /**
+   * Create a new justifier, add every word of the paragraph, and finish.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> createAddWordFinish()
+  {
+    final JPAlignerType a = this.create();
+    final List<String> p = this.paragraph;
+    for (int index = 0; index < p.size(); ++index) {
+      a.addWord(p.get(index));
+    }
+    return a.finish();
+  }
+}
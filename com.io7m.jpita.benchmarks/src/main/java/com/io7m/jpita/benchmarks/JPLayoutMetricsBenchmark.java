@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutMetrics;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for formatting text with and without a metrics listener. The
+ * listener is shared by all benchmark threads, as it would be by all of the
+ * aligners created from one specification.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPLayoutMetricsBenchmark
+{
+  private static final JPLayoutMetrics METRICS = JPLayoutMetrics.create();
+
+  private static final JPLayoutSpec SPEC =
+    JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      80);
+
+  /**
+   * The number of words in the text.
+   */
+
+  @Param({"2000"})
+  public int size;
+
+  private String text;
+  private JPAlignerType plain;
+  private JPAlignerType measured;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPLayoutMetricsBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    this.text = JPBenchmarkText.text(JPBenchmarkText.words(this.size));
+    this.plain = SPEC.createAligner();
+    this.measured = SPEC.withMetrics(METRICS).createAligner();
+  }
+
+  /**
+   * Format the text without a metrics listener.
+   *
+   * @return The lines
+   */
+
+  @Benchmark
+  public List<String> formatWithoutMetrics()
+  {
+    this.plain.addText(this.text);
+    return this.plain.finish();
+  }
+
+  /**
+   * Format the text, reporting to a shared metrics listener.
+   *
+   * @return The lines
+   */
+
+  @Benchmark
+  public List<String> formatWithMetrics()
+  {
+    this.measured.addText(this.text);
+    return this.measured.finish();
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPCachingFormatter;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutResult;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPLineBreaks;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPParagraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link JPLayouts}.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPLayoutsBenchmark
+{
+  /**
+   * The number of paragraphs.
+   */
+
+  @Param({"100", "20000"})
+  public int paragraphs;
+
+  private static final JPLayoutSpec SPEC =
+    JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      80);
+
+  private List<JPParagraph> input;
+  private JPCachingFormatter cache;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPLayoutsBenchmark()
+  {
+
+  }
+
+  private static JPAlignerType create()
+  {
+    return SPEC.createAligner();
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    final List<String> words = JPBenchmarkText.words(this.paragraphs * 50);
+    this.input = new ArrayList<>(this.paragraphs);
+    for (int index = 0; index < this.paragraphs; ++index) {
+      this.input.add(
+        new JPParagraph(words.subList(index * 50, (index + 1) * 50)));
+    }
+    this.cache = JPCachingFormatter.create(1024);
+  }
+
+  /**
+   * Lay out all paragraphs on the calling thread.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> formatSequential()
+  {
+    return JPLayouts.formatAll(
+      this.input, JPLayoutsBenchmark::create, Runnable::run);
+  }
+
+  /**
+   * Lay out all paragraphs on the calling thread into a compact result,
+   * for comparison with {@link #formatSequential()}.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public JPLayoutResult formatSequentialCompact()
+  {
+    return JPLayouts.formatAllCompact(this.input, SPEC, Runnable::run);
+  }
+
+  /**
+   * Lay out all paragraphs on the common fork/join pool.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> formatParallel()
+  {
+    return JPLayouts.formatAll(this.input, JPLayoutsBenchmark::create);
+  }
+
+  /**
+   * Format a single paragraph with the stateless formatter.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> formatOne()
+  {
+    return JPLayouts.format(SPEC, this.input.get(0).words());
+  }
+
+  /**
+   * Format a single paragraph with a caching formatter, for comparison with
+   * {@link #formatOne()}. Every call after the first is a cache hit.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> formatOneCached()
+  {
+    return this.cache.format(SPEC, this.input.get(0).words());
+  }
+
+  /**
+   * Compute the line breaks of a single paragraph without formatting any
+   * lines, for comparison with {@link #formatOne()}.
+   *
+   * @return The line breaks
+   */
+
+  @Benchmark
+  public JPLineBreaks measureOne()
+  {
+    return JPLineBreaks.measure(SPEC, this.input.get(0).words());
+  }
+
+  /**
+   * Count the lines of a single paragraph, for comparison with
+   * {@link #formatOne()}.
+   *
+   * @return The number of lines
+   */
+
+  @Benchmark
+  public int countOne()
+  {
+    return JPLineBreaks.countLines(SPEC, this.input.get(0).words());
+  }
+
+  /**
+   * Format a single paragraph with a newly created aligner, for comparison
+   * with {@link #formatOne()}.
+   *
+   * @return The formatted lines
+   */
+
+  @Benchmark
+  public List<String> formatOneCreate()
+  {
+    final JPAlignerType a = create();
+    final List<String> words = this.input.get(0).words();
+    for (int index = 0; index < words.size(); ++index) {
+      a.addWord(words.get(index));
+    }
+    return a.finish();
+  }
+}
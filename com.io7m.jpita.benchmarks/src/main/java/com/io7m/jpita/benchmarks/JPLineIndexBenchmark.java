@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPLineIndex;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPParagraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for formatting a page in the middle of a large document with
+ * a line index, compared with formatting the whole document.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPLineIndexBenchmark
+{
+  private static final JPLayoutSpec SPEC =
+    JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      80);
+
+  private static final int PAGE_LINES = 50;
+
+  /**
+   * The number of lines between checkpoints.
+   */
+
+  @Param({"64", "1024"})
+  public int interval;
+
+  private List<JPParagraph> paragraphs;
+  private JPLineIndex index;
+  private int page_start;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPLineIndexBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state: a document of 20000 paragraphs of 50 words
+   * each, around six megabytes of text.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    final List<String> words = JPBenchmarkText.words(20000 * 50);
+    this.paragraphs = new ArrayList<>(20000);
+    for (int index = 0; index < 20000; ++index) {
+      this.paragraphs.add(
+        new JPParagraph(words.subList(index * 50, (index + 1) * 50)));
+    }
+    this.index = JPLineIndex.create(SPEC, this.paragraphs, this.interval);
+    this.page_start = Math.min(
+      500 * PAGE_LINES, this.index.lineCount() - PAGE_LINES);
+  }
+
+  /**
+   * Format page 500 with the index.
+   *
+   * @return The lines
+   */
+
+  @Benchmark
+  public List<String> pageIndexed()
+  {
+    return this.index.lines(this.page_start, this.page_start + PAGE_LINES);
+  }
+
+  /**
+   * Build the index in a single pass over the document.
+   *
+   * @return The index
+   */
+
+  @Benchmark
+  public JPLineIndex buildIndex()
+  {
+    return JPLineIndex.create(SPEC, this.paragraphs, this.interval);
+  }
+
+  /**
+   * Format the whole document, and take page 500.
+   *
+   * @return The lines
+   */
+
+  @Benchmark
+  public List<String> pageFull()
+  {
+    return JPLayouts.formatAll(this.paragraphs, SPEC, Runnable::run)
+      .subList(this.page_start, this.page_start + PAGE_LINES);
+  }
+}
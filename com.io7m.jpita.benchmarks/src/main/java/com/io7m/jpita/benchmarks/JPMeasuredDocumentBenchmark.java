@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPDocumentLayout;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPMeasuredDocument;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPParagraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for re-flowing a measured document at a new width, compared
+ * with laying out the whole document again.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPMeasuredDocumentBenchmark
+{
+  private static final JPLayoutSpec SPEC =
+    JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      80);
+
+  /**
+   * The number of words in the document.
+   */
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private List<String> words;
+  private JPMeasuredDocument document;
+  private boolean toggle;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPMeasuredDocumentBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    this.words = JPBenchmarkText.words(this.size);
+    this.document = JPMeasuredDocument.create(
+      SPEC, List.of(new JPParagraph(this.words)));
+  }
+
+  private int nextWidth()
+  {
+    this.toggle = !this.toggle;
+    return this.toggle ? 79 : 80;
+  }
+
+  /**
+   * Break the document into lines at a new width without rendering any
+   * of them.
+   *
+   * @return The layout
+   */
+
+  @Benchmark
+  public JPDocumentLayout resizeMeasured()
+  {
+    return this.document.layout(this.nextWidth());
+  }
+
+  /**
+   * Break the document into lines at a new width and render the first
+   * screen of lines, as a terminal application would after a resize.
+   *
+   * @return The visible lines
+   */
+
+  @Benchmark
+  public List<String> resizeMeasuredVisible()
+  {
+    final JPDocumentLayout layout = this.document.layout(this.nextWidth());
+    return layout.lines(0, Math.min(50, layout.lineCount()));
+  }
+
+  /**
+   * Lay out the whole document at a new width.
+   *
+   * @return The lines
+   */
+
+  @Benchmark
+  public List<String> resizeFull()
+  {
+    return JPLayouts.format(SPEC.withWidth(this.nextWidth()), this.words);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPUtf8Aligner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for formatting UTF-8 text between direct buffers, compared
+ * with decoding the text, formatting it, and encoding the lines.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPUtf8AlignerBenchmark
+{
+  private static final JPLayoutSpec SPEC =
+    JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      80);
+
+  /**
+   * The number of words in the text.
+   */
+
+  @Param({"10000"})
+  public int size;
+
+  private ByteBuffer input;
+  private ByteBuffer output;
+  private JPUtf8Aligner utf8;
+  private JPAlignerType aligner;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPUtf8AlignerBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    final byte[] bytes = JPBenchmarkText.text(JPBenchmarkText.words(this.size))
+      .getBytes(StandardCharsets.UTF_8);
+    this.input = ByteBuffer.allocateDirect(bytes.length);
+    this.input.put(bytes);
+    this.output = ByteBuffer.allocateDirect(bytes.length * 2);
+    this.utf8 = JPUtf8Aligner.create(SPEC);
+    this.aligner = SPEC.createAligner();
+  }
+
+  /**
+   * Format the text directly between direct buffers.
+   *
+   * @return The output buffer
+   */
+
+  @Benchmark
+  public ByteBuffer formatBytes()
+  {
+    this.input.clear();
+    this.output.clear();
+    this.utf8.addText(this.input);
+    this.utf8.finish();
+    this.utf8.drainTo(this.output);
+    return this.output;
+  }
+
+  /**
+   * Decode the text, format it, and encode each line into the output.
+   *
+   * @return The output buffer
+   */
+
+  @Benchmark
+  public ByteBuffer formatDecodeEncode()
+  {
+    this.input.clear();
+    this.output.clear();
+    this.aligner.addText(StandardCharsets.UTF_8.decode(this.input));
+    final List<String> lines = this.aligner.finish();
+    for (int index = 0; index < lines.size(); ++index) {
+      this.output.put(
+        StandardCharsets.UTF_8.encode(CharBuffer.wrap(lines.get(index))));
+      this.output.put((byte) '\n');
+    }
+    return this.output;
+  }
+}
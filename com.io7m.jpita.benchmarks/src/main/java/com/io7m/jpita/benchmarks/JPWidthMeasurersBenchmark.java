@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.benchmarks;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPWidthMeasurerType;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the standard width measurers, measured through a
+ * streaming justifier.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JPWidthMeasurersBenchmark
+{
+  private static final String[] CJK = {
+    "漢字",
+    "日本語の",
+    "문자",
+    "中文",
+    "テキスト",
+  };
+
+  /**
+   * The measurer.
+   */
+
+  @Param({"CODE_UNITS", "TERMINAL", "TERMINAL_ANSI"})
+  public String measurer;
+
+  /**
+   * The script of the words.
+   */
+
+  @Param({"LATIN", "LATIN_SGR", "CJK"})
+  public String script;
+
+  private List<String> paragraph;
+  private JPAlignerType streaming;
+  private long received;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JPWidthMeasurersBenchmark()
+  {
+
+  }
+
+  private static JPWidthMeasurerType measurerOf(
+    final String name)
+  {
+    return switch (name) {
+      case "CODE_UNITS" -> JPWidthMeasurers.CODE_UNITS;
+      case "TERMINAL" -> JPWidthMeasurers.TERMINAL;
+      case "TERMINAL_ANSI" -> JPWidthMeasurers.TERMINAL_ANSI;
+      default -> throw new IllegalArgumentException(
+        "Unrecognized measurer: " + name);
+    };
+  }
+
+  private static List<String> wordsOf(
+    final String name)
+  {
+    return switch (name) {
+      case "LATIN" -> JPBenchmarkText.words(2000);
+      case "LATIN_SGR" -> {
+        final List<String> words = JPBenchmarkText.words(2000);
+        for (int index = 0; index < words.size(); index += 2) {
+          words.set(index, "\u001b[1;31m" + words.get(index) + "\u001b[0m");
+        }
+        yield words;
+      }
+      case "CJK" -> {
+        final List<String> words = new ArrayList<>(2000);
+        for (int index = 0; index < 2000; ++index) {
+          words.add(CJK[(index * 7) % CJK.length]);
+        }
+        yield words;
+      }
+      default -> throw new IllegalArgumentException(
+        "Unrecognized script: " + name);
+    };
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    this.paragraph = wordsOf(this.script);
+    this.streaming =
+      JPLayoutSpec.justify(
+          JPOverflowBehaviour.OVERFLOW_ANYWAY,
+          JPJustifierBasic.JUSTIFY_UNDER_HALF,
+          80)
+        .withMeasurer(measurerOf(this.measurer))
+        .createAligner(this::receive);
+  }
+
+  private void receive(
+    final CharSequence line)
+  {
+    this.received += line.length();
+  }
+
+  /**
+   * Add every word of the paragraph to a streaming justifier and finish.
+   *
+   * @return The number of characters received so far
+   */
+
+  @Benchmark
+  public long addWordStreaming()
+  {
+    final List<String> p = this.paragraph;
+    for (int index = 0; index < p.size(); ++index) {
+      this.streaming.addWord(p.get(index));
+    }
+    this.streaming.finish();
+    return this.received;
+  }
+}
@@ -18,7 +18,7 @@ package com.io7m.jpita.core;
 
 import com.io7m.jranges.RangeCheck;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
 
@@ -29,16 +29,31 @@ import java.util.Objects;
 public final class JPAlignerBasic implements JPAlignerType
 {
   private final int width;
-  private final List<String> lines_formatted;
+  private final JPWidthMeasurerType measurer;
+  private final JPHyphenator hyphenator;
+  private final JPLineCollector lines_formatted;
+  private final JPLineReceiverType receiver;
   private final StringBuilder line_buffer;
+  private final JPLayoutEvents events;
+  private int line_width;
 
   private JPAlignerBasic(
-    final int in_width)
+    final int in_width,
+    final JPWidthMeasurerType in_measurer,
+    final JPHyphenationPatterns in_hyphenation,
+    final JPLineCollector in_lines,
+    final JPLineReceiverType in_receiver,
+    final JPLayoutMetricsType in_metrics)
   {
     this.width = RangeCheck.checkGreaterInteger(
       in_width, "Width", 0, "Minimum width");
-    this.lines_formatted = new ArrayList<>(16);
+    this.measurer = Objects.requireNonNull(in_measurer, "Measurer");
+    this.hyphenator = new JPHyphenator(in_hyphenation);
+    this.lines_formatted = Objects.requireNonNull(in_lines, "Lines");
+    this.receiver = Objects.requireNonNull(in_receiver, "Receiver");
     this.line_buffer = new StringBuilder(this.width);
+    this.events = new JPLayoutEvents(
+      this.width, Objects.requireNonNull(in_metrics, "Metrics"));
   }
 
   /**
@@ -52,46 +67,224 @@ public final class JPAlignerBasic implements JPAlignerType
   public static JPAlignerType create(
     final int in_width)
   {
-    return new JPAlignerBasic(in_width);
+    return create(
+      in_width,
+      JPWidthMeasurers.CODE_UNITS,
+      JPHyphenationPatterns.none(),
+      JPLayoutMetricsType.none());
+  }
+
+  static JPAlignerType create(
+    final int in_width,
+    final JPWidthMeasurerType in_measurer,
+    final JPHyphenationPatterns in_hyphenation,
+    final JPLayoutMetricsType in_metrics)
+  {
+    final JPLineCollector lines = new JPLineCollector();
+    return new JPAlignerBasic(
+      in_width, in_measurer, in_hyphenation, lines, lines, in_metrics);
+  }
+
+  /**
+   * Construct a new streaming aligner. Each line is passed to the given
+   * receiver as soon as it has been completed, and is not retained by the
+   * aligner. The {@link JPAlignerType#finish()} method of the returned
+   * aligner passes any pending line to the receiver and always returns an
+   * empty list.
+   *
+   * @param in_width    The maximum width in characters
+   * @param in_receiver The receiver of formatted lines
+   *
+   * @return A new aligner
+   */
+
+  public static JPAlignerType create(
+    final int in_width,
+    final JPLineReceiverType in_receiver)
+  {
+    return create(
+      in_width,
+      JPWidthMeasurers.CODE_UNITS,
+      JPHyphenationPatterns.none(),
+      in_receiver,
+      JPLayoutMetricsType.none());
+  }
+
+  static JPAlignerType create(
+    final int in_width,
+    final JPWidthMeasurerType in_measurer,
+    final JPHyphenationPatterns in_hyphenation,
+    final JPLineReceiverType in_receiver,
+    final JPLayoutMetricsType in_metrics)
+  {
+    return new JPAlignerBasic(
+      in_width,
+      in_measurer,
+      in_hyphenation,
+      new JPLineCollector(),
+      in_receiver,
+      in_metrics);
   }
 
   @Override
   public void addWord(final String w)
   {
     Objects.requireNonNull(w, "Word");
+    this.addWord(w, 0, w.length());
+  }
+
+  @Override
+  public void addWord(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    Objects.requireNonNull(text, "Text");
+    Objects.checkFromToIndex(start, end, text.length());
+
+    this.events.word();
+
+    final int ws = JPText.trimStart(text, start, end);
+    final int we = JPText.trimEnd(text, ws, end);
+    int word_start = ws;
+    int word_width = this.measurer.measure(text, ws, we);
+    if (!this.canFit(word_width) && this.hyphenator.isEnabled()) {
+      word_start = this.hyphenate(text, ws, we);
+      word_width = this.measurer.measure(text, word_start, we);
+    }
 
-    final String wt = w.trim();
-    if (this.line_buffer.length() + wt.length() + 1 > this.width) {
+    if (!this.canFit(word_width)) {
       if (this.line_buffer.length() > 0) {
-        this.lines_formatted.add(this.line_buffer.toString().trim());
-        this.line_buffer.setLength(0);
+        this.emitLine();
+      }
+      if (word_width > this.width) {
+        this.events.overflow();
       }
     }
 
-    this.line_buffer.append(w);
+    this.line_buffer.append(text, word_start, we);
     this.line_buffer.append(' ');
+    this.line_width += word_width + 1;
+  }
+
+  private boolean canFit(final int word_width)
+  {
+    return this.line_width + word_width + 1 <= this.width;
+  }
+
+  /**
+   * Place as much of the word in the range {@code [ws, we)} as possible on
+   * the current line (and on subsequent lines, if the word is longer than a
+   * line) by breaking it at hyphenation points.
+   *
+   * @return The start of the part of the word that remains to be placed
+   */
+
+  private int hyphenate(
+    final CharSequence text,
+    final int ws,
+    final int we)
+  {
+    final int count = this.hyphenator.hyphenate(text, ws, we);
+    int start = ws;
+    int next = 0;
+
+    while (!this.canFit(this.measurer.measure(text, start, we))) {
+      int best = start;
+      for (int index = next; index < count; ++index) {
+        final int point = ws + this.hyphenator.point(index);
+        if (!this.canFit(this.measurer.measure(text, start, point) + 1)) {
+          break;
+        }
+        best = point;
+        next = index + 1;
+      }
+
+      if (best > start) {
+        this.line_buffer.append(text, start, best);
+        this.line_buffer.append('-');
+        this.emitLine();
+        start = best;
+      } else if (this.line_buffer.length() > 0) {
+        this.emitLine();
+      } else {
+        break;
+      }
+    }
+    return start;
+  }
+
+  private void emitLine()
+  {
+    JPText.trimInPlace(this.line_buffer);
+    this.receiver.receiveLine(this.line_buffer);
+    this.events.line();
+    this.line_buffer.setLength(0);
+    this.line_width = 0;
   }
 
   @Override
   public void breakLine()
   {
-    this.lines_formatted.add(this.line_buffer.toString().trim());
-    this.line_buffer.setLength(0);
+    this.emitLine();
+    this.events.endParagraph();
   }
 
   @Override
   public List<String> finish()
+  {
+    this.events.beginFinish();
+    try {
+      this.flush();
+      return this.lines_formatted.take();
+    } finally {
+      this.events.endFinish();
+    }
+  }
+
+  @Override
+  public JPLayoutResult finishCompact()
+  {
+    this.events.beginFinish();
+    try {
+      this.flush();
+      return this.lines_formatted.takeResult();
+    } finally {
+      this.events.endFinish();
+    }
+  }
+
+  @Override
+  public void finishTo(
+    final Appendable output,
+    final String separator)
+    throws IOException
+  {
+    final JPLineWriter writer = new JPLineWriter(output, separator);
+    this.events.beginFinish();
+    try {
+      this.flush();
+      this.lines_formatted.writeTo(writer);
+    } finally {
+      this.events.endFinish();
+    }
+  }
+
+  private void flush()
   {
     if (this.line_buffer.length() > 0) {
-      this.lines_formatted.add(this.line_buffer.toString().trim());
-      this.line_buffer.setLength(80);
-      this.line_buffer.trimToSize();
-      this.line_buffer.setLength(0);
+      this.emitLine();
     }
+  }
 
-    final List<String> rs = new ArrayList<>(this.lines_formatted);
-    this.lines_formatted.clear();
-    return rs;
+  @Override
+  public void reset()
+  {
+    JPCapacity.reset(this.line_buffer);
+    this.line_width = 0;
+    this.lines_formatted.reset();
+    this.hyphenator.reset();
+    this.events.reset();
   }
 
 }
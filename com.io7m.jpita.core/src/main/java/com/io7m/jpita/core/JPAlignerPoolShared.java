@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jranges.RangeCheck;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free aligner pool that may be shared between any number of
+ * threads. Each specification has a fixed number of slots, and each thread
+ * begins probing the slots at a position derived from its identifier, so
+ * threads rarely contend for the same slot.
+ */
+
+public final class JPAlignerPoolShared implements JPAlignerPoolType
+{
+  private static final AtomicReferenceArray<JPAlignerType> UNPOOLED =
+    new AtomicReferenceArray<>(0);
+
+  private final int specs_maximum;
+  private final int capacity;
+  private final ConcurrentHashMap<JPLayoutSpec, AtomicReferenceArray<JPAlignerType>> pools;
+  private final AtomicInteger specs;
+
+  private JPAlignerPoolShared(
+    final int in_specs_maximum,
+    final int in_capacity)
+  {
+    this.specs_maximum = RangeCheck.checkGreaterInteger(
+      in_specs_maximum, "Specifications", 0, "Minimum specifications");
+    this.capacity = RangeCheck.checkGreaterInteger(
+      in_capacity, "Capacity", 0, "Minimum capacity");
+    this.pools = new ConcurrentHashMap<>(this.specs_maximum);
+    this.specs = new AtomicInteger(0);
+  }
+
+  /**
+   * Create a new pool.
+   *
+   * @param in_specs_maximum The maximum number of distinct specifications
+   *                         for which aligners are retained; aligners for
+   *                         other specifications are created on demand and
+   *                         discarded on release
+   * @param in_capacity      The maximum number of idle aligners retained for
+   *                         each specification
+   *
+   * @return A new pool
+   */
+
+  public static JPAlignerPoolType create(
+    final int in_specs_maximum,
+    final int in_capacity)
+  {
+    return new JPAlignerPoolShared(in_specs_maximum, in_capacity);
+  }
+
+  private static int probeStart(
+    final int length)
+  {
+    return (int) (Thread.currentThread().threadId() % (long) length);
+  }
+
+  private AtomicReferenceArray<JPAlignerType> slotsFor(
+    final JPLayoutSpec spec)
+  {
+    AtomicReferenceArray<JPAlignerType> slots = this.pools.get(spec);
+    if (slots == null) {
+      slots = this.pools.computeIfAbsent(
+        spec,
+        k -> this.reserveSpec() ? new AtomicReferenceArray<>(this.capacity) : null);
+      if (slots == null) {
+        return UNPOOLED;
+      }
+    }
+    return slots;
+  }
+
+  /**
+   * Reserve one of the limited number of specifications. This is called at
+   * most once per specification, from within
+   * {@link ConcurrentHashMap#computeIfAbsent}, and the reservation is made
+   * atomically so that concurrent calls for different specifications cannot
+   * together exceed the limit.
+   *
+   * @return {@code true} if a specification was reserved
+   */
+
+  private boolean reserveSpec()
+  {
+    while (true) {
+      final int current = this.specs.get();
+      if (current >= this.specs_maximum) {
+        return false;
+      }
+      if (this.specs.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public JPAlignerType acquire(
+    final JPLayoutSpec spec)
+  {
+    Objects.requireNonNull(spec, "Spec");
+
+    final AtomicReferenceArray<JPAlignerType> slots = this.slotsFor(spec);
+    final int length = slots.length();
+    if (length > 0) {
+      final int start = probeStart(length);
+      for (int probe = 0; probe < length; ++probe) {
+        final int index = (start + probe) % length;
+        if (slots.get(index) != null) {
+          final JPAlignerType aligner = slots.getAndSet(index, null);
+          if (aligner != null) {
+            return aligner;
+          }
+        }
+      }
+    }
+    return spec.createAligner();
+  }
+
+  @Override
+  public void release(
+    final JPLayoutSpec spec,
+    final JPAlignerType aligner)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(aligner, "Aligner");
+
+    aligner.reset();
+
+    final AtomicReferenceArray<JPAlignerType> slots = this.slotsFor(spec);
+    final int length = slots.length();
+    if (length > 0) {
+      final int start = probeStart(length);
+      for (int probe = 0; probe < length; ++probe) {
+        final int index = (start + probe) % length;
+        if (slots.compareAndSet(index, null, aligner)) {
+          return;
+        }
+      }
+    }
+  }
+}
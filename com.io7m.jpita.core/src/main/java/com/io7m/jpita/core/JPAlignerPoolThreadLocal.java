@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jranges.RangeCheck;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * An aligner pool that keeps a separate set of idle aligners for each
+ * thread. Acquiring and releasing aligners involves no synchronization at
+ * all, at the cost of retaining aligners for every thread that has used the
+ * pool. This is appropriate for fixed-size pools of platform threads, and
+ * is not appropriate for virtual threads, which are typically numerous and
+ * short-lived; use {@link JPAlignerPoolShared} for those instead.
+ */
+
+public final class JPAlignerPoolThreadLocal implements JPAlignerPoolType
+{
+  private final int specs_maximum;
+  private final int capacity;
+  private final ThreadLocal<HashMap<JPLayoutSpec, ArrayDeque<JPAlignerType>>> pools;
+
+  private JPAlignerPoolThreadLocal(
+    final int in_specs_maximum,
+    final int in_capacity)
+  {
+    this.specs_maximum = RangeCheck.checkGreaterInteger(
+      in_specs_maximum, "Specifications", 0, "Minimum specifications");
+    this.capacity = RangeCheck.checkGreaterInteger(
+      in_capacity, "Capacity", 0, "Minimum capacity");
+    this.pools = ThreadLocal.withInitial(HashMap::new);
+  }
+
+  /**
+   * Create a new pool.
+   *
+   * @param in_specs_maximum The maximum number of distinct specifications
+   *                         for which aligners are retained per thread;
+   *                         aligners for other specifications are created
+   *                         on demand and discarded on release
+   * @param in_capacity      The maximum number of idle aligners retained for
+   *                         each specification per thread
+   *
+   * @return A new pool
+   */
+
+  public static JPAlignerPoolType create(
+    final int in_specs_maximum,
+    final int in_capacity)
+  {
+    return new JPAlignerPoolThreadLocal(in_specs_maximum, in_capacity);
+  }
+
+  @Override
+  public JPAlignerType acquire(
+    final JPLayoutSpec spec)
+  {
+    Objects.requireNonNull(spec, "Spec");
+
+    final ArrayDeque<JPAlignerType> idle = this.pools.get().get(spec);
+    if (idle != null) {
+      final JPAlignerType aligner = idle.pollFirst();
+      if (aligner != null) {
+        return aligner;
+      }
+    }
+    return spec.createAligner();
+  }
+
+  @Override
+  public void release(
+    final JPLayoutSpec spec,
+    final JPAlignerType aligner)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(aligner, "Aligner");
+
+    aligner.reset();
+
+    final HashMap<JPLayoutSpec, ArrayDeque<JPAlignerType>> specs =
+      this.pools.get();
+
+    ArrayDeque<JPAlignerType> idle = specs.get(spec);
+    if (idle == null) {
+      if (specs.size() >= this.specs_maximum) {
+        return;
+      }
+      idle = new ArrayDeque<>(this.capacity);
+      specs.put(spec, idle);
+    }
+    if (idle.size() < this.capacity) {
+      idle.addFirst(aligner);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * A bounded pool of ready aligners, keyed by layout specification.
+ * Aligners obtained from a pool are returned to it once they are no longer
+ * needed, and are reset rather than discarded so that their internal
+ * buffers keep the capacity they have grown to.
+ */
+
+public interface JPAlignerPoolType
+{
+  /**
+   * Obtain an aligner for the given specification. The aligner is either an
+   * idle aligner previously returned to the pool, or a new aligner if none
+   * is available. In either case, the aligner is empty.
+   *
+   * @param spec The layout specification
+   *
+   * @return An aligner
+   */
+
+  JPAlignerType acquire(JPLayoutSpec spec);
+
+  /**
+   * Reset the given aligner and return it to the pool. If the pool is full,
+   * the aligner is discarded. The aligner must have been obtained from a
+   * call to {@link #acquire(JPLayoutSpec)} with an equal specification, and
+   * must not be used by the caller after this method returns.
+   *
+   * @param spec    The layout specification
+   * @param aligner The aligner
+   */
+
+  void release(
+    JPLayoutSpec spec,
+    JPAlignerType aligner);
+}
@@ -16,7 +16,10 @@
 
 package com.io7m.jpita.core;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * The type of alignment algorithms.
@@ -32,6 +35,61 @@ public interface JPAlignerType
 
   void addWord(String w);
 
+  /**
+   * Add the word occupying the range {@code [start, end)} of the given text
+   * to the current layout. Leading and trailing whitespace within the range
+   * is ignored. The characters of the word are copied, and so the given text
+   * may be modified as soon as this method returns.
+   *
+   * @param text  The text containing the word
+   * @param start The starting index of the word (inclusive)
+   * @param end   The ending index of the word (exclusive)
+   */
+
+  default void addWord(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    Objects.checkFromToIndex(start, end, text.length());
+    this.addWord(text.subSequence(start, end).toString());
+  }
+
+  /**
+   * Split the given text into words, separated by whitespace, and add each
+   * word to the current layout. Each blank line in the text (that is, each
+   * line containing nothing but whitespace) results in a call to
+   * {@link #breakLine()}. Words and blank lines do not span separate calls
+   * to this method.
+   *
+   * @param text The text
+   */
+
+  default void addText(
+    final CharSequence text)
+  {
+    JPTokenizer.addText(this, text);
+  }
+
+  /**
+   * Split the text produced by the given reader into words, separated by
+   * whitespace, and add each word to the current layout. Each blank line in
+   * the text (that is, each line containing nothing but whitespace) results
+   * in a call to {@link #breakLine()}. The reader is consumed in blocks and
+   * is not closed.
+   *
+   * @param reader The reader
+   *
+   * @throws IOException On I/O errors
+   */
+
+  default void addText(
+    final Reader reader)
+    throws IOException
+  {
+    JPTokenizer.addText(this, reader);
+  }
+
   /**
    * Insert a hard line break.
    */
@@ -40,9 +98,93 @@ public interface JPAlignerType
 
   /**
    * Finish the current layout, effectively resetting it to a blank canvas.
+   * Aligners that were constructed with a {@link JPLineReceiverType} pass
+   * any pending line to the receiver and return an empty list.
    *
    * @return A list of formatted lines
    */
 
   List<String> finish();
+
+  /**
+   * Finish the current layout as with {@link #finish()}, returning the
+   * lines as a compact result that does not hold a separate string for
+   * each line. Aligners that were constructed with a
+   * {@link JPLineReceiverType} pass any pending line to the receiver and
+   * return an empty result.
+   *
+   * @return The formatted lines
+   */
+
+  default JPLayoutResult finishCompact()
+  {
+    return JPLayoutResult.of(this.finish());
+  }
+
+  /**
+   * Finish the current layout, effectively resetting it to a blank canvas,
+   * and write each formatted line followed by {@code separator} to the given
+   * output. Aligners that were constructed with a {@link JPLineReceiverType}
+   * pass any pending line to the receiver and write nothing to
+   * {@code output}.
+   *
+   * @param output    The output
+   * @param separator The line separator
+   *
+   * @throws IOException On I/O errors
+   */
+
+  default void finishTo(
+    final Appendable output,
+    final String separator)
+    throws IOException
+  {
+    Objects.requireNonNull(output, "Output");
+    Objects.requireNonNull(separator, "Separator");
+
+    final List<String> lines = this.finish();
+    for (int index = 0; index < lines.size(); ++index) {
+      output.append(lines.get(index));
+      output.append(separator);
+    }
+  }
+
+  /**
+   * Finish the current layout as with {@link #finishTo(Appendable, String)},
+   * using the platform line separator.
+   *
+   * @param output The output
+   *
+   * @throws IOException On I/O errors
+   * @see System#lineSeparator()
+   */
+
+  default void finishTo(
+    final Appendable output)
+    throws IOException
+  {
+    this.finishTo(output, System.lineSeparator());
+  }
+
+  /**
+   * Discard the current layout without producing any lines, leaving the
+   * aligner as it was when it was constructed. Unlike {@link #finish()},
+   * the internal buffers of the aligners provided by this package retain
+   * their capacity up to a modest limit, so an aligner that is reset and
+   * reused does not need to grow its buffers again for text of ordinary
+   * size. Buffers that grew beyond that limit (to lay out an unusually large
+   * document, for example) are released.
+   *
+   * The default implementation calls {@link #finish()} and discards the
+   * result. It may retain capacity or release it, as {@link #finish()}
+   * does, and aligners that were constructed with a
+   * {@link JPLineReceiverType} will pass any pending line to the receiver.
+   * Implementations should override this method to discard their state
+   * directly.
+   */
+
+  default void reset()
+  {
+    this.finish();
+  }
 }
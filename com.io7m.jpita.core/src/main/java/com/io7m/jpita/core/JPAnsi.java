@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * Functions to recognize ECMA-48 (ANSI) escape sequences.
+ */
+
+final class JPAnsi
+{
+  static final char ESC = '\u001b';
+
+  private static final char BEL = '\u0007';
+
+  private JPAnsi()
+  {
+    throw new AssertionError("Unreachable code!");
+  }
+
+  /**
+   * Find the end of the escape sequence that begins with the {@code ESC}
+   * character at {@code index}. Control sequences ({@code ESC [}) end at
+   * the first final byte. Operating system commands ({@code ESC ]}) and
+   * other control strings ({@code ESC P}, {@code ESC X}, {@code ESC ^},
+   * {@code ESC _}) end at {@code BEL} or at the string terminator
+   * {@code ESC \}. All other sequences consist of any number of
+   * intermediate bytes followed by a single final byte. A sequence that is
+   * not terminated before {@code end} extends to {@code end}.
+   *
+   * @param text  The text
+   * @param index The index of the {@code ESC} character
+   * @param end   The end of the text (exclusive)
+   *
+   * @return The index of the first character after the sequence
+   */
+
+  static int skip(
+    final CharSequence text,
+    final int index,
+    final int end)
+  {
+    final int next = index + 1;
+    if (next >= end) {
+      return end;
+    }
+
+    return switch (text.charAt(next)) {
+      case '[' -> skipControlSequence(text, next + 1, end);
+      case ']', 'P', 'X', '^', '_' -> skipControlString(text, next + 1, end);
+      default -> skipEscape(text, next, end);
+    };
+  }
+
+  /**
+   * Append every escape sequence in the range {@code [start, end)} of the
+   * given text to {@code output}, discarding all other characters.
+   *
+   * @param text   The text
+   * @param start  The starting index (inclusive)
+   * @param end    The ending index (exclusive)
+   * @param output The output
+   */
+
+  static void appendSequences(
+    final CharSequence text,
+    final int start,
+    final int end,
+    final StringBuilder output)
+  {
+    int index = start;
+    while (index < end) {
+      if (text.charAt(index) == ESC) {
+        final int next = skip(text, index, end);
+        output.append(text, index, next);
+        index = next;
+      } else {
+        ++index;
+      }
+    }
+  }
+
+  private static int skipControlSequence(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    for (int index = start; index < end; ++index) {
+      final char c = text.charAt(index);
+      if (c >= '@' && c <= '~') {
+        return index + 1;
+      }
+    }
+    return end;
+  }
+
+  private static int skipControlString(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    for (int index = start; index < end; ++index) {
+      final char c = text.charAt(index);
+      if (c == BEL) {
+        return index + 1;
+      }
+      if (c == ESC && index + 1 < end && text.charAt(index + 1) == '\\') {
+        return index + 2;
+      }
+    }
+    return end;
+  }
+
+  private static int skipEscape(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    for (int index = start; index < end; ++index) {
+      final char c = text.charAt(index);
+      if (c >= '0' && c <= '~') {
+        return index + 1;
+      }
+    }
+    return end;
+  }
+}
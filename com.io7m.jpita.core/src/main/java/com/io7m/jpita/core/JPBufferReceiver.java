@@ -0,0 +1,321 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jranges.RangeCheck;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A line receiver that encodes each line directly into a caller-supplied
+ * {@link ByteBuffer}, which may be a direct buffer or a view of off-heap
+ * memory owned by another component (such as the buffer returned by
+ * {@code MemorySegment.asByteBuffer()}). Lines are encoded from the
+ * character sequences passed to the receiver; no strings are created.
+ *
+ * Lines are written in one of two encodings:
+ *
+ * <ul>
+ *   <li>{@link #utf8(ByteBuffer, String)}: each line is encoded as UTF-8,
+ *   followed by a separator.</li>
+ *   <li>{@link #cells(ByteBuffer, int, JPWidthMeasurerType)}: each line is
+ *   written as a row of a fixed number of 32-bit cells, in the byte order
+ *   of the buffer. Each cell holds one code point. A code point that is
+ *   more than one column wide is followed by cells holding zero, and the
+ *   remainder of the row is filled with spaces. Code points that have no
+ *   width are omitted, and code points that do not fit within the row are
+ *   discarded. ANSI escape sequences cannot be represented in cells, and
+ *   are omitted in their entirety.</li>
+ * </ul>
+ *
+ * Each line is either written in full or not at all: a line that does not
+ * fit in the remaining space of the buffer is dropped, and counted by
+ * {@link #linesDropped()}. Once a line has been dropped, every subsequent
+ * line is dropped too, so the buffer never holds output with a line missing
+ * from the middle. The position of the buffer is advanced past each line
+ * written.
+ */
+
+public final class JPBufferReceiver implements JPLineReceiverType
+{
+  private static final int REPLACEMENT = 0xfffd;
+  private static final int SPACE = 0x20;
+
+  private final ByteBuffer target;
+  private final byte[] separator;
+  private final JPWidthMeasurerType measurer;
+  private final int columns;
+  private final int start;
+  private long lines_written;
+  private long lines_dropped;
+
+  private JPBufferReceiver(
+    final ByteBuffer in_target,
+    final byte[] in_separator,
+    final JPWidthMeasurerType in_measurer,
+    final int in_columns)
+  {
+    this.target = in_target;
+    this.separator = in_separator;
+    this.measurer = in_measurer;
+    this.columns = in_columns;
+    this.start = in_target.position();
+  }
+
+  /**
+   * Create a receiver that writes each line as UTF-8, followed by
+   * {@code separator}, starting at the current position of
+   * {@code target}.
+   *
+   * @param target    The target buffer
+   * @param separator The line separator
+   *
+   * @return A new receiver
+   */
+
+  public static JPBufferReceiver utf8(
+    final ByteBuffer target,
+    final String separator)
+  {
+    Objects.requireNonNull(target, "Target");
+    Objects.requireNonNull(separator, "Separator");
+    return new JPBufferReceiver(
+      target,
+      separator.getBytes(StandardCharsets.UTF_8),
+      JPWidthMeasurers.CODE_UNITS,
+      0);
+  }
+
+  /**
+   * Create a receiver that writes each line as a row of {@code columns}
+   * 32-bit cells, starting at the current position of {@code target}. The
+   * widths of code points are determined by {@code measurer}, which should
+   * usually be the measurer used to lay out the lines.
+   *
+   * @param target   The target buffer
+   * @param columns  The number of cells in each row
+   * @param measurer The measurer used to determine the widths of code
+   *                 points
+   *
+   * @return A new receiver
+   */
+
+  public static JPBufferReceiver cells(
+    final ByteBuffer target,
+    final int columns,
+    final JPWidthMeasurerType measurer)
+  {
+    Objects.requireNonNull(target, "Target");
+    Objects.requireNonNull(measurer, "Measurer");
+    RangeCheck.checkGreaterInteger(
+      columns, "Columns", 0, "Minimum columns");
+    return new JPBufferReceiver(target, new byte[0], measurer, columns);
+  }
+
+  /**
+   * @return The number of bytes written to the target buffer
+   */
+
+  public int bytesWritten()
+  {
+    return this.target.position() - this.start;
+  }
+
+  /**
+   * @return The number of lines written to the target buffer
+   */
+
+  public long linesWritten()
+  {
+    return this.lines_written;
+  }
+
+  /**
+   * @return The number of lines that were not written, either because they
+   * did not fit in the target buffer or because an earlier line did not
+   */
+
+  public long linesDropped()
+  {
+    return this.lines_dropped;
+  }
+
+  /**
+   * @return {@code true} if the receiver writes rows of cells
+   */
+
+  public boolean isCells()
+  {
+    return this.columns > 0;
+  }
+
+  @Override
+  public void receiveLine(final CharSequence line)
+  {
+    if (this.lines_dropped > 0L) {
+      ++this.lines_dropped;
+      return;
+    }
+
+    final boolean written;
+    if (this.isCells()) {
+      written = this.writeCells(line);
+    } else {
+      written = this.writeUtf8(line);
+    }
+    if (written) {
+      ++this.lines_written;
+    } else {
+      ++this.lines_dropped;
+    }
+  }
+
+  private boolean writeUtf8(final CharSequence line)
+  {
+    final ByteBuffer t = this.target;
+    final int mark = t.position();
+    final int length = line.length();
+
+    int index = 0;
+    while (index < length) {
+      final int cp = codePointAt(line, index, length);
+      if (cp == -1) {
+        index += 1;
+      } else {
+        index += Character.charCount(cp);
+      }
+      if (!putUtf8(t, cp == -1 ? REPLACEMENT : cp)) {
+        t.position(mark);
+        return false;
+      }
+    }
+
+    if (t.remaining() < this.separator.length) {
+      t.position(mark);
+      return false;
+    }
+    t.put(this.separator);
+    return true;
+  }
+
+  private boolean writeCells(final CharSequence line)
+  {
+    final ByteBuffer t = this.target;
+    final int cols = this.columns;
+    if (t.remaining() < cols * Integer.BYTES) {
+      return false;
+    }
+
+    final JPWidthMeasurerType m = this.measurer;
+    final int length = line.length();
+    int used = 0;
+    int index = 0;
+    while (index < length) {
+      if (line.charAt(index) == JPAnsi.ESC) {
+        index = JPAnsi.skip(line, index, length);
+        continue;
+      }
+      final int cp = codePointAt(line, index, length);
+      final int next = cp == -1 ? index + 1 : index + Character.charCount(cp);
+      final int w = m.measure(line, index, next);
+      index = next;
+      if (w <= 0) {
+        continue;
+      }
+      if (used + w > cols) {
+        break;
+      }
+      putCell(t, cp == -1 ? REPLACEMENT : cp, w);
+      used += w;
+    }
+
+    for (; used < cols; ++used) {
+      t.putInt(SPACE);
+    }
+    return true;
+  }
+
+  private static void putCell(
+    final ByteBuffer t,
+    final int cp,
+    final int width)
+  {
+    t.putInt(cp);
+    for (int k = 1; k < width; ++k) {
+      t.putInt(0);
+    }
+  }
+
+  /**
+   * @return The code point at {@code index}, or -1 for an unpaired
+   * surrogate
+   */
+
+  private static int codePointAt(
+    final CharSequence line,
+    final int index,
+    final int length)
+  {
+    final char c = line.charAt(index);
+    if (!Character.isSurrogate(c)) {
+      return c;
+    }
+    if (index + 1 < length && Character.isHighSurrogate(c)) {
+      final char d = line.charAt(index + 1);
+      if (Character.isLowSurrogate(d)) {
+        return Character.toCodePoint(c, d);
+      }
+    }
+    return -1;
+  }
+
+  private static boolean putUtf8(
+    final ByteBuffer t,
+    final int cp)
+  {
+    if (cp < 0x80) {
+      if (!t.hasRemaining()) {
+        return false;
+      }
+      t.put((byte) cp);
+      return true;
+    }
+    if (cp < 0x800) {
+      if (t.remaining() < 2) {
+        return false;
+      }
+      t.put((byte) (0xc0 | (cp >>> 6)));
+    } else if (cp < 0x10000) {
+      if (t.remaining() < 3) {
+        return false;
+      }
+      t.put((byte) (0xe0 | (cp >>> 12)));
+      t.put((byte) (0x80 | ((cp >>> 6) & 0x3f)));
+    } else {
+      if (t.remaining() < 4) {
+        return false;
+      }
+      t.put((byte) (0xf0 | (cp >>> 18)));
+      t.put((byte) (0x80 | ((cp >>> 12) & 0x3f)));
+      t.put((byte) (0x80 | ((cp >>> 6) & 0x3f)));
+    }
+    t.put((byte) (0x80 | (cp & 0x3f)));
+    return true;
+  }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jranges.RangeCheck;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A formatter that retains the results of recent layouts. Results are
+ * keyed by the content of the formatted words (or text) together with the
+ * layout specification, and so by the width, the overflow behaviour, and
+ * the identity of the decision function. Repeating a layout that is still
+ * in the cache costs one hash computation and one comparison of the
+ * content.
+ *
+ * The cache is divided into segments, each of which holds an equal share of
+ * the capacity (to within one entry, so that the cache never holds more
+ * than its capacity), evicts its least recently used entry when full, and is
+ * guarded by its own lock. Layouts that miss the cache are performed
+ * outside of any lock. Instances may be shared freely between threads.
+ */
+
+public final class JPCachingFormatter
+{
+  private static final int SEGMENTS_MAXIMUM = 16;
+
+  /**
+   * The value returned by a segment for an absent key. This is compared by
+   * identity, so it is distinct from any (possibly empty) cached result.
+   */
+
+  private static final List<String> MISSING = List.of("");
+
+  private final Segment[] segments;
+  private final int capacity;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  private JPCachingFormatter(
+    final int in_capacity)
+  {
+    this.capacity = RangeCheck.checkGreaterInteger(
+      in_capacity, "Capacity", 0, "Minimum capacity");
+
+    /*
+     * The capacity is divided between the segments so that the capacities
+     * of the segments sum to exactly the capacity of the cache. There are
+     * never more segments than entries, so every segment holds at least
+     * one entry.
+     */
+
+    final int count =
+      Math.min(SEGMENTS_MAXIMUM, Integer.highestOneBit(this.capacity));
+    final int each = this.capacity / count;
+    final int extra = this.capacity % count;
+    this.segments = new Segment[count];
+    for (int index = 0; index < count; ++index) {
+      this.segments[index] = new Segment(index < extra ? each + 1 : each);
+    }
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  /**
+   * Create a new formatter.
+   *
+   * @param in_capacity The maximum number of layouts retained
+   *
+   * @return A new formatter
+   */
+
+  public static JPCachingFormatter create(
+    final int in_capacity)
+  {
+    return new JPCachingFormatter(in_capacity);
+  }
+
+  /**
+   * Lay out the given words as a single paragraph, or return the result of
+   * an earlier identical layout.
+   *
+   * @param spec  The layout specification
+   * @param words The words
+   *
+   * @return The formatted lines
+   *
+   * @see JPLayouts#format(JPLayoutSpec, List)
+   */
+
+  public List<String> format(
+    final JPLayoutSpec spec,
+    final List<String> words)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(words, "Words");
+
+    final Key key = new Key(spec, words);
+    final Segment segment = this.segmentFor(key);
+    final List<String> cached = segment.get(key);
+    if (cached != MISSING) {
+      this.hits.increment();
+      return cached;
+    }
+
+    this.misses.increment();
+    final List<String> lines = List.copyOf(JPLayouts.format(spec, words));
+    segment.put(new Key(spec, List.copyOf(words), key.hash), lines);
+    return lines;
+  }
+
+  /**
+   * Lay out the given text, or return the result of an earlier identical
+   * layout.
+   *
+   * @param spec The layout specification
+   * @param text The text
+   *
+   * @return The formatted lines
+   *
+   * @see JPLayouts#formatText(JPLayoutSpec, CharSequence)
+   */
+
+  public List<String> formatText(
+    final JPLayoutSpec spec,
+    final CharSequence text)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(text, "Text");
+
+    final Key key = new Key(spec, text.toString());
+    final Segment segment = this.segmentFor(key);
+    final List<String> cached = segment.get(key);
+    if (cached != MISSING) {
+      this.hits.increment();
+      return cached;
+    }
+
+    this.misses.increment();
+    final List<String> lines =
+      List.copyOf(JPLayouts.formatText(spec, key.content.toString()));
+    segment.put(key, lines);
+    return lines;
+  }
+
+  private Segment segmentFor(
+    final Key key)
+  {
+    final int h = key.hash ^ (key.hash >>> 16);
+    return this.segments[h & (this.segments.length - 1)];
+  }
+
+  /**
+   * @return The maximum number of layouts retained
+   */
+
+  public int capacity()
+  {
+    return this.capacity;
+  }
+
+  /**
+   * @return The number of layouts currently retained
+   */
+
+  public int size()
+  {
+    int size = 0;
+    for (final Segment segment : this.segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * @return The number of layouts that were answered from the cache
+   */
+
+  public long hits()
+  {
+    return this.hits.sum();
+  }
+
+  /**
+   * @return The number of layouts that were not answered from the cache
+   */
+
+  public long misses()
+  {
+    return this.misses.sum();
+  }
+
+  /**
+   * Discard all retained layouts. The hit and miss counters are not reset.
+   */
+
+  public void clear()
+  {
+    for (final Segment segment : this.segments) {
+      segment.clear();
+    }
+  }
+
+  private static final class Key
+  {
+    private final JPLayoutSpec spec;
+    private final Object content;
+    private final int hash;
+
+    Key(
+      final JPLayoutSpec in_spec,
+      final Object in_content)
+    {
+      this(in_spec, in_content, 31 * in_spec.hashCode() + in_content.hashCode());
+    }
+
+    Key(
+      final JPLayoutSpec in_spec,
+      final Object in_content,
+      final int in_hash)
+    {
+      this.spec = in_spec;
+      this.content = in_content;
+      this.hash = in_hash;
+    }
+
+    @Override
+    public boolean equals(
+      final Object other)
+    {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof final Key k)) {
+        return false;
+      }
+      return this.hash == k.hash
+        && this.spec.equals(k.spec)
+        && this.content.equals(k.content);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return this.hash;
+    }
+  }
+
+  private static final class Segment
+  {
+    private final LinkedHashMap<Key, List<String>> entries;
+    private final int capacity;
+
+    Segment(
+      final int in_capacity)
+    {
+      this.capacity = in_capacity;
+      this.entries = new LinkedHashMap<>(in_capacity * 2, 0.75f, true);
+    }
+
+    synchronized List<String> get(
+      final Key key)
+    {
+      return this.entries.getOrDefault(key, MISSING);
+    }
+
+    synchronized void put(
+      final Key key,
+      final List<String> lines)
+    {
+      this.entries.put(key, lines);
+      if (this.entries.size() > this.capacity) {
+        this.entries.pollFirstEntry();
+      }
+    }
+
+    synchronized int size()
+    {
+      return this.entries.size();
+    }
+
+    synchronized void clear()
+    {
+      this.entries.clear();
+    }
+  }
+}
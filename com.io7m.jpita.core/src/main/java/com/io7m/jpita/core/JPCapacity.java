@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * Limits on the capacity that reusable buffers retain when they are reset.
+ * A buffer that grew beyond these limits to handle unusually large input is
+ * released on reset, so that long-lived aligners (such as those held in
+ * pools) do not keep the memory needed by the largest document that they
+ * have ever laid out.
+ */
+
+final class JPCapacity
+{
+  /**
+   * The maximum number of characters retained by a character buffer.
+   */
+
+  static final int RETAINED_CHARACTERS = 8192;
+
+  /**
+   * The maximum number of elements retained by any other buffer.
+   */
+
+  static final int RETAINED_ELEMENTS = 1024;
+
+  private JPCapacity()
+  {
+    throw new AssertionError("Unreachable code!");
+  }
+
+  /**
+   * Empty the given builder, releasing its storage if its capacity exceeds
+   * {@link #RETAINED_CHARACTERS}.
+   *
+   * @param buffer The builder
+   */
+
+  static void reset(
+    final StringBuilder buffer)
+  {
+    buffer.setLength(0);
+    if (buffer.capacity() > RETAINED_CHARACTERS) {
+      buffer.trimToSize();
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The line breaks of a {@link JPMeasuredDocument} at a particular width.
+ * A layout holds only the range of words on each line; the text of a line
+ * is produced each time it is requested. Instances are immutable and may be
+ * shared freely between threads.
+ */
+
+public final class JPDocumentLayout
+{
+  private final JPMeasuredDocument document;
+  private final JPLayoutSpec spec;
+  private final int[] starts;
+  private final int[] ends;
+  private final int count;
+
+  private JPDocumentLayout(
+    final JPMeasuredDocument in_document,
+    final JPLayoutSpec in_spec,
+    final int[] in_starts,
+    final int[] in_ends,
+    final int in_count)
+  {
+    this.document = in_document;
+    this.spec = in_spec;
+    this.starts = in_starts;
+    this.ends = in_ends;
+    this.count = in_count;
+  }
+
+  /**
+   * @return The width of the layout
+   */
+
+  public int width()
+  {
+    return this.spec.width();
+  }
+
+  /**
+   * @return The number of lines
+   */
+
+  public int lineCount()
+  {
+    return this.count;
+  }
+
+  /**
+   * @param line The line index
+   *
+   * @return The index of the first word of the given line within the
+   * document
+   */
+
+  public int lineFirstWord(
+    final int line)
+  {
+    Objects.checkIndex(line, this.count);
+    return this.starts[line];
+  }
+
+  /**
+   * Format a line.
+   *
+   * @param line The line index
+   *
+   * @return The text of the line
+   */
+
+  public String line(
+    final int line)
+  {
+    Objects.checkIndex(line, this.count);
+    final int width = this.spec.width();
+    return this.render(
+      new StringBuilder(width), new JPWordBuffer(width, 16), line);
+  }
+
+  /**
+   * Format the lines {@code [from, to)}.
+   *
+   * @param from The index of the first line (inclusive)
+   * @param to   The index of the last line (exclusive)
+   *
+   * @return The text of the lines
+   */
+
+  public List<String> lines(
+    final int from,
+    final int to)
+  {
+    Objects.checkFromToIndex(from, to, this.count);
+
+    final int width = this.spec.width();
+    final StringBuilder buffer = new StringBuilder(width);
+    final JPWordBuffer words = new JPWordBuffer(width, 16);
+    final List<String> lines = new ArrayList<>(to - from);
+    for (int index = from; index < to; ++index) {
+      lines.add(this.render(buffer, words, index));
+    }
+    return lines;
+  }
+
+  /**
+   * Format every line.
+   *
+   * @return The text of the lines
+   */
+
+  public List<String> lines()
+  {
+    return this.lines(0, this.count);
+  }
+
+  private String render(
+    final StringBuilder buffer,
+    final JPWordBuffer words,
+    final int line)
+  {
+    final int end = this.ends[line];
+    words.clear();
+    for (int index = this.starts[line]; index < end; ++index) {
+      final String word = this.document.word(index);
+      words.add(word, 0, word.length(), this.document.width(index));
+    }
+    return JPGreedy.renderLine(this.spec, buffer, words);
+  }
+
+  /**
+   * A mutable builder of layouts.
+   */
+
+  static final class Builder
+  {
+    private final JPMeasuredDocument document;
+    private final JPLayoutSpec spec;
+    private int[] starts;
+    private int[] ends;
+    private int count;
+
+    Builder(
+      final JPMeasuredDocument in_document,
+      final JPLayoutSpec in_spec,
+      final int in_capacity)
+    {
+      this.document = in_document;
+      this.spec = in_spec;
+      this.starts = new int[Math.max(1, in_capacity)];
+      this.ends = new int[Math.max(1, in_capacity)];
+    }
+
+    void add(
+      final int start,
+      final int end)
+    {
+      if (this.count == this.starts.length) {
+        this.starts = Arrays.copyOf(this.starts, this.count * 2);
+        this.ends = Arrays.copyOf(this.ends, this.count * 2);
+      }
+      this.starts[this.count] = start;
+      this.ends[this.count] = end;
+      ++this.count;
+    }
+
+    boolean lastIsSingle(
+      final int end)
+    {
+      final int last = this.count - 1;
+      return last >= 0
+        && this.ends[last] == end
+        && this.starts[last] == end - 1;
+    }
+
+    JPDocumentLayout build()
+    {
+      return new JPDocumentLayout(
+        this.document, this.spec, this.starts, this.ends, this.count);
+    }
+  }
+}
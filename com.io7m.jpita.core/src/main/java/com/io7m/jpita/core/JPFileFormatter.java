@@ -0,0 +1,394 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jranges.RangeCheck;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * A formatter that reads UTF-8 text from one file and writes the formatted
+ * lines to another.
+ *
+ * The input file is mapped into memory with
+ * {@link FileChannel#map(FileChannel.MapMode, long, long)} in windows of a
+ * fixed size, so files of any size (including those larger than 2GiB) can
+ * be formatted, and the text is never held on the heap. For the
+ * {@link JPLayoutMode#MODE_ALIGN_LEFT} and {@link JPLayoutMode#MODE_JUSTIFY}
+ * engines without hyphenation, words are read directly from the mapped
+ * windows by a {@link JPUtf8Aligner}, and the formatted lines are written
+ * to the output through a direct buffer. Other specifications are handled
+ * by a streaming aligner that decodes the mapped windows as it reads them;
+ * the {@link JPLayoutMode#MODE_JUSTIFY_OPTIMAL} engine retains the words of
+ * one paragraph at a time.
+ *
+ * In both cases the heap memory used is bounded by the sizes of the
+ * internal buffers and of the longest paragraph, and does not depend on the
+ * size of the file. Instances are not thread-safe, but may be used to
+ * format any number of files in turn.
+ *
+ * The JDK provides no means to unmap a file explicitly: each window remains
+ * mapped until its buffer is garbage collected. Formatting allocates very
+ * little on the heap, so the collector may not run while a file is being
+ * formatted, and up to the whole of the file may remain mapped until it
+ * does. This consumes address space (and counts against any limit that the
+ * operating system places on the number of mappings of a process) rather
+ * than heap memory; the pages of the mappings are backed by the file, and
+ * may be reclaimed by the operating system at any time. Larger windows
+ * result in fewer mappings. Applications that format many very large files
+ * in a process with a constrained address space should instead read the
+ * input from a {@link java.nio.channels.ReadableByteChannel} into a
+ * {@link JPUtf8Aligner}.
+ */
+
+public final class JPFileFormatter
+{
+  /**
+   * The default size of the mapped windows of the input file. The windows
+   * are large so that few mappings are created; see the class
+   * documentation for the lifetime of mappings.
+   */
+
+  public static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+
+  private static final int SLICE_SIZE = 1 << 16;
+  private static final int OUTPUT_SIZE = 1 << 18;
+
+  private final JPLayoutSpec spec;
+  private final int window_size;
+  private final StrategyType strategy;
+
+  private JPFileFormatter(
+    final JPLayoutSpec in_spec,
+    final int in_window_size,
+    final StrategyType in_strategy)
+  {
+    this.spec = in_spec;
+    this.window_size = in_window_size;
+    this.strategy = in_strategy;
+  }
+
+  /**
+   * Create a new formatter that ends each line with {@code "\n"} and maps
+   * the input in windows of {@link #DEFAULT_WINDOW_SIZE} bytes.
+   *
+   * @param in_spec The layout specification
+   *
+   * @return A new formatter
+   */
+
+  public static JPFileFormatter create(
+    final JPLayoutSpec in_spec)
+  {
+    return create(in_spec, "\n", DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Create a new formatter.
+   *
+   * @param in_spec        The layout specification
+   * @param in_separator   The line separator
+   * @param in_window_size The size in bytes of the mapped windows of the
+   *                       input file
+   *
+   * @return A new formatter
+   */
+
+  public static JPFileFormatter create(
+    final JPLayoutSpec in_spec,
+    final String in_separator,
+    final int in_window_size)
+  {
+    Objects.requireNonNull(in_spec, "Spec");
+    Objects.requireNonNull(in_separator, "Separator");
+    RangeCheck.checkGreaterInteger(
+      in_window_size, "Window size", 0, "Minimum window size");
+
+    final boolean greedy = in_spec.mode() != JPLayoutMode.MODE_JUSTIFY_OPTIMAL
+      && in_spec.hyphenation().isEmpty();
+    final StrategyType strategy;
+    if (greedy) {
+      strategy = new Utf8Strategy(JPUtf8Aligner.create(in_spec, in_separator));
+    } else {
+      strategy = new ReaderStrategy(in_spec, in_separator);
+    }
+    return new JPFileFormatter(in_spec, in_window_size, strategy);
+  }
+
+  /**
+   * @return The layout specification
+   */
+
+  public JPLayoutSpec spec()
+  {
+    return this.spec;
+  }
+
+  /**
+   * Format the text in {@code input}, replacing the contents of
+   * {@code output} with the formatted lines.
+   *
+   * @param input  The input file
+   * @param output The output file
+   *
+   * @return The size in bytes of the output file
+   *
+   * @throws IOException              On I/O errors
+   * @throws IllegalArgumentException If the input and output are the same
+   *                                  file
+   */
+
+  public long format(
+    final Path input,
+    final Path output)
+    throws IOException
+  {
+    Objects.requireNonNull(input, "Input");
+    Objects.requireNonNull(output, "Output");
+
+    if (Files.exists(output) && Files.isSameFile(input, output)) {
+      throw new IllegalArgumentException(
+        String.format("Input and output are the same file: %s", input));
+    }
+
+    try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+         FileChannel out = FileChannel.open(
+           output,
+           StandardOpenOption.WRITE,
+           StandardOpenOption.CREATE,
+           StandardOpenOption.TRUNCATE_EXISTING)) {
+      this.strategy.format(new Windows(in, this.window_size), out);
+      return out.size();
+    }
+  }
+
+  /**
+   * A means of formatting the mapped windows of a file.
+   */
+
+  private interface StrategyType
+  {
+    void format(
+      Windows input,
+      FileChannel output)
+      throws IOException;
+  }
+
+  /**
+   * The windows of a file, mapped in turn.
+   */
+
+  private static final class Windows
+  {
+    private final FileChannel channel;
+    private final long size;
+    private final int window_size;
+    private long position;
+
+    Windows(
+      final FileChannel in_channel,
+      final int in_window_size)
+      throws IOException
+    {
+      this.channel = in_channel;
+      this.size = in_channel.size();
+      this.window_size = in_window_size;
+    }
+
+    /**
+     * @return The next window, which is empty at the end of the file
+     */
+
+    MappedByteBuffer next()
+      throws IOException
+    {
+      final long length =
+        Math.min((long) this.window_size, this.size - this.position);
+      final MappedByteBuffer map = this.channel.map(
+        FileChannel.MapMode.READ_ONLY, this.position, length);
+      this.position += length;
+      return map;
+    }
+  }
+
+  /**
+   * Words are read from the mapped windows as bytes. Each window is passed
+   * to the aligner in slices, and the lines produced by each slice are
+   * written to the output before the next slice is read, so that the
+   * pending output of the aligner remains small.
+   */
+
+  private static final class Utf8Strategy implements StrategyType
+  {
+    private final JPUtf8Aligner aligner;
+    private final ByteBuffer buffer;
+
+    Utf8Strategy(
+      final JPUtf8Aligner in_aligner)
+    {
+      this.aligner = in_aligner;
+      this.buffer = ByteBuffer.allocateDirect(OUTPUT_SIZE);
+    }
+
+    @Override
+    public void format(
+      final Windows input,
+      final FileChannel output)
+      throws IOException
+    {
+      this.aligner.reset();
+      this.buffer.clear();
+
+      while (true) {
+        final MappedByteBuffer window = input.next();
+        final int length = window.limit();
+        if (length == 0) {
+          break;
+        }
+        for (int offset = 0; offset < length; offset += SLICE_SIZE) {
+          final int count = Math.min(SLICE_SIZE, length - offset);
+          this.aligner.addText(window.slice(offset, count));
+          this.drain(output);
+        }
+      }
+
+      this.aligner.finish();
+      this.drain(output);
+      this.write(output);
+    }
+
+    private void drain(
+      final FileChannel output)
+      throws IOException
+    {
+      while (!this.aligner.drainTo(this.buffer)) {
+        this.write(output);
+      }
+    }
+
+    private void write(
+      final FileChannel output)
+      throws IOException
+    {
+      this.buffer.flip();
+      while (this.buffer.hasRemaining()) {
+        output.write(this.buffer);
+      }
+      this.buffer.clear();
+    }
+  }
+
+  /**
+   * The mapped windows are decoded by a reader, and passed to a streaming
+   * aligner that encodes each line to the output as it is completed.
+   */
+
+  private static final class ReaderStrategy implements StrategyType
+  {
+    private final JPLayoutSpec spec;
+    private final String separator;
+
+    ReaderStrategy(
+      final JPLayoutSpec in_spec,
+      final String in_separator)
+    {
+      this.spec = in_spec;
+      this.separator = in_separator;
+    }
+
+    @Override
+    public void format(
+      final Windows input,
+      final FileChannel output)
+      throws IOException
+    {
+      try (Reader reader = new InputStreamReader(
+        new WindowStream(input), StandardCharsets.UTF_8)) {
+        final Writer writer =
+          Channels.newWriter(output, StandardCharsets.UTF_8);
+        final JPAlignerType aligner = this.spec.createAligner(
+          JPLineReceiverType.appending(writer, this.separator));
+        aligner.addText(reader);
+        aligner.finish();
+        writer.flush();
+      } catch (final UncheckedIOException e) {
+        throw new IOException(e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * An input stream over the mapped windows of a file.
+   */
+
+  private static final class WindowStream extends InputStream
+  {
+    private final Windows windows;
+    private ByteBuffer window;
+
+    WindowStream(
+      final Windows in_windows)
+    {
+      this.windows = in_windows;
+      this.window = ByteBuffer.allocate(0);
+    }
+
+    @Override
+    public int read()
+      throws IOException
+    {
+      final byte[] b = new byte[1];
+      return this.read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(
+      final byte[] b,
+      final int offset,
+      final int length)
+      throws IOException
+    {
+      Objects.checkFromIndexSize(offset, length, b.length);
+      if (length == 0) {
+        return 0;
+      }
+      if (!this.window.hasRemaining()) {
+        this.window = this.windows.next();
+        if (!this.window.hasRemaining()) {
+          return -1;
+        }
+      }
+      final int count = Math.min(length, this.window.remaining());
+      this.window.get(b, offset, count);
+      return count;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event describing a call to {@link JPAlignerType#finish()}
+ * (or one of its variants). The counts cover all of the text added to the
+ * aligner since the previous call; the duration of the event is the
+ * duration of the call, including the time taken to collect the lines or
+ * to write them to the output.
+ */
+
+@Name(JPFinishEvent.NAME)
+@Label("Finish")
+@Category("jpita")
+@Description("The completion of a layout")
+@Enabled(false)
+@StackTrace(false)
+final class JPFinishEvent extends Event
+{
+  static final String NAME = "jpita.Finish";
+
+  @Label("Width")
+  @Description("The maximum width of lines")
+  private int width;
+
+  @Label("Paragraphs")
+  @Description("The number of paragraphs in the layout")
+  private int paragraphs;
+
+  @Label("Words")
+  @Description("The number of words in the layout")
+  private int words;
+
+  @Label("Lines")
+  @Description("The number of lines produced")
+  private int lines;
+
+  @Label("Overflows")
+  @Description("The number of words that could not fit on any line")
+  private int overflows;
+
+  @Label("Unjustified Lines")
+  @Description("The number of lines that the decider declined to justify")
+  private int unjustified;
+
+  JPFinishEvent()
+  {
+
+  }
+
+  void set(
+    final int in_width,
+    final int in_paragraphs,
+    final int in_words,
+    final int in_lines,
+    final int in_overflows,
+    final int in_unjustified)
+  {
+    this.width = in_width;
+    this.paragraphs = in_paragraphs;
+    this.words = in_words;
+    this.lines = in_lines;
+    this.overflows = in_overflows;
+    this.unjustified = in_unjustified;
+  }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.List;
+
+/**
+ * Functions shared by the layouts that reproduce the line breaks of the
+ * greedy aligners ({@link JPAlignerBasic} and {@link JPJustifierBasic})
+ * from precomputed word widths.
+ */
+
+final class JPGreedy
+{
+  private JPGreedy()
+  {
+    throw new AssertionError("Unreachable code!");
+  }
+
+  /**
+   * The display widths of a sequence of words, which may be measured in
+   * advance or as they are requested.
+   */
+
+  interface WordWidthsType
+  {
+    /**
+     * @param index The word index
+     *
+     * @return The display width of the word at {@code index}
+     */
+
+    int width(int index);
+  }
+
+  /**
+   * The widths of a list of words, measured as they are requested. The
+   * width of the most recently requested word is retained, so that the
+   * word that ends one line is not measured again when it begins the next.
+   */
+
+  static final class MeasuredWords implements WordWidthsType
+  {
+    private final JPWidthMeasurerType measurer;
+    private List<String> words;
+    private int last_index;
+    private int last_width;
+
+    MeasuredWords(
+      final JPWidthMeasurerType in_measurer)
+    {
+      this.measurer = in_measurer;
+      this.words = List.of();
+      this.last_index = -1;
+    }
+
+    void setWords(
+      final List<String> in_words)
+    {
+      if (in_words != this.words) {
+        this.words = in_words;
+        this.last_index = -1;
+      }
+    }
+
+    @Override
+    public int width(
+      final int index)
+    {
+      if (index != this.last_index) {
+        this.last_width = measureWord(this.measurer, this.words.get(index));
+        this.last_index = index;
+      }
+      return this.last_width;
+    }
+  }
+
+  /**
+   * Check that the given specification uses a greedy engine without
+   * hyphenation.
+   *
+   * @param spec The specification
+   *
+   * @throws IllegalArgumentException If the specification is not supported
+   */
+
+  static void checkSupported(
+    final JPLayoutSpec spec)
+  {
+    final JPLayoutMode mode = spec.mode();
+    final boolean hyphenate = !spec.hyphenation().isEmpty();
+    if (mode == JPLayoutMode.MODE_JUSTIFY_OPTIMAL || hyphenate) {
+      throw new IllegalArgumentException(
+        String.format(
+          "This layout requires a greedy mode without hyphenation "
+            + "(mode %s, hyphenation %s)",
+          mode,
+          Boolean.valueOf(hyphenate)));
+    }
+  }
+
+  /**
+   * The greedy aligners place a word on a line if the sum of the widths of
+   * the words on the line, each plus one column of space, does not exceed
+   * this limit.
+   *
+   * @param spec The specification
+   *
+   * @return The limit
+   */
+
+  static int lineLimit(
+    final JPLayoutSpec spec)
+  {
+    final int width = spec.width();
+    return spec.mode() == JPLayoutMode.MODE_JUSTIFY ? width - 1 : width;
+  }
+
+  /**
+   * @param spec       The specification
+   * @param word_width The width of a word that is alone on a line
+   *
+   * @return {@code true} if the word is formatted by the overflow behaviour
+   */
+
+  static boolean isOverflow(
+    final JPLayoutSpec spec,
+    final int word_width)
+  {
+    return spec.mode() == JPLayoutMode.MODE_JUSTIFY
+      && word_width >= spec.width();
+  }
+
+  /**
+   * Find the end of the line that begins with the word at {@code start},
+   * exactly as the greedy aligner for the given specification would: the
+   * first word is always placed on the line, and each following word is
+   * placed on it if the sum of the widths of the words on the line, each
+   * plus one column of space, does not exceed {@link #lineLimit}. A first
+   * word that is formatted by the overflow behaviour (see
+   * {@link #isOverflow}) is placed on a line of its own. This is the single
+   * statement of the line breaking rule for all layouts that work from word
+   * widths; {@link JPMeasuredDocument} applies the same rule to prefix sums
+   * of widths by binary search.
+   *
+   * @param spec   The specification
+   * @param widths The widths of the words
+   * @param start  The index of the first word of the line
+   * @param count  The number of words in the paragraph
+   *
+   * @return The index of the word following the last word of the line, or
+   * the bitwise complement of that index if the line consists of a single
+   * word that is formatted by the overflow behaviour
+   */
+
+  static int lineEnd(
+    final JPLayoutSpec spec,
+    final WordWidthsType widths,
+    final int start,
+    final int count)
+  {
+    final int limit = lineLimit(spec);
+
+    int sum = 0;
+    for (int index = start; index < count; ++index) {
+      final int word_width = widths.width(index);
+      if (sum > 0 && sum + word_width + 1 > limit) {
+        return index;
+      }
+      if (sum == 0 && isOverflow(spec, word_width)) {
+        return ~(index + 1);
+      }
+      sum += word_width + 1;
+    }
+    return count;
+  }
+
+  /**
+   * Measure a word, ignoring leading and trailing whitespace, as the greedy
+   * aligners do.
+   *
+   * @param measurer The width measurer
+   * @param word     The word
+   *
+   * @return The display width of the word
+   */
+
+  static int measureWord(
+    final JPWidthMeasurerType measurer,
+    final String word)
+  {
+    final int length = word.length();
+    final int ws = JPText.trimStart(word, 0, length);
+    final int we = JPText.trimEnd(word, ws, length);
+    return measurer.measure(word, ws, we);
+  }
+
+  /**
+   * Format a line holding the words in the given buffer.
+   *
+   * @param spec   The specification
+   * @param buffer The output buffer
+   * @param words  The words on the line
+   *
+   * @return The text of the line
+   */
+
+  static String renderLine(
+    final JPLayoutSpec spec,
+    final StringBuilder buffer,
+    final JPWordBuffer words)
+  {
+    final int count = words.count();
+    buffer.setLength(0);
+
+    if (spec.mode() == JPLayoutMode.MODE_ALIGN_LEFT) {
+      for (int index = 0; index < count; ++index) {
+        words.appendTo(index, buffer);
+        buffer.append(' ');
+      }
+      JPText.trimInPlace(buffer);
+      return buffer.toString();
+    }
+
+    if (count == 1 && isOverflow(spec, words.width(0))) {
+      words.appendTo(0, buffer);
+      if (spec.overflow() == JPOverflowBehaviour.OVERFLOW_TRUNCATE) {
+        final String word = buffer.toString();
+        buffer.setLength(0);
+        JPText.appendTruncated(
+          spec.measurer(), word, 0, word.length(), spec.width() - 1, buffer);
+      }
+      return buffer.toString();
+    }
+
+    JPJustification.justifyLine(
+      buffer, spec.decider(), spec.width(), words, 0, count);
+    return buffer.toString();
+  }
+
+  /**
+   * Break the given words into lines exactly as the greedy aligner for the
+   * given specification would, without building any text. The index of the
+   * first word of each line is written to {@code starts}, for as many lines
+   * as the array can hold; the remaining lines are counted but not
+   * recorded.
+   *
+   * @param spec   The specification
+   * @param words  The words
+   * @param starts The output array of line starts
+   *
+   * @return The number of lines
+   */
+
+  static int breakLines(
+    final JPLayoutSpec spec,
+    final List<String> words,
+    final int[] starts)
+  {
+    final MeasuredWords widths = new MeasuredWords(spec.measurer());
+    widths.setWords(words);
+    final int count = words.size();
+
+    int lines = 0;
+    int line_start = 0;
+    while (line_start < count) {
+      lines = record(starts, lines, line_start);
+      final int end = lineEnd(spec, widths, line_start, count);
+      line_start = end < 0 ? ~end : end;
+    }
+    return lines;
+  }
+
+  private static int record(
+    final int[] starts,
+    final int lines,
+    final int start)
+  {
+    if (lines < starts.length) {
+      starts[lines] = start;
+    }
+    return lines + 1;
+  }
+}
@@ -0,0 +1,545 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jranges.RangeCheck;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * A compiled set of Liang hyphenation patterns, in the form used by TeX.
+ *
+ * A pattern such as {@code hen5at} consists of letters interleaved with
+ * digits. When the letters of a pattern occur in a word, each digit is
+ * applied to the position between the adjacent letters; after all matching
+ * patterns have been applied, the largest digit at each position decides
+ * whether the word may be broken there (odd) or not (even). A {@code .} at
+ * either end of a pattern matches only at the corresponding end of a word.
+ *
+ * The patterns are compiled into a trie that is stored in a handful of
+ * flat arrays: the edges leaving each node are stored contiguously and
+ * sorted by character, and the digits of all patterns share a single
+ * array. Instances are immutable and may be shared freely between threads.
+ */
+
+public final class JPHyphenationPatterns
+{
+  private static final JPHyphenationPatterns NONE =
+    new JPHyphenationPatterns(
+      new int[]{0, 0},
+      new char[0],
+      new int[0],
+      new int[]{-1},
+      new byte[0],
+      Map.of(),
+      1,
+      1);
+
+  private final int[] node_edges;
+  private final char[] edge_labels;
+  private final int[] edge_targets;
+  private final int[] node_values;
+  private final byte[] values;
+  private final Map<String, int[]> exceptions;
+  private final int left_minimum;
+  private final int right_minimum;
+
+  private JPHyphenationPatterns(
+    final int[] in_node_edges,
+    final char[] in_edge_labels,
+    final int[] in_edge_targets,
+    final int[] in_node_values,
+    final byte[] in_values,
+    final Map<String, int[]> in_exceptions,
+    final int in_left_minimum,
+    final int in_right_minimum)
+  {
+    this.node_edges = in_node_edges;
+    this.edge_labels = in_edge_labels;
+    this.edge_targets = in_edge_targets;
+    this.node_values = in_node_values;
+    this.values = in_values;
+    this.exceptions = in_exceptions;
+    this.left_minimum = in_left_minimum;
+    this.right_minimum = in_right_minimum;
+  }
+
+  /**
+   * @return A set of patterns that never permits hyphenation
+   */
+
+  public static JPHyphenationPatterns none()
+  {
+    return NONE;
+  }
+
+  /**
+   * Compile a set of patterns.
+   *
+   * @param patterns         The patterns, such as {@code hen5at}
+   * @param exceptions       Words hyphenated explicitly, such as
+   *                         {@code as-so-ciate}, that override the patterns
+   * @param in_left_minimum  The minimum number of characters before a
+   *                         hyphen
+   * @param in_right_minimum The minimum number of characters after a hyphen
+   *
+   * @return The compiled patterns
+   */
+
+  public static JPHyphenationPatterns compile(
+    final Collection<String> patterns,
+    final Collection<String> exceptions,
+    final int in_left_minimum,
+    final int in_right_minimum)
+  {
+    Objects.requireNonNull(patterns, "Patterns");
+    Objects.requireNonNull(exceptions, "Exceptions");
+    RangeCheck.checkGreaterInteger(
+      in_left_minimum, "Left minimum", 0, "Minimum left minimum");
+    RangeCheck.checkGreaterInteger(
+      in_right_minimum, "Right minimum", 0, "Minimum right minimum");
+
+    final Builder builder = new Builder();
+    for (final String pattern : patterns) {
+      builder.add(Objects.requireNonNull(pattern, "Pattern"));
+    }
+
+    final Map<String, int[]> exception_points =
+      new HashMap<>(exceptions.size() * 2);
+    for (final String exception : exceptions) {
+      addException(
+        Objects.requireNonNull(exception, "Exception"), exception_points);
+    }
+
+    return builder.build(
+      Map.copyOf(exception_points), in_left_minimum, in_right_minimum);
+  }
+
+  private static void addException(
+    final String exception,
+    final Map<String, int[]> output)
+  {
+    final int length = exception.length();
+    final char[] word = new char[length];
+    final int[] points = new int[length];
+    int letters = 0;
+    int count = 0;
+    for (int index = 0; index < length; ++index) {
+      final char c = exception.charAt(index);
+      if (c == '-') {
+        points[count] = letters;
+        ++count;
+      } else {
+        word[letters] = Character.toLowerCase(c);
+        ++letters;
+      }
+    }
+    output.put(String.valueOf(word, 0, letters), Arrays.copyOf(points, count));
+  }
+
+  /**
+   * Parse and compile patterns in the format of TeX hyphenation files:
+   * whitespace-separated patterns, with comments introduced by {@code %}.
+   * If the text contains {@code \patterns{...}} and
+   * {@code \hyphenation{...}} groups, the words within each group are
+   * treated as patterns and exceptions respectively; otherwise, every word
+   * is treated as a pattern.
+   *
+   * @param reader           The reader
+   * @param in_left_minimum  The minimum number of characters before a
+   *                         hyphen
+   * @param in_right_minimum The minimum number of characters after a hyphen
+   *
+   * @return The compiled patterns
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static JPHyphenationPatterns parse(
+    final Reader reader,
+    final int in_left_minimum,
+    final int in_right_minimum)
+    throws IOException
+  {
+    Objects.requireNonNull(reader, "Reader");
+
+    final List<String> patterns = new ArrayList<>();
+    final List<String> exceptions = new ArrayList<>();
+    List<String> target = patterns;
+
+    final StringBuilder token = new StringBuilder(16);
+    boolean comment = false;
+    while (true) {
+      final int c = reader.read();
+      if (c == '\n' || c == '\r') {
+        comment = false;
+      }
+      if (c == '%') {
+        comment = true;
+      }
+      if (c != -1 && (comment || !isSeparator((char) c))) {
+        if (!comment) {
+          token.append((char) c);
+        }
+        continue;
+      }
+
+      if (!token.isEmpty()) {
+        target = parseToken(token.toString(), target, patterns, exceptions);
+        token.setLength(0);
+      }
+      if (c == -1) {
+        break;
+      }
+    }
+
+    return compile(patterns, exceptions, in_left_minimum, in_right_minimum);
+  }
+
+  private static boolean isSeparator(
+    final char c)
+  {
+    return c == '{' || c == '}' || JPText.isWhitespace(c);
+  }
+
+  private static List<String> parseToken(
+    final String token,
+    final List<String> target,
+    final List<String> patterns,
+    final List<String> exceptions)
+  {
+    return switch (token) {
+      case "\\patterns" -> patterns;
+      case "\\hyphenation" -> exceptions;
+      default -> {
+        target.add(token);
+        yield target;
+      }
+    };
+  }
+
+  /**
+   * @return {@code true} if these patterns can never permit hyphenation
+   */
+
+  public boolean isEmpty()
+  {
+    return this.edge_labels.length == 0 && this.exceptions.isEmpty();
+  }
+
+  /**
+   * @return The minimum number of characters before a hyphen
+   */
+
+  public int leftMinimum()
+  {
+    return this.left_minimum;
+  }
+
+  /**
+   * @return The minimum number of characters after a hyphen
+   */
+
+  public int rightMinimum()
+  {
+    return this.right_minimum;
+  }
+
+  /**
+   * Determine the positions at which the given word may be hyphenated.
+   *
+   * @param word The word
+   *
+   * @return The offsets, in ascending order, of the characters before which
+   * a hyphen may be placed
+   */
+
+  public int[] hyphenate(
+    final String word)
+  {
+    Objects.requireNonNull(word, "Word");
+    final int length = word.length();
+    final int[] points = new int[length];
+    final int count = this.hyphenate(
+      word,
+      0,
+      length,
+      new char[length + 2],
+      new byte[length + 3],
+      points);
+    return Arrays.copyOf(points, count);
+  }
+
+  /**
+   * Determine the positions at which the word in the range
+   * {@code [start, end)} may be hyphenated. Leading and trailing characters
+   * that are not letters (such as punctuation) are ignored, and words that
+   * contain other characters that are not letters are not hyphenated.
+   *
+   * @param text        The text
+   * @param start       The start of the word (inclusive)
+   * @param end         The end of the word (exclusive)
+   * @param scratch     Scratch space of at least {@code end - start + 2}
+   *                    characters
+   * @param levels      Scratch space of at least {@code end - start + 3}
+   *                    bytes
+   * @param out_points  The output array of at least {@code end - start}
+   *                    elements, which receives offsets relative to
+   *                    {@code start}
+   *
+   * @return The number of points written to {@code out_points}
+   */
+
+  int hyphenate(
+    final CharSequence text,
+    final int start,
+    final int end,
+    final char[] scratch,
+    final byte[] levels,
+    final int[] out_points)
+  {
+    int ws = start;
+    while (ws < end && !Character.isLetter(text.charAt(ws))) {
+      ++ws;
+    }
+    int we = end;
+    while (we > ws && !Character.isLetter(text.charAt(we - 1))) {
+      --we;
+    }
+
+    final int count =
+      this.hyphenateLetters(text, ws, we, scratch, levels, out_points);
+    final int offset = ws - start;
+    for (int index = 0; index < count; ++index) {
+      out_points[index] += offset;
+    }
+    return count;
+  }
+
+  private int hyphenateLetters(
+    final CharSequence text,
+    final int start,
+    final int end,
+    final char[] scratch,
+    final byte[] levels,
+    final int[] out_points)
+  {
+    final int length = end - start;
+    if (length < this.left_minimum + this.right_minimum) {
+      return 0;
+    }
+
+    scratch[0] = '.';
+    for (int index = 0; index < length; ++index) {
+      final char c = text.charAt(start + index);
+      if (!Character.isLetter(c)) {
+        return 0;
+      }
+      scratch[index + 1] = Character.toLowerCase(c);
+    }
+    scratch[length + 1] = '.';
+
+    if (!this.exceptions.isEmpty()) {
+      final int[] exception =
+        this.exceptions.get(String.valueOf(scratch, 1, length));
+      if (exception != null) {
+        System.arraycopy(exception, 0, out_points, 0, exception.length);
+        return exception.length;
+      }
+    }
+
+    Arrays.fill(levels, 0, length + 3, (byte) 0);
+    for (int index = 0; index < length + 2; ++index) {
+      this.match(scratch, index, length + 2, levels);
+    }
+
+    int count = 0;
+    final int last = length - this.right_minimum;
+    for (int point = this.left_minimum; point <= last; ++point) {
+      if ((levels[point + 1] & 1) == 1) {
+        out_points[count] = point;
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Apply every pattern that matches at {@code start} of the given text.
+   */
+
+  private void match(
+    final char[] text,
+    final int start,
+    final int end,
+    final byte[] levels)
+  {
+    int node = 0;
+    for (int index = start; index < end; ++index) {
+      node = this.child(node, text[index]);
+      if (node < 0) {
+        return;
+      }
+
+      final int offset = this.node_values[node];
+      if (offset >= 0) {
+        final int count = index - start + 2;
+        for (int k = 0; k < count; ++k) {
+          final byte v = this.values[offset + k];
+          if (v > levels[start + k]) {
+            levels[start + k] = v;
+          }
+        }
+      }
+    }
+  }
+
+  private int child(
+    final int node,
+    final char c)
+  {
+    int low = this.node_edges[node];
+    int high = this.node_edges[node + 1] - 1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final char label = this.edge_labels[middle];
+      if (label < c) {
+        low = middle + 1;
+      } else if (label > c) {
+        high = middle - 1;
+      } else {
+        return this.edge_targets[middle];
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * A mutable trie used only during compilation.
+   */
+
+  private static final class Builder
+  {
+    private final List<TreeMap<Character, Integer>> children;
+    private final List<byte[]> node_levels;
+
+    Builder()
+    {
+      this.children = new ArrayList<>();
+      this.node_levels = new ArrayList<>();
+      this.children.add(new TreeMap<>());
+      this.node_levels.add(null);
+    }
+
+    void add(
+      final String pattern)
+    {
+      final int length = pattern.length();
+      final char[] letters = new char[length];
+      final byte[] digits = new byte[length + 1];
+      int count = 0;
+      for (int index = 0; index < length; ++index) {
+        final char c = pattern.charAt(index);
+        if (c >= '0' && c <= '9') {
+          digits[count] = (byte) (c - '0');
+        } else {
+          letters[count] = Character.toLowerCase(c);
+          ++count;
+        }
+      }
+      if (count == 0) {
+        return;
+      }
+
+      int node = 0;
+      for (int index = 0; index < count; ++index) {
+        final Character c = Character.valueOf(letters[index]);
+        final TreeMap<Character, Integer> edges = this.children.get(node);
+        final Integer next = edges.get(c);
+        if (next == null) {
+          final int created = this.children.size();
+          this.children.add(new TreeMap<>());
+          this.node_levels.add(null);
+          edges.put(c, Integer.valueOf(created));
+          node = created;
+        } else {
+          node = next.intValue();
+        }
+      }
+      this.node_levels.set(node, Arrays.copyOf(digits, count + 1));
+    }
+
+    JPHyphenationPatterns build(
+      final Map<String, int[]> exceptions,
+      final int left_minimum,
+      final int right_minimum)
+    {
+      final int nodes = this.children.size();
+      final int[] node_edges = new int[nodes + 1];
+      final int[] node_values = new int[nodes];
+      final char[] edge_labels = new char[nodes - 1];
+      final int[] edge_targets = new int[nodes - 1];
+
+      int value_count = 0;
+      for (final byte[] levels : this.node_levels) {
+        value_count += levels == null ? 0 : levels.length;
+      }
+      final byte[] values = new byte[value_count];
+
+      int edge = 0;
+      int value = 0;
+      for (int node = 0; node < nodes; ++node) {
+        node_edges[node] = edge;
+        final TreeMap<Character, Integer> edges = this.children.get(node);
+        for (final Map.Entry<Character, Integer> e : edges.entrySet()) {
+          edge_labels[edge] = e.getKey().charValue();
+          edge_targets[edge] = e.getValue().intValue();
+          ++edge;
+        }
+
+        final byte[] levels = this.node_levels.get(node);
+        if (levels == null) {
+          node_values[node] = -1;
+        } else {
+          node_values[node] = value;
+          System.arraycopy(levels, 0, values, value, levels.length);
+          value += levels.length;
+        }
+      }
+      node_edges[nodes] = edge;
+
+      return new JPHyphenationPatterns(
+        node_edges,
+        edge_labels,
+        edge_targets,
+        node_values,
+        values,
+        exceptions,
+        left_minimum,
+        right_minimum);
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.Objects;
+
+/**
+ * A hyphenator owned by a single aligner. Hyphenation points are looked up
+ * in a small direct-mapped cache keyed by the characters of each word, so
+ * that the words that occur most frequently in a text are only matched
+ * against the patterns once; lookups that hit the cache do not allocate.
+ * Instances are not thread-safe.
+ */
+
+final class JPHyphenator
+{
+  private static final int CACHE_SIZE = 512;
+
+  private final JPHyphenationPatterns patterns;
+  private final boolean enabled;
+  private final char[][] cache_words;
+  private final int[] cache_lengths;
+  private final int[][] cache_points;
+  private final int[] cache_counts;
+  private char[] scratch;
+  private byte[] levels;
+  private int[] result;
+  private int result_count;
+  private boolean cache_oversized;
+
+  JPHyphenator(
+    final JPHyphenationPatterns in_patterns)
+  {
+    this.patterns = Objects.requireNonNull(in_patterns, "Patterns");
+    this.enabled = !in_patterns.isEmpty();
+    this.cache_words = new char[CACHE_SIZE][];
+    this.cache_lengths = new int[CACHE_SIZE];
+    this.cache_points = new int[CACHE_SIZE][];
+    this.cache_counts = new int[CACHE_SIZE];
+    this.scratch = new char[32];
+    this.levels = new byte[32];
+    this.result = new int[0];
+    this.result_count = 0;
+  }
+
+  /**
+   * @return {@code true} if hyphenation is possible at all
+   */
+
+  boolean isEnabled()
+  {
+    return this.enabled;
+  }
+
+  /**
+   * Find the hyphenation points of the word in the range {@code [start,
+   * end)}. The points are available from {@link #point(int)} until the next
+   * call to this method.
+   *
+   * @param text  The text
+   * @param start The start of the word (inclusive)
+   * @param end   The end of the word (exclusive)
+   *
+   * @return The number of hyphenation points
+   */
+
+  int hyphenate(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    final int length = end - start;
+    int hash = length;
+    for (int index = start; index < end; ++index) {
+      hash = 31 * hash + text.charAt(index);
+    }
+    final int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+
+    final char[] cached = this.cache_words[slot];
+    if (cached != null
+      && this.cache_lengths[slot] == length
+      && matches(cached, text, start, end)) {
+      this.result = this.cache_points[slot];
+      this.result_count = this.cache_counts[slot];
+      return this.result_count;
+    }
+
+    return this.compute(slot, text, start, end);
+  }
+
+  /**
+   * @param index The index of the point
+   *
+   * @return The offset, relative to the start of the word, of the character
+   * before which a hyphen may be placed
+   */
+
+  int point(
+    final int index)
+  {
+    return this.result[index];
+  }
+
+  private int compute(
+    final int slot,
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    final int length = end - start;
+    if (this.scratch.length < length + 2) {
+      this.scratch = new char[length + 2];
+    }
+    if (this.levels.length < length + 3) {
+      this.levels = new byte[length + 3];
+    }
+
+    char[] word = this.cache_words[slot];
+    int[] points = this.cache_points[slot];
+    if (word == null || word.length < length) {
+      word = new char[Math.max(16, length)];
+      points = new int[word.length];
+      this.cache_words[slot] = word;
+      this.cache_points[slot] = points;
+      this.cache_oversized |= word.length > JPCapacity.RETAINED_CHARACTERS;
+    }
+
+    final int count = this.patterns.hyphenate(
+      text, start, end, this.scratch, this.levels, points);
+    JPText.copy(text, start, end, word, 0);
+    this.cache_lengths[slot] = length;
+    this.cache_counts[slot] = count;
+    this.result = points;
+    this.result_count = count;
+    return count;
+  }
+
+  /**
+   * Release any storage beyond the limits given in {@link JPCapacity},
+   * evicting cached words that are longer than the limit.
+   */
+
+  void reset()
+  {
+    if (this.scratch.length > JPCapacity.RETAINED_CHARACTERS) {
+      this.scratch = new char[32];
+      this.levels = new byte[32];
+    }
+    if (this.cache_oversized) {
+      for (int slot = 0; slot < CACHE_SIZE; ++slot) {
+        final char[] word = this.cache_words[slot];
+        if (word != null && word.length > JPCapacity.RETAINED_CHARACTERS) {
+          this.cache_words[slot] = null;
+          this.cache_points[slot] = null;
+        }
+      }
+      this.cache_oversized = false;
+    }
+    this.result = new int[0];
+    this.result_count = 0;
+  }
+
+  private static boolean matches(
+    final char[] cached,
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    for (int index = start; index < end; ++index) {
+      if (cached[index - start] != text.charAt(index)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A layout of a single paragraph that is updated incrementally as words are
+ * inserted, deleted, or replaced.
+ *
+ * The layout retains the width of every word and the index of the first
+ * word of every line. Because the greedy layout engines decide where each
+ * line ends by looking only at the words from the start of that line, an
+ * edit can only affect the line containing the edited word, the line
+ * before it, and the lines that follow. The paragraph is therefore re-flowed
+ * from the line before the edit, and re-flowing stops as soon as a line
+ * ends at a word that began a line in the previous layout and that follows
+ * the edit: every later line is then known to be unchanged. Only the words
+ * of re-flowed lines are examined, and only re-flowed lines are rendered.
+ *
+ * Only the {@link JPLayoutMode#MODE_ALIGN_LEFT} and
+ * {@link JPLayoutMode#MODE_JUSTIFY} engines are supported, without
+ * hyphenation; the line breaks produced by
+ * {@link JPLayoutMode#MODE_JUSTIFY_OPTIMAL} depend on every word of the
+ * paragraph. The lines are always identical to those produced by laying out
+ * the same words with {@link JPLayouts#format(JPLayoutSpec, List)}.
+ *
+ * Instances are mutable and must not be shared between threads.
+ */
+
+public final class JPIncrementalLayout
+{
+  private final JPLayoutSpec spec;
+  private final ArrayList<String> words;
+  private final ArrayList<String> lines;
+  private final ArrayList<String> reflowed;
+  private final JPWordBuffer line_words;
+  private final StringBuilder line_buffer;
+  private int[] widths;
+  private int[] starts;
+  private int[] reflowed_starts;
+
+  private JPIncrementalLayout(
+    final JPLayoutSpec in_spec)
+  {
+    this.spec = Objects.requireNonNull(in_spec, "Spec");
+    JPGreedy.checkSupported(in_spec);
+
+    final int width = in_spec.width();
+    this.words = new ArrayList<>(64);
+    this.lines = new ArrayList<>(16);
+    this.reflowed = new ArrayList<>(16);
+    this.line_words = new JPWordBuffer(width, 16);
+    this.line_buffer = new StringBuilder(width);
+    this.widths = new int[64];
+    this.starts = new int[16];
+    this.reflowed_starts = new int[16];
+  }
+
+  /**
+   * Create a new, empty layout.
+   *
+   * @param in_spec The layout specification
+   *
+   * @return A new layout
+   *
+   * @throws IllegalArgumentException If the specification uses an engine
+   *                                  or hyphenation that cannot be laid out
+   *                                  incrementally
+   */
+
+  public static JPIncrementalLayout create(
+    final JPLayoutSpec in_spec)
+  {
+    return new JPIncrementalLayout(in_spec);
+  }
+
+  /**
+   * Create a new layout containing the given words.
+   *
+   * @param in_spec  The layout specification
+   * @param in_words The initial words
+   *
+   * @return A new layout
+   *
+   * @throws IllegalArgumentException If the specification uses an engine
+   *                                  or hyphenation that cannot be laid out
+   *                                  incrementally
+   */
+
+  public static JPIncrementalLayout create(
+    final JPLayoutSpec in_spec,
+    final List<String> in_words)
+  {
+    Objects.requireNonNull(in_words, "Words");
+
+    final JPIncrementalLayout layout = new JPIncrementalLayout(in_spec);
+    final int count = in_words.size();
+    layout.widths = new int[Math.max(1, count)];
+    for (int index = 0; index < count; ++index) {
+      final String word = layout.trim(in_words.get(index));
+      layout.words.add(word);
+      layout.widths[index] = layout.measure(word);
+    }
+    layout.reflow(0, 0);
+    return layout;
+  }
+
+  /**
+   * @return The layout specification
+   */
+
+  public JPLayoutSpec spec()
+  {
+    return this.spec;
+  }
+
+  /**
+   * @return A read-only view of the current words
+   */
+
+  public List<String> words()
+  {
+    return Collections.unmodifiableList(this.words);
+  }
+
+  /**
+   * @return A read-only view of the current lines
+   */
+
+  public List<String> lines()
+  {
+    return Collections.unmodifiableList(this.lines);
+  }
+
+  /**
+   * @param line The line index
+   *
+   * @return The index of the first word of the given line
+   */
+
+  public int lineFirstWord(
+    final int line)
+  {
+    Objects.checkIndex(line, this.lines.size());
+    return this.starts[line];
+  }
+
+  /**
+   * Insert a word.
+   *
+   * @param index The index at which to insert the word
+   * @param word  The word
+   *
+   * @return The lines that changed
+   */
+
+  public JPLayoutChange insert(
+    final int index,
+    final String word)
+  {
+    final int count = this.words.size();
+    Objects.checkIndex(index, count + 1);
+    final String trimmed = this.trim(word);
+
+    if (count == this.widths.length) {
+      this.widths = Arrays.copyOf(this.widths, count * 2);
+    }
+    System.arraycopy(
+      this.widths, index, this.widths, index + 1, count - index);
+    this.widths[index] = this.measure(trimmed);
+    this.words.add(index, trimmed);
+    return this.reflow(index, 1);
+  }
+
+  /**
+   * Delete a word.
+   *
+   * @param index The index of the word
+   *
+   * @return The lines that changed
+   */
+
+  public JPLayoutChange delete(
+    final int index)
+  {
+    final int count = this.words.size();
+    Objects.checkIndex(index, count);
+
+    System.arraycopy(
+      this.widths, index + 1, this.widths, index, count - index - 1);
+    this.words.remove(index);
+    return this.reflow(index, -1);
+  }
+
+  /**
+   * Replace a word.
+   *
+   * @param index The index of the word
+   * @param word  The new word
+   *
+   * @return The lines that changed
+   */
+
+  public JPLayoutChange replace(
+    final int index,
+    final String word)
+  {
+    Objects.checkIndex(index, this.words.size());
+    final String trimmed = this.trim(word);
+
+    this.widths[index] = this.measure(trimmed);
+    this.words.set(index, trimmed);
+    return this.reflow(index, 0);
+  }
+
+  private String trim(
+    final String word)
+  {
+    Objects.requireNonNull(word, "Word");
+    final int length = word.length();
+    final int ws = JPText.trimStart(word, 0, length);
+    final int we = JPText.trimEnd(word, ws, length);
+    return word.substring(ws, we);
+  }
+
+  private int measure(
+    final String word)
+  {
+    return this.spec.measurer().measure(word, 0, word.length());
+  }
+
+  /**
+   * Re-flow the paragraph after the word at {@code edit} was inserted
+   * ({@code delta == 1}), deleted ({@code delta == -1}), or replaced
+   * ({@code delta == 0}). The line starts are still those of the previous
+   * layout, expressed as indices into the previous list of words.
+   */
+
+  private JPLayoutChange reflow(
+    final int edit,
+    final int delta)
+  {
+    final int old_count = this.lines.size();
+    final int first = Math.max(0, this.lineOf(edit) - 1);
+    final int count = this.words.size();
+
+    this.reflowed.clear();
+    int start = old_count == 0 ? 0 : this.starts[first];
+    int old_line = first + 1;
+    int resume = old_count;
+
+    while (start < count) {
+      final int end = this.nextBreak(start, count);
+      final int added = this.reflowed.size();
+      if (added == this.reflowed_starts.length) {
+        this.reflowed_starts = Arrays.copyOf(this.reflowed_starts, added * 2);
+      }
+      this.reflowed_starts[added] = start;
+      this.reflowed.add(this.render(start, end));
+      start = end;
+
+      while (old_line < old_count && this.moved(old_line, edit, delta) < end) {
+        ++old_line;
+      }
+      if (old_line < old_count
+        && this.moved(old_line, edit, delta) == end
+        && isAfterEdit(this.starts[old_line], edit, delta)) {
+        resume = old_line;
+        break;
+      }
+    }
+
+    return this.splice(first, resume, delta);
+  }
+
+  /**
+   * Replace the lines {@code [first, resume)} of the previous layout with
+   * the re-flowed lines.
+   */
+
+  private JPLayoutChange splice(
+    final int first,
+    final int resume,
+    final int delta)
+  {
+    final int old_count = this.lines.size();
+    final int added = this.reflowed.size();
+    final int removed = resume - first;
+    final int tail = old_count - resume;
+    final int new_count = first + added + tail;
+
+    int same = 0;
+    while (same < added
+      && same < removed
+      && this.reflowed_starts[same] == this.starts[first + same]
+      && this.reflowed.get(same).equals(this.lines.get(first + same))) {
+      ++same;
+    }
+
+    if (new_count > this.starts.length) {
+      this.starts = Arrays.copyOf(
+        this.starts, Math.max(new_count, this.starts.length * 2));
+    }
+    System.arraycopy(
+      this.starts, resume, this.starts, first + added, tail);
+    System.arraycopy(
+      this.reflowed_starts, 0, this.starts, first, added);
+    for (int index = first + added; index < new_count; ++index) {
+      this.starts[index] += delta;
+    }
+
+    final List<String> replaced = this.lines.subList(first, resume);
+    replaced.clear();
+    replaced.addAll(this.reflowed);
+    this.reflowed.clear();
+
+    return new JPLayoutChange(first + same, removed - same, added - same);
+  }
+
+  /**
+   * @return The index of the line containing the word at {@code index} in
+   * the previous layout, or the last line if {@code index} follows every
+   * word
+   */
+
+  private int lineOf(
+    final int index)
+  {
+    final int position =
+      Arrays.binarySearch(this.starts, 0, this.lines.size(), index);
+    return position >= 0 ? position : Math.max(0, -position - 2);
+  }
+
+  /**
+   * @return The index in the current list of words of the word that began
+   * the given line in the previous layout
+   */
+
+  private int moved(
+    final int line,
+    final int edit,
+    final int delta)
+  {
+    final int start = this.starts[line];
+    return start < edit ? start : Math.max(edit, start + delta);
+  }
+
+  /**
+   * @return {@code true} if the words from {@code start} onwards in the
+   * previous layout are unaffected by the edit
+   */
+
+  private static boolean isAfterEdit(
+    final int start,
+    final int edit,
+    final int delta)
+  {
+    return start > edit || (delta > 0 && start == edit);
+  }
+
+  /**
+   * @return The index of the word following the last word of the line that
+   * begins with the word at {@code start}, using the same fitting rules as
+   * the aligner for the layout mode
+   */
+
+  private int nextBreak(
+    final int start,
+    final int count)
+  {
+    final int[] w = this.widths;
+    final int end = JPGreedy.lineEnd(this.spec, index -> w[index], start, count);
+    return end < 0 ? ~end : end;
+  }
+
+  private String render(
+    final int start,
+    final int end)
+  {
+    this.line_words.clear();
+    for (int index = start; index < end; ++index) {
+      final String word = this.words.get(index);
+      this.line_words.add(word, 0, word.length(), this.widths[index]);
+    }
+    return JPGreedy.renderLine(this.spec, this.line_buffer, this.line_words);
+  }
+}
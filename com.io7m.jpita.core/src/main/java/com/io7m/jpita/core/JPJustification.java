@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jaffirm.core.Invariants;
+import com.io7m.jpita.core.JPJustifierBasic.SpaceTextDecisionType;
+
+/**
+ * Functions to build justified lines.
+ */
+
+final class JPJustification
+{
+  private JPJustification()
+  {
+    throw new AssertionError("Unreachable code!");
+  }
+
+  /**
+   * Build a justified line from the words in the range {@code [first, last)}
+   * of the given buffer.
+   *
+   * @param buffer     The output buffer
+   * @param in_decider A function that decides whether or not the line should
+   *                   be justified
+   * @param max_width  The maximum width of the line
+   * @param words      The word buffer
+   * @param first      The index of the first word (inclusive)
+   * @param last       The index of the last word (exclusive)
+   *
+   * @return {@code false} iff the decider declined to justify the line
+   */
+
+  static boolean justifyLine(
+    final StringBuilder buffer,
+    final SpaceTextDecisionType in_decider,
+    final int max_width,
+    final JPWordBuffer words,
+    final int first,
+    final int last)
+  {
+    final int word_count = last - first;
+    buffer.setLength(0);
+
+    /**
+     * Inserting hard line breaks can result in lines with no words.
+     */
+
+    if (word_count == 0) {
+      return true;
+    }
+
+    /**
+     * Words that are joined to their successors (the fragments of
+     * hyphenated words) are not followed by gaps, and a line that ends with
+     * such a word ends with a hyphen.
+     */
+
+    final boolean hyphen = words.isJoined(last - 1);
+    final int gaps = gaps(words, first, last);
+
+    /**
+     * Don't format single words.
+     */
+
+    if (gaps == 0) {
+      unjustified(buffer, words, first, last);
+      return true;
+    }
+
+    /**
+     * Decide how much of the line will be text.
+     */
+
+    final int text = words.widthSum(first, last) + (hyphen ? 1 : 0);
+
+    /**
+     * Decide how much of the line will be space.
+     */
+
+    final int space = max_width - text;
+
+    /**
+     * Allow the decider to cancel justification.
+     */
+
+    if (!in_decider.shouldJustify(space, text)) {
+      unjustified(buffer, words, first, last);
+      return false;
+    }
+
+    /**
+     * Each word will have at least {@code each} spaces inserted between
+     * it and the next word. There will be {@code rest} spaces left over,
+     * and these are distributed one each over the first {@code rest} gaps.
+     */
+
+    final int each = space / gaps;
+    final int rest = space % gaps;
+
+    final int all = text + (each * gaps) + rest;
+    Invariants.checkInvariant(
+      all == max_width, "Max width must be correct");
+
+    /**
+     * Build the line.
+     */
+
+    int gap = 0;
+    for (int index = first; index < last; ++index) {
+      words.appendTo(index, buffer);
+      if (index + 1 < last && !words.isJoined(index)) {
+        JPText.appendSpaces(buffer, gap < rest ? each + 1 : each);
+        ++gap;
+      }
+    }
+    if (hyphen) {
+      buffer.append('-');
+    }
+    return true;
+  }
+
+  private static int gaps(
+    final JPWordBuffer words,
+    final int first,
+    final int last)
+  {
+    int gaps = 0;
+    for (int index = first; index + 1 < last; ++index) {
+      if (!words.isJoined(index)) {
+        ++gaps;
+      }
+    }
+    return gaps;
+  }
+
+  private static void unjustified(
+    final StringBuilder buffer,
+    final JPWordBuffer words,
+    final int first,
+    final int last)
+  {
+    for (int index = first; index < last; ++index) {
+      words.appendTo(index, buffer);
+      if (index + 1 < last && !words.isJoined(index)) {
+        buffer.append(' ');
+      }
+    }
+    if (words.isJoined(last - 1)) {
+      buffer.append('-');
+    }
+  }
+}
@@ -19,7 +19,7 @@ package com.io7m.jpita.core;
 import com.io7m.jaffirm.core.Invariants;
 import com.io7m.jranges.RangeCheck;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
 
@@ -49,25 +49,39 @@ public final class JPJustifierBasic implements JPAlignerType
 
   private final SpaceTextDecisionType decider;
   private final int width;
-  private final List<String> line_words;
-  private final List<String> lines_formatted;
+  private final JPWordBuffer line_words;
+  private final JPLineCollector lines_formatted;
+  private final JPLineReceiverType receiver;
   private final StringBuilder line_buffer;
   private final JPOverflowBehaviour overflow;
+  private final JPWidthMeasurerType measurer;
+  private final JPHyphenator hyphenator;
+  private final JPLayoutEvents events;
   private int line_words_sum;
 
   private JPJustifierBasic(
     final JPOverflowBehaviour in_overflow,
     final SpaceTextDecisionType in_decider,
-    final int in_width)
+    final int in_width,
+    final JPWidthMeasurerType in_measurer,
+    final JPHyphenationPatterns in_hyphenation,
+    final JPLineCollector in_lines,
+    final JPLineReceiverType in_receiver,
+    final JPLayoutMetricsType in_metrics)
   {
     this.overflow = Objects.requireNonNull(in_overflow, "Overflow");
     this.decider = Objects.requireNonNull(in_decider, "Decider");
     this.width = RangeCheck.checkGreaterInteger(
       in_width, "Width", 0, "Minimum width");
-    this.line_words = new ArrayList<>(16);
+    this.measurer = Objects.requireNonNull(in_measurer, "Measurer");
+    this.hyphenator = new JPHyphenator(in_hyphenation);
+    this.line_words = new JPWordBuffer(this.width, 16);
     this.line_words_sum = 0;
-    this.lines_formatted = new ArrayList<>(16);
+    this.lines_formatted = Objects.requireNonNull(in_lines, "Lines");
+    this.receiver = Objects.requireNonNull(in_receiver, "Receiver");
     this.line_buffer = new StringBuilder(this.width);
+    this.events = new JPLayoutEvents(
+      this.width, Objects.requireNonNull(in_metrics, "Metrics"));
   }
 
   /**
@@ -88,151 +102,122 @@ public final class JPJustifierBasic implements JPAlignerType
     final SpaceTextDecisionType in_decider,
     final int in_width)
   {
-    return new JPJustifierBasic(in_overflow, in_decider, in_width);
+    return create(
+      in_overflow,
+      in_decider,
+      in_width,
+      JPWidthMeasurers.CODE_UNITS,
+      JPHyphenationPatterns.none(),
+      JPLayoutMetricsType.none());
   }
 
-  private static String justifyLine(
-    final StringBuilder buffer,
+  static JPAlignerType create(
+    final JPOverflowBehaviour in_overflow,
     final SpaceTextDecisionType in_decider,
-    final int max_width,
-    final List<String> words)
+    final int in_width,
+    final JPWidthMeasurerType in_measurer,
+    final JPHyphenationPatterns in_hyphenation,
+    final JPLayoutMetricsType in_metrics)
   {
-    final int word_count = words.size();
-
-    /**
-     * Inserting hard line breaks can result in lines with no words.
-     */
-
-    if (word_count == 0) {
-      return "";
-    }
-
-    /**
-     * Don't format single words.
-     */
-
-    if (word_count == 1) {
-      return words.get(0);
-    }
-
-    Invariants.checkInvariantI(
-      word_count, word_count > 1, c -> "Word count must be > 1");
-
-    /**
-     * Decide how much of the line will be text.
-     */
-
-    final int text = JPJustifierBasic.sumLengths(words);
-
-    /**
-     * Decide how much of the line will be space.
-     */
-
-    final int space = max_width - text;
-
-    /**
-     * Allow the decider to cancel justification.
-     */
-
-    if (!in_decider.shouldJustify(space, text)) {
-      return JPJustifierBasic.unjustified(buffer, words);
-    }
-
-    /**
-     * Each word will have at least {@code each} spaces inserted between
-     * it and the next word. There will be {@code rest} spaces left over.
-     */
-
-    final int gaps = word_count - 1;
-    final int each = space / gaps;
-    final int rest = space % gaps;
-
-    final int all = text + (each * gaps) + rest;
-    Invariants.checkInvariant(
-      all == max_width, "Max width must be correct");
-
-    /**
-     * Assign {@code each} spaces to each gap.
-     */
-
-    final int[] spaces = new int[gaps];
-    for (int index = 0; index < spaces.length; ++index) {
-      spaces[index] = each;
-    }
-
-    /**
-     * Now, distribute the remaining spaces over the gaps.
-     */
-
-    {
-      int rest_distrib = rest;
-      int space_index = 0;
-      while (rest_distrib > 0) {
-        spaces[space_index] += 1;
-        space_index = (space_index + 1) % spaces.length;
-        --rest_distrib;
-      }
-    }
-
-    /**
-     * Build the line.
-     */
-
-    buffer.setLength(0);
-    for (int index = 0; index < word_count - 1; ++index) {
-      buffer.append(words.get(index));
-      JPJustifierBasic.spaces(buffer, spaces[index]);
-    }
-
-    buffer.append(words.get(word_count - 1));
-    return buffer.toString();
+    final JPLineCollector lines = new JPLineCollector();
+    return new JPJustifierBasic(
+      in_overflow,
+      in_decider,
+      in_width,
+      in_measurer,
+      in_hyphenation,
+      lines,
+      lines,
+      in_metrics);
   }
 
-  private static String unjustified(
-    final StringBuilder buffer,
-    final List<String> words)
-  {
-    final int word_count = words.size();
-    buffer.setLength(0);
-    for (int index = 0; index < word_count; ++index) {
-      buffer.append(words.get(index));
-      if (index + 1 < word_count) {
-        buffer.append(' ');
-      }
-    }
-    return buffer.toString();
-  }
+  /**
+   * Construct a new streaming justifier. Each line is passed to the given
+   * receiver as soon as it has been completed, and is not retained by the
+   * justifier. The {@link JPAlignerType#finish()} method of the returned
+   * justifier passes any pending line to the receiver and always returns an
+   * empty list.
+   *
+   * @param in_overflow The behaviour for words that are of a greater length
+   *                    than the maximum width and therefore cannot fit even
+   *                    when placed on an otherwise blank line
+   * @param in_decider  A function that decides whether or not lines should be
+   *                    justified
+   * @param in_width    The maximum width in characters
+   * @param in_receiver The receiver of formatted lines
+   *
+   * @return A new justifier
+   */
 
-  private static void spaces(
-    final StringBuilder buffer,
-    final int count)
+  public static JPAlignerType create(
+    final JPOverflowBehaviour in_overflow,
+    final SpaceTextDecisionType in_decider,
+    final int in_width,
+    final JPLineReceiverType in_receiver)
   {
-    for (int index = 0; index < count; ++index) {
-      buffer.append(' ');
-    }
+    return create(
+      in_overflow,
+      in_decider,
+      in_width,
+      JPWidthMeasurers.CODE_UNITS,
+      JPHyphenationPatterns.none(),
+      in_receiver,
+      JPLayoutMetricsType.none());
   }
 
-  private static int sumLengths(final List<String> words)
+  static JPAlignerType create(
+    final JPOverflowBehaviour in_overflow,
+    final SpaceTextDecisionType in_decider,
+    final int in_width,
+    final JPWidthMeasurerType in_measurer,
+    final JPHyphenationPatterns in_hyphenation,
+    final JPLineReceiverType in_receiver,
+    final JPLayoutMetricsType in_metrics)
   {
-    int sum = 0;
-    for (int index = 0; index < words.size(); ++index) {
-      sum += words.get(index).length();
-    }
-    return sum;
+    return new JPJustifierBasic(
+      in_overflow,
+      in_decider,
+      in_width,
+      in_measurer,
+      in_hyphenation,
+      new JPLineCollector(),
+      in_receiver,
+      in_metrics);
   }
 
   @Override
   public void addWord(final String w)
   {
     Objects.requireNonNull(w, "Word");
+    this.addWord(w, 0, w.length());
+  }
+
+  @Override
+  public void addWord(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    Objects.requireNonNull(text, "Text");
+    Objects.checkFromToIndex(start, end, text.length());
+
+    this.events.word();
+
+    int ws = JPText.trimStart(text, start, end);
+    final int we = JPText.trimEnd(text, ws, end);
+    int length = this.measurer.measure(text, ws, we);
+
+    if (!this.canFit(length) && this.hyphenator.isEnabled()) {
+      ws = this.hyphenate(text, ws, we);
+      length = this.measurer.measure(text, ws, we);
+    }
 
-    final String wt = w.trim();
-    if (!this.canFit(wt)) {
+    if (!this.canFit(length)) {
       if (!this.line_words.isEmpty()) {
         this.finishLine();
       }
 
-      if (!this.couldEverFit(wt)) {
+      if (!this.couldEverFit(length)) {
         Invariants.checkInvariant(
           this.line_buffer.length() == 0,
           "Line buffer must be empty");
@@ -243,70 +228,178 @@ public final class JPJustifierBasic implements JPAlignerType
           this.line_words_sum == 0,
           "Word sum must be zero");
         Invariants.checkInvariant(
-          this.width <= wt.length(),
+          this.width <= length,
           "Width must be <= trimmed text");
 
+        this.events.overflow();
         switch (this.overflow) {
           case OVERFLOW_TRUNCATE: {
-            final String wtt = wt.substring(0, this.width - 1) + '…';
-            this.line_words_sum = wtt.length() + 1;
-            this.line_words.add(wtt);
+            this.events.truncation();
+            final int cut = JPText.appendTruncated(
+              this.measurer, text, ws, we, this.width - 1, this.line_buffer);
+            this.line_words.add(
+              this.line_buffer,
+              0,
+              this.line_buffer.length(),
+              this.measurer.measure(text, ws, cut) + 1);
+            this.line_buffer.setLength(0);
+            this.line_words_sum = this.width + 1;
             this.finishLine();
             return;
           }
           case OVERFLOW_ANYWAY: {
-            this.lines_formatted.add(wt);
+            this.line_buffer.append(text, ws, we);
+            this.receiver.receiveLine(this.line_buffer);
+            this.events.line();
+            this.line_buffer.setLength(0);
             return;
           }
         }
       }
     }
 
-    this.line_words_sum += wt.length() + 1;
-    this.line_words.add(wt);
+    this.line_words_sum += length + 1;
+    this.line_words.add(text, ws, we, length);
+  }
+
+  /**
+   * Place as much of the word in the range {@code [ws, we)} as possible on
+   * the current line (and on subsequent lines, if the word is longer than a
+   * line) by breaking it at hyphenation points.
+   *
+   * @return The start of the part of the word that remains to be placed
+   */
+
+  private int hyphenate(
+    final CharSequence text,
+    final int ws,
+    final int we)
+  {
+    final int count = this.hyphenator.hyphenate(text, ws, we);
+    int start = ws;
+    int next = 0;
+
+    while (!this.canFit(this.measurer.measure(text, start, we))) {
+      int best = start;
+      int best_width = 0;
+      for (int index = next; index < count; ++index) {
+        final int point = ws + this.hyphenator.point(index);
+        final int point_width = this.measurer.measure(text, start, point);
+        if (!this.canFit(point_width + 1)) {
+          break;
+        }
+        best = point;
+        best_width = point_width;
+        next = index + 1;
+      }
+
+      if (best > start) {
+        this.line_words.add(text, start, best, best_width);
+        this.line_words.joinLast();
+        this.finishLine();
+        start = best;
+      } else if (this.line_words.isEmpty()) {
+        break;
+      } else {
+        this.finishLine();
+      }
+    }
+    return start;
   }
 
   @Override
   public void breakLine()
   {
     this.finishLine();
+    this.events.endParagraph();
   }
 
   @Override
   public List<String> finish()
+  {
+    this.events.beginFinish();
+    try {
+      this.flush();
+      return this.lines_formatted.take();
+    } finally {
+      this.events.endFinish();
+    }
+  }
+
+  @Override
+  public JPLayoutResult finishCompact()
+  {
+    this.events.beginFinish();
+    try {
+      this.flush();
+      return this.lines_formatted.takeResult();
+    } finally {
+      this.events.endFinish();
+    }
+  }
+
+  @Override
+  public void finishTo(
+    final Appendable output,
+    final String separator)
+    throws IOException
+  {
+    final JPLineWriter writer = new JPLineWriter(output, separator);
+    this.events.beginFinish();
+    try {
+      this.flush();
+      this.lines_formatted.writeTo(writer);
+    } finally {
+      this.events.endFinish();
+    }
+  }
+
+  private void flush()
   {
     if (this.line_words_sum > 0) {
       this.finishLine();
     }
 
-    final List<String> r = new ArrayList<>(this.lines_formatted);
-    this.line_buffer.setLength(80);
-    this.line_buffer.trimToSize();
     this.line_buffer.setLength(0);
-
     this.line_words.clear();
     this.line_words_sum = 0;
-    this.lines_formatted.clear();
-    return r;
   }
 
-  private boolean couldEverFit(final CharSequence wt)
+  @Override
+  public void reset()
+  {
+    JPCapacity.reset(this.line_buffer);
+    this.line_words.reset();
+    this.line_words_sum = 0;
+    this.lines_formatted.reset();
+    this.hyphenator.reset();
+    this.events.reset();
+  }
+
+  private boolean couldEverFit(final int length)
   {
-    return wt.length() < this.width;
+    return length < this.width;
   }
 
   private void finishLine()
   {
-    this.lines_formatted.add(JPJustifierBasic.justifyLine(
-      this.line_buffer, this.decider, this.width, this.line_words));
+    final boolean justified = JPJustification.justifyLine(
+      this.line_buffer,
+      this.decider,
+      this.width,
+      this.line_words,
+      0,
+      this.line_words.count());
+    this.receiver.receiveLine(this.line_buffer);
+    this.events.justifiedLine(justified);
     this.line_buffer.setLength(0);
     this.line_words_sum = 0;
     this.line_words.clear();
   }
 
-  private boolean canFit(final CharSequence word)
+  private boolean canFit(final int length)
   {
-    return this.line_words_sum + word.length() + 1 < this.width;
+    return this.line_words_sum + length + 1 < this.width;
   }
 
   /**
@@ -0,0 +1,494 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jpita.core.JPJustifierBasic.SpaceTextDecisionType;
+import com.io7m.jranges.RangeCheck;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An aligner that fully justifies text by choosing line breaks that minimize
+ * the total badness of each paragraph, in the manner of the Knuth-Plass
+ * algorithm. A paragraph is the sequence of words between two hard line
+ * breaks (or a hard line break and the end of the layout).
+ *
+ * The badness of a justified line grows with the cube of the amount of
+ * space inserted into each gap, so the algorithm prefers evenly filled lines
+ * over lines that are very tight followed by lines that are very loose.
+ * Lines that the {@link SpaceTextDecisionType} declines to justify (other
+ * than the last line of a paragraph) are considered to be as bad as
+ * possible, and are therefore avoided where the text allows it.
+ *
+ * Because the breaks of a paragraph depend on all of its words, lines are
+ * only produced when a paragraph ends: on {@link #breakLine()}, on
+ * {@link #finish()}, and when a word that cannot fit on any line is added.
+ * Only lines that could fit within the width are considered, so the running
+ * time is linear in the number of words for a fixed width.
+ *
+ * If hyphenation patterns are supplied, every word is divided into fragments
+ * at its hyphenation points, and a line may end after any fragment at the
+ * cost of a fixed penalty.
+ */
+
+public final class JPJustifierOptimal implements JPAlignerType
+{
+  private static final long INFINITELY_BAD = 10_000L;
+  private static final long LINE_PENALTY = 10L;
+  private static final long HYPHEN_PENALTY = 50L;
+  private static final long HYPHEN_DEMERITS = HYPHEN_PENALTY * HYPHEN_PENALTY;
+  private static final long UNJUSTIFIED_DEMERITS =
+    (LINE_PENALTY + INFINITELY_BAD) * (LINE_PENALTY + INFINITELY_BAD);
+
+  private final SpaceTextDecisionType decider;
+  private final int width;
+  private final JPWordBuffer words;
+  private final JPLineCollector lines_formatted;
+  private final JPLineReceiverType receiver;
+  private final StringBuilder line_buffer;
+  private final JPOverflowBehaviour overflow;
+  private final JPWidthMeasurerType measurer;
+  private final JPHyphenator hyphenator;
+  private final JPLayoutEvents events;
+  private long[] demerits;
+  private int[] previous;
+  private int[] breaks;
+
+  private JPJustifierOptimal(
+    final JPOverflowBehaviour in_overflow,
+    final SpaceTextDecisionType in_decider,
+    final int in_width,
+    final JPWidthMeasurerType in_measurer,
+    final JPHyphenationPatterns in_hyphenation,
+    final JPLineCollector in_lines,
+    final JPLineReceiverType in_receiver,
+    final JPLayoutMetricsType in_metrics)
+  {
+    this.overflow = Objects.requireNonNull(in_overflow, "Overflow");
+    this.decider = Objects.requireNonNull(in_decider, "Decider");
+    this.width = RangeCheck.checkGreaterInteger(
+      in_width, "Width", 0, "Minimum width");
+    this.measurer = Objects.requireNonNull(in_measurer, "Measurer");
+    this.hyphenator = new JPHyphenator(in_hyphenation);
+    this.lines_formatted = Objects.requireNonNull(in_lines, "Lines");
+    this.receiver = Objects.requireNonNull(in_receiver, "Receiver");
+    this.words = new JPWordBuffer(this.width * 4, 64);
+    this.line_buffer = new StringBuilder(this.width);
+    this.demerits = new long[64];
+    this.previous = new int[64];
+    this.breaks = new int[64];
+    this.events = new JPLayoutEvents(
+      this.width, Objects.requireNonNull(in_metrics, "Metrics"));
+  }
+
+  /**
+   * Construct a new justifier.
+   *
+   * @param in_overflow The behaviour for words that are of a greater length
+   *                    than the maximum width and therefore cannot fit even
+   *                    when placed on an otherwise blank line
+   * @param in_decider  A function that decides whether or not lines should be
+   *                    justified
+   * @param in_width    The maximum width in characters
+   *
+   * @return A new justifier
+   */
+
+  public static JPAlignerType create(
+    final JPOverflowBehaviour in_overflow,
+    final SpaceTextDecisionType in_decider,
+    final int in_width)
+  {
+    return create(
+      in_overflow,
+      in_decider,
+      in_width,
+      JPWidthMeasurers.CODE_UNITS,
+      JPHyphenationPatterns.none(),
+      JPLayoutMetricsType.none());
+  }
+
+  static JPAlignerType create(
+    final JPOverflowBehaviour in_overflow,
+    final SpaceTextDecisionType in_decider,
+    final int in_width,
+    final JPWidthMeasurerType in_measurer,
+    final JPHyphenationPatterns in_hyphenation,
+    final JPLayoutMetricsType in_metrics)
+  {
+    final JPLineCollector lines = new JPLineCollector();
+    return new JPJustifierOptimal(
+      in_overflow,
+      in_decider,
+      in_width,
+      in_measurer,
+      in_hyphenation,
+      lines,
+      lines,
+      in_metrics);
+  }
+
+  /**
+   * Construct a new streaming justifier. Each line is passed to the given
+   * receiver as soon as the paragraph containing it has been completed. The
+   * {@link JPAlignerType#finish()} method of the returned justifier passes
+   * any pending lines to the receiver and always returns an empty list.
+   *
+   * @param in_overflow The behaviour for words that are of a greater length
+   *                    than the maximum width and therefore cannot fit even
+   *                    when placed on an otherwise blank line
+   * @param in_decider  A function that decides whether or not lines should be
+   *                    justified
+   * @param in_width    The maximum width in characters
+   * @param in_receiver The receiver of formatted lines
+   *
+   * @return A new justifier
+   */
+
+  public static JPAlignerType create(
+    final JPOverflowBehaviour in_overflow,
+    final SpaceTextDecisionType in_decider,
+    final int in_width,
+    final JPLineReceiverType in_receiver)
+  {
+    return create(
+      in_overflow,
+      in_decider,
+      in_width,
+      JPWidthMeasurers.CODE_UNITS,
+      JPHyphenationPatterns.none(),
+      in_receiver,
+      JPLayoutMetricsType.none());
+  }
+
+  static JPAlignerType create(
+    final JPOverflowBehaviour in_overflow,
+    final SpaceTextDecisionType in_decider,
+    final int in_width,
+    final JPWidthMeasurerType in_measurer,
+    final JPHyphenationPatterns in_hyphenation,
+    final JPLineReceiverType in_receiver,
+    final JPLayoutMetricsType in_metrics)
+  {
+    return new JPJustifierOptimal(
+      in_overflow,
+      in_decider,
+      in_width,
+      in_measurer,
+      in_hyphenation,
+      new JPLineCollector(),
+      in_receiver,
+      in_metrics);
+  }
+
+  @Override
+  public void addWord(final String w)
+  {
+    Objects.requireNonNull(w, "Word");
+    this.addWord(w, 0, w.length());
+  }
+
+  @Override
+  public void addWord(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    Objects.requireNonNull(text, "Text");
+    Objects.checkFromToIndex(start, end, text.length());
+
+    this.events.word();
+
+    final int ws = JPText.trimStart(text, start, end);
+    final int we = JPText.trimEnd(text, ws, end);
+    final int length = this.measurer.measure(text, ws, we);
+
+    if (this.hyphenator.isEnabled() && this.addFragments(text, ws, we)) {
+      return;
+    }
+
+    if (length < this.width) {
+      this.words.add(text, ws, we, length);
+      return;
+    }
+
+    /*
+     * The word cannot fit on any line. The current paragraph is laid out,
+     * and the word is placed on a line of its own.
+     */
+
+    this.layoutParagraph();
+    this.events.overflow();
+
+    switch (this.overflow) {
+      case OVERFLOW_TRUNCATE: {
+        this.events.truncation();
+        JPText.appendTruncated(
+          this.measurer, text, ws, we, this.width - 1, this.line_buffer);
+        break;
+      }
+      case OVERFLOW_ANYWAY: {
+        this.line_buffer.append(text, ws, we);
+        break;
+      }
+    }
+
+    this.receiver.receiveLine(this.line_buffer);
+    this.events.line();
+    this.line_buffer.setLength(0);
+  }
+
+  /**
+   * Add the word in the range {@code [ws, we)} as a series of fragments
+   * divided at its hyphenation points.
+   *
+   * @return {@code false} if the word has no hyphenation points, or if any
+   * of its fragments cannot fit on a line
+   */
+
+  private boolean addFragments(
+    final CharSequence text,
+    final int ws,
+    final int we)
+  {
+    final int count = this.hyphenator.hyphenate(text, ws, we);
+    if (count == 0) {
+      return false;
+    }
+
+    int start = ws;
+    for (int index = 0; index <= count; ++index) {
+      final int end =
+        index < count ? ws + this.hyphenator.point(index) : we;
+      if (this.measurer.measure(text, start, end) >= this.width) {
+        return false;
+      }
+      start = end;
+    }
+
+    start = ws;
+    for (int index = 0; index < count; ++index) {
+      final int end = ws + this.hyphenator.point(index);
+      this.words.add(text, start, end, this.measurer.measure(text, start, end));
+      this.words.joinLast();
+      start = end;
+    }
+    this.words.add(text, start, we, this.measurer.measure(text, start, we));
+    return true;
+  }
+
+  @Override
+  public void breakLine()
+  {
+    if (this.words.isEmpty()) {
+      this.receiver.receiveLine(this.line_buffer);
+      this.events.line();
+    } else {
+      this.layoutParagraph();
+    }
+    this.events.endParagraph();
+  }
+
+  @Override
+  public List<String> finish()
+  {
+    this.events.beginFinish();
+    try {
+      this.layoutParagraph();
+      return this.lines_formatted.take();
+    } finally {
+      this.events.endFinish();
+    }
+  }
+
+  @Override
+  public JPLayoutResult finishCompact()
+  {
+    this.events.beginFinish();
+    try {
+      this.layoutParagraph();
+      return this.lines_formatted.takeResult();
+    } finally {
+      this.events.endFinish();
+    }
+  }
+
+  @Override
+  public void finishTo(
+    final Appendable output,
+    final String separator)
+    throws IOException
+  {
+    final JPLineWriter writer = new JPLineWriter(output, separator);
+    this.events.beginFinish();
+    try {
+      this.layoutParagraph();
+      this.lines_formatted.writeTo(writer);
+    } finally {
+      this.events.endFinish();
+    }
+  }
+
+  @Override
+  public void reset()
+  {
+    JPCapacity.reset(this.line_buffer);
+    this.words.reset();
+    this.lines_formatted.reset();
+    this.hyphenator.reset();
+    this.events.reset();
+    if (this.demerits.length > JPCapacity.RETAINED_ELEMENTS) {
+      this.demerits = new long[64];
+      this.previous = new int[64];
+      this.breaks = new int[64];
+    }
+  }
+
+  /**
+   * Lay out all buffered words, emit the resulting lines, and clear the
+   * buffer.
+   */
+
+  private void layoutParagraph()
+  {
+    final int count = this.words.count();
+    if (count == 0) {
+      return;
+    }
+
+    this.computeBreaks(count);
+
+    /*
+     * The optimal breaks are recorded backwards from the end of the
+     * paragraph, so they are collected and then emitted in reverse.
+     */
+
+    int lines = 0;
+    for (int end = count; end > 0; end = this.previous[end]) {
+      this.breaks[lines] = end;
+      ++lines;
+    }
+
+    int start = 0;
+    for (int index = lines - 1; index >= 0; --index) {
+      final int end = this.breaks[index];
+      final boolean justified = JPJustification.justifyLine(
+        this.line_buffer, this.decider, this.width, this.words, start, end);
+      this.receiver.receiveLine(this.line_buffer);
+      this.events.justifiedLine(justified);
+      this.line_buffer.setLength(0);
+      start = end;
+    }
+
+    this.words.clear();
+  }
+
+  /**
+   * Compute the optimal set of breaks for the first {@code count} words. On
+   * return, {@code previous[j]} holds the index of the first word of the
+   * line that ends before word {@code j} in the best layout of the first
+   * {@code j} words.
+   */
+
+  private void computeBreaks(final int count)
+  {
+    if (this.demerits.length <= count) {
+      final int size = Math.max(count + 1, this.demerits.length * 2);
+      this.demerits = Arrays.copyOf(this.demerits, size);
+      this.previous = Arrays.copyOf(this.previous, size);
+      this.breaks = Arrays.copyOf(this.breaks, size);
+    }
+
+    this.demerits[0] = 0L;
+    for (int end = 1; end <= count; ++end) {
+      final boolean last = end == count;
+      final boolean hyphen = this.words.isJoined(end - 1);
+      final long penalty = hyphen ? HYPHEN_DEMERITS : 0L;
+      long best = Long.MAX_VALUE;
+      int best_start = end - 1;
+      int text = hyphen ? 1 : 0;
+      int gaps = 0;
+
+      for (int start = end - 1; start >= 0; --start) {
+        text += this.words.width(start);
+        if (start + 1 < end && !this.words.isJoined(start)) {
+          ++gaps;
+        }
+        if (start + 1 < end && !this.canFit(text, gaps + 1)) {
+          break;
+        }
+
+        final long d =
+          this.demerits[start]
+            + this.lineDemerits(text, gaps + 1, last)
+            + penalty;
+        if (d < best) {
+          best = d;
+          best_start = start;
+        }
+      }
+
+      this.demerits[end] = best;
+      this.previous[end] = best_start;
+    }
+  }
+
+  /**
+   * The same fitting rule as {@link JPJustifierBasic}: every word on a line
+   * occupies its length plus one character of space. Fragments of a
+   * hyphenated word count as a single word, and a trailing hyphen is
+   * included in {@code text}.
+   */
+
+  private boolean canFit(
+    final int text,
+    final int line_words)
+  {
+    return text + line_words < this.width;
+  }
+
+  /**
+   * Calculate the demerits of a line containing {@code line_words} words
+   * whose lengths sum to {@code text}.
+   */
+
+  private long lineDemerits(
+    final int text,
+    final int line_words,
+    final boolean last)
+  {
+    final int space = this.width - text;
+    final int gaps = line_words - 1;
+
+    if (gaps == 0 || !this.decider.shouldJustify(space, text)) {
+      if (last) {
+        return 0L;
+      }
+      final long slack = (long) space - (long) gaps;
+      return UNJUSTIFIED_DEMERITS + (slack * slack);
+    }
+
+    final double ratio = (double) (space - gaps) / (double) gaps;
+    final long badness =
+      Math.min(INFINITELY_BAD, Math.round(100.0 * ratio * ratio * ratio));
+    final long bad = LINE_PENALTY + badness;
+    return bad * bad;
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of non-negative durations. Values are counted in
+ * logarithmic buckets: each power of two is divided into four buckets, so a
+ * value is known to within 25% of its magnitude. Recording a value is
+ * lock-free and costs a few arithmetic operations and an increment of a
+ * {@link LongAdder}, which spreads concurrent updates over separate cells;
+ * reading the histogram from another thread does not contend with the
+ * threads recording values.
+ */
+
+public final class JPLatencyHistogram
+{
+  private static final int SUB_BITS = 2;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+
+  /**
+   * The number of buckets in every histogram.
+   */
+
+  public static final int BUCKET_COUNT = (Long.SIZE - SUB_BITS) * SUB_COUNT;
+
+  private final LongAdder[] buckets;
+
+  private JPLatencyHistogram()
+  {
+    this.buckets = new LongAdder[BUCKET_COUNT];
+    for (int index = 0; index < BUCKET_COUNT; ++index) {
+      this.buckets[index] = new LongAdder();
+    }
+  }
+
+  /**
+   * @return A new empty histogram
+   */
+
+  public static JPLatencyHistogram create()
+  {
+    return new JPLatencyHistogram();
+  }
+
+  /**
+   * @param value A non-negative value
+   *
+   * @return The index of the bucket that counts {@code value}
+   */
+
+  public static int bucketOf(
+    final long value)
+  {
+    final long v = Math.max(0L, value);
+    if (v < SUB_COUNT) {
+      return (int) v;
+    }
+    final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(v);
+    final int sub = (int) (v >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+    return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+  }
+
+  /**
+   * @param bucket The index of a bucket
+   *
+   * @return The greatest value counted by the bucket
+   */
+
+  public static long bucketUpperBound(
+    final int bucket)
+  {
+    Objects.checkIndex(bucket, BUCKET_COUNT);
+    if (bucket < SUB_COUNT) {
+      return bucket;
+    }
+    final int shift = (bucket >>> SUB_BITS) - 1;
+    final long sub = bucket & (SUB_COUNT - 1);
+    final long lower = (SUB_COUNT + sub) << shift;
+    return lower + ((1L << shift) - 1L);
+  }
+
+  /**
+   * Record a value. Negative values are recorded as zero.
+   *
+   * @param value The value
+   */
+
+  public void record(
+    final long value)
+  {
+    this.buckets[bucketOf(value)].increment();
+  }
+
+  /**
+   * @return The number of values recorded in each bucket
+   */
+
+  public long[] snapshot()
+  {
+    final long[] counts = new long[BUCKET_COUNT];
+    for (int index = 0; index < BUCKET_COUNT; ++index) {
+      counts[index] = this.buckets[index].sum();
+    }
+    return counts;
+  }
+
+  /**
+   * @return The number of values recorded
+   */
+
+  public long count()
+  {
+    long total = 0L;
+    for (int index = 0; index < BUCKET_COUNT; ++index) {
+      total += this.buckets[index].sum();
+    }
+    return total;
+  }
+
+  /**
+   * Estimate a percentile of the recorded values. The result is the upper
+   * bound of the bucket that contains the percentile, and so is never less
+   * than the true value.
+   *
+   * @param percentile The percentile in the range {@code [0, 100]}
+   *
+   * @return The estimated value, or {@code 0} if no values have been recorded
+   */
+
+  public long percentile(
+    final double percentile)
+  {
+    if (!(percentile >= 0.0 && percentile <= 100.0)) {
+      throw new IllegalArgumentException(
+        String.format("Percentile %f must be in [0, 100]", percentile));
+    }
+
+    final long[] counts = this.snapshot();
+    long total = 0L;
+    for (final long c : counts) {
+      total += c;
+    }
+    if (total == 0L) {
+      return 0L;
+    }
+
+    final long rank =
+      Math.max(1L, (long) Math.ceil(percentile / 100.0 * (double) total));
+    long seen = 0L;
+    for (int index = 0; index < BUCKET_COUNT; ++index) {
+      seen += counts[index];
+      if (seen >= rank) {
+        return bucketUpperBound(index);
+      }
+    }
+    return bucketUpperBound(BUCKET_COUNT - 1);
+  }
+
+  /**
+   * Discard all recorded values. Values recorded concurrently with a reset
+   * may or may not be discarded.
+   */
+
+  public void reset()
+  {
+    for (int index = 0; index < BUCKET_COUNT; ++index) {
+      this.buckets[index].reset();
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jranges.RangeCheck;
+
+/**
+ * A description of the lines that changed as the result of an edit: the
+ * lines {@code [firstLine, firstLine + removedLines)} of the previous layout
+ * were replaced by the lines {@code [firstLine, firstLine + addedLines)} of
+ * the new layout. All other lines are unchanged, although the lines that
+ * follow the change are moved if {@code removedLines != addedLines}.
+ *
+ * @param firstLine    The index of the first changed line
+ * @param removedLines The number of lines removed
+ * @param addedLines   The number of lines added
+ */
+
+public record JPLayoutChange(
+  int firstLine,
+  int removedLines,
+  int addedLines)
+{
+  /**
+   * A description of the lines that changed as the result of an edit.
+   *
+   * @param firstLine    The index of the first changed line
+   * @param removedLines The number of lines removed
+   * @param addedLines   The number of lines added
+   */
+
+  public JPLayoutChange
+  {
+    RangeCheck.checkGreaterEqualInteger(
+      firstLine, "First line", 0, "Minimum line");
+    RangeCheck.checkGreaterEqualInteger(
+      removedLines, "Removed lines", 0, "Minimum lines");
+    RangeCheck.checkGreaterEqualInteger(
+      addedLines, "Added lines", 0, "Minimum lines");
+  }
+
+  /**
+   * @return {@code true} if no lines changed
+   */
+
+  public boolean isEmpty()
+  {
+    return this.removedLines == 0 && this.addedLines == 0;
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * The counts of words and lines in one part of a layout. Instances passed to
+ * a {@link JPLayoutMetricsType} are only valid for the duration of the call.
+ */
+
+public interface JPLayoutCountsType
+{
+  /**
+   * @return The number of words added
+   */
+
+  int words();
+
+  /**
+   * @return The number of lines produced, including blank lines
+   */
+
+  int lines();
+
+  /**
+   * @return The number of lines produced by a justifying engine that the
+   * decider did not decline to justify
+   */
+
+  int justifiedLines();
+
+  /**
+   * @return The number of lines produced by a justifying engine that the
+   * decider declined to justify
+   */
+
+  int unjustifiedLines();
+
+  /**
+   * @return The number of words that could not fit on any line
+   */
+
+  int overflows();
+
+  /**
+   * @return The number of words that could not fit on any line and that
+   * were truncated
+   */
+
+  int truncations();
+}
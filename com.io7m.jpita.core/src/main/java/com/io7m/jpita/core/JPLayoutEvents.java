@@ -0,0 +1,280 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import jdk.jfr.EventType;
+
+/**
+ * The statistics of a layout, and the flight recorder events and metrics
+ * listener that publish them. Each aligner owns an instance of this class,
+ * and reports each word, line, and overflow to it as they occur. The
+ * statistics are plain counters; events are only created, once per paragraph
+ * and once per call to {@code finish()}, when the corresponding event type
+ * is enabled in a running recording, and the metrics listener is only called
+ * if it was enabled when the aligner was created.
+ *
+ * @see JPParagraphEvent
+ * @see JPFinishEvent
+ * @see JPLayoutMetricsType
+ */
+
+final class JPLayoutEvents implements JPLayoutCountsType
+{
+  private static final EventType PARAGRAPH_TYPE =
+    EventType.getEventType(JPParagraphEvent.class);
+  private static final EventType FINISH_TYPE =
+    EventType.getEventType(JPFinishEvent.class);
+
+  private final int width;
+  private final JPLayoutMetricsType metrics;
+  private final boolean metrics_enabled;
+  private JPParagraphEvent paragraph;
+  private JPFinishEvent finish;
+  private boolean paragraph_open;
+  private int paragraph_words;
+  private int paragraph_lines;
+  private int paragraph_overflows;
+  private int paragraph_truncations;
+  private int paragraph_justified;
+  private int paragraph_unjustified;
+  private int total_paragraphs;
+  private int total_words;
+  private int total_lines;
+  private int total_overflows;
+  private int total_unjustified;
+  private long finish_start;
+
+  JPLayoutEvents(
+    final int in_width,
+    final JPLayoutMetricsType in_metrics)
+  {
+    this.width = in_width;
+    this.metrics = in_metrics;
+    this.metrics_enabled = in_metrics.isEnabled();
+  }
+
+  /**
+   * A word has been added to the current paragraph.
+   */
+
+  void word()
+  {
+    if (!this.paragraph_open) {
+      this.paragraph_open = true;
+      if (PARAGRAPH_TYPE.isEnabled()) {
+        this.paragraph = new JPParagraphEvent();
+        this.paragraph.begin();
+      }
+    }
+    ++this.paragraph_words;
+  }
+
+  /**
+   * A line that was not subject to justification has been produced.
+   */
+
+  void line()
+  {
+    ++this.paragraph_lines;
+  }
+
+  /**
+   * A line has been produced by a justifying engine.
+   *
+   * @param justified {@code false} if the decider declined to justify the
+   *                  line
+   */
+
+  void justifiedLine(final boolean justified)
+  {
+    ++this.paragraph_lines;
+    if (justified) {
+      ++this.paragraph_justified;
+    } else {
+      ++this.paragraph_unjustified;
+    }
+  }
+
+  /**
+   * A word that could not fit on any line has been placed on a line of its
+   * own.
+   */
+
+  void overflow()
+  {
+    ++this.paragraph_overflows;
+  }
+
+  /**
+   * A word that could not fit on any line has been truncated.
+   */
+
+  void truncation()
+  {
+    ++this.paragraph_truncations;
+  }
+
+  /**
+   * The current paragraph has ended.
+   */
+
+  void endParagraph()
+  {
+    final JPParagraphEvent event = this.paragraph;
+    if (event != null) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.set(
+          this.width,
+          this.paragraph_words,
+          this.paragraph_lines,
+          this.paragraph_overflows,
+          this.paragraph_unjustified);
+        event.commit();
+      }
+      this.paragraph = null;
+    }
+
+    if (this.metrics_enabled
+      && (this.paragraph_words > 0 || this.paragraph_lines > 0)) {
+      this.metrics.onParagraph(this);
+    }
+
+    if (this.paragraph_open) {
+      ++this.total_paragraphs;
+    }
+    this.total_words += this.paragraph_words;
+    this.total_lines += this.paragraph_lines;
+    this.total_overflows += this.paragraph_overflows;
+    this.total_unjustified += this.paragraph_unjustified;
+    this.clearParagraph();
+  }
+
+  /**
+   * A call to {@code finish()} has started.
+   */
+
+  void beginFinish()
+  {
+    if (this.metrics_enabled) {
+      this.finish_start = System.nanoTime();
+    }
+    if (FINISH_TYPE.isEnabled()) {
+      this.finish = new JPFinishEvent();
+      this.finish.begin();
+    }
+  }
+
+  /**
+   * A call to {@code finish()} has completed. The current paragraph, if any,
+   * is ended.
+   */
+
+  void endFinish()
+  {
+    this.endParagraph();
+
+    final JPFinishEvent event = this.finish;
+    if (event != null) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.set(
+          this.width,
+          this.total_paragraphs,
+          this.total_words,
+          this.total_lines,
+          this.total_overflows,
+          this.total_unjustified);
+        event.commit();
+      }
+      this.finish = null;
+    }
+    this.clearTotals();
+
+    if (this.metrics_enabled) {
+      this.metrics.onFinish(System.nanoTime() - this.finish_start);
+    }
+  }
+
+  /**
+   * Discard all statistics without publishing them.
+   */
+
+  void reset()
+  {
+    this.paragraph = null;
+    this.finish = null;
+    this.clearParagraph();
+    this.clearTotals();
+  }
+
+  private void clearParagraph()
+  {
+    this.paragraph_open = false;
+    this.paragraph_words = 0;
+    this.paragraph_lines = 0;
+    this.paragraph_overflows = 0;
+    this.paragraph_truncations = 0;
+    this.paragraph_justified = 0;
+    this.paragraph_unjustified = 0;
+  }
+
+  @Override
+  public int words()
+  {
+    return this.paragraph_words;
+  }
+
+  @Override
+  public int lines()
+  {
+    return this.paragraph_lines;
+  }
+
+  @Override
+  public int justifiedLines()
+  {
+    return this.paragraph_justified;
+  }
+
+  @Override
+  public int unjustifiedLines()
+  {
+    return this.paragraph_unjustified;
+  }
+
+  @Override
+  public int overflows()
+  {
+    return this.paragraph_overflows;
+  }
+
+  @Override
+  public int truncations()
+  {
+    return this.paragraph_truncations;
+  }
+
+  private void clearTotals()
+  {
+    this.total_paragraphs = 0;
+    this.total_words = 0;
+    this.total_lines = 0;
+    this.total_overflows = 0;
+    this.total_unjustified = 0;
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metrics listener that accumulates counts and a histogram of the
+ * durations of calls to {@link JPAlignerType#finish()}. Counters are
+ * {@link LongAdder} values, so any number of aligners on any number of
+ * threads may report to the same instance without contending on a single
+ * memory location, and the counts may be sampled from another thread at any
+ * time. Counts sampled while aligners are reporting are not an atomic
+ * snapshot: each count is exact, but the counts may reflect different
+ * numbers of paragraphs.
+ */
+
+public final class JPLayoutMetrics implements JPLayoutMetricsType
+{
+  private final LongAdder paragraphs;
+  private final LongAdder words;
+  private final LongAdder lines;
+  private final LongAdder justified;
+  private final LongAdder unjustified;
+  private final LongAdder overflows;
+  private final LongAdder truncations;
+  private final JPLatencyHistogram finishes;
+
+  private JPLayoutMetrics()
+  {
+    this.paragraphs = new LongAdder();
+    this.words = new LongAdder();
+    this.lines = new LongAdder();
+    this.justified = new LongAdder();
+    this.unjustified = new LongAdder();
+    this.overflows = new LongAdder();
+    this.truncations = new LongAdder();
+    this.finishes = JPLatencyHistogram.create();
+  }
+
+  /**
+   * @return A new listener with all counts set to zero
+   */
+
+  public static JPLayoutMetrics create()
+  {
+    return new JPLayoutMetrics();
+  }
+
+  @Override
+  public void onParagraph(
+    final JPLayoutCountsType counts)
+  {
+    final int w = counts.words();
+    if (w > 0) {
+      this.paragraphs.increment();
+      this.words.add(w);
+    }
+    this.lines.add(counts.lines());
+    this.justified.add(counts.justifiedLines());
+    this.unjustified.add(counts.unjustifiedLines());
+    this.overflows.add(counts.overflows());
+    this.truncations.add(counts.truncations());
+  }
+
+  @Override
+  public void onFinish(
+    final long nanoseconds)
+  {
+    this.finishes.record(nanoseconds);
+  }
+
+  /**
+   * @return The number of paragraphs that contained at least one word
+   */
+
+  public long paragraphs()
+  {
+    return this.paragraphs.sum();
+  }
+
+  /**
+   * @return The number of words added
+   */
+
+  public long words()
+  {
+    return this.words.sum();
+  }
+
+  /**
+   * @return The number of lines produced
+   *
+   * @see JPLayoutCountsType#lines()
+   */
+
+  public long lines()
+  {
+    return this.lines.sum();
+  }
+
+  /**
+   * @return The number of justified lines
+   *
+   * @see JPLayoutCountsType#justifiedLines()
+   */
+
+  public long justifiedLines()
+  {
+    return this.justified.sum();
+  }
+
+  /**
+   * @return The number of lines that the decider declined to justify
+   *
+   * @see JPLayoutCountsType#unjustifiedLines()
+   */
+
+  public long unjustifiedLines()
+  {
+    return this.unjustified.sum();
+  }
+
+  /**
+   * @return The number of words that could not fit on any line
+   */
+
+  public long overflows()
+  {
+    return this.overflows.sum();
+  }
+
+  /**
+   * @return The number of words that could not fit on any line and that
+   * were truncated
+   */
+
+  public long truncations()
+  {
+    return this.truncations.sum();
+  }
+
+  /**
+   * @return The histogram of the durations of calls to {@code finish()}, in
+   * nanoseconds
+   */
+
+  public JPLatencyHistogram finishLatency()
+  {
+    return this.finishes;
+  }
+
+  /**
+   * Set all counts to zero. Values reported concurrently with a reset may or
+   * may not be discarded.
+   */
+
+  public void reset()
+  {
+    this.paragraphs.reset();
+    this.words.reset();
+    this.lines.reset();
+    this.justified.reset();
+    this.unjustified.reset();
+    this.overflows.reset();
+    this.truncations.reset();
+    this.finishes.reset();
+  }
+}
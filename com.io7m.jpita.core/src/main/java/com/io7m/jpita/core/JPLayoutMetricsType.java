@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * A listener that receives metrics from aligners. A listener is configured
+ * with {@link JPLayoutSpec#withMetrics(JPLayoutMetricsType)}, and is shared by
+ * every aligner created from the specification; implementations must
+ * therefore be thread-safe, and should not block.
+ *
+ * Aligners report the counts of each paragraph as it ends (and the counts
+ * of any blank lines produced between paragraphs), and the duration of each
+ * call to {@link JPAlignerType#finish()} and its variants. No other work is
+ * done on behalf of a listener: words and lines are counted with plain
+ * integer fields, and the listener is called at most once per paragraph and
+ * twice per call to {@code finish()}.
+ *
+ * @see JPLayoutMetrics
+ */
+
+public interface JPLayoutMetricsType
+{
+  /**
+   * @return A listener that receives nothing
+   */
+
+  static JPLayoutMetricsType none()
+  {
+    return JPLayoutMetricsNone.NONE;
+  }
+
+  /**
+   * Determine whether the listener receives metrics. The result is read
+   * once when each aligner is created; aligners created with a listener
+   * that returns {@code false} never call the listener, and never read the
+   * clock.
+   *
+   * @return {@code true} iff the listener receives metrics
+   */
+
+  default boolean isEnabled()
+  {
+    return true;
+  }
+
+  /**
+   * A paragraph has ended.
+   *
+   * @param counts The counts of the paragraph
+   */
+
+  void onParagraph(JPLayoutCountsType counts);
+
+  /**
+   * A call to {@code finish()} has completed.
+   *
+   * @param nanoseconds The duration of the call in nanoseconds, including
+   *                    the time taken to collect the lines or to write them
+   *                    to the output
+   */
+
+  void onFinish(long nanoseconds);
+}
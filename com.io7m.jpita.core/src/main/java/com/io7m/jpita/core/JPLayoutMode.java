@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.Objects;
+
+/**
+ * The available layout engines.
+ */
+
+public enum JPLayoutMode
+{
+  /**
+   * Left alignment, as performed by {@link JPAlignerBasic}.
+   */
+
+  MODE_ALIGN_LEFT("align-left"),
+
+  /**
+   * Greedy full justification, as performed by {@link JPJustifierBasic}.
+   */
+
+  MODE_JUSTIFY("justify"),
+
+  /**
+   * Optimal full justification, as performed by {@link JPJustifierOptimal}.
+   */
+
+  MODE_JUSTIFY_OPTIMAL("justify-optimal");
+
+
+  private final String name;
+
+  JPLayoutMode(final String in_name)
+  {
+    this.name = Objects.requireNonNull(in_name, "Name");
+  }
+
+  /**
+   * @return The value as a humanly-readable string
+   */
+
+  public String getName()
+  {
+    return this.name;
+  }
+
+  @Override
+  public String toString()
+  {
+    return this.name;
+  }
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link Flow.Processor} that lays out words and publishes the formatted
+ * lines. Each item received from upstream is a word, except that an item
+ * that is empty or consists only of whitespace (the ASCII whitespace that
+ * separates words in {@link JPAlignerType#addText(CharSequence)}) is a hard
+ * line break (as by {@link JPAlignerType#breakLine()}). When upstream completes, the layout is
+ * finished and any remaining lines are published before the processor
+ * completes.
+ *
+ * The processor honours the demand of its single subscriber: a word is only
+ * requested from upstream when the subscriber has requested a line and no
+ * formatted line is waiting to be delivered, and at most one word is
+ * requested at a time. Apart from the words of the line being built by the
+ * aligner (or, for {@link JPLayoutMode#MODE_JUSTIFY_OPTIMAL}, the words of the
+ * paragraph being built), the processor therefore retains at most the few
+ * lines produced by a single word. A slow subscriber throttles upstream
+ * rather than causing words or lines to accumulate.
+ *
+ * The processor never blocks. Signals are delivered on the threads that
+ * call into the processor (the threads of upstream, or of the subscriber
+ * when it requests more lines), and are serialized without locks. An error
+ * from upstream is passed to the subscriber immediately, discarding any
+ * lines that have not been delivered.
+ */
+
+public final class JPLayoutProcessor implements Flow.Processor<String, String>
+{
+  private static final Flow.Subscription CLOSED = new Rejected();
+
+  private final JPAlignerType aligner;
+  private final ArrayDeque<String> lines;
+  private final ConcurrentLinkedQueue<String> words;
+  private final AtomicInteger work;
+  private final AtomicLong requested;
+  private final AtomicReference<Flow.Subscriber<? super String>> downstream;
+  private final AtomicReference<Throwable> error;
+  private final Downstream subscription;
+  private final AtomicReference<Flow.Subscription> upstream;
+  private volatile boolean upstream_done;
+  private volatile boolean cancelled;
+  private boolean awaiting;
+  private boolean finished;
+  private boolean terminated;
+
+  private JPLayoutProcessor(
+    final JPLayoutSpec in_spec)
+  {
+    this.lines = new ArrayDeque<>(4);
+    this.words = new ConcurrentLinkedQueue<>();
+    this.work = new AtomicInteger();
+    this.requested = new AtomicLong();
+    this.downstream = new AtomicReference<>();
+    this.error = new AtomicReference<>();
+    this.upstream = new AtomicReference<>();
+    this.subscription = new Downstream();
+    this.aligner = in_spec.createAligner(
+      line -> this.lines.add(line.toString()));
+  }
+
+  /**
+   * Create a new processor.
+   *
+   * @param in_spec The layout specification
+   *
+   * @return A new processor
+   */
+
+  public static JPLayoutProcessor create(
+    final JPLayoutSpec in_spec)
+  {
+    Objects.requireNonNull(in_spec, "Spec");
+    return new JPLayoutProcessor(in_spec);
+  }
+
+  @Override
+  public void subscribe(
+    final Flow.Subscriber<? super String> subscriber)
+  {
+    Objects.requireNonNull(subscriber, "Subscriber");
+
+    if (!this.downstream.compareAndSet(null, subscriber)) {
+      subscriber.onSubscribe(new Rejected());
+      subscriber.onError(new IllegalStateException(
+        String.format(
+          "Processor %s already has a subscriber",
+          Integer.toHexString(System.identityHashCode(this)))));
+      return;
+    }
+
+    subscriber.onSubscribe(this.subscription);
+    this.drain();
+  }
+
+  @Override
+  public void onSubscribe(
+    final Flow.Subscription in_subscription)
+  {
+    Objects.requireNonNull(in_subscription, "Subscription");
+
+    /*
+     * A subscription that arrives after a first one, or after the processor
+     * has been cancelled or has terminated, is cancelled immediately.
+     */
+
+    if (!this.upstream.compareAndSet(null, in_subscription)) {
+      in_subscription.cancel();
+      return;
+    }
+    this.drain();
+  }
+
+  @Override
+  public void onNext(
+    final String item)
+  {
+    Objects.requireNonNull(item, "Item");
+    this.words.offer(item);
+    this.drain();
+  }
+
+  @Override
+  public void onError(
+    final Throwable throwable)
+  {
+    Objects.requireNonNull(throwable, "Throwable");
+    this.fail(throwable);
+  }
+
+  @Override
+  public void onComplete()
+  {
+    this.upstream_done = true;
+    this.drain();
+  }
+
+  /**
+   * Perform all pending work. Only one thread at a time performs work; a
+   * thread that calls this method while another is working records that
+   * more work is pending and returns immediately, and the working thread
+   * repeats the loop on its behalf.
+   */
+
+  private void drain()
+  {
+    if (this.work.getAndIncrement() != 0) {
+      return;
+    }
+
+    int missed = 1;
+    while (true) {
+      this.step();
+      missed = this.work.addAndGet(-missed);
+      if (missed == 0) {
+        return;
+      }
+    }
+  }
+
+  private void step()
+  {
+    while (!this.terminated) {
+      if (this.cancelled) {
+        this.discard();
+        return;
+      }
+
+      final Flow.Subscriber<? super String> subscriber =
+        this.downstream.get();
+      if (subscriber == null) {
+        return;
+      }
+
+      final Throwable failure = this.error.get();
+      if (failure != null) {
+        this.discard();
+        subscriber.onError(failure);
+        return;
+      }
+
+      this.emit(subscriber);
+      if (!this.lines.isEmpty()) {
+        return;
+      }
+      if (!this.advance(subscriber)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Deliver waiting lines for as long as the subscriber has demand.
+   */
+
+  private void emit(
+    final Flow.Subscriber<? super String> subscriber)
+  {
+    while (!this.cancelled && !this.lines.isEmpty()) {
+      final long r = this.requested.get();
+      if (r == 0L) {
+        return;
+      }
+      if (r != Long.MAX_VALUE) {
+        this.requested.decrementAndGet();
+      }
+      subscriber.onNext(this.lines.poll());
+    }
+  }
+
+  /**
+   * Consume the next word, finish the layout, or request more words.
+   *
+   * @return {@code true} if progress was made and the loop should continue
+   */
+
+  private boolean advance(
+    final Flow.Subscriber<? super String> subscriber)
+  {
+    final String word = this.words.poll();
+    if (word != null) {
+      this.awaiting = false;
+      final int length = word.length();
+      if (JPText.trimStart(word, 0, length) == length) {
+        this.aligner.breakLine();
+      } else {
+        this.aligner.addWord(word);
+      }
+      return true;
+    }
+
+    if (this.upstream_done) {
+      if (!this.finished) {
+        this.finished = true;
+        this.aligner.finish();
+        return true;
+      }
+      this.terminated = true;
+      this.upstream.set(CLOSED);
+      subscriber.onComplete();
+      return false;
+    }
+
+    final Flow.Subscription up = this.upstream.get();
+    if (!this.awaiting && up != null && up != CLOSED
+      && this.requested.get() > 0L) {
+      this.awaiting = true;
+      up.request(1L);
+    }
+    return false;
+  }
+
+  private void discard()
+  {
+    this.terminated = true;
+    this.lines.clear();
+    this.words.clear();
+    this.aligner.reset();
+    this.upstream.set(CLOSED);
+  }
+
+  private void request(
+    final long n)
+  {
+    if (n <= 0L) {
+      this.cancelUpstream();
+      this.fail(new IllegalArgumentException(
+        String.format("Requested %d lines; must be positive", n)));
+      return;
+    }
+
+    this.requested.getAndUpdate(r -> {
+      final long sum = r + n;
+      return sum < 0L ? Long.MAX_VALUE : sum;
+    });
+    this.drain();
+  }
+
+  private void fail(
+    final Throwable throwable)
+  {
+    this.error.compareAndSet(null, throwable);
+    this.upstream_done = true;
+    this.drain();
+  }
+
+  private void cancel()
+  {
+    this.cancelled = true;
+    this.cancelUpstream();
+    this.drain();
+  }
+
+  private void cancelUpstream()
+  {
+    final Flow.Subscription up = this.upstream.getAndSet(CLOSED);
+    if (up != null) {
+      up.cancel();
+    }
+  }
+
+  /**
+   * The subscription given to the subscriber of the processor.
+   */
+
+  private final class Downstream implements Flow.Subscription
+  {
+    Downstream()
+    {
+
+    }
+
+    @Override
+    public void request(
+      final long n)
+    {
+      JPLayoutProcessor.this.request(n);
+    }
+
+    @Override
+    public void cancel()
+    {
+      JPLayoutProcessor.this.cancel();
+    }
+  }
+
+  /**
+   * The subscription given to subscribers that are rejected.
+   */
+
+  private static final class Rejected implements Flow.Subscription
+  {
+    Rejected()
+    {
+
+    }
+
+    @Override
+    public void request(
+      final long n)
+    {
+
+    }
+
+    @Override
+    public void cancel()
+    {
+
+    }
+  }
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A compact list of formatted lines. The characters of all lines are held
+ * in a single array, along with the offset at which each line ends, so a
+ * result occupies little more memory than the text itself regardless of
+ * the number of lines. In the manner of {@link String}, text that consists
+ * entirely of ISO-8859-1 characters is held at one byte per character.
+ * Lines may be read as {@link CharSequence} views of the shared array, and
+ * {@link String} values are only created when they are requested.
+ * Instances are immutable and may be shared freely between threads.
+ */
+
+public final class JPLayoutResult
+{
+  private static final byte[] NO_BYTES = new byte[0];
+  private static final char[] NO_CHARS = new char[0];
+  private static final JPLayoutResult EMPTY =
+    new JPLayoutResult(NO_BYTES, NO_CHARS, new int[0]);
+
+  private final byte[] latin1;
+  private final char[] utf16;
+  private final int[] ends;
+
+  private JPLayoutResult(
+    final byte[] in_latin1,
+    final char[] in_utf16,
+    final int[] in_ends)
+  {
+    this.latin1 = in_latin1;
+    this.utf16 = in_utf16;
+    this.ends = in_ends;
+  }
+
+  /**
+   * Create a result from the given text, compressing it if possible.
+   *
+   * @param text   The text of all lines
+   * @param length The number of characters of {@code text} that are used
+   * @param ends   The offset at which each line ends
+   *
+   * @return A result
+   */
+
+  static JPLayoutResult create(
+    final char[] text,
+    final int length,
+    final int[] ends)
+  {
+    final byte[] bytes = compress(text, length);
+    if (bytes.length == length) {
+      return new JPLayoutResult(bytes, NO_CHARS, ends);
+    }
+
+    final char[] chars = new char[length];
+    System.arraycopy(text, 0, chars, 0, length);
+    return new JPLayoutResult(NO_BYTES, chars, ends);
+  }
+
+  /**
+   * @return The text as ISO-8859-1 bytes, or an empty array if the text
+   * contains any character that cannot be represented in ISO-8859-1
+   */
+
+  private static byte[] compress(
+    final char[] text,
+    final int length)
+  {
+    for (int index = 0; index < length; ++index) {
+      if (text[index] > 0xff) {
+        return NO_BYTES;
+      }
+    }
+
+    final byte[] bytes = new byte[length];
+    for (int index = 0; index < length; ++index) {
+      bytes[index] = (byte) text[index];
+    }
+    return bytes;
+  }
+
+  /**
+   * @return A result with no lines
+   */
+
+  public static JPLayoutResult empty()
+  {
+    return EMPTY;
+  }
+
+  /**
+   * @param lines The lines
+   *
+   * @return A result holding a copy of the given lines
+   */
+
+  public static JPLayoutResult of(
+    final List<? extends CharSequence> lines)
+  {
+    Objects.requireNonNull(lines, "Lines");
+
+    final int count = lines.size();
+    int length = 0;
+    for (int index = 0; index < count; ++index) {
+      length += lines.get(index).length();
+    }
+
+    final char[] text = new char[length];
+    final int[] ends = new int[count];
+    int offset = 0;
+    for (int index = 0; index < count; ++index) {
+      final CharSequence line = lines.get(index);
+      final int line_length = line.length();
+      JPText.copy(line, 0, line_length, text, offset);
+      offset += line_length;
+      ends[index] = offset;
+    }
+    return create(text, length, ends);
+  }
+
+  /**
+   * @param results The results
+   *
+   * @return A result holding the lines of all of the given results, in order
+   */
+
+  static JPLayoutResult concat(
+    final List<JPLayoutResult> results)
+  {
+    if (results.size() == 1) {
+      return results.get(0);
+    }
+
+    int length = 0;
+    int count = 0;
+    boolean compressed = true;
+    for (final JPLayoutResult result : results) {
+      length += result.textLength();
+      count += result.ends.length;
+      compressed = compressed && result.isLatin1();
+    }
+
+    final byte[] bytes = compressed ? new byte[length] : NO_BYTES;
+    final char[] chars = compressed ? NO_CHARS : new char[length];
+    final int[] ends = new int[count];
+    int text_offset = 0;
+    int line_offset = 0;
+    for (final JPLayoutResult result : results) {
+      final int result_length = result.textLength();
+      if (compressed) {
+        System.arraycopy(result.latin1, 0, bytes, text_offset, result_length);
+      } else {
+        result.copyTo(chars, text_offset);
+      }
+
+      final int[] result_ends = result.ends;
+      for (int index = 0; index < result_ends.length; ++index) {
+        ends[line_offset + index] = text_offset + result_ends[index];
+      }
+      text_offset += result_length;
+      line_offset += result_ends.length;
+    }
+    return new JPLayoutResult(bytes, chars, ends);
+  }
+
+  private boolean isLatin1()
+  {
+    return this.utf16.length == 0;
+  }
+
+  private void copyTo(
+    final char[] target,
+    final int offset)
+  {
+    if (this.isLatin1()) {
+      final byte[] bytes = this.latin1;
+      for (int index = 0; index < bytes.length; ++index) {
+        target[offset + index] = (char) (bytes[index] & 0xff);
+      }
+    } else {
+      System.arraycopy(this.utf16, 0, target, offset, this.utf16.length);
+    }
+  }
+
+  /**
+   * @return The number of lines
+   */
+
+  public int lineCount()
+  {
+    return this.ends.length;
+  }
+
+  /**
+   * @return The total number of characters in all lines, excluding line
+   * separators
+   */
+
+  public int textLength()
+  {
+    return this.latin1.length + this.utf16.length;
+  }
+
+  /**
+   * @param line The line index
+   *
+   * @return The number of characters in the line
+   */
+
+  public int lineLength(
+    final int line)
+  {
+    final int start = this.lineStart(line);
+    return this.ends[line] - start;
+  }
+
+  /**
+   * A read-only view of a line. The view shares the array that holds the
+   * text of the result, and copies no characters.
+   *
+   * @param line The line index
+   *
+   * @return The line
+   */
+
+  public CharSequence line(
+    final int line)
+  {
+    final int start = this.lineStart(line);
+    final int end = this.ends[line];
+    if (this.isLatin1()) {
+      return new Latin1View(this.latin1, start, end);
+    }
+    return CharBuffer.wrap(this.utf16, start, end - start)
+      .asReadOnlyBuffer();
+  }
+
+  /**
+   * @param line The line index
+   *
+   * @return The line as a new string
+   */
+
+  public String lineString(
+    final int line)
+  {
+    final int start = this.lineStart(line);
+    return this.string(start, this.ends[line]);
+  }
+
+  private String string(
+    final int start,
+    final int end)
+  {
+    if (this.isLatin1()) {
+      return decode(this.latin1, start, end);
+    }
+    return String.valueOf(this.utf16, start, end - start);
+  }
+
+  /*
+   * No static factory method of String accepts bytes, and decoding the
+   * bytes as ISO-8859-1 allows the string to share their compact form.
+   */
+
+  // CHECKSTYLE:OFF
+  private static String decode(
+    final byte[] bytes,
+    final int start,
+    final int end)
+  {
+    return new String(
+      bytes, start, end - start, StandardCharsets.ISO_8859_1);
+  }
+  // CHECKSTYLE:ON
+
+  /**
+   * @return The lines as a list of new strings
+   */
+
+  public List<String> toList()
+  {
+    final int count = this.ends.length;
+    final List<String> lines = new ArrayList<>(count);
+    int start = 0;
+    for (int index = 0; index < count; ++index) {
+      final int end = this.ends[index];
+      lines.add(this.string(start, end));
+      start = end;
+    }
+    return lines;
+  }
+
+  /**
+   * Write each line, followed by {@code separator}, to the given output.
+   *
+   * @param output    The output
+   * @param separator The line separator
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public void writeTo(
+    final Appendable output,
+    final String separator)
+    throws IOException
+  {
+    final JPLineWriter writer = new JPLineWriter(output, separator);
+    final boolean compressed = this.isLatin1();
+    final int count = this.ends.length;
+    int start = 0;
+    for (int index = 0; index < count; ++index) {
+      final int end = this.ends[index];
+      if (compressed) {
+        writer.writeLine(this.latin1, start, end - start);
+      } else {
+        writer.writeLine(this.utf16, start, end - start);
+      }
+      start = end;
+    }
+  }
+
+  private int lineStart(
+    final int line)
+  {
+    Objects.checkIndex(line, this.ends.length);
+    return line == 0 ? 0 : this.ends[line - 1];
+  }
+
+  /**
+   * A view of a range of ISO-8859-1 bytes.
+   */
+
+  private static final class Latin1View implements CharSequence
+  {
+    private final byte[] bytes;
+    private final int start;
+    private final int end;
+
+    Latin1View(
+      final byte[] in_bytes,
+      final int in_start,
+      final int in_end)
+    {
+      this.bytes = in_bytes;
+      this.start = in_start;
+      this.end = in_end;
+    }
+
+    @Override
+    public int length()
+    {
+      return this.end - this.start;
+    }
+
+    @Override
+    public char charAt(final int index)
+    {
+      Objects.checkIndex(index, this.end - this.start);
+      return (char) (this.bytes[this.start + index] & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(
+      final int sub_start,
+      final int sub_end)
+    {
+      Objects.checkFromToIndex(sub_start, sub_end, this.end - this.start);
+      return new Latin1View(
+        this.bytes, this.start + sub_start, this.start + sub_end);
+    }
+
+    @Override
+    public String toString()
+    {
+      return decode(this.bytes, this.start, this.end);
+    }
+  }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jpita.core.JPJustifierBasic.SpaceTextDecisionType;
+import com.io7m.jranges.RangeCheck;
+
+import java.util.Objects;
+
+/**
+ * An immutable layout specification. A specification holds all of the
+ * configuration of an aligner but none of its state, and may therefore be
+ * shared freely between threads, provided that the decision function is
+ * itself stateless (as {@link JPJustifierBasic#JUSTIFY_UNDER_HALF} and
+ * {@link JPJustifierBasic#JUSTIFY_ALWAYS} are).
+ *
+ * @param mode     The layout engine
+ * @param width    The maximum width in characters
+ * @param overflow The behaviour for words that cannot fit on any line
+ *                 (ignored by {@link JPLayoutMode#MODE_ALIGN_LEFT})
+ * @param decider  A function that decides whether or not lines should be
+ *                 justified (ignored by {@link JPLayoutMode#MODE_ALIGN_LEFT})
+ * @param measurer    The function that measures the display width of words
+ * @param hyphenation The patterns used to hyphenate words
+ * @param metrics     The listener that receives metrics from aligners
+ */
+
+public record JPLayoutSpec(
+  JPLayoutMode mode,
+  int width,
+  JPOverflowBehaviour overflow,
+  SpaceTextDecisionType decider,
+  JPWidthMeasurerType measurer,
+  JPHyphenationPatterns hyphenation,
+  JPLayoutMetricsType metrics)
+{
+  /**
+   * An immutable layout specification.
+   *
+   * @param mode        The layout engine
+   * @param width       The maximum width in characters
+   * @param overflow    The behaviour for words that cannot fit on any line
+   * @param decider     A function that decides whether or not lines should
+   *                    be justified
+   * @param measurer    The function that measures the display width of words
+   * @param hyphenation The patterns used to hyphenate words
+   * @param metrics     The listener that receives metrics from aligners
+   */
+
+  public JPLayoutSpec
+  {
+    Objects.requireNonNull(mode, "Mode");
+    RangeCheck.checkGreaterInteger(width, "Width", 0, "Minimum width");
+    Objects.requireNonNull(overflow, "Overflow");
+    Objects.requireNonNull(decider, "Decider");
+    Objects.requireNonNull(measurer, "Measurer");
+    Objects.requireNonNull(hyphenation, "Hyphenation");
+    Objects.requireNonNull(metrics, "Metrics");
+  }
+
+  /**
+   * An immutable layout specification that does not report metrics.
+   *
+   * @param in_mode        The layout engine
+   * @param in_width       The maximum width in characters
+   * @param in_overflow    The behaviour for words that cannot fit on any line
+   * @param in_decider     A function that decides whether or not lines should
+   *                       be justified
+   * @param in_measurer    The function that measures the display width of
+   *                       words
+   * @param in_hyphenation The patterns used to hyphenate words
+   */
+
+  public JPLayoutSpec(
+    final JPLayoutMode in_mode,
+    final int in_width,
+    final JPOverflowBehaviour in_overflow,
+    final SpaceTextDecisionType in_decider,
+    final JPWidthMeasurerType in_measurer,
+    final JPHyphenationPatterns in_hyphenation)
+  {
+    this(
+      in_mode,
+      in_width,
+      in_overflow,
+      in_decider,
+      in_measurer,
+      in_hyphenation,
+      JPLayoutMetricsType.none());
+  }
+
+  /**
+   * An immutable layout specification that does not hyphenate words.
+   *
+   * @param in_mode     The layout engine
+   * @param in_width    The maximum width in characters
+   * @param in_overflow The behaviour for words that cannot fit on any line
+   * @param in_decider  A function that decides whether or not lines should
+   *                    be justified
+   * @param in_measurer The function that measures the display width of words
+   */
+
+  public JPLayoutSpec(
+    final JPLayoutMode in_mode,
+    final int in_width,
+    final JPOverflowBehaviour in_overflow,
+    final SpaceTextDecisionType in_decider,
+    final JPWidthMeasurerType in_measurer)
+  {
+    this(
+      in_mode,
+      in_width,
+      in_overflow,
+      in_decider,
+      in_measurer,
+      JPHyphenationPatterns.none());
+  }
+
+  /**
+   * @param width The maximum width in characters
+   *
+   * @return A specification for left-aligned text
+   */
+
+  public static JPLayoutSpec alignLeft(
+    final int width)
+  {
+    return new JPLayoutSpec(
+      JPLayoutMode.MODE_ALIGN_LEFT,
+      width,
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      JPWidthMeasurers.CODE_UNITS);
+  }
+
+  /**
+   * @param overflow The behaviour for words that cannot fit on any line
+   * @param decider  A function that decides whether or not lines should be
+   *                 justified
+   * @param width    The maximum width in characters
+   *
+   * @return A specification for greedily justified text
+   */
+
+  public static JPLayoutSpec justify(
+    final JPOverflowBehaviour overflow,
+    final SpaceTextDecisionType decider,
+    final int width)
+  {
+    return new JPLayoutSpec(
+      JPLayoutMode.MODE_JUSTIFY,
+      width,
+      overflow,
+      decider,
+      JPWidthMeasurers.CODE_UNITS);
+  }
+
+  /**
+   * @param overflow The behaviour for words that cannot fit on any line
+   * @param decider  A function that decides whether or not lines should be
+   *                 justified
+   * @param width    The maximum width in characters
+   *
+   * @return A specification for optimally justified text
+   */
+
+  public static JPLayoutSpec justifyOptimal(
+    final JPOverflowBehaviour overflow,
+    final SpaceTextDecisionType decider,
+    final int width)
+  {
+    return new JPLayoutSpec(
+      JPLayoutMode.MODE_JUSTIFY_OPTIMAL,
+      width,
+      overflow,
+      decider,
+      JPWidthMeasurers.CODE_UNITS);
+  }
+
+  /**
+   * @param in_width The maximum width in characters
+   *
+   * @return A copy of this specification with the given width
+   */
+
+  public JPLayoutSpec withWidth(
+    final int in_width)
+  {
+    return new JPLayoutSpec(
+      this.mode,
+      in_width,
+      this.overflow,
+      this.decider,
+      this.measurer,
+      this.hyphenation,
+      this.metrics);
+  }
+
+  /**
+   * @param in_measurer The function that measures the display width of words
+   *
+   * @return A copy of this specification with the given measurer
+   */
+
+  public JPLayoutSpec withMeasurer(
+    final JPWidthMeasurerType in_measurer)
+  {
+    return new JPLayoutSpec(
+      this.mode,
+      this.width,
+      this.overflow,
+      this.decider,
+      in_measurer,
+      this.hyphenation,
+      this.metrics);
+  }
+
+  /**
+   * @param in_hyphenation The patterns used to hyphenate words
+   *
+   * @return A copy of this specification with the given patterns
+   */
+
+  public JPLayoutSpec withHyphenation(
+    final JPHyphenationPatterns in_hyphenation)
+  {
+    return new JPLayoutSpec(
+      this.mode,
+      this.width,
+      this.overflow,
+      this.decider,
+      this.measurer,
+      in_hyphenation,
+      this.metrics);
+  }
+
+  /**
+   * @param in_metrics The listener that receives metrics from aligners
+   *
+   * @return A copy of this specification with the given listener
+   */
+
+  public JPLayoutSpec withMetrics(
+    final JPLayoutMetricsType in_metrics)
+  {
+    return new JPLayoutSpec(
+      this.mode,
+      this.width,
+      this.overflow,
+      this.decider,
+      this.measurer,
+      this.hyphenation,
+      in_metrics);
+  }
+
+  /**
+   * @return A new aligner configured according to this specification
+   */
+
+  public JPAlignerType createAligner()
+  {
+    return switch (this.mode) {
+      case MODE_ALIGN_LEFT -> JPAlignerBasic.create(
+        this.width, this.measurer, this.hyphenation, this.metrics);
+      case MODE_JUSTIFY -> JPJustifierBasic.create(
+        this.overflow,
+        this.decider,
+        this.width,
+        this.measurer,
+        this.hyphenation,
+        this.metrics);
+      case MODE_JUSTIFY_OPTIMAL -> JPJustifierOptimal.create(
+        this.overflow,
+        this.decider,
+        this.width,
+        this.measurer,
+        this.hyphenation,
+        this.metrics);
+    };
+  }
+
+  /**
+   * @param receiver The receiver of formatted lines
+   *
+   * @return A new streaming aligner configured according to this
+   * specification
+   */
+
+  public JPAlignerType createAligner(
+    final JPLineReceiverType receiver)
+  {
+    return switch (this.mode) {
+      case MODE_ALIGN_LEFT -> JPAlignerBasic.create(
+        this.width, this.measurer, this.hyphenation, receiver, this.metrics);
+      case MODE_JUSTIFY -> JPJustifierBasic.create(
+        this.overflow,
+        this.decider,
+        this.width,
+        this.measurer,
+        this.hyphenation,
+        receiver,
+        this.metrics);
+      case MODE_JUSTIFY_OPTIMAL -> JPJustifierOptimal.create(
+        this.overflow,
+        this.decider,
+        this.width,
+        this.measurer,
+        this.hyphenation,
+        receiver,
+        this.metrics);
+    };
+  }
+}
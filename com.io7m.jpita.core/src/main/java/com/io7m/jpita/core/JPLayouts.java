@@ -0,0 +1,342 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Functions to lay out many paragraphs at once.
+ */
+
+public final class JPLayouts
+{
+  /**
+   * The smallest number of paragraphs given to a single task. Below this,
+   * the cost of scheduling a task outweighs the cost of the layout.
+   */
+
+  private static final int CHUNK_MINIMUM = 64;
+
+  /**
+   * The number of tasks created per available processor, so that uneven
+   * paragraph lengths do not leave processors idle at the end of a batch.
+   */
+
+  private static final int CHUNKS_PER_PROCESSOR = 4;
+
+  /**
+   * The pool of idle aligners used by the stateless formatting functions.
+   * The pool lives as long as the JVM, and so it is kept small.
+   */
+
+  private static final JPAlignerPoolType POOL =
+    JPAlignerPoolShared.create(16, 8);
+
+  private JPLayouts()
+  {
+    throw new AssertionError("Unreachable code!");
+  }
+
+  /**
+   * Lay out the given words as a single paragraph. This method holds no
+   * state between calls and may be called concurrently from any number of
+   * threads. Internally, idle aligners for each specification are retained
+   * and reused, so repeated calls do not pay the cost of constructing and
+   * growing a new aligner.
+   *
+   * @param spec  The layout specification
+   * @param words The words
+   *
+   * @return The formatted lines
+   */
+
+  public static List<String> format(
+    final JPLayoutSpec spec,
+    final List<String> words)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(words, "Words");
+
+    final JPAlignerType aligner = POOL.acquire(spec);
+    try {
+      for (int index = 0; index < words.size(); ++index) {
+        aligner.addWord(words.get(index));
+      }
+      return aligner.finish();
+    } finally {
+      POOL.release(spec, aligner);
+    }
+  }
+
+  /**
+   * Lay out the given text, treating blank lines as paragraph breaks in the
+   * manner of {@link JPAlignerType#addText(CharSequence)}. This method holds
+   * no state between calls and may be called concurrently from any number
+   * of threads.
+   *
+   * @param spec The layout specification
+   * @param text The text
+   *
+   * @return The formatted lines
+   *
+   * @see #format(JPLayoutSpec, List)
+   */
+
+  public static List<String> formatText(
+    final JPLayoutSpec spec,
+    final CharSequence text)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(text, "Text");
+
+    final JPAlignerType aligner = POOL.acquire(spec);
+    try {
+      aligner.addText(text);
+      return aligner.finish();
+    } finally {
+      POOL.release(spec, aligner);
+    }
+  }
+
+  /**
+   * Lay out the given words as a single paragraph, returning the lines as
+   * a compact result.
+   *
+   * @param spec  The layout specification
+   * @param words The words
+   *
+   * @return The formatted lines
+   *
+   * @see #format(JPLayoutSpec, List)
+   */
+
+  public static JPLayoutResult formatCompact(
+    final JPLayoutSpec spec,
+    final List<String> words)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(words, "Words");
+
+    final JPAlignerType aligner = POOL.acquire(spec);
+    try {
+      for (int index = 0; index < words.size(); ++index) {
+        aligner.addWord(words.get(index));
+      }
+      return aligner.finishCompact();
+    } finally {
+      POOL.release(spec, aligner);
+    }
+  }
+
+  /**
+   * Lay out the given paragraphs in parallel on the given executor,
+   * returning the lines as a compact result. Each task produces a compact
+   * result for its chunk of paragraphs, and the results are concatenated,
+   * so no string is created for any line.
+   *
+   * @param paragraphs The paragraphs
+   * @param spec       The layout specification
+   * @param executor   The executor that runs the layout tasks
+   *
+   * @return The formatted lines of all paragraphs, in order
+   *
+   * @throws CompletionException If the layout of any paragraph fails; the
+   *                             cause is the original exception
+   * @see #formatAll(List, Supplier, Executor)
+   */
+
+  public static JPLayoutResult formatAllCompact(
+    final List<JPParagraph> paragraphs,
+    final JPLayoutSpec spec,
+    final Executor executor)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    return JPLayoutResult.concat(
+      formatChunks(
+        paragraphs,
+        spec::createAligner,
+        executor,
+        JPAlignerType::finishCompact));
+  }
+
+  /**
+   * Lay out the given paragraphs in parallel on the given executor.
+   *
+   * @param paragraphs The paragraphs
+   * @param spec       The layout specification
+   * @param executor   The executor that runs the layout tasks
+   *
+   * @return The formatted lines of all paragraphs, in order
+   *
+   * @see #formatAll(List, Supplier, Executor)
+   */
+
+  public static List<String> formatAll(
+    final List<JPParagraph> paragraphs,
+    final JPLayoutSpec spec,
+    final Executor executor)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    return formatAll(paragraphs, spec::createAligner, executor);
+  }
+
+  /**
+   * Lay out the given paragraphs in parallel on the common
+   * {@link ForkJoinPool}.
+   *
+   * @param paragraphs The paragraphs
+   * @param aligners   A supplier of new aligners
+   *
+   * @return The formatted lines of all paragraphs, in order
+   *
+   * @see #formatAll(List, Supplier, Executor)
+   */
+
+  public static List<String> formatAll(
+    final List<JPParagraph> paragraphs,
+    final Supplier<? extends JPAlignerType> aligners)
+  {
+    return formatAll(paragraphs, aligners, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Lay out the given paragraphs in parallel on the given executor. The
+   * paragraphs are split into contiguous chunks, and each chunk is laid out
+   * by a task that obtains a fresh aligner from {@code aligners}. The
+   * supplier must therefore be safe to call from multiple threads, and must
+   * return a new aligner on each call.
+   *
+   * The result is exactly the list of lines that would be produced by adding
+   * the words of each paragraph in order to a single aligner, calling
+   * {@link JPAlignerType#breakLine()} between consecutive paragraphs, and
+   * then calling {@link JPAlignerType#finish()}. Any executor may be used,
+   * including one that runs each task on a virtual thread. Batches too
+   * small to be worth splitting are laid out on the calling thread. This
+   * method blocks until all tasks have completed.
+   *
+   * @param paragraphs The paragraphs
+   * @param aligners   A supplier of new aligners
+   * @param executor   The executor that runs the layout tasks
+   *
+   * @return The formatted lines of all paragraphs, in order
+   *
+   * @throws CompletionException If the layout of any paragraph fails; the
+   *                             cause is the original exception
+   */
+
+  public static List<String> formatAll(
+    final List<JPParagraph> paragraphs,
+    final Supplier<? extends JPAlignerType> aligners,
+    final Executor executor)
+  {
+    final List<List<String>> chunks =
+      formatChunks(paragraphs, aligners, executor, JPAlignerType::finish);
+    if (chunks.size() == 1) {
+      return chunks.get(0);
+    }
+
+    final List<String> lines = new ArrayList<>(paragraphs.size());
+    for (final List<String> chunk : chunks) {
+      lines.addAll(chunk);
+    }
+    return lines;
+  }
+
+  /**
+   * Lay out the given paragraphs in contiguous chunks, returning the
+   * result of each chunk in order.
+   */
+
+  private static <T> List<T> formatChunks(
+    final List<JPParagraph> paragraphs,
+    final Supplier<? extends JPAlignerType> aligners,
+    final Executor executor,
+    final Function<JPAlignerType, T> finisher)
+  {
+    Objects.requireNonNull(paragraphs, "Paragraphs");
+    Objects.requireNonNull(aligners, "Aligners");
+    Objects.requireNonNull(executor, "Executor");
+
+    final int count = paragraphs.size();
+    final int chunks =
+      Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR;
+    final int chunk_size =
+      Math.max(CHUNK_MINIMUM, (count + chunks - 1) / chunks);
+
+    if (count <= chunk_size) {
+      try {
+        return List.of(
+          formatChunk(aligners.get(), paragraphs, true, finisher));
+      } catch (final RuntimeException e) {
+        throw new CompletionException(e);
+      }
+    }
+
+    final List<CompletableFuture<T>> tasks =
+      new ArrayList<>((count / chunk_size) + 1);
+
+    for (int start = 0; start < count; start += chunk_size) {
+      final int end = Math.min(count, start + chunk_size);
+      final List<JPParagraph> chunk = paragraphs.subList(start, end);
+      final boolean last = end == count;
+      tasks.add(CompletableFuture.supplyAsync(
+        () -> formatChunk(aligners.get(), chunk, last, finisher), executor));
+    }
+
+    final List<T> results = new ArrayList<>(tasks.size());
+    for (final CompletableFuture<T> task : tasks) {
+      results.add(task.join());
+    }
+    return results;
+  }
+
+  /**
+   * Lay out a contiguous chunk of paragraphs. A line break follows every
+   * paragraph except the last paragraph of the entire batch, so that
+   * concatenating the results of all chunks yields the same lines as a
+   * single sequential layout.
+   */
+
+  private static <T> T formatChunk(
+    final JPAlignerType aligner,
+    final List<JPParagraph> chunk,
+    final boolean last,
+    final Function<JPAlignerType, T> finisher)
+  {
+    Objects.requireNonNull(aligner, "Aligner");
+
+    final int count = chunk.size();
+    for (int index = 0; index < count; ++index) {
+      final List<String> words = chunk.get(index).words();
+      for (int word = 0; word < words.size(); ++word) {
+        aligner.addWord(words.get(word));
+      }
+      if (!last || index + 1 < count) {
+        aligner.breakLine();
+      }
+    }
+    return finisher.apply(aligner);
+  }
+}
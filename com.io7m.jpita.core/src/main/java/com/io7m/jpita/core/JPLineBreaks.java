@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The line breaks of a paragraph: the ranges of words placed on each line,
+ * computed without producing the text of any line. Line {@code i} holds
+ * the words {@code [lineStart(i), lineEnd(i))}, and the lines are
+ * contiguous, so the end of each line is the start of the next.
+ *
+ * Line breaks are computed by the same rules as {@link JPAlignerBasic} and
+ * {@link JPJustifierBasic}, including the placement of words that cannot
+ * fit on any line, so the number of lines is exactly the number of lines
+ * that would be produced by {@link JPLayouts#format(JPLayoutSpec, List)}.
+ * Only the {@link JPLayoutMode#MODE_ALIGN_LEFT} and
+ * {@link JPLayoutMode#MODE_JUSTIFY} engines are supported, without
+ * hyphenation. Instances are immutable.
+ */
+
+public final class JPLineBreaks
+{
+  private static final int[] NO_STARTS = new int[0];
+
+  private final int[] boundaries;
+  private final int line_count;
+
+  private JPLineBreaks(
+    final int[] in_boundaries,
+    final int in_line_count)
+  {
+    this.boundaries = in_boundaries;
+    this.line_count = in_line_count;
+  }
+
+  /**
+   * Compute the line breaks of the given words laid out as a single
+   * paragraph.
+   *
+   * @param spec  The layout specification
+   * @param words The words
+   *
+   * @return The line breaks
+   *
+   * @throws IllegalArgumentException If the specification uses an engine
+   *                                  or hyphenation that is not supported
+   */
+
+  public static JPLineBreaks measure(
+    final JPLayoutSpec spec,
+    final List<String> words)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(words, "Words");
+    JPGreedy.checkSupported(spec);
+
+    /*
+     * Guess the number of lines from the number of words, assuming that
+     * words are usually around five columns wide. If the guess is too
+     * small, the lines are counted, and the breaks are computed again into
+     * an array of exactly the right size.
+     */
+
+    final int word_count = words.size();
+    final int guess = Math.min(
+      word_count, word_count / Math.max(1, spec.width() / 6) + 8);
+
+    int[] starts = new int[guess + 1];
+    int lines = JPGreedy.breakLines(spec, words, starts);
+    if (lines >= starts.length) {
+      starts = new int[lines + 1];
+      lines = JPGreedy.breakLines(spec, words, starts);
+    }
+    starts[lines] = word_count;
+    return new JPLineBreaks(starts, lines);
+  }
+
+  /**
+   * Count the lines that the given words would occupy when laid out as a
+   * single paragraph. No lines are formatted, and the positions of the line
+   * breaks are not recorded.
+   *
+   * @param spec  The layout specification
+   * @param words The words
+   *
+   * @return The number of lines
+   *
+   * @throws IllegalArgumentException If the specification uses an engine
+   *                                  or hyphenation that is not supported
+   */
+
+  public static int countLines(
+    final JPLayoutSpec spec,
+    final List<String> words)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(words, "Words");
+    JPGreedy.checkSupported(spec);
+    return JPGreedy.breakLines(spec, words, NO_STARTS);
+  }
+
+  /**
+   * @return The number of lines
+   */
+
+  public int lineCount()
+  {
+    return this.line_count;
+  }
+
+  /**
+   * @param line The line index
+   *
+   * @return The index of the first word on the line
+   */
+
+  public int lineStart(
+    final int line)
+  {
+    return this.boundaries[Objects.checkIndex(line, this.line_count)];
+  }
+
+  /**
+   * @param line The line index
+   *
+   * @return The index one past the last word on the line
+   */
+
+  public int lineEnd(
+    final int line)
+  {
+    return this.boundaries[Objects.checkIndex(line, this.line_count) + 1];
+  }
+
+  /**
+   * The boundaries of the lines as an array of {@code lineCount() + 1}
+   * word indices: line {@code i} holds the words
+   * {@code [boundaries[i], boundaries[i + 1])}.
+   *
+   * @return A copy of the line boundaries
+   */
+
+  public int[] boundaries()
+  {
+    return Arrays.copyOf(this.boundaries, this.line_count + 1);
+  }
+}
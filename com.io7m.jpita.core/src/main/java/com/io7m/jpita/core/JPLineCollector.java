@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A line receiver that collects lines. The characters of all lines are
+ * stored in a single backing array along with the offset at which each line
+ * ends, so that lines can be written to an output without first being
+ * converted to strings.
+ */
+
+final class JPLineCollector implements JPLineReceiverType
+{
+  private char[] text;
+  private int text_used;
+  private int[] ends;
+  private int count;
+
+  JPLineCollector()
+  {
+    this.text = new char[0];
+    this.ends = new int[0];
+  }
+
+  @Override
+  public void receiveLine(final CharSequence line)
+  {
+    final int length = line.length();
+    final int required = this.text_used + length;
+    if (required > this.text.length) {
+      this.text = Arrays.copyOf(
+        this.text, Math.max(required, this.text.length * 2));
+    }
+    if (this.count == this.ends.length) {
+      this.ends = Arrays.copyOf(this.ends, Math.max(16, this.count * 2));
+    }
+
+    JPText.copy(line, 0, length, this.text, this.text_used);
+    this.text_used = required;
+    this.ends[this.count] = required;
+    ++this.count;
+  }
+
+  /**
+   * Convert the collected lines to strings, leaving the collector empty.
+   *
+   * @return The collected lines
+   */
+
+  List<String> take()
+  {
+    final List<String> r = new ArrayList<>(this.count);
+    int start = 0;
+    for (int index = 0; index < this.count; ++index) {
+      final int end = this.ends[index];
+      r.add(String.valueOf(this.text, start, end - start));
+      start = end;
+    }
+    this.clear();
+    return r;
+  }
+
+  /**
+   * Copy the collected lines to a compact result, leaving the collector
+   * empty. The backing array is retained, and so the collector does not
+   * need to grow it again.
+   *
+   * @return The collected lines
+   */
+
+  JPLayoutResult takeResult()
+  {
+    if (this.count == 0) {
+      return JPLayoutResult.empty();
+    }
+
+    final JPLayoutResult r = JPLayoutResult.create(
+      this.text, this.text_used, Arrays.copyOf(this.ends, this.count));
+    this.clear();
+    return r;
+  }
+
+  /**
+   * Write the collected lines to the given writer, leaving the collector
+   * empty.
+   *
+   * @param writer The writer
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void writeTo(final JPLineWriter writer)
+    throws IOException
+  {
+    try {
+      int start = 0;
+      for (int index = 0; index < this.count; ++index) {
+        final int end = this.ends[index];
+        writer.writeLine(this.text, start, end - start);
+        start = end;
+      }
+    } finally {
+      this.clear();
+    }
+  }
+
+  void clear()
+  {
+    this.count = 0;
+    this.text_used = 0;
+  }
+
+  /**
+   * Empty the collector as with {@link #clear()}, additionally releasing
+   * any storage beyond the limits given in {@link JPCapacity}.
+   */
+
+  void reset()
+  {
+    this.clear();
+    if (this.text.length > JPCapacity.RETAINED_CHARACTERS) {
+      this.text = new char[0];
+    }
+    if (this.ends.length > JPCapacity.RETAINED_ELEMENTS) {
+      this.ends = new int[0];
+    }
+  }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jranges.RangeCheck;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An index of the lines of a document that allows any range of lines to be
+ * formatted without formatting the lines that precede it.
+ *
+ * The index is built by a single pass over the document that breaks it
+ * into lines without producing any text, and records a checkpoint at the
+ * start of every {@code interval}th line. A checkpoint is the position
+ * (paragraph and word) at which the line begins. Formatting the lines
+ * {@code [from, to)} resumes breaking from the nearest checkpoint at or
+ * before {@code from}, and only the lines in the requested range are
+ * formatted. The index itself occupies two integers per checkpoint, and
+ * so {@code O(lines / interval)} memory, in addition to the paragraphs of
+ * the document, which are retained but not copied.
+ *
+ * The lines are identical to those produced by
+ * {@link JPLayouts#formatAll(List, JPLayoutSpec, java.util.concurrent.Executor)}
+ * for the same paragraphs. Only the {@link JPLayoutMode#MODE_ALIGN_LEFT}
+ * and {@link JPLayoutMode#MODE_JUSTIFY} engines are supported, without
+ * hyphenation, as only they can resume breaking at the start of an
+ * arbitrary line. Instances are immutable and may be shared freely between
+ * threads.
+ */
+
+public final class JPLineIndex
+{
+  private final JPLayoutSpec spec;
+  private final List<JPParagraph> paragraphs;
+  private final int interval;
+  private final int line_count;
+  private final int[] checkpoints;
+
+  private JPLineIndex(
+    final JPLayoutSpec in_spec,
+    final List<JPParagraph> in_paragraphs,
+    final int in_interval,
+    final int in_line_count,
+    final int[] in_checkpoints)
+  {
+    this.spec = in_spec;
+    this.paragraphs = in_paragraphs;
+    this.interval = in_interval;
+    this.line_count = in_line_count;
+    this.checkpoints = in_checkpoints;
+  }
+
+  /**
+   * Index the lines of the given paragraphs.
+   *
+   * @param spec       The layout specification
+   * @param paragraphs The paragraphs
+   * @param interval   The number of lines between checkpoints
+   *
+   * @return A line index
+   *
+   * @throws IllegalArgumentException If the specification uses an engine
+   *                                  or hyphenation that is not supported
+   */
+
+  public static JPLineIndex create(
+    final JPLayoutSpec spec,
+    final List<JPParagraph> paragraphs,
+    final int interval)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(paragraphs, "Paragraphs");
+    RangeCheck.checkGreaterInteger(
+      interval, "Interval", 0, "Minimum interval");
+    JPGreedy.checkSupported(spec);
+
+    final List<JPParagraph> copy = List.copyOf(paragraphs);
+    final Cursor cursor = new Cursor(spec, copy);
+
+    int[] checkpoints = new int[16];
+    int checkpoint = 0;
+    int lines = 0;
+    while (true) {
+      if (lines % interval == 0) {
+        if (checkpoint == checkpoints.length) {
+          checkpoints = Arrays.copyOf(checkpoints, checkpoint * 2);
+        }
+        checkpoints[checkpoint] = cursor.paragraph;
+        checkpoints[checkpoint + 1] = cursor.encodedWord();
+        checkpoint += 2;
+      }
+      if (!cursor.next()) {
+        break;
+      }
+      ++lines;
+    }
+
+    return new JPLineIndex(
+      spec,
+      copy,
+      interval,
+      lines,
+      Arrays.copyOf(checkpoints, checkpoint));
+  }
+
+  /**
+   * @return The layout specification
+   */
+
+  public JPLayoutSpec spec()
+  {
+    return this.spec;
+  }
+
+  /**
+   * @return The number of lines between checkpoints
+   */
+
+  public int interval()
+  {
+    return this.interval;
+  }
+
+  /**
+   * @return The number of checkpoints
+   */
+
+  public int checkpointCount()
+  {
+    return this.checkpoints.length / 2;
+  }
+
+  /**
+   * @return The number of lines
+   */
+
+  public int lineCount()
+  {
+    return this.line_count;
+  }
+
+  /**
+   * Format a line.
+   *
+   * @param line The line index
+   *
+   * @return The text of the line
+   */
+
+  public String line(
+    final int line)
+  {
+    Objects.checkIndex(line, this.line_count);
+    return this.lines(line, line + 1).get(0);
+  }
+
+  /**
+   * Format the lines {@code [from, to)}.
+   *
+   * @param from The index of the first line (inclusive)
+   * @param to   The index of the last line (exclusive)
+   *
+   * @return The text of the lines
+   */
+
+  public List<String> lines(
+    final int from,
+    final int to)
+  {
+    Objects.checkFromToIndex(from, to, this.line_count);
+
+    final int checkpoint = from / this.interval;
+    final Cursor cursor = new Cursor(this.spec, this.paragraphs);
+    cursor.seek(
+      this.checkpoints[checkpoint * 2],
+      this.checkpoints[checkpoint * 2 + 1]);
+
+    for (int line = checkpoint * this.interval; line < from; ++line) {
+      cursor.next();
+    }
+
+    final int width = this.spec.width();
+    final StringBuilder buffer = new StringBuilder(width);
+    final JPWordBuffer words = new JPWordBuffer(width, 16);
+    final List<String> lines = new ArrayList<>(to - from);
+    for (int line = from; line < to; ++line) {
+      cursor.next();
+      cursor.fill(words);
+      lines.add(JPGreedy.renderLine(this.spec, buffer, words));
+    }
+    return lines;
+  }
+
+  /**
+   * A cursor that breaks a document into lines one line at a time, in the
+   * same manner as {@link JPMeasuredDocument}, but measuring each word as
+   * it is reached.
+   */
+
+  private static final class Cursor
+  {
+    private final JPLayoutSpec spec;
+    private final JPGreedy.MeasuredWords widths;
+    private final List<JPParagraph> paragraphs;
+    private final int last;
+    private int paragraph;
+    private int word;
+    private boolean trailer;
+    private boolean overflowed;
+    private List<String> line_words;
+    private int line_start;
+    private int line_end;
+
+    Cursor(
+      final JPLayoutSpec in_spec,
+      final List<JPParagraph> in_paragraphs)
+    {
+      this.spec = in_spec;
+      this.widths = new JPGreedy.MeasuredWords(in_spec.measurer());
+      this.paragraphs = in_paragraphs;
+      this.last = in_paragraphs.size() - 1;
+      this.line_words = List.of();
+    }
+
+    /**
+     * The basic justifier emits a word that cannot fit on any line
+     * immediately, so the line break that ends a paragraph finishing with
+     * such a word produces an additional empty line. A cursor positioned
+     * before that empty line is encoded with a negative word index.
+     */
+
+    int encodedWord()
+    {
+      return this.trailer ? -1 : this.word;
+    }
+
+    void seek(
+      final int in_paragraph,
+      final int in_word)
+    {
+      this.paragraph = in_paragraph;
+      this.trailer = in_word < 0;
+      this.word = Math.max(0, in_word);
+    }
+
+    boolean next()
+    {
+      while (this.paragraph <= this.last) {
+        final List<String> words = this.paragraphs.get(this.paragraph).words();
+        final int count = words.size();
+        final int current = this.paragraph;
+
+        if (this.trailer) {
+          this.trailer = false;
+          this.nextParagraph();
+          this.setLine(words, count, count);
+          return true;
+        }
+
+        if (count == 0) {
+          this.nextParagraph();
+          if (current < this.last) {
+            this.setLine(words, 0, 0);
+            return true;
+          }
+          continue;
+        }
+
+        final int start = this.word;
+        final int end = this.scan(words, start, count);
+        this.setLine(words, start, end);
+
+        if (end < count) {
+          this.word = end;
+        } else if (current < this.last && this.overflowed) {
+          this.trailer = true;
+          this.word = count;
+        } else {
+          this.nextParagraph();
+        }
+        return true;
+      }
+      return false;
+    }
+
+    void fill(
+      final JPWordBuffer words)
+    {
+      words.clear();
+      this.widths.setWords(this.line_words);
+      for (int index = this.line_start; index < this.line_end; ++index) {
+        final String text = this.line_words.get(index);
+        final int length = text.length();
+        final int ws = JPText.trimStart(text, 0, length);
+        final int we = JPText.trimEnd(text, ws, length);
+        words.add(text, ws, we, this.widths.width(index));
+      }
+    }
+
+    private void setLine(
+      final List<String> words,
+      final int start,
+      final int end)
+    {
+      this.line_words = words;
+      this.line_start = start;
+      this.line_end = end;
+    }
+
+    private void nextParagraph()
+    {
+      ++this.paragraph;
+      this.word = 0;
+    }
+
+    /**
+     * Find the end of the line that begins with the word at {@code start},
+     * and note whether the line consists of a single word that cannot fit
+     * on any line.
+     */
+
+    private int scan(
+      final List<String> words,
+      final int start,
+      final int count)
+    {
+      this.widths.setWords(words);
+      final int end = JPGreedy.lineEnd(this.spec, this.widths, start, count);
+      this.overflowed = end < 0;
+      return this.overflowed ? ~end : end;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * A receiver of formatted lines.
+ */
+
+@FunctionalInterface
+public interface JPLineReceiverType
+{
+  /**
+   * Receive a formatted line. The given character sequence is only
+   * guaranteed to be valid for the duration of the call; receivers that
+   * need to retain the line must copy it (for example, by calling
+   * {@code toString()}).
+   *
+   * @param line The line, without any line separator
+   */
+
+  void receiveLine(CharSequence line);
+
+  /**
+   * Create a receiver that writes each line, followed by {@code separator},
+   * to the given output. {@link java.io.IOException} exceptions raised by the
+   * output are rethrown as {@link java.io.UncheckedIOException}.
+   *
+   * @param output    The output
+   * @param separator The line separator
+   *
+   * @return A line receiver
+   */
+
+  static JPLineReceiverType appending(
+    final Appendable output,
+    final String separator)
+  {
+    return new JPLineWriter(output, separator);
+  }
+}
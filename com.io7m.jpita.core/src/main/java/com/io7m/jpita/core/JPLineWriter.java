@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A line receiver that writes each line, followed by a separator, to an
+ * {@link Appendable}. If the appendable is a {@link Writer}, characters are
+ * passed to it in bulk via {@link Writer#write(char[], int, int)}, avoiding
+ * the intermediate strings created by {@link Writer#append(CharSequence)}.
+ */
+
+final class JPLineWriter implements JPLineReceiverType
+{
+  private final Appendable output;
+  private final String separator;
+  private final boolean is_writer;
+  private char[] scratch;
+  private char[] wrapped_array;
+  private CharBuffer wrapped;
+
+  JPLineWriter(
+    final Appendable in_output,
+    final String in_separator)
+  {
+    this.output = Objects.requireNonNull(in_output, "Output");
+    this.separator = Objects.requireNonNull(in_separator, "Separator");
+    this.is_writer = in_output instanceof Writer;
+    this.scratch = new char[0];
+  }
+
+  @Override
+  public void receiveLine(final CharSequence line)
+  {
+    try {
+      final int length = line.length();
+      this.reserveScratch(length);
+      JPText.copy(line, 0, length, this.scratch, 0);
+      this.writeLine(this.scratch, 0, length);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Write a line, followed by the separator.
+   *
+   * @param text   The array containing the line
+   * @param offset The offset of the line within the array
+   * @param length The length of the line
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void writeLine(
+    final char[] text,
+    final int offset,
+    final int length)
+    throws IOException
+  {
+    if (this.is_writer) {
+      final Writer writer = (Writer) this.output;
+      writer.write(text, offset, length);
+      writer.write(this.separator);
+      return;
+    }
+
+    if (this.wrapped_array != text) {
+      this.wrapped_array = text;
+      this.wrapped = CharBuffer.wrap(text);
+    }
+    this.output.append(this.wrapped, offset, offset + length);
+    this.output.append(this.separator);
+  }
+
+  /**
+   * Write a line of ISO-8859-1 characters, followed by the separator.
+   *
+   * @param text   The array containing the line
+   * @param offset The offset of the line within the array
+   * @param length The length of the line
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void writeLine(
+    final byte[] text,
+    final int offset,
+    final int length)
+    throws IOException
+  {
+    this.reserveScratch(length);
+    for (int index = 0; index < length; ++index) {
+      this.scratch[index] = (char) (text[offset + index] & 0xff);
+    }
+    this.writeLine(this.scratch, 0, length);
+  }
+
+  private void reserveScratch(final int length)
+  {
+    if (length > this.scratch.length) {
+      this.scratch = Arrays.copyOf(
+        this.scratch, Math.max(length, this.scratch.length * 2));
+    }
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A document whose words have been measured once, so that it can be laid
+ * out at any width without measuring or copying any words.
+ *
+ * The width of every word, plus one column for the following space, is
+ * stored as a running sum. The words that fit on a line beginning at a
+ * given word are then found by a binary search of the sums, and laying out
+ * the document at a new width costs a few array reads per line. The text of
+ * a line is only produced when the line is requested from the resulting
+ * {@link JPDocumentLayout}, so an application displaying part of a long
+ * document only formats the lines that are visible.
+ *
+ * The lines of a layout are identical to those produced by
+ * {@link JPLayouts#formatAll(List, JPLayoutSpec, java.util.concurrent.Executor)}
+ * for the same paragraphs and width. Only the {@link JPLayoutMode#MODE_ALIGN_LEFT}
+ * and {@link JPLayoutMode#MODE_JUSTIFY} engines are supported, without
+ * hyphenation. Instances are immutable and may be shared freely between
+ * threads.
+ */
+
+public final class JPMeasuredDocument
+{
+  private final JPLayoutSpec spec;
+  private final String[] words;
+  private final int[] offsets;
+  private final int[] paragraph_ends;
+
+  private JPMeasuredDocument(
+    final JPLayoutSpec in_spec,
+    final String[] in_words,
+    final int[] in_offsets,
+    final int[] in_paragraph_ends)
+  {
+    this.spec = in_spec;
+    this.words = in_words;
+    this.offsets = in_offsets;
+    this.paragraph_ends = in_paragraph_ends;
+  }
+
+  /**
+   * Measure the words of the given paragraphs.
+   *
+   * @param spec       The layout specification, whose width is used by
+   *                   {@link #layout()} and whose measurer is used to
+   *                   measure the words
+   * @param paragraphs The paragraphs
+   *
+   * @return A measured document
+   *
+   * @throws IllegalArgumentException If the specification uses an engine
+   *                                  or hyphenation that is not supported
+   */
+
+  public static JPMeasuredDocument create(
+    final JPLayoutSpec spec,
+    final List<JPParagraph> paragraphs)
+  {
+    Objects.requireNonNull(spec, "Spec");
+    Objects.requireNonNull(paragraphs, "Paragraphs");
+    JPGreedy.checkSupported(spec);
+
+    int count = 0;
+    for (final JPParagraph paragraph : paragraphs) {
+      count += paragraph.words().size();
+    }
+
+    final JPWidthMeasurerType measurer = spec.measurer();
+    final String[] words = new String[count];
+    final int[] offsets = new int[count + 1];
+    final int[] paragraph_ends = new int[paragraphs.size()];
+
+    int index = 0;
+    int offset = 0;
+    for (int p = 0; p < paragraph_ends.length; ++p) {
+      for (final String word : paragraphs.get(p).words()) {
+        final int length = word.length();
+        final int ws = JPText.trimStart(word, 0, length);
+        final int we = JPText.trimEnd(word, ws, length);
+        words[index] = word.substring(ws, we);
+        offset += measurer.measure(word, ws, we) + 1;
+        ++index;
+        offsets[index] = offset;
+      }
+      paragraph_ends[p] = index;
+    }
+
+    return new JPMeasuredDocument(spec, words, offsets, paragraph_ends);
+  }
+
+  /**
+   * @return The layout specification
+   */
+
+  public JPLayoutSpec spec()
+  {
+    return this.spec;
+  }
+
+  /**
+   * @return The number of words in the document
+   */
+
+  public int wordCount()
+  {
+    return this.words.length;
+  }
+
+  /**
+   * @return The number of paragraphs in the document
+   */
+
+  public int paragraphCount()
+  {
+    return this.paragraph_ends.length;
+  }
+
+  /**
+   * Lay out the document at the width of the specification.
+   *
+   * @return The layout
+   */
+
+  public JPDocumentLayout layout()
+  {
+    return this.layout(this.spec.width());
+  }
+
+  /**
+   * Lay out the document at the given width.
+   *
+   * @param width The maximum width in characters
+   *
+   * @return The layout
+   */
+
+  public JPDocumentLayout layout(
+    final int width)
+  {
+    final JPLayoutSpec layout_spec =
+      width == this.spec.width() ? this.spec : this.spec.withWidth(width);
+    final int limit = JPGreedy.lineLimit(layout_spec);
+
+    /*
+     * A document of n words has at most n lines, plus one blank line for
+     * each paragraph.
+     */
+
+    final int capacity_guess = Math.min(
+      this.words.length + this.paragraph_ends.length,
+      this.offsets[this.words.length] / Math.max(1, limit / 2) + 16);
+    final JPDocumentLayout.Builder builder =
+      new JPDocumentLayout.Builder(this, layout_spec, capacity_guess);
+
+    final int last = this.paragraph_ends.length - 1;
+    int start = 0;
+    for (int p = 0; p <= last; ++p) {
+      final int end = this.paragraph_ends[p];
+      if (start == end) {
+        if (p < last) {
+          builder.add(start, start);
+        }
+        continue;
+      }
+
+      int line_start = start;
+      while (line_start < end) {
+        final int line_end = this.lineEnd(line_start, end, limit);
+        builder.add(line_start, line_end);
+        line_start = line_end;
+      }
+
+      /*
+       * The basic justifier emits words that cannot fit on any line
+       * immediately, so the line break that ends a paragraph finishing with
+       * such a word produces an additional empty line.
+       */
+
+      if (p < last
+        && builder.lastIsSingle(end)
+        && JPGreedy.isOverflow(layout_spec, this.width(end - 1))) {
+        builder.add(end, end);
+      }
+      start = end;
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Find the end of the line that begins with the word at {@code start}:
+   * the largest {@code e} in {@code (start, end]} such that the words
+   * {@code [start, e)} fit within {@code limit}, or {@code start + 1} if
+   * not even the first word fits. This is the rule of
+   * {@link JPGreedy#lineEnd}, applied to the prefix sums of the widths so
+   * that the end can be found by binary search. Every word occupies at
+   * least one column, so no line can hold more than {@code limit} words,
+   * and the search is confined to that range.
+   */
+
+  private int lineEnd(
+    final int start,
+    final int end,
+    final int limit)
+  {
+    final int base = this.offsets[start];
+    int low = start + 1;
+    int high = (int) Math.min((long) end, (long) start + (long) limit);
+    int found = start + 1;
+
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      if (this.offsets[middle] - base <= limit) {
+        found = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return found;
+  }
+
+  int width(
+    final int index)
+  {
+    return this.offsets[index + 1] - this.offsets[index] - 1;
+  }
+
+  String word(
+    final int index)
+  {
+    return this.words[index];
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A paragraph: a sequence of words that are laid out together and that are
+ * separated from the words of other paragraphs by a line break.
+ *
+ * @param words The words of the paragraph
+ */
+
+public record JPParagraph(List<String> words)
+{
+  /**
+   * A paragraph.
+   *
+   * @param words The words of the paragraph
+   */
+
+  public JPParagraph
+  {
+    words = List.copyOf(Objects.requireNonNull(words, "Words"));
+  }
+
+  /**
+   * @param words The words of the paragraph
+   *
+   * @return A new paragraph
+   */
+
+  public static JPParagraph of(
+    final String... words)
+  {
+    return new JPParagraph(List.of(words));
+  }
+}
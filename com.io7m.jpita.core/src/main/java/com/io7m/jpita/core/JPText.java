@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * Functions over character sequences that avoid allocating substrings.
+ */
+
+final class JPText
+{
+  private static final char[] SPACES = " ".repeat(64).toCharArray();
+
+  private JPText()
+  {
+    throw new AssertionError("Unreachable code!");
+  }
+
+  /**
+   * @param c A character
+   *
+   * @return {@code true} if {@code c} is one of the whitespace characters
+   * matched by {@code \s} in {@link java.util.regex.Pattern}
+   */
+
+  static boolean isWhitespace(final char c)
+  {
+    return c == ' ' || (c >= '\t' && c <= '\r');
+  }
+
+  /**
+   * Find the start of the given range after skipping leading whitespace.
+   *
+   * @param text  The text
+   * @param start The starting index (inclusive)
+   * @param end   The ending index (exclusive)
+   *
+   * @return The index of the first non-whitespace character, or {@code end}
+   */
+
+  static int trimStart(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    int index = start;
+    while (index < end && isWhitespace(text.charAt(index))) {
+      ++index;
+    }
+    return index;
+  }
+
+  /**
+   * Find the end of the given range after skipping trailing whitespace.
+   *
+   * @param text  The text
+   * @param start The starting index (inclusive)
+   * @param end   The ending index (exclusive)
+   *
+   * @return The index following the last non-whitespace character, or
+   * {@code start}
+   */
+
+  static int trimEnd(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    int index = end;
+    while (index > start && isWhitespace(text.charAt(index - 1))) {
+      --index;
+    }
+    return index;
+  }
+
+  /**
+   * Remove leading and trailing whitespace from the given builder in place.
+   *
+   * @param buffer The builder
+   */
+
+  static void trimInPlace(final StringBuilder buffer)
+  {
+    final int length = buffer.length();
+    final int end = trimEnd(buffer, 0, length);
+    buffer.setLength(end);
+    final int start = trimStart(buffer, 0, end);
+    if (start > 0) {
+      buffer.delete(0, start);
+    }
+  }
+
+  /**
+   * Copy the range {@code [start, end)} of {@code source} into
+   * {@code target} at {@code offset}.
+   *
+   * @param source The source text
+   * @param start  The starting index (inclusive)
+   * @param end    The ending index (exclusive)
+   * @param target The target array
+   * @param offset The offset within the target array
+   */
+
+  static void copy(
+    final CharSequence source,
+    final int start,
+    final int end,
+    final char[] target,
+    final int offset)
+  {
+    if (source instanceof final String s) {
+      s.getChars(start, end, target, offset);
+      return;
+    }
+    for (int index = start; index < end; ++index) {
+      target[offset + (index - start)] = source.charAt(index);
+    }
+  }
+
+  /**
+   * Append the truncation of the range {@code [start, end)} of the given
+   * text to at most {@code columns} columns, followed by an ellipsis and
+   * anything that {@code measurer} retains from the discarded remainder.
+   *
+   * @param measurer The width measurer
+   * @param text     The text
+   * @param start    The starting index (inclusive)
+   * @param end      The ending index (exclusive)
+   * @param columns  The maximum width of the truncated text
+   * @param output   The output
+   *
+   * @return The truncation point
+   */
+
+  static int appendTruncated(
+    final JPWidthMeasurerType measurer,
+    final CharSequence text,
+    final int start,
+    final int end,
+    final int columns,
+    final StringBuilder output)
+  {
+    final int cut = measurer.truncate(text, start, end, columns);
+    output.append(text, start, cut);
+    output.append('…');
+    measurer.truncationSuffix(text, cut, end, output);
+    return cut;
+  }
+
+  /**
+   * Append {@code count} spaces to the given builder.
+   *
+   * @param buffer The builder
+   * @param count  The number of spaces
+   */
+
+  static void appendSpaces(
+    final StringBuilder buffer,
+    final int count)
+  {
+    int remaining = count;
+    while (remaining > 0) {
+      final int n = Math.min(remaining, SPACES.length);
+      buffer.append(SPACES, 0, n);
+      remaining -= n;
+    }
+  }
+}
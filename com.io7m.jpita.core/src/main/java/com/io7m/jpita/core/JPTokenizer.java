@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A tokenizer that splits text into words and feeds them directly into an
+ * aligner. Words are separated by whitespace, and each blank line results in
+ * a call to {@link JPAlignerType#breakLine()}.
+ */
+
+final class JPTokenizer
+{
+  private static final int BUFFER_SIZE = 4096;
+
+  private final JPAlignerType aligner;
+  private int newlines;
+
+  private JPTokenizer(
+    final JPAlignerType in_aligner)
+  {
+    this.aligner = Objects.requireNonNull(in_aligner, "Aligner");
+  }
+
+  /**
+   * Split the given text into words and add them to the aligner.
+   *
+   * @param aligner The aligner
+   * @param text    The text
+   */
+
+  static void addText(
+    final JPAlignerType aligner,
+    final CharSequence text)
+  {
+    Objects.requireNonNull(text, "Text");
+
+    final JPTokenizer tokenizer = new JPTokenizer(aligner);
+    final int end = text.length();
+    final int consumed = tokenizer.scan(text, 0, end);
+    tokenizer.addWord(text, consumed, end);
+    tokenizer.finishWhitespace();
+  }
+
+  /**
+   * Split the text produced by the given reader into words and add them to
+   * the aligner. The reader is consumed in fixed-size blocks, and is not
+   * closed.
+   *
+   * @param aligner The aligner
+   * @param reader  The reader
+   *
+   * @throws IOException On I/O errors
+   */
+
+  static void addText(
+    final JPAlignerType aligner,
+    final Reader reader)
+    throws IOException
+  {
+    Objects.requireNonNull(reader, "Reader");
+
+    final JPTokenizer tokenizer = new JPTokenizer(aligner);
+    char[] buffer = new char[BUFFER_SIZE];
+    CharBuffer view = CharBuffer.wrap(buffer);
+    int used = 0;
+
+    while (true) {
+      final int read = reader.read(buffer, used, buffer.length - used);
+      if (read == -1) {
+        tokenizer.addWord(view, 0, used);
+        tokenizer.finishWhitespace();
+        return;
+      }
+
+      /*
+       * Scan everything that has been read so far. Any word that touches
+       * the end of the buffer might continue in the next block, so it is
+       * moved to the start of the buffer rather than being added. If such
+       * a word fills the entire buffer, the buffer is enlarged.
+       */
+
+      final int available = used + read;
+      final int consumed = tokenizer.scan(view, 0, available);
+      used = available - consumed;
+      System.arraycopy(buffer, consumed, buffer, 0, used);
+
+      if (used == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        view = CharBuffer.wrap(buffer);
+      }
+    }
+  }
+
+  /**
+   * Scan the range {@code [start, end)}, adding every word that is followed
+   * by whitespace.
+   *
+   * @return The index of the start of the trailing unterminated word, or
+   * {@code end} if the range ends with whitespace
+   */
+
+  private int scan(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    int index = start;
+    while (index < end) {
+      final char c = text.charAt(index);
+      if (JPText.isWhitespace(c)) {
+        if (c == '\n') {
+          ++this.newlines;
+        }
+        ++index;
+        continue;
+      }
+
+      final int word_start = index;
+      while (index < end && !JPText.isWhitespace(text.charAt(index))) {
+        ++index;
+      }
+      if (index == end) {
+        return word_start;
+      }
+      this.addWord(text, word_start, index);
+    }
+    return end;
+  }
+
+  private void addWord(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    if (start < end) {
+      this.finishWhitespace();
+      this.aligner.addWord(text, start, end);
+    }
+  }
+
+  /**
+   * A run of whitespace containing {@code n} newlines contains
+   * {@code n - 1} blank lines.
+   */
+
+  private void finishWhitespace()
+  {
+    for (int index = 1; index < this.newlines; ++index) {
+      this.aligner.breakLine();
+    }
+    this.newlines = 0;
+  }
+}
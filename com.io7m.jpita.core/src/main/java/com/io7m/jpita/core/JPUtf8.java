@@ -0,0 +1,303 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * Functions over UTF-8 encoded text held in byte arrays.
+ */
+
+final class JPUtf8
+{
+  /**
+   * The UTF-8 encoding of U+2026 HORIZONTAL ELLIPSIS.
+   */
+
+  static final byte[] ELLIPSIS = {(byte) 0xe2, (byte) 0x80, (byte) 0xa6};
+
+  private JPUtf8()
+  {
+    throw new AssertionError("Unreachable code!");
+  }
+
+  /**
+   * Every whitespace character recognized by {@link JPText#isWhitespace(char)}
+   * is ASCII, and no byte of a multi-byte UTF-8 sequence is ASCII, so
+   * whitespace can be found without decoding.
+   *
+   * @param b A byte
+   *
+   * @return {@code true} if {@code b} encodes a whitespace character
+   */
+
+  static boolean isWhitespace(final byte b)
+  {
+    return b == ' ' || (b >= '\t' && b <= '\r');
+  }
+
+  /**
+   * @param text  The text
+   * @param start The starting index (inclusive)
+   * @param end   The ending index (exclusive)
+   *
+   * @return {@code true} if the range consists only of printable ASCII
+   * characters
+   */
+
+  static boolean isPrintableAscii(
+    final byte[] text,
+    final int start,
+    final int end)
+  {
+    for (int index = start; index < end; ++index) {
+      final byte b = text[index];
+      if (b < 0x20 || b == 0x7f) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Decode the range {@code [start, end)} to UTF-16. Each malformed
+   * sequence is decoded as a U+FFFD REPLACEMENT CHARACTER, with malformed
+   * sequences delimited exactly as by the decoder used by
+   * {@link String#String(byte[], java.nio.charset.Charset)}. No range of
+   * bytes decodes to more code units than it has bytes.
+   *
+   * @param text   The text
+   * @param start  The starting index (inclusive)
+   * @param end    The ending index (exclusive)
+   * @param output The output, of at least {@code end - start} code units
+   *
+   * @return The number of code units written
+   */
+
+  static int decode(
+    final byte[] text,
+    final int start,
+    final int end,
+    final char[] output)
+  {
+    int index = start;
+    int count = 0;
+    while (index < end) {
+      final int cp = codePointAt(text, index, end);
+      if (cp < 0) {
+        output[count] = '\uFFFD';
+        ++count;
+        index += malformedLength(text, index, end);
+      } else {
+        count += Character.toChars(cp, output, count);
+        index += encodedLength(cp);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Find the byte at which the given UTF-16 code unit of the decoded range
+   * begins.
+   *
+   * @param text  The text
+   * @param start The starting index (inclusive)
+   * @param end   The ending index (exclusive)
+   * @param units The index of a code unit in the decoded text
+   *
+   * @return The index of the first byte of the code unit
+   *
+   * @see #decode(byte[], int, int, char[])
+   */
+
+  static int offsetOfUnit(
+    final byte[] text,
+    final int start,
+    final int end,
+    final int units)
+  {
+    int index = start;
+    int count = 0;
+    while (index < end && count < units) {
+      final int cp = codePointAt(text, index, end);
+      if (cp < 0) {
+        ++count;
+        index += malformedLength(text, index, end);
+      } else {
+        count += Character.charCount(cp);
+        index += encodedLength(cp);
+      }
+    }
+    return index;
+  }
+
+  /**
+   * @return The code point encoded at {@code index}, or {@code -1} if the
+   * bytes at {@code index} are not a well-formed UTF-8 sequence
+   */
+
+  private static int codePointAt(
+    final byte[] text,
+    final int index,
+    final int end)
+  {
+    final int lead = text[index] & 0xff;
+    if (lead < 0x80) {
+      return lead;
+    }
+
+    final int length = sequenceLength(lead);
+    if (length == 0 || index + length > end) {
+      return -1;
+    }
+
+    int cp = lead & (0x7f >> length);
+    for (int offset = 1; offset < length; ++offset) {
+      final int b = text[index + offset] & 0xff;
+      if (!isContinuation(b)) {
+        return -1;
+      }
+      cp = (cp << 6) | (b & 0x3f);
+    }
+
+    /*
+     * Reject overlong encodings, surrogates, and values beyond the last
+     * code point.
+     */
+
+    final boolean valid = cp <= Character.MAX_CODE_POINT
+      && encodedLength(cp) == length
+      && !(cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE);
+    return valid ? cp : -1;
+  }
+
+  /**
+   * Determine the number of bytes of the malformed sequence at
+   * {@code index} that are replaced by a single U+FFFD REPLACEMENT
+   * CHARACTER. The rules are those of the JDK's UTF-8 decoder: a sequence
+   * ends at the first byte that could not continue it, a well-formed
+   * encoding of a surrogate is replaced as a whole, and a sequence that is
+   * cut short by {@code end} is replaced as a whole.
+   *
+   * @return The length of the malformed sequence at {@code index}
+   */
+
+  private static int malformedLength(
+    final byte[] text,
+    final int index,
+    final int end)
+  {
+    final int lead = text[index] & 0xff;
+    return switch (sequenceLength(lead)) {
+      case 3 -> malformedLength3(text, index, end, lead);
+      case 4 -> malformedLength4(text, index, end, lead);
+      default -> 1;
+    };
+  }
+
+  private static int malformedLength3(
+    final byte[] text,
+    final int index,
+    final int end,
+    final int lead)
+  {
+    if (index + 1 >= end) {
+      return end - index;
+    }
+
+    final int b2 = text[index + 1] & 0xff;
+    if ((lead == 0xe0 && (b2 & 0xe0) == 0x80) || !isContinuation(b2)) {
+      return 1;
+    }
+    if (index + 2 >= end) {
+      return end - index;
+    }
+    return isContinuation(text[index + 2] & 0xff) ? 3 : 2;
+  }
+
+  private static int malformedLength4(
+    final byte[] text,
+    final int index,
+    final int end,
+    final int lead)
+  {
+    if (index + 1 >= end) {
+      return end - index;
+    }
+
+    final int b2 = text[index + 1] & 0xff;
+    if (!isContinuation(b2) || !isValidSecond4(lead, b2)) {
+      return 1;
+    }
+    if (index + 2 >= end) {
+      return end - index;
+    }
+    if (!isContinuation(text[index + 2] & 0xff)) {
+      return 2;
+    }
+    return index + 3 >= end ? end - index : 3;
+  }
+
+  /**
+   * @return {@code false} if {@code b2} following {@code lead} would begin
+   * an overlong encoding, or a value beyond the last code point
+   */
+
+  private static boolean isValidSecond4(
+    final int lead,
+    final int b2)
+  {
+    return switch (lead) {
+      case 0xf0 -> b2 >= 0x90;
+      case 0xf4 -> b2 < 0x90;
+      default -> true;
+    };
+  }
+
+  private static boolean isContinuation(final int b)
+  {
+    return (b & 0xc0) == 0x80;
+  }
+
+  /**
+   * @return The length of the sequence introduced by {@code lead}, or
+   * {@code 0} if {@code lead} cannot begin a sequence
+   */
+
+  private static int sequenceLength(final int lead)
+  {
+    if (lead > 0xf4) {
+      return 0;
+    }
+    if (lead >= 0xf0) {
+      return 4;
+    }
+    if (lead >= 0xe0) {
+      return 3;
+    }
+    return lead >= 0xc2 ? 2 : 0;
+  }
+
+  private static int encodedLength(final int cp)
+  {
+    if (cp < 0x80) {
+      return 1;
+    }
+    if (cp < 0x800) {
+      return 2;
+    }
+    return cp < 0x10000 ? 3 : 4;
+  }
+}
@@ -0,0 +1,558 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import com.io7m.jpita.core.JPJustifierBasic.SpaceTextDecisionType;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An aligner that consumes and produces UTF-8 encoded bytes.
+ *
+ * Text is read from {@link ByteBuffer} values, such as those filled by a
+ * {@link java.nio.channels.ReadableByteChannel}, and split into words
+ * without being decoded: every whitespace character is ASCII, and no byte
+ * of a multi-byte sequence is ASCII. Words are copied as bytes into the
+ * lines being built, and completed lines, each followed by the encoded
+ * line separator, are written to any {@link ByteBuffer} (including direct
+ * buffers) with {@link #drainTo(ByteBuffer)}. Words consisting only of
+ * printable ASCII characters are measured without being examined further
+ * when one of the {@link JPWidthMeasurers} is used; other words are decoded
+ * into a reusable array of characters to be measured.
+ *
+ * The input may be divided between buffers at any point, including within
+ * a word or a multi-byte sequence. Each blank line in the input results
+ * in a call to {@link #breakLine()}, in the manner of
+ * {@link JPAlignerType#addText(CharSequence)}. Lines are broken exactly
+ * where the aligner created by {@link JPLayoutSpec#createAligner()} would
+ * break them for the decoded text, and for well-formed input the lines
+ * produced are exactly the UTF-8 encodings of that aligner's lines.
+ * Malformed sequences are measured as the U+FFFD REPLACEMENT CHARACTER that
+ * the JDK's decoder would substitute for each of them, but are copied to
+ * the output unchanged rather than replaced, so the output decodes to the
+ * same lines as that aligner produces. Only the
+ * {@link JPLayoutMode#MODE_ALIGN_LEFT} and
+ * {@link JPLayoutMode#MODE_JUSTIFY} engines are supported, without
+ * hyphenation.
+ *
+ * Completed lines are held in an internal buffer until they are drained,
+ * and that buffer grows as necessary to hold every line completed by a
+ * single call to {@link #addText(ByteBuffer)}. Callers that must bound the
+ * memory used should pass the input in slices of bounded size and drain
+ * the completed lines after each one, as {@link JPFileFormatter} does.
+ *
+ * Instances are not thread-safe.
+ */
+
+public final class JPUtf8Aligner
+{
+  private static final int BLOCK_SIZE = 8192;
+
+  private final JPLayoutSpec spec;
+  private final JPWidthMeasurerType measurer;
+  private final SpaceTextDecisionType decider;
+  private final byte[] separator;
+  private final byte[] block;
+  private final StringBuilder retained;
+  private final int width;
+  private final int limit;
+  private final boolean justify;
+  private final boolean ascii_fast;
+  private byte[] word;
+  private int word_length;
+  private int newlines;
+  private char[] chars;
+  private CharBuffer chars_view;
+  private byte[] line_text;
+  private int line_text_used;
+  private int[] line_ends;
+  private int[] line_widths;
+  private int line_words;
+  private int line_sum;
+  private byte[] pending;
+  private int pending_used;
+  private int pending_read;
+
+  private JPUtf8Aligner(
+    final JPLayoutSpec in_spec,
+    final byte[] in_separator)
+  {
+    this.spec = in_spec;
+    this.measurer = in_spec.measurer();
+    this.decider = in_spec.decider();
+    this.separator = in_separator;
+    this.width = in_spec.width();
+    this.limit = JPGreedy.lineLimit(in_spec);
+    this.justify = in_spec.mode() == JPLayoutMode.MODE_JUSTIFY;
+    this.ascii_fast = isStandard(this.measurer);
+    this.block = new byte[BLOCK_SIZE];
+    this.retained = new StringBuilder(16);
+    this.word = new byte[64];
+    this.chars = new char[64];
+    this.chars_view = CharBuffer.wrap(this.chars);
+    this.line_text = new byte[Math.max(16, this.width * 2)];
+    this.line_ends = new int[16];
+    this.line_widths = new int[16];
+    this.pending = new byte[BLOCK_SIZE];
+  }
+
+  /**
+   * Printable ASCII characters occupy exactly one column according to all
+   * of the standard measurers, and none of them begins an escape sequence.
+   */
+
+  private static boolean isStandard(
+    final JPWidthMeasurerType measurer)
+  {
+    return measurer == JPWidthMeasurers.CODE_UNITS
+      || measurer == JPWidthMeasurers.CODE_UNITS_ANSI
+      || measurer == JPWidthMeasurers.TERMINAL
+      || measurer == JPWidthMeasurers.TERMINAL_ANSI;
+  }
+
+  /**
+   * Create a new aligner that ends each line with {@code "\n"}.
+   *
+   * @param in_spec The layout specification
+   *
+   * @return A new aligner
+   *
+   * @throws IllegalArgumentException If the specification uses an engine
+   *                                  or hyphenation that is not supported
+   */
+
+  public static JPUtf8Aligner create(
+    final JPLayoutSpec in_spec)
+  {
+    return create(in_spec, "\n");
+  }
+
+  /**
+   * Create a new aligner.
+   *
+   * @param in_spec      The layout specification
+   * @param in_separator The line separator
+   *
+   * @return A new aligner
+   *
+   * @throws IllegalArgumentException If the specification uses an engine
+   *                                  or hyphenation that is not supported
+   */
+
+  public static JPUtf8Aligner create(
+    final JPLayoutSpec in_spec,
+    final String in_separator)
+  {
+    Objects.requireNonNull(in_spec, "Spec");
+    Objects.requireNonNull(in_separator, "Separator");
+    JPGreedy.checkSupported(in_spec);
+    return new JPUtf8Aligner(
+      in_spec, in_separator.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return The layout specification
+   */
+
+  public JPLayoutSpec spec()
+  {
+    return this.spec;
+  }
+
+  /**
+   * Add all of the remaining bytes of the given buffer. The position of the
+   * buffer is advanced to its limit. A word that reaches the end of the
+   * buffer is retained until the input following it is added, or until
+   * {@link #finish()} is called. All of the lines completed by the input are
+   * held until they are drained with {@link #drainTo(ByteBuffer)}, and so
+   * the memory used grows with the size of the given buffer.
+   *
+   * @param input The UTF-8 encoded input
+   */
+
+  public void addText(
+    final ByteBuffer input)
+  {
+    Objects.requireNonNull(input, "Input");
+
+    if (input.hasArray()) {
+      final int offset = input.arrayOffset();
+      final int end = input.limit();
+      this.scan(input.array(), offset + input.position(), offset + end);
+      input.position(end);
+      return;
+    }
+
+    while (input.hasRemaining()) {
+      final int count = Math.min(input.remaining(), this.block.length);
+      input.get(this.block, 0, count);
+      this.scan(this.block, 0, count);
+    }
+  }
+
+  private void scan(
+    final byte[] data,
+    final int start,
+    final int end)
+  {
+    int index = start;
+    while (index < end) {
+      final byte b = data[index];
+      if (JPUtf8.isWhitespace(b)) {
+        if (this.word_length > 0) {
+          this.finishWord();
+        }
+        if (b == '\n') {
+          ++this.newlines;
+        }
+        ++index;
+        continue;
+      }
+
+      final int word_start = index;
+      while (index < end && !JPUtf8.isWhitespace(data[index])) {
+        ++index;
+      }
+
+      /*
+       * A word that is terminated within this range, and that did not
+       * begin in an earlier range, is added without being copied.
+       */
+
+      if (index < end && this.word_length == 0) {
+        this.finishWhitespace();
+        this.addWord(data, word_start, index);
+      } else {
+        this.appendToWord(data, word_start, index);
+      }
+    }
+  }
+
+  private void appendToWord(
+    final byte[] data,
+    final int start,
+    final int end)
+  {
+    final int length = end - start;
+    final int required = this.word_length + length;
+    if (required > this.word.length) {
+      this.word = Arrays.copyOf(
+        this.word, Math.max(required, this.word.length * 2));
+    }
+    System.arraycopy(data, start, this.word, this.word_length, length);
+    this.word_length = required;
+  }
+
+  private void finishWord()
+  {
+    this.finishWhitespace();
+    this.addWord(this.word, 0, this.word_length);
+    this.word_length = 0;
+  }
+
+  /**
+   * A run of whitespace containing {@code n} newlines contains
+   * {@code n - 1} blank lines.
+   */
+
+  private void finishWhitespace()
+  {
+    for (int index = 1; index < this.newlines; ++index) {
+      this.finishLine();
+    }
+    this.newlines = 0;
+  }
+
+  /**
+   * Insert a hard line break, completing any word that has been added
+   * but not yet terminated by whitespace.
+   */
+
+  public void breakLine()
+  {
+    this.flushInput();
+    this.finishLine();
+  }
+
+  /**
+   * Finish the current layout. Any word that has been added but not yet
+   * terminated by whitespace is completed, and any partially filled line
+   * is written to the pending output. The pending output is not discarded,
+   * and should be drained with {@link #drainTo(ByteBuffer)}.
+   */
+
+  public void finish()
+  {
+    this.flushInput();
+    if (this.line_words > 0) {
+      this.finishLine();
+    }
+  }
+
+  private void flushInput()
+  {
+    if (this.word_length > 0) {
+      this.finishWord();
+    }
+    this.finishWhitespace();
+  }
+
+  /**
+   * Discard the current layout and any pending output.
+   */
+
+  public void reset()
+  {
+    this.word_length = 0;
+    this.newlines = 0;
+    this.clearLine();
+    this.pending_used = 0;
+    this.pending_read = 0;
+  }
+
+  /**
+   * @return The number of bytes of completed lines that have not yet been
+   * drained
+   */
+
+  public int pendingBytes()
+  {
+    return this.pending_used - this.pending_read;
+  }
+
+  /**
+   * Write as many bytes of completed lines as will fit into the given
+   * buffer.
+   *
+   * @param output The output buffer
+   *
+   * @return {@code true} if no bytes remain to be drained
+   */
+
+  public boolean drainTo(
+    final ByteBuffer output)
+  {
+    Objects.requireNonNull(output, "Output");
+
+    final int count = Math.min(this.pendingBytes(), output.remaining());
+    output.put(this.pending, this.pending_read, count);
+    this.pending_read += count;
+    if (this.pending_read == this.pending_used) {
+      this.pending_read = 0;
+      this.pending_used = 0;
+      return true;
+    }
+    return false;
+  }
+
+  private void addWord(
+    final byte[] data,
+    final int start,
+    final int end)
+  {
+    final int word_width = this.measure(data, start, end);
+
+    if (this.line_sum + word_width + 1 > this.limit) {
+      if (this.line_words > 0) {
+        this.finishLine();
+      }
+      if (JPGreedy.isOverflow(this.spec, word_width)) {
+        this.overflowLine(data, start, end);
+        return;
+      }
+    }
+
+    final int length = end - start;
+    final int required = this.line_text_used + length;
+    if (required > this.line_text.length) {
+      this.line_text = Arrays.copyOf(
+        this.line_text, Math.max(required, this.line_text.length * 2));
+    }
+    if (this.line_words == this.line_ends.length) {
+      final int size = this.line_words * 2;
+      this.line_ends = Arrays.copyOf(this.line_ends, size);
+      this.line_widths = Arrays.copyOf(this.line_widths, size);
+    }
+
+    System.arraycopy(data, start, this.line_text, this.line_text_used, length);
+    this.line_text_used = required;
+    this.line_ends[this.line_words] = required;
+    this.line_widths[this.line_words] = word_width;
+    ++this.line_words;
+    this.line_sum += word_width + 1;
+  }
+
+  private int measure(
+    final byte[] data,
+    final int start,
+    final int end)
+  {
+    if (this.ascii_fast && JPUtf8.isPrintableAscii(data, start, end)) {
+      return end - start;
+    }
+    final int count = this.decode(data, start, end);
+    return this.measurer.measure(this.chars_view, 0, count);
+  }
+
+  private int decode(
+    final byte[] data,
+    final int start,
+    final int end)
+  {
+    final int length = end - start;
+    if (length > this.chars.length) {
+      this.chars = new char[Math.max(length, this.chars.length * 2)];
+      this.chars_view = CharBuffer.wrap(this.chars);
+    }
+    return JPUtf8.decode(data, start, end, this.chars);
+  }
+
+  /**
+   * Write a word that cannot fit on any line to a line of its own, in the
+   * manner of {@link JPJustifierBasic}.
+   */
+
+  private void overflowLine(
+    final byte[] data,
+    final int start,
+    final int end)
+  {
+    if (this.spec.overflow() == JPOverflowBehaviour.OVERFLOW_TRUNCATE) {
+      final int count = this.decode(data, start, end);
+      final int cut = this.measurer.truncate(
+        this.chars_view, 0, count, this.width - 1);
+      final int cut_end = JPUtf8.offsetOfUnit(data, start, end, cut);
+      this.write(data, start, cut_end - start);
+      this.write(JPUtf8.ELLIPSIS, 0, JPUtf8.ELLIPSIS.length);
+
+      this.retained.setLength(0);
+      this.measurer.truncationSuffix(this.chars_view, cut, count, this.retained);
+      if (!this.retained.isEmpty()) {
+        final byte[] bytes =
+          this.retained.toString().getBytes(StandardCharsets.UTF_8);
+        this.write(bytes, 0, bytes.length);
+      }
+    } else {
+      this.write(data, start, end - start);
+    }
+    this.write(this.separator, 0, this.separator.length);
+  }
+
+  private void finishLine()
+  {
+    final int count = this.line_words;
+    if (this.justify && count > 1) {
+      final int text = this.line_sum - count;
+      final int space = this.width - text;
+      if (this.decider.shouldJustify(space, text)) {
+        this.writeJustified(space);
+        this.write(this.separator, 0, this.separator.length);
+        this.clearLine();
+        return;
+      }
+    }
+
+    for (int index = 0; index < count; ++index) {
+      if (index > 0) {
+        this.writeSpaces(1);
+      }
+      this.writeLineWord(index);
+    }
+    this.write(this.separator, 0, this.separator.length);
+    this.clearLine();
+  }
+
+  /**
+   * Write the words of the current line with {@code space} columns of
+   * space distributed between them, as {@link JPJustification} does.
+   */
+
+  private void writeJustified(
+    final int space)
+  {
+    final int count = this.line_words;
+    final int gaps = count - 1;
+    final int each = space / gaps;
+    final int rest = space % gaps;
+
+    for (int index = 0; index < count; ++index) {
+      if (index > 0) {
+        this.writeSpaces(index <= rest ? each + 1 : each);
+      }
+      this.writeLineWord(index);
+    }
+  }
+
+  private void writeLineWord(
+    final int index)
+  {
+    final int start = index == 0 ? 0 : this.line_ends[index - 1];
+    this.write(this.line_text, start, this.line_ends[index] - start);
+  }
+
+  private void writeSpaces(
+    final int count)
+  {
+    this.reserve(count);
+    Arrays.fill(
+      this.pending, this.pending_used, this.pending_used + count, (byte) ' ');
+    this.pending_used += count;
+  }
+
+  private void write(
+    final byte[] data,
+    final int start,
+    final int length)
+  {
+    this.reserve(length);
+    System.arraycopy(data, start, this.pending, this.pending_used, length);
+    this.pending_used += length;
+  }
+
+  private void reserve(
+    final int length)
+  {
+    if (this.pending_used + length <= this.pending.length) {
+      return;
+    }
+
+    if (this.pending_read > 0) {
+      final int remaining = this.pendingBytes();
+      System.arraycopy(
+        this.pending, this.pending_read, this.pending, 0, remaining);
+      this.pending_used = remaining;
+      this.pending_read = 0;
+    }
+
+    final int required = this.pending_used + length;
+    if (required > this.pending.length) {
+      this.pending = Arrays.copyOf(
+        this.pending, Math.max(required, this.pending.length * 2));
+    }
+  }
+
+  private void clearLine()
+  {
+    this.line_text_used = 0;
+    this.line_words = 0;
+    this.line_sum = 0;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * A measurer that counts UTF-16 code units, optionally ignoring ANSI escape
+ * sequences.
+ */
+
+final class JPWidthCodeUnits implements JPWidthMeasurerType
+{
+  private final boolean ansi;
+
+  JPWidthCodeUnits(
+    final boolean in_ansi)
+  {
+    this.ansi = in_ansi;
+  }
+
+  @Override
+  public int measure(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    if (this.ansi) {
+      return truncateWidth(text, start, end, Integer.MAX_VALUE, true);
+    }
+    return end - start;
+  }
+
+  @Override
+  public int truncate(
+    final CharSequence text,
+    final int start,
+    final int end,
+    final int columns)
+  {
+    if (this.ansi) {
+      return truncateWidth(text, start, end, columns, false);
+    }
+
+    final int cut = start + Math.min(columns, end - start);
+    if (cut > start && cut < end && isPair(text, cut - 1, end)) {
+      return cut - 1;
+    }
+    return cut;
+  }
+
+  /**
+   * @return {@code true} if a surrogate pair begins at {@code index}
+   */
+
+  private static boolean isPair(
+    final CharSequence text,
+    final int index,
+    final int end)
+  {
+    return index + 1 < end
+      && Character.isHighSurrogate(text.charAt(index))
+      && Character.isLowSurrogate(text.charAt(index + 1));
+  }
+
+  @Override
+  public void truncationSuffix(
+    final CharSequence text,
+    final int cut,
+    final int end,
+    final StringBuilder output)
+  {
+    if (this.ansi) {
+      JPAnsi.appendSequences(text, cut, end, output);
+    }
+  }
+
+  private static int truncateWidth(
+    final CharSequence text,
+    final int start,
+    final int end,
+    final int columns,
+    final boolean width)
+  {
+    int total = 0;
+    int index = start;
+    while (index < end) {
+      if (text.charAt(index) == JPAnsi.ESC) {
+        index = JPAnsi.skip(text, index, end);
+        continue;
+      }
+      final int units = isPair(text, index, end) ? 2 : 1;
+      if (total + units > columns) {
+        break;
+      }
+      total += units;
+      index += units;
+    }
+    return width ? total : index;
+  }
+}
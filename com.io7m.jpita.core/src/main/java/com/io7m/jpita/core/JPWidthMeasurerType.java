@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * A function that measures the display width of text. Layout engines
+ * measure each word exactly once, when the word is added, and retain the
+ * result for the remainder of the layout.
+ *
+ * @see JPWidthMeasurers
+ */
+
+public interface JPWidthMeasurerType
+{
+  /**
+   * Measure the range {@code [start, end)} of the given text.
+   *
+   * @param text  The text
+   * @param start The starting index (inclusive)
+   * @param end   The ending index (exclusive)
+   *
+   * @return The display width of the text
+   */
+
+  int measure(
+    CharSequence text,
+    int start,
+    int end);
+
+  /**
+   * Find the longest prefix of the range {@code [start, end)} of the given
+   * text that has a display width of at most {@code columns}. Implementations
+   * must not split a character, or a character and the combining marks
+   * that follow it.
+   *
+   * @param text    The text
+   * @param start   The starting index (inclusive)
+   * @param end     The ending index (exclusive)
+   * @param columns The maximum display width
+   *
+   * @return The ending index (exclusive) of the prefix
+   */
+
+  int truncate(
+    CharSequence text,
+    int start,
+    int end,
+    int columns);
+
+  /**
+   * Append to {@code output} any parts of the range {@code [cut, end)} of
+   * the given text that must be kept when the text is truncated at
+   * {@code cut}, as returned by {@link #truncate}. The parts appended are
+   * placed after the ellipsis that marks the truncation. Measurers that
+   * recognize escape sequences append the escape sequences in the range,
+   * so that a sequence that ends a colored word (for example) still takes
+   * effect. The default implementation appends nothing.
+   *
+   * @param text   The text
+   * @param cut    The truncation point
+   * @param end    The ending index (exclusive)
+   * @param output The output
+   */
+
+  default void truncationSuffix(
+    final CharSequence text,
+    final int cut,
+    final int end,
+    final StringBuilder output)
+  {
+
+  }
+}
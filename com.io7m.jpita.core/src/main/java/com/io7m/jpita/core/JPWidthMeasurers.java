@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * Standard width measurement functions.
+ */
+
+public final class JPWidthMeasurers
+{
+  /**
+   * A measurer that counts UTF-16 code units, as {@link String#length()}
+   * does. This is the measurer used by aligners unless another is
+   * specified, and is correct for text that consists only of characters
+   * that occupy a single column.
+   */
+
+  public static final JPWidthMeasurerType CODE_UNITS =
+    new JPWidthCodeUnits(false);
+
+  /**
+   * A measurer that counts UTF-16 code units as {@link #CODE_UNITS} does,
+   * but that recognizes ANSI escape sequences (such as the SGR sequences
+   * used to color text) and treats them as having no width. Escape
+   * sequences are copied verbatim into formatted lines, and are kept when
+   * a word is truncated, as with {@link #TERMINAL_ANSI}.
+   */
+
+  public static final JPWidthMeasurerType CODE_UNITS_ANSI =
+    new JPWidthCodeUnits(true);
+
+  /**
+   * A measurer that counts terminal columns. East Asian wide and fullwidth
+   * characters and most emoji occupy two columns; combining marks, format
+   * characters, variation selectors, emoji modifiers, and characters joined
+   * to a preceding character with a zero-width joiner occupy none. Text
+   * consisting only of printable ASCII and Latin-1 characters is measured
+   * without examining individual characters.
+   */
+
+  public static final JPWidthMeasurerType TERMINAL =
+    new JPWidthTerminal(false);
+
+  /**
+   * A measurer that counts terminal columns as {@link #TERMINAL} does, but
+   * that recognizes ANSI escape sequences (such as the SGR sequences used to
+   * color text) and treats them as having no width. Each word is scanned
+   * once; words without escape sequences are measured exactly as by
+   * {@link #TERMINAL}. Escape sequences are copied verbatim into formatted
+   * lines. When a word is truncated, escape sequences that follow the
+   * truncation point are kept, and placed after the ellipsis, so that a
+   * sequence that resets the color of a truncated word still takes effect.
+   */
+
+  public static final JPWidthMeasurerType TERMINAL_ANSI =
+    new JPWidthTerminal(true);
+
+  private JPWidthMeasurers()
+  {
+    throw new AssertionError("Unreachable code!");
+  }
+}
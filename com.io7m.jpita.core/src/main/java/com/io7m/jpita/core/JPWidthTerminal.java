@@ -0,0 +1,337 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+/**
+ * A measurer that counts terminal columns, optionally ignoring ANSI escape
+ * sequences.
+ *
+ * Widths of characters in the Basic Multilingual Plane are computed once,
+ * when the class is initialized, and stored in a table with one entry per
+ * character. Characters outside of the BMP are classified on demand.
+ */
+
+final class JPWidthTerminal implements JPWidthMeasurerType
+{
+  private static final int ZERO_WIDTH_JOINER = 0x200D;
+
+  /**
+   * Inclusive ranges of East Asian wide and fullwidth characters, and of
+   * emoji that are presented as wide by default, in ascending order.
+   */
+
+  private static final int[] WIDE = {
+    0x1100, 0x115F,
+    0x231A, 0x231B,
+    0x2329, 0x232A,
+    0x23E9, 0x23EC,
+    0x23F0, 0x23F0,
+    0x23F3, 0x23F3,
+    0x25FD, 0x25FE,
+    0x2614, 0x2615,
+    0x2648, 0x2653,
+    0x267F, 0x267F,
+    0x2693, 0x2693,
+    0x26A1, 0x26A1,
+    0x26AA, 0x26AB,
+    0x26BD, 0x26BE,
+    0x26C4, 0x26C5,
+    0x26CE, 0x26CE,
+    0x26D4, 0x26D4,
+    0x26EA, 0x26EA,
+    0x26F2, 0x26F3,
+    0x26F5, 0x26F5,
+    0x26FA, 0x26FA,
+    0x26FD, 0x26FD,
+    0x2705, 0x2705,
+    0x270A, 0x270B,
+    0x2728, 0x2728,
+    0x274C, 0x274C,
+    0x274E, 0x274E,
+    0x2753, 0x2755,
+    0x2757, 0x2757,
+    0x2795, 0x2797,
+    0x27B0, 0x27B0,
+    0x27BF, 0x27BF,
+    0x2B1B, 0x2B1C,
+    0x2B50, 0x2B50,
+    0x2B55, 0x2B55,
+    0x2E80, 0x303E,
+    0x3041, 0x33FF,
+    0x3400, 0x4DBF,
+    0x4E00, 0x9FFF,
+    0xA000, 0xA4CF,
+    0xA960, 0xA97F,
+    0xAC00, 0xD7A3,
+    0xF900, 0xFAFF,
+    0xFE10, 0xFE19,
+    0xFE30, 0xFE6F,
+    0xFF00, 0xFF60,
+    0xFFE0, 0xFFE6,
+    0x16FE0, 0x16FE4,
+    0x16FF0, 0x16FF1,
+    0x17000, 0x187F7,
+    0x18800, 0x18CD5,
+    0x18D00, 0x18D08,
+    0x1AFF0, 0x1B2FB,
+    0x1F004, 0x1F004,
+    0x1F0CF, 0x1F0CF,
+    0x1F18E, 0x1F18E,
+    0x1F191, 0x1F19A,
+    0x1F200, 0x1F202,
+    0x1F210, 0x1F23B,
+    0x1F240, 0x1F248,
+    0x1F250, 0x1F251,
+    0x1F260, 0x1F265,
+    0x1F300, 0x1F320,
+    0x1F32D, 0x1F335,
+    0x1F337, 0x1F37C,
+    0x1F37E, 0x1F393,
+    0x1F3A0, 0x1F3CA,
+    0x1F3CF, 0x1F3D3,
+    0x1F3E0, 0x1F3F0,
+    0x1F3F4, 0x1F3F4,
+    0x1F3F8, 0x1F43E,
+    0x1F440, 0x1F440,
+    0x1F442, 0x1F4FC,
+    0x1F4FF, 0x1F53D,
+    0x1F54B, 0x1F54E,
+    0x1F550, 0x1F567,
+    0x1F57A, 0x1F57A,
+    0x1F595, 0x1F596,
+    0x1F5A4, 0x1F5A4,
+    0x1F5FB, 0x1F64F,
+    0x1F680, 0x1F6C5,
+    0x1F6CC, 0x1F6CC,
+    0x1F6D0, 0x1F6D2,
+    0x1F6D5, 0x1F6D7,
+    0x1F6DC, 0x1F6DF,
+    0x1F6EB, 0x1F6EC,
+    0x1F6F4, 0x1F6FC,
+    0x1F7E0, 0x1F7EB,
+    0x1F7F0, 0x1F7F0,
+    0x1F90C, 0x1F93A,
+    0x1F93C, 0x1F945,
+    0x1F947, 0x1F9FF,
+    0x1FA70, 0x1FA7C,
+    0x1FA80, 0x1FA88,
+    0x1FA90, 0x1FABD,
+    0x1FABF, 0x1FAC5,
+    0x1FACE, 0x1FADB,
+    0x1FAE0, 0x1FAE8,
+    0x1FAF0, 0x1FAF8,
+    0x20000, 0x2FFFD,
+    0x30000, 0x3FFFD,
+  };
+
+  private static final byte[] BMP = makeBMP();
+
+  private final boolean ansi;
+
+  JPWidthTerminal(
+    final boolean in_ansi)
+  {
+    this.ansi = in_ansi;
+  }
+
+  private static byte[] makeBMP()
+  {
+    final byte[] widths = new byte[0x10000];
+    for (int cp = 0; cp < widths.length; ++cp) {
+      widths[cp] = (byte) classify(cp);
+    }
+    return widths;
+  }
+
+  private static boolean isZeroWidth(
+    final int cp)
+  {
+    return switch (Character.getType(cp)) {
+      case Character.NON_SPACING_MARK,
+        Character.ENCLOSING_MARK,
+        Character.FORMAT,
+        Character.CONTROL,
+        Character.SURROGATE -> true;
+      default -> isZeroWidthRange(cp);
+    };
+  }
+
+  /**
+   * Hangul medial vowels and final consonants combine with a preceding
+   * initial consonant, and emoji skin tone modifiers combine with a
+   * preceding emoji.
+   */
+
+  private static boolean isZeroWidthRange(
+    final int cp)
+  {
+    return (cp >= 0x1160 && cp <= 0x11FF) || (cp >= 0x1F3FB && cp <= 0x1F3FF);
+  }
+
+  private static boolean isWide(
+    final int cp)
+  {
+    int low = 0;
+    int high = (WIDE.length / 2) - 1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      if (cp < WIDE[middle * 2]) {
+        high = middle - 1;
+      } else if (cp > WIDE[(middle * 2) + 1]) {
+        low = middle + 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int classify(
+    final int cp)
+  {
+    if (isZeroWidth(cp)) {
+      return 0;
+    }
+    return isWide(cp) ? 2 : 1;
+  }
+
+  private static int widthOf(
+    final int cp)
+  {
+    if (cp < 0x10000) {
+      return BMP[cp];
+    }
+    return classify(cp);
+  }
+
+  private static int codePointAt(
+    final CharSequence text,
+    final int index,
+    final int end)
+  {
+    final char c = text.charAt(index);
+    if (index + 1 < end && Character.isHighSurrogate(c)) {
+      final char d = text.charAt(index + 1);
+      if (Character.isLowSurrogate(d)) {
+        return Character.toCodePoint(c, d);
+      }
+    }
+    return c;
+  }
+
+  /**
+   * Determine whether any character in the given range requires the slow
+   * path. The result is accumulated without branches: each term below has
+   * its sign bit set exactly when {@code c} is outside of the range
+   * {@code [0x20, 0x2FF]}, is inside the C1 control range
+   * {@code [0x7F, 0x9F]}, or is U+00AD SOFT HYPHEN (the only character in
+   * the range that has no width), respectively. Because {@code ESC} is a
+   * control character, text containing escape sequences always takes the
+   * slow path.
+   */
+
+  private static boolean isSimple(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    int special = 0;
+    for (int index = start; index < end; ++index) {
+      final int c = text.charAt(index);
+      special |= (0x2FF - c) | (c - 0x20);
+      special |= ~((c - 0x7F) | (0x9F - c));
+      special |= (c ^ 0xAD) - 1;
+    }
+    return special >= 0;
+  }
+
+  @Override
+  public int measure(
+    final CharSequence text,
+    final int start,
+    final int end)
+  {
+    if (isSimple(text, start, end)) {
+      return end - start;
+    }
+    return this.truncateWidth(text, start, end, Integer.MAX_VALUE, true);
+  }
+
+  @Override
+  public int truncate(
+    final CharSequence text,
+    final int start,
+    final int end,
+    final int columns)
+  {
+    if (isSimple(text, start, end)) {
+      return start + Math.min(columns, end - start);
+    }
+    return this.truncateWidth(text, start, end, columns, false);
+  }
+
+  @Override
+  public void truncationSuffix(
+    final CharSequence text,
+    final int cut,
+    final int end,
+    final StringBuilder output)
+  {
+    if (this.ansi) {
+      JPAnsi.appendSequences(text, cut, end, output);
+    }
+  }
+
+  /**
+   * Walk the range {@code [start, end)} one code point at a time until the
+   * accumulated width would exceed {@code columns}. A code point following
+   * a zero-width joiner belongs to the preceding cluster and contributes no
+   * width. If escape sequences are recognized, each sequence is skipped in
+   * its entirety and contributes no width.
+   *
+   * @return The accumulated width if {@code width} is {@code true}, or the
+   * index at which the walk stopped otherwise
+   */
+
+  private int truncateWidth(
+    final CharSequence text,
+    final int start,
+    final int end,
+    final int columns,
+    final boolean width)
+  {
+    int total = 0;
+    int previous = 0;
+    int index = start;
+    while (index < end) {
+      if (this.ansi && text.charAt(index) == JPAnsi.ESC) {
+        index = JPAnsi.skip(text, index, end);
+        continue;
+      }
+
+      final int cp = codePointAt(text, index, end);
+      final int w = previous == ZERO_WIDTH_JOINER ? 0 : widthOf(cp);
+      if (total + w > columns) {
+        break;
+      }
+      total += w;
+      previous = cp;
+      index += Character.charCount(cp);
+    }
+    return width ? total : index;
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.core;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of words. The characters of all words are copied into a
+ * single backing array, and each word is recorded as an offset and length
+ * into that array along with its display width, so that each word is
+ * measured only once. A word may be marked as joined to the word that
+ * follows it, which is the case for all but the last fragment of a
+ * hyphenated word. Clearing the buffer retains its capacity.
+ */
+
+final class JPWordBuffer
+{
+  private char[] text;
+  private int text_used;
+  private int[] offsets;
+  private int[] lengths;
+  private int[] widths;
+  private boolean[] joined;
+  private int count;
+
+  JPWordBuffer(
+    final int in_text_capacity,
+    final int in_word_capacity)
+  {
+    this.text = new char[Math.max(1, in_text_capacity)];
+    this.offsets = new int[Math.max(1, in_word_capacity)];
+    this.lengths = new int[Math.max(1, in_word_capacity)];
+    this.widths = new int[Math.max(1, in_word_capacity)];
+    this.joined = new boolean[Math.max(1, in_word_capacity)];
+  }
+
+  /**
+   * Copy the given range of characters into the buffer as a new word.
+   *
+   * @param source The source text
+   * @param start  The starting index (inclusive)
+   * @param end    The ending index (exclusive)
+   * @param width  The display width of the word
+   */
+
+  void add(
+    final CharSequence source,
+    final int start,
+    final int end,
+    final int width)
+  {
+    final int length = end - start;
+    this.reserveText(length);
+    this.reserveWord();
+
+    final int offset = this.text_used;
+    JPText.copy(source, start, end, this.text, offset);
+
+    this.offsets[this.count] = offset;
+    this.lengths[this.count] = length;
+    this.widths[this.count] = width;
+    this.joined[this.count] = false;
+    this.text_used = offset + length;
+    ++this.count;
+  }
+
+  /**
+   * Mark the most recently added word as joined to the word that follows
+   * it: no space is placed between the two words, and a hyphen is placed
+   * after the word if a line ends with it.
+   */
+
+  void joinLast()
+  {
+    this.joined[this.count - 1] = true;
+  }
+
+  private void reserveText(final int length)
+  {
+    final int required = this.text_used + length;
+    if (required > this.text.length) {
+      this.text = Arrays.copyOf(
+        this.text, Math.max(required, this.text.length * 2));
+    }
+  }
+
+  private void reserveWord()
+  {
+    if (this.count == this.offsets.length) {
+      final int size = this.count * 2;
+      this.offsets = Arrays.copyOf(this.offsets, size);
+      this.lengths = Arrays.copyOf(this.lengths, size);
+      this.widths = Arrays.copyOf(this.widths, size);
+      this.joined = Arrays.copyOf(this.joined, size);
+    }
+  }
+
+  /**
+   * @return The number of words in the buffer
+   */
+
+  int count()
+  {
+    return this.count;
+  }
+
+  /**
+   * @return {@code true} if the buffer contains no words
+   */
+
+  boolean isEmpty()
+  {
+    return this.count == 0;
+  }
+
+  /**
+   * @param index The word index
+   *
+   * @return The display width of the word at {@code index}
+   */
+
+  int width(final int index)
+  {
+    return this.widths[index];
+  }
+
+  /**
+   * @param index The word index
+   *
+   * @return {@code true} if the word at {@code index} is joined to the word
+   * that follows it
+   */
+
+  boolean isJoined(final int index)
+  {
+    return this.joined[index];
+  }
+
+  /**
+   * @param first The index of the first word (inclusive)
+   * @param last  The index of the last word (exclusive)
+   *
+   * @return The sum of the display widths of the words in
+   * {@code [first, last)}
+   */
+
+  int widthSum(
+    final int first,
+    final int last)
+  {
+    int sum = 0;
+    for (int index = first; index < last; ++index) {
+      sum += this.widths[index];
+    }
+    return sum;
+  }
+
+  /**
+   * Append the word at {@code index} to the given builder.
+   *
+   * @param index  The word index
+   * @param output The output builder
+   */
+
+  void appendTo(
+    final int index,
+    final StringBuilder output)
+  {
+    output.append(this.text, this.offsets[index], this.lengths[index]);
+  }
+
+  /**
+   * Remove all words from the buffer, retaining its capacity.
+   */
+
+  void clear()
+  {
+    this.count = 0;
+    this.text_used = 0;
+  }
+
+  /**
+   * Remove all words from the buffer as with {@link #clear()}, additionally
+   * releasing any storage beyond the limits given in {@link JPCapacity}.
+   */
+
+  void reset()
+  {
+    this.clear();
+    if (this.text.length > JPCapacity.RETAINED_CHARACTERS) {
+      this.text = new char[16];
+    }
+    if (this.offsets.length > JPCapacity.RETAINED_ELEMENTS) {
+      this.offsets = new int[16];
+      this.lengths = new int[16];
+      this.widths = new int[16];
+      this.joined = new boolean[16];
+    }
+  }
+}
@@ -25,6 +25,7 @@ module com.io7m.jpita.core
 
   requires com.io7m.jranges.core;
   requires com.io7m.jaffirm.core;
+  requires jdk.jfr;
 
   exports com.io7m.jpita.core;
 }
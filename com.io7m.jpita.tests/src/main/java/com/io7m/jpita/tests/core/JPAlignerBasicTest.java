@@ -21,6 +21,8 @@ import com.io7m.jpita.core.JPAlignerType;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.CharBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 public final class JPAlignerBasicTest
@@ -120,4 +122,58 @@ public final class JPAlignerBasicTest
       Assert.assertFalse(Character.isWhitespace(line.codePointAt(line.length() - 1)));
     }
   }
+
+  @Test
+  public void testWordsStreaming()
+    throws Exception
+  {
+    final int width = 60;
+    final List<String> received = new ArrayList<>();
+    final JPAlignerType a =
+      JPAlignerBasic.create(width, line -> received.add(line.toString()));
+    final JPAlignerType b =
+      JPAlignerBasic.create(width);
+
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPAlignerBasicTest.class, "lorem.txt");
+    JPTestUtilities.addAll(a, words);
+    JPTestUtilities.addAll(b, words);
+
+    Assert.assertEquals(8L, (long) received.size());
+    Assert.assertTrue(a.finish().isEmpty());
+    Assert.assertEquals(b.finish(), received);
+  }
+
+  @Test
+  public void testWordRanges()
+    throws Exception
+  {
+    final int width = 60;
+    final JPAlignerType a = JPAlignerBasic.create(width);
+    final JPAlignerType b = JPAlignerBasic.create(width);
+
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPAlignerBasicTest.class, "lorem.txt");
+    final String text = "  " + String.join("   ", words) + "  ";
+    final CharBuffer chars = CharBuffer.wrap(text.toCharArray());
+
+    int start = 0;
+    for (int index = 0; index < words.size(); ++index) {
+      final int end = text.indexOf(words.get(index), start) + words.get(index).length();
+      a.addWord(chars, start, end);
+      start = end;
+    }
+    JPTestUtilities.addAll(b, words);
+
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+    Assert.assertEquals(b.finish(), rs);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testWordRangeInvalid()
+  {
+    final JPAlignerType a = JPAlignerBasic.create(80);
+    a.addWord("Hello", 3, 6);
+  }
 }
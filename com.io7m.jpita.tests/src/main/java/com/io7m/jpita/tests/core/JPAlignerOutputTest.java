@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerBasic;
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLineReceiverType;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public final class JPAlignerOutputTest
+{
+  private static final IntFunction<JPAlignerType> ALIGNER =
+    JPAlignerBasic::create;
+
+  private static final IntFunction<JPAlignerType> JUSTIFIER =
+    width -> JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+
+  private static List<String> words()
+    throws IOException
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPAlignerOutputTest.class, "lorem.txt");
+    words.addAll(
+      JPTestUtilities.resourceAsWords(JPAlignerOutputTest.class, "uri.txt"));
+    return words;
+  }
+
+  private static String joined(
+    final List<String> lines,
+    final String separator)
+  {
+    final StringBuilder b = new StringBuilder(128);
+    for (final String line : lines) {
+      b.append(line);
+      b.append(separator);
+    }
+    return b.toString();
+  }
+
+  private static void checkFinishTo(
+    final IntFunction<JPAlignerType> create)
+    throws IOException
+  {
+    final List<String> words = words();
+
+    final JPAlignerType a = create.apply(20);
+    JPTestUtilities.addAll(a, words);
+    a.breakLine();
+    JPTestUtilities.addAll(a, words);
+    final String expected = joined(a.finish(), "\r\n");
+
+    final JPAlignerType b = create.apply(20);
+    JPTestUtilities.addAll(b, words);
+    b.breakLine();
+    JPTestUtilities.addAll(b, words);
+    final StringBuilder builder = new StringBuilder(128);
+    b.finishTo(builder, "\r\n");
+    Assert.assertEquals(expected, builder.toString());
+
+    JPTestUtilities.addAll(b, words);
+    b.breakLine();
+    JPTestUtilities.addAll(b, words);
+    final StringWriter writer = new StringWriter();
+    b.finishTo(writer, "\r\n");
+    Assert.assertEquals(expected, writer.toString());
+    Assert.assertEquals(List.of(), b.finish());
+  }
+
+  @Test
+  public void testAlignerFinishTo()
+    throws Exception
+  {
+    checkFinishTo(ALIGNER);
+  }
+
+  @Test
+  public void testJustifierFinishTo()
+    throws Exception
+  {
+    checkFinishTo(JUSTIFIER);
+  }
+
+  @Test
+  public void testFinishToPlatformSeparator()
+    throws Exception
+  {
+    final JPAlignerType a = ALIGNER.apply(80);
+    a.addWord("Hello");
+    a.breakLine();
+    a.addWord("World");
+    final StringBuilder b = new StringBuilder(128);
+    a.finishTo(b);
+
+    final String s = System.lineSeparator();
+    Assert.assertEquals("Hello" + s + "World" + s, b.toString());
+  }
+
+  @Test
+  public void testStreamingAppending()
+    throws Exception
+  {
+    final List<String> words = words();
+
+    final JPAlignerType a = JUSTIFIER.apply(20);
+    JPTestUtilities.addAll(a, words);
+    final String expected = joined(a.finish(), "\n");
+
+    final StringWriter writer = new StringWriter();
+    final JPAlignerType b = JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      20,
+      JPLineReceiverType.appending(writer, "\n"));
+    JPTestUtilities.addAll(b, words);
+    final StringBuilder unused = new StringBuilder(16);
+    b.finishTo(unused, "\n");
+
+    Assert.assertEquals(expected, writer.toString());
+    Assert.assertEquals("", unused.toString());
+  }
+
+  private static final class FailingWriter extends Writer
+  {
+    FailingWriter()
+    {
+
+    }
+
+    @Override
+    public void write(
+      final char[] buffer,
+      final int offset,
+      final int length)
+      throws IOException
+    {
+      throw new IOException("Failed!");
+    }
+
+    @Override
+    public void flush()
+    {
+
+    }
+
+    @Override
+    public void close()
+    {
+
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testFinishToFails()
+    throws Exception
+  {
+    final JPAlignerType a = ALIGNER.apply(80);
+    a.addWord("Hello");
+    a.finishTo(new FailingWriter());
+  }
+
+  @Test(expected = UncheckedIOException.class)
+  public void testStreamingAppendingFails()
+  {
+    final JPAlignerType a = JPAlignerBasic.create(
+      80, JPLineReceiverType.appending(new FailingWriter(), "\n"));
+    a.addWord("Hello");
+    a.finish();
+  }
+}
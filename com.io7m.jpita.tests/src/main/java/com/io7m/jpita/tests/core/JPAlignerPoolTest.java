@@ -0,0 +1,309 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerPoolShared;
+import com.io7m.jpita.core.JPAlignerPoolThreadLocal;
+import com.io7m.jpita.core.JPAlignerPoolType;
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jranges.RangeCheckException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public final class JPAlignerPoolTest
+{
+  private static List<JPLayoutSpec> specs()
+  {
+    return List.of(
+      JPLayoutSpec.alignLeft(20),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        20),
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        20));
+  }
+
+  @Test
+  public void testReset()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPAlignerPoolTest.class, "lorem.txt");
+
+    for (final JPLayoutSpec spec : specs()) {
+      final JPAlignerType a = spec.createAligner();
+      JPTestUtilities.addAll(a, words);
+      a.breakLine();
+      JPTestUtilities.addAll(a, words);
+      a.reset();
+      Assert.assertEquals(List.of(), a.finish());
+
+      JPTestUtilities.addAll(a, words);
+      a.reset();
+      JPTestUtilities.addAll(a, words.subList(0, 3));
+      final JPAlignerType b = spec.createAligner();
+      JPTestUtilities.addAll(b, words.subList(0, 3));
+      Assert.assertEquals(b.finish(), a.finish());
+    }
+  }
+
+  @Test
+  public void testResetStreaming()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPAlignerPoolTest.class, "lorem.txt");
+
+    for (final JPLayoutSpec spec : specs()) {
+      final List<String> received = new ArrayList<>();
+      final JPAlignerType a =
+        spec.createAligner(line -> received.add(line.toString()));
+      a.addWord(words.get(0));
+      a.reset();
+      a.finish();
+      Assert.assertEquals(List.of(), received);
+    }
+  }
+
+  @Test
+  public void testResetDefault()
+  {
+    final List<String> pending = new ArrayList<>();
+    final JPAlignerType a = new JPAlignerType()
+    {
+      @Override
+      public void addWord(final String w)
+      {
+        pending.add(w);
+      }
+
+      @Override
+      public void breakLine()
+      {
+
+      }
+
+      @Override
+      public List<String> finish()
+      {
+        final List<String> lines = List.copyOf(pending);
+        pending.clear();
+        return lines;
+      }
+    };
+
+    a.addWord("x");
+    a.reset();
+    Assert.assertEquals(List.of(), pending);
+    Assert.assertEquals(List.of(), a.finish());
+  }
+
+  private static void checkReuse(
+    final JPAlignerPoolType pool)
+  {
+    for (final JPLayoutSpec spec : specs()) {
+      final JPAlignerType a = pool.acquire(spec);
+      a.addWord("Pending");
+      pool.release(spec, a);
+
+      final JPAlignerType b = pool.acquire(spec);
+      Assert.assertSame(a, b);
+      Assert.assertEquals(List.of(), b.finish());
+
+      final JPAlignerType c = pool.acquire(spec);
+      Assert.assertNotSame(b, c);
+      pool.release(spec, b);
+      pool.release(spec, c);
+    }
+  }
+
+  private static void checkBounded(
+    final JPAlignerPoolType pool)
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(10);
+    final JPAlignerType a = pool.acquire(spec);
+    final JPAlignerType b = pool.acquire(spec);
+    final JPAlignerType c = pool.acquire(spec);
+    pool.release(spec, a);
+    pool.release(spec, b);
+    pool.release(spec, c);
+
+    final JPAlignerType d = pool.acquire(spec);
+    final JPAlignerType e = pool.acquire(spec);
+    final JPAlignerType f = pool.acquire(spec);
+    Assert.assertNotSame(c, d);
+    Assert.assertNotSame(c, e);
+    Assert.assertNotSame(c, f);
+
+    final JPLayoutSpec other = JPLayoutSpec.alignLeft(11);
+    for (int index = 0; index < 2; ++index) {
+      final JPAlignerType g = pool.acquire(other);
+      pool.release(other, g);
+      Assert.assertNotSame(g, pool.acquire(other));
+    }
+  }
+
+  @Test
+  public void testSharedReuse()
+  {
+    checkReuse(JPAlignerPoolShared.create(8, 4));
+  }
+
+  @Test
+  public void testSharedBounded()
+  {
+    checkBounded(JPAlignerPoolShared.create(1, 2));
+  }
+
+  @Test
+  public void testThreadLocalReuse()
+  {
+    checkReuse(JPAlignerPoolThreadLocal.create(8, 4));
+  }
+
+  @Test
+  public void testThreadLocalBounded()
+  {
+    checkBounded(JPAlignerPoolThreadLocal.create(1, 2));
+  }
+
+  @Test
+  public void testThreadLocalSeparate()
+    throws Exception
+  {
+    final JPAlignerPoolType pool = JPAlignerPoolThreadLocal.create(8, 4);
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(10);
+    final JPAlignerType a = pool.acquire(spec);
+    pool.release(spec, a);
+
+    try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+      final JPAlignerType b = executor.submit(() -> pool.acquire(spec)).get();
+      Assert.assertNotSame(a, b);
+    }
+    Assert.assertSame(a, pool.acquire(spec));
+  }
+
+  @Test
+  public void testSharedConcurrent()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPAlignerPoolTest.class, "lorem.txt");
+    final JPAlignerPoolType pool = JPAlignerPoolShared.create(8, 4);
+    final JPLayoutSpec spec = specs().get(1);
+
+    final JPAlignerType reference = spec.createAligner();
+    JPTestUtilities.addAll(reference, words);
+    final List<String> expected = reference.finish();
+
+    final List<Future<List<String>>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      for (int index = 0; index < 500; ++index) {
+        results.add(executor.submit(() -> {
+          final JPAlignerType a = pool.acquire(spec);
+          try {
+            JPTestUtilities.addAll(a, words);
+            return a.finish();
+          } finally {
+            pool.release(spec, a);
+          }
+        }));
+      }
+      for (final Future<List<String>> result : results) {
+        Assert.assertEquals(expected, result.get());
+      }
+    }
+  }
+
+  @Test
+  public void testResetAfterLargeDocument()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPAlignerPoolTest.class, "lorem.txt");
+
+    for (final JPLayoutSpec spec : specs()) {
+      final JPAlignerType a = spec.createAligner();
+      for (int index = 0; index < 100; ++index) {
+        JPTestUtilities.addAll(a, words);
+      }
+      a.addWord("x".repeat(20000));
+      a.reset();
+
+      for (int index = 0; index < 2; ++index) {
+        JPTestUtilities.addAll(a, words);
+        final JPAlignerType b = spec.createAligner();
+        JPTestUtilities.addAll(b, words);
+        Assert.assertEquals(b.finish(), a.finish());
+      }
+    }
+  }
+
+  @Test
+  public void testSharedSpecificationsBoundedConcurrent()
+    throws Exception
+  {
+    final JPAlignerPoolType pool = JPAlignerPoolShared.create(4, 1);
+
+    final List<Future<Boolean>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      for (int index = 0; index < 64; ++index) {
+        final JPLayoutSpec spec = JPLayoutSpec.alignLeft(10 + index);
+        results.add(executor.submit(() -> {
+          final JPAlignerType a = pool.acquire(spec);
+          pool.release(spec, a);
+          final JPAlignerType b = pool.acquire(spec);
+          return Boolean.valueOf(a == b);
+        }));
+      }
+
+      int pooled = 0;
+      for (final Future<Boolean> result : results) {
+        if (result.get().booleanValue()) {
+          ++pooled;
+        }
+      }
+      Assert.assertTrue(pooled <= 4);
+      Assert.assertTrue(pooled >= 1);
+    }
+  }
+
+  @Test
+  public void testInvalid()
+  {
+    Assert.assertThrows(
+      RangeCheckException.class, () -> JPAlignerPoolShared.create(0, 1));
+    Assert.assertThrows(
+      RangeCheckException.class, () -> JPAlignerPoolShared.create(1, 0));
+    Assert.assertThrows(
+      RangeCheckException.class, () -> JPAlignerPoolThreadLocal.create(0, 1));
+    Assert.assertThrows(
+      RangeCheckException.class, () -> JPAlignerPoolThreadLocal.create(1, 0));
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerBasic;
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public final class JPAlignerTextTest
+{
+  private static final IntFunction<JPAlignerType> ALIGNER =
+    JPAlignerBasic::create;
+
+  private static final IntFunction<JPAlignerType> JUSTIFIER =
+    width -> JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+
+  private static String resource(
+    final String name)
+    throws IOException
+  {
+    try (final InputStream is =
+           JPAlignerTextTest.class.getResourceAsStream(name)) {
+      return new String(IOUtils.toByteArray(is), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * A reader that never returns more than three characters at a time.
+   */
+
+  private static final class TrickleReader extends FilterReader
+  {
+    TrickleReader(final Reader in)
+    {
+      super(in);
+    }
+
+    @Override
+    public int read(
+      final char[] buffer,
+      final int offset,
+      final int length)
+      throws IOException
+    {
+      return super.read(buffer, offset, Math.min(3, length));
+    }
+  }
+
+  private static void checkSameAsWords(
+    final IntFunction<JPAlignerType> create,
+    final int width)
+    throws Exception
+  {
+    final String text = resource("lorem.txt") + " " + resource("uri.txt");
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPAlignerTextTest.class, "lorem.txt");
+    words.addAll(
+      JPTestUtilities.resourceAsWords(JPAlignerTextTest.class, "uri.txt"));
+
+    final JPAlignerType a = create.apply(width);
+    JPTestUtilities.addAll(a, words);
+    final List<String> expected = a.finish();
+
+    final JPAlignerType b = create.apply(width);
+    b.addText(text);
+    final List<String> rs = b.finish();
+    JPTestUtilities.show(width, rs);
+    Assert.assertEquals(expected, rs);
+
+    final JPAlignerType c = create.apply(width);
+    c.addText(new StringReader(text));
+    Assert.assertEquals(expected, c.finish());
+
+    final JPAlignerType d = create.apply(width);
+    d.addText(new TrickleReader(new StringReader(text)));
+    Assert.assertEquals(expected, d.finish());
+  }
+
+  @Test
+  public void testAlignerSameAsWords()
+    throws Exception
+  {
+    checkSameAsWords(ALIGNER, 20);
+    checkSameAsWords(ALIGNER, 60);
+  }
+
+  @Test
+  public void testJustifierSameAsWords()
+    throws Exception
+  {
+    checkSameAsWords(JUSTIFIER, 20);
+    checkSameAsWords(JUSTIFIER, 60);
+  }
+
+  @Test
+  public void testBlankLines()
+    throws Exception
+  {
+    final String text = "\n  a b\nc\n\nd  \r\n \t\r\n\n e\n";
+
+    final JPAlignerType a = ALIGNER.apply(80);
+    a.addText(text);
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(80, rs);
+    Assert.assertEquals(List.of("a b c", "d", "", "e"), rs);
+
+    final JPAlignerType b = ALIGNER.apply(80);
+    b.addText(new TrickleReader(new StringReader(text)));
+    Assert.assertEquals(rs, b.finish());
+  }
+
+  @Test
+  public void testEmpty()
+    throws Exception
+  {
+    final JPAlignerType a = JUSTIFIER.apply(80);
+    a.addText("");
+    a.addText("   ");
+    a.addText(new StringReader(""));
+    Assert.assertEquals(List.of(), a.finish());
+  }
+
+  @Test
+  public void testWordLargerThanBuffer()
+    throws Exception
+  {
+    final String word = "x".repeat(10000);
+
+    final JPAlignerType a = ALIGNER.apply(80);
+    a.addText(new StringReader("a " + word + " b"));
+    final List<String> rs = a.finish();
+
+    Assert.assertEquals(List.of("a", word, "b"), rs);
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPBufferReceiver;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import com.io7m.jranges.RangeCheckException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public final class JPBufferReceiverTest
+{
+  private static final String MIXED =
+    "Hello   world.\n\n  漢字 and ｆｕｌｌｗｉｄｔｈ text, 👍🏽 emoji,\t"
+      + "combining é marks and Ünïcödé Latin-1.";
+
+  private static String utf8(
+    final ByteBuffer buffer)
+  {
+    final ByteBuffer b = buffer.duplicate().flip();
+    final byte[] bytes = new byte[b.remaining()];
+    b.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static int[] cells(
+    final ByteBuffer buffer)
+  {
+    final ByteBuffer b = buffer.duplicate().order(buffer.order()).flip();
+    final int[] cells = new int[b.remaining() / Integer.BYTES];
+    for (int index = 0; index < cells.length; ++index) {
+      cells[index] = b.getInt();
+    }
+    return cells;
+  }
+
+  @Test
+  public void testUtf8SameAsFormat()
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      20).withMeasurer(JPWidthMeasurers.TERMINAL);
+
+    final StringBuilder expected = new StringBuilder();
+    for (final String line : JPLayouts.formatText(spec, MIXED)) {
+      expected.append(line);
+      expected.append("\r\n");
+    }
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+    final JPBufferReceiver r = JPBufferReceiver.utf8(buffer, "\r\n");
+    final JPAlignerType a = spec.createAligner(r);
+    a.addText(MIXED);
+    a.finish();
+
+    Assert.assertEquals(expected.toString(), utf8(buffer));
+    Assert.assertEquals((long) buffer.position(), (long) r.bytesWritten());
+    Assert.assertEquals(
+      (long) JPLayouts.formatText(spec, MIXED).size(), r.linesWritten());
+    Assert.assertEquals(0L, r.linesDropped());
+  }
+
+  @Test
+  public void testUtf8UnpairedSurrogate()
+  {
+    final ByteBuffer buffer = ByteBuffer.allocate(32);
+    final JPBufferReceiver r = JPBufferReceiver.utf8(buffer, "\n");
+    r.receiveLine("a\ud800b\udc00");
+    Assert.assertEquals("a�b�\n", utf8(buffer));
+  }
+
+  @Test
+  public void testUtf8Dropped()
+  {
+    final ByteBuffer buffer = ByteBuffer.allocate(16);
+    buffer.position(2);
+    final JPBufferReceiver r = JPBufferReceiver.utf8(buffer, "\n");
+    r.receiveLine("abcdef");
+    r.receiveLine("漢字漢字");
+    r.receiveLine("ghijkl");
+    r.receiveLine("m");
+
+    Assert.assertEquals(9L, (long) buffer.position());
+    Assert.assertEquals(7L, (long) r.bytesWritten());
+    Assert.assertEquals(1L, r.linesWritten());
+    Assert.assertEquals(3L, r.linesDropped());
+    buffer.flip().position(2);
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    Assert.assertEquals(
+      "abcdef\n", new String(bytes, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testUtf8DroppedNoGap()
+  {
+    final ByteBuffer buffer = ByteBuffer.allocate(12);
+    final JPBufferReceiver r = JPBufferReceiver.utf8(buffer, "\n");
+    r.receiveLine("aaaa");
+    r.receiveLine("bbbbbbbbbbbb");
+    r.receiveLine("cc");
+
+    Assert.assertEquals("aaaa\n", utf8(buffer));
+    Assert.assertEquals(1L, r.linesWritten());
+    Assert.assertEquals(2L, r.linesDropped());
+  }
+
+  @Test
+  public void testCells()
+  {
+    final ByteBuffer buffer =
+      ByteBuffer.allocateDirect(64).order(ByteOrder.LITTLE_ENDIAN);
+    final JPBufferReceiver r =
+      JPBufferReceiver.cells(buffer, 6, JPWidthMeasurers.TERMINAL);
+    r.receiveLine("漢e\u0301");
+    r.receiveLine("a👍🏽bcdefg");
+
+    Assert.assertArrayEquals(
+      new int[]{
+        '漢', 0, 'e', ' ', ' ', ' ',
+        'a', 0x1f44d, 0, 'b', 'c', 'd',
+      },
+      cells(buffer));
+    Assert.assertEquals(48L, (long) r.bytesWritten());
+    Assert.assertEquals(2L, r.linesWritten());
+    Assert.assertTrue(r.isCells());
+  }
+
+  @Test
+  public void testCellsAnsi()
+  {
+    final ByteBuffer buffer = ByteBuffer.allocate(80);
+    final JPBufferReceiver r =
+      JPBufferReceiver.cells(buffer, 10, JPWidthMeasurers.TERMINAL_ANSI);
+    r.receiveLine("\u001b[31mred\u001b[0m ok");
+    r.receiveLine("\u001b]8;;x\u0007link\u001b]8;;\u001b\\");
+
+    Assert.assertArrayEquals(
+      new int[]{
+        'r', 'e', 'd', ' ', 'o', 'k', ' ', ' ', ' ', ' ',
+        'l', 'i', 'n', 'k', ' ', ' ', ' ', ' ', ' ', ' ',
+      },
+      cells(buffer));
+  }
+
+  @Test
+  public void testCellsByteOrder()
+  {
+    final ByteBuffer buffer = ByteBuffer.allocate(8);
+    final JPBufferReceiver r =
+      JPBufferReceiver.cells(buffer, 2, JPWidthMeasurers.CODE_UNITS);
+    r.receiveLine("A");
+    Assert.assertArrayEquals(
+      new byte[]{0, 0, 0, 'A', 0, 0, 0, ' '},
+      buffer.array());
+  }
+
+  @Test
+  public void testCellsDropped()
+  {
+    final ByteBuffer buffer = ByteBuffer.allocate(40);
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(5);
+    final JPBufferReceiver r =
+      JPBufferReceiver.cells(buffer, 5, spec.measurer());
+    final JPAlignerType a = spec.createAligner(r);
+    JPTestUtilities.addAll(a, List.of("one", "two", "three"));
+    a.finish();
+
+    Assert.assertEquals(2L, r.linesWritten());
+    Assert.assertEquals(1L, r.linesDropped());
+    Assert.assertEquals(40L, (long) r.bytesWritten());
+  }
+
+  @Test(expected = RangeCheckException.class)
+  public void testCellsColumns()
+  {
+    JPBufferReceiver.cells(
+      ByteBuffer.allocate(8), 0, JPWidthMeasurers.CODE_UNITS);
+  }
+}
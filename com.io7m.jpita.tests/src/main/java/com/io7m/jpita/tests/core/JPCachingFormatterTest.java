@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPCachingFormatter;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jranges.RangeCheckException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public final class JPCachingFormatterTest
+{
+  private static final JPLayoutSpec SPEC = JPLayoutSpec.justify(
+    JPOverflowBehaviour.OVERFLOW_ANYWAY,
+    JPJustifierBasic.JUSTIFY_UNDER_HALF,
+    40);
+
+  private static List<String> lorem()
+    throws Exception
+  {
+    return JPTestUtilities.resourceAsWords(
+      JPCachingFormatterTest.class, "lorem.txt");
+  }
+
+  @Test
+  public void testHit()
+    throws Exception
+  {
+    final JPCachingFormatter f = JPCachingFormatter.create(16);
+    final List<String> words = lorem();
+
+    final List<String> r0 = f.format(SPEC, words);
+    final List<String> r1 = f.format(SPEC, new ArrayList<>(words));
+    Assert.assertEquals(JPLayouts.format(SPEC, words), r0);
+    Assert.assertSame(r0, r1);
+    Assert.assertEquals(1L, f.hits());
+    Assert.assertEquals(1L, f.misses());
+    Assert.assertEquals(1L, (long) f.size());
+  }
+
+  @Test
+  public void testKeyIncludesSpec()
+    throws Exception
+  {
+    final JPCachingFormatter f = JPCachingFormatter.create(16);
+    final List<String> words = lorem();
+
+    final List<String> r0 = f.format(SPEC, words);
+    final List<String> r1 = f.format(
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        41),
+      words);
+    f.format(
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        40),
+      words);
+    f.format(
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        40),
+      words);
+    f.format(JPLayoutSpec.alignLeft(40), words);
+
+    Assert.assertNotEquals(r0, r1);
+    Assert.assertEquals(0L, f.hits());
+    Assert.assertEquals(5L, f.misses());
+  }
+
+  @Test
+  public void testKeyIsCopied()
+  {
+    final JPCachingFormatter f = JPCachingFormatter.create(256);
+    final List<String> words = new ArrayList<>(List.of("Hello", "World"));
+
+    final List<String> r0 = f.format(SPEC, words);
+    words.set(1, "There");
+    final List<String> r1 = f.format(SPEC, words);
+    Assert.assertEquals(List.of("Hello World"), r0);
+    Assert.assertEquals(List.of("Hello There"), r1);
+    Assert.assertSame(r0, f.format(SPEC, List.of("Hello", "World")));
+    Assert.assertEquals(1L, f.hits());
+    Assert.assertEquals(2L, f.misses());
+  }
+
+  @Test
+  public void testEmpty()
+  {
+    final JPCachingFormatter f = JPCachingFormatter.create(16);
+    Assert.assertEquals(List.of(), f.format(SPEC, List.of()));
+    Assert.assertEquals(List.of(), f.format(SPEC, List.of()));
+    Assert.assertEquals(1L, f.hits());
+  }
+
+  @Test
+  public void testText()
+  {
+    final JPCachingFormatter f = JPCachingFormatter.create(16);
+    final String text = "Hello World\n\nNew paragraph.";
+
+    final List<String> r0 = f.formatText(SPEC, text);
+    final List<String> r1 = f.formatText(SPEC, new StringBuilder(text));
+    Assert.assertEquals(JPLayouts.formatText(SPEC, text), r0);
+    Assert.assertSame(r0, r1);
+    Assert.assertEquals(1L, f.hits());
+    Assert.assertEquals(1L, f.misses());
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed()
+  {
+    final JPCachingFormatter f = JPCachingFormatter.create(1);
+    final List<String> a = List.of("a");
+    final List<String> b = List.of("b");
+
+    f.format(SPEC, a);
+    f.format(SPEC, a);
+    f.format(SPEC, b);
+    f.format(SPEC, a);
+    Assert.assertEquals(1L, f.hits());
+    Assert.assertEquals(3L, f.misses());
+    Assert.assertEquals(1L, (long) f.size());
+  }
+
+  @Test
+  public void testBounded()
+  {
+    final JPCachingFormatter f = JPCachingFormatter.create(100);
+    for (int index = 0; index < 1000; ++index) {
+      f.format(SPEC, List.of(Integer.toString(index)));
+    }
+    Assert.assertEquals(100L, (long) f.capacity());
+    Assert.assertTrue(f.size() <= 100);
+    Assert.assertTrue(f.size() > 0);
+
+    f.clear();
+    Assert.assertEquals(0L, (long) f.size());
+    Assert.assertEquals(1000L, f.misses());
+  }
+
+  @Test
+  public void testBoundedNotPowerOfTwo()
+  {
+    for (final int capacity : new int[]{1, 3, 17, 31, 33, 47, 100, 255}) {
+      final JPCachingFormatter f = JPCachingFormatter.create(capacity);
+      for (int index = 0; index < capacity * 64; ++index) {
+        f.format(SPEC, List.of(Integer.toString(index)));
+        Assert.assertTrue(
+          "Capacity " + capacity, f.size() <= capacity);
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrent()
+    throws Exception
+  {
+    final JPCachingFormatter f = JPCachingFormatter.create(64);
+    final List<String> words = lorem();
+    final List<String> expected = JPLayouts.format(SPEC, words);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int task = 0; task < 4; ++task) {
+        futures.add(executor.submit(() -> {
+          for (int index = 0; index < 100; ++index) {
+            Assert.assertEquals(expected, f.format(SPEC, words));
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    Assert.assertEquals(400L, f.hits() + f.misses());
+    Assert.assertTrue(f.misses() <= 4L);
+  }
+
+  @Test(expected = RangeCheckException.class)
+  public void testCapacityInvalid()
+  {
+    JPCachingFormatter.create(0);
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPFileFormatter;
+import com.io7m.jpita.core.JPHyphenationPatterns;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import com.io7m.jranges.RangeCheckException;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public final class JPFileFormatterTest
+{
+  private static final String MIXED =
+    "Hello   world.\n\n  漢字 and ｆｕｌｌｗｉｄｔｈ text, 👍🏽 emoji,\t"
+      + "combining é marks and "
+      + "an-extraordinarily-long-word-that-cannot-fit-anywhere.\n\n\n"
+      + "Ünïcödé Latin-1. Last paragraph\r\n\r\n";
+
+  private Path directory;
+
+  private static String lorem()
+    throws Exception
+  {
+    try (InputStream is =
+           JPFileFormatterTest.class.getResourceAsStream("lorem.txt")) {
+      return new String(IOUtils.toByteArray(is), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static JPHyphenationPatterns patterns()
+    throws Exception
+  {
+    try (InputStream is =
+           JPFileFormatterTest.class.getResourceAsStream("hyphenation.tex")) {
+      return JPHyphenationPatterns.parse(
+        new InputStreamReader(is, StandardCharsets.UTF_8), 2, 3);
+    }
+  }
+
+  private static String expected(
+    final JPLayoutSpec spec,
+    final String text)
+  {
+    final JPAlignerType a = spec.createAligner();
+    a.addText(text);
+    final StringBuilder b = new StringBuilder();
+    for (final String line : a.finish()) {
+      b.append(line);
+      b.append('\n');
+    }
+    return b.toString();
+  }
+
+  private String formatFile(
+    final JPFileFormatter formatter,
+    final String text)
+    throws IOException
+  {
+    final Path input = this.directory.resolve("input.txt");
+    final Path output = this.directory.resolve("output.txt");
+    Files.writeString(input, text, StandardCharsets.UTF_8);
+    final long size = formatter.format(input, output);
+    Assert.assertEquals(Files.size(output), size);
+    return Files.readString(output, StandardCharsets.UTF_8);
+  }
+
+  @Before
+  public void setUp()
+    throws IOException
+  {
+    this.directory = Files.createTempDirectory("jpita-");
+  }
+
+  @After
+  public void tearDown()
+    throws IOException
+  {
+    try (Stream<Path> paths = Files.walk(this.directory)) {
+      for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  @Test
+  public void testSameAsAligner()
+    throws Exception
+  {
+    final List<JPLayoutSpec> specs = List.of(
+      JPLayoutSpec.alignLeft(20),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        20).withMeasurer(JPWidthMeasurers.TERMINAL),
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        20),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        20).withHyphenation(patterns()));
+
+    for (final String text : List.of(MIXED, lorem())) {
+      for (final JPLayoutSpec spec : specs) {
+        final String expected = expected(spec, text);
+        for (final int window : new int[]{1, 3, 7, 4096, 1 << 26}) {
+          final JPFileFormatter f =
+            JPFileFormatter.create(spec, "\n", window);
+          Assert.assertEquals(
+            spec + " window " + window,
+            expected,
+            this.formatFile(f, text));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testReused()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(30);
+    final JPFileFormatter f = JPFileFormatter.create(spec);
+    final String text = lorem();
+    final String expected = expected(spec, text);
+
+    Assert.assertEquals(expected, this.formatFile(f, text));
+    Assert.assertEquals(expected, this.formatFile(f, text));
+  }
+
+  @Test
+  public void testEmpty()
+    throws Exception
+  {
+    final JPFileFormatter f =
+      JPFileFormatter.create(JPLayoutSpec.alignLeft(30));
+    Assert.assertEquals("", this.formatFile(f, ""));
+  }
+
+  @Test
+  public void testSeparator()
+    throws Exception
+  {
+    final JPFileFormatter f =
+      JPFileFormatter.create(JPLayoutSpec.alignLeft(12), "\r\n", 16);
+    Assert.assertEquals(
+      "Hello there\r\nworld.\r\n",
+      this.formatFile(f, "Hello there world."));
+  }
+
+  @Test
+  public void testTruncatesOutput()
+    throws Exception
+  {
+    final JPFileFormatter f =
+      JPFileFormatter.create(JPLayoutSpec.alignLeft(30));
+    final Path input = this.directory.resolve("input.txt");
+    final Path output = this.directory.resolve("output.txt");
+    Files.writeString(input, "Short.", StandardCharsets.UTF_8);
+    Files.writeString(output, lorem(), StandardCharsets.UTF_8);
+
+    Assert.assertEquals(7L, f.format(input, output));
+    Assert.assertEquals("Short.\n", Files.readString(output));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSameFile()
+    throws Exception
+  {
+    final JPFileFormatter f =
+      JPFileFormatter.create(JPLayoutSpec.alignLeft(30));
+    final Path input = this.directory.resolve("input.txt");
+    Files.writeString(input, "Text.", StandardCharsets.UTF_8);
+    f.format(input, input);
+  }
+
+  @Test(expected = RangeCheckException.class)
+  public void testWindowSize()
+  {
+    JPFileFormatter.create(JPLayoutSpec.alignLeft(30), "\n", 0);
+  }
+}
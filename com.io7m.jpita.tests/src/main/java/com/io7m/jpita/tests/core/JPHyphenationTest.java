@@ -0,0 +1,283 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPHyphenationPatterns;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayoutMode;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class JPHyphenationTest
+{
+  private static JPHyphenationPatterns patterns()
+    throws Exception
+  {
+    try (final InputStream stream =
+           JPHyphenationTest.class.getResourceAsStream("hyphenation.tex")) {
+      return JPHyphenationPatterns.parse(
+        new InputStreamReader(stream, StandardCharsets.UTF_8), 2, 3);
+    }
+  }
+
+  private static List<String> format(
+    final JPLayoutSpec spec,
+    final List<String> words)
+    throws Exception
+  {
+    final JPAlignerType a = spec.withHyphenation(patterns()).createAligner();
+    JPTestUtilities.addAll(a, words);
+    final List<String> lines = a.finish();
+    JPTestUtilities.show(spec.width(), lines);
+    return lines;
+  }
+
+  private static void checkReassembles(
+    final JPLayoutSpec spec,
+    final List<String> words)
+    throws Exception
+  {
+    final List<String> lines = format(spec, words);
+    final StringBuilder text = new StringBuilder(256);
+    for (final String line : lines) {
+      Assert.assertTrue(line, line.length() <= spec.width());
+      if (line.endsWith("-")) {
+        text.append(line.trim(), 0, line.trim().length() - 1);
+      } else {
+        text.append(line.trim());
+        text.append(' ');
+      }
+    }
+
+    Assert.assertEquals(
+      String.join(" ", words),
+      text.toString().trim().replaceAll(" +", " "));
+  }
+
+  @Test
+  public void testHyphenate()
+    throws Exception
+  {
+    final JPHyphenationPatterns p = patterns();
+    Assert.assertFalse(p.isEmpty());
+    Assert.assertEquals(2L, (long) p.leftMinimum());
+    Assert.assertEquals(3L, (long) p.rightMinimum());
+    Assert.assertArrayEquals(new int[]{2, 6}, p.hyphenate("hyphenation"));
+    Assert.assertArrayEquals(new int[]{2, 6}, p.hyphenate("HYPHENATION"));
+    Assert.assertArrayEquals(new int[]{2, 6}, p.hyphenate("hyphenation,"));
+    Assert.assertArrayEquals(new int[]{3, 7}, p.hyphenate("(hyphenation)"));
+    Assert.assertArrayEquals(new int[0], p.hyphenate("hyphen-ation"));
+    Assert.assertArrayEquals(new int[0], p.hyphenate("..."));
+    Assert.assertArrayEquals(new int[0], p.hyphenate("hyph"));
+    Assert.assertArrayEquals(new int[0], p.hyphenate(""));
+  }
+
+  @Test
+  public void testHyphenateException()
+    throws Exception
+  {
+    Assert.assertArrayEquals(new int[]{2}, patterns().hyphenate("table"));
+  }
+
+  @Test
+  public void testHyphenateMinimums()
+  {
+    final JPHyphenationPatterns p = JPHyphenationPatterns.compile(
+      List.of("hy3ph", "hen5at"), List.of(), 3, 6);
+    Assert.assertArrayEquals(new int[0], p.hyphenate("hyphenation"));
+  }
+
+  @Test
+  public void testParseWithoutGroups()
+    throws Exception
+  {
+    final JPHyphenationPatterns p = JPHyphenationPatterns.parse(
+      new StringReader("% Comment\nhy3ph hen5at\n"), 2, 3);
+    Assert.assertArrayEquals(new int[]{2, 6}, p.hyphenate("hyphenation"));
+  }
+
+  @Test
+  public void testNone()
+  {
+    final JPHyphenationPatterns p = JPHyphenationPatterns.none();
+    Assert.assertTrue(p.isEmpty());
+    Assert.assertArrayEquals(new int[0], p.hyphenate("hyphenation"));
+    Assert.assertEquals(
+      JPHyphenationPatterns.none(), JPLayoutSpec.alignLeft(80).hyphenation());
+  }
+
+  @Test
+  public void testAlignLeft()
+    throws Exception
+  {
+    Assert.assertEquals(
+      List.of("the hy-", "phenation"),
+      format(JPLayoutSpec.alignLeft(10), List.of("the", "hyphenation")));
+  }
+
+  @Test
+  public void testAlignLeftLongWord()
+    throws Exception
+  {
+    Assert.assertEquals(
+      List.of("hy-", "phen-", "ation"),
+      format(JPLayoutSpec.alignLeft(6), List.of("hyphenation")));
+  }
+
+  @Test
+  public void testJustify()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      12);
+
+    Assert.assertEquals(
+      List.of("the      hy-", "phenation", "is"),
+      format(spec, List.of("the", "hyphenation", "is")));
+  }
+
+  @Test
+  public void testJustifyLongWordTruncated()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      7);
+
+    Assert.assertEquals(
+      List.of("hy-", "phen-", "ation"),
+      format(spec, List.of("hyphenation")));
+  }
+
+  @Test
+  public void testReassembles()
+    throws Exception
+  {
+    final List<String> words = new ArrayList<>(
+      Collections.nCopies(40, "hyphenation"));
+    words.addAll(List.of("a", "table,", "of", "(notation)"));
+
+    for (final JPLayoutMode mode : JPLayoutMode.values()) {
+      for (int width = 8; width <= 24; ++width) {
+        checkReassembles(
+          new JPLayoutSpec(
+            mode,
+            width,
+            JPOverflowBehaviour.OVERFLOW_ANYWAY,
+            JPJustifierBasic.JUSTIFY_ALWAYS,
+            JPWidthMeasurers.CODE_UNITS),
+          words);
+      }
+    }
+  }
+
+  @Test
+  public void testOptimalPrefersWholeWords()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justifyOptimal(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      20);
+
+    final List<String> lines =
+      format(spec, List.of("hyphenation", "hyphenation"));
+    Assert.assertEquals(List.of("hyphenation", "hyphenation"), lines);
+  }
+
+  @Test
+  public void testOptimalHyphenates()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justifyOptimal(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      12);
+
+    Assert.assertEquals(
+      List.of("hyphen-", "ation    hy-", "phenation"),
+      format(spec, List.of("hyphenation", "hyphenation")));
+  }
+
+  /**
+   * Words of every length up to and beyond the point at which the
+   * hyphenator's scratch arrays are first resized, both with a fresh
+   * aligner per word and with one aligner whose arrays grow repeatedly.
+   */
+
+  @Test
+  public void testWordLengthsAroundResize()
+    throws Exception
+  {
+    final String letters = "hyphenation".repeat(16);
+    final JPHyphenationPatterns p = patterns();
+
+    for (final JPLayoutMode mode : JPLayoutMode.values()) {
+      final JPLayoutSpec spec = new JPLayoutSpec(
+        mode,
+        16,
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        JPWidthMeasurers.CODE_UNITS).withHyphenation(p);
+
+      final JPAlignerType growing = spec.createAligner();
+      final StringBuilder all = new StringBuilder(16384);
+      for (int length = 1; length <= 160; ++length) {
+        final String word = letters.substring(0, length);
+        growing.addWord(word);
+        all.append(word);
+
+        if (length >= 28 && length <= 34) {
+          final JPAlignerType fresh = spec.createAligner();
+          fresh.addWord(word);
+          Assert.assertEquals(word, joined(fresh.finish()));
+        }
+      }
+      Assert.assertEquals(all.toString(), joined(growing.finish()));
+    }
+  }
+
+  private static String joined(
+    final List<String> lines)
+  {
+    final StringBuilder text = new StringBuilder(256);
+    for (final String line : lines) {
+      final String trimmed = line.trim();
+      if (trimmed.endsWith("-")) {
+        text.append(trimmed, 0, trimmed.length() - 1);
+      } else {
+        text.append(trimmed);
+      }
+    }
+    return text.toString().replace(" ", "");
+  }
+}
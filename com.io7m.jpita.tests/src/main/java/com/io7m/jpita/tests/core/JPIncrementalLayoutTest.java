@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPHyphenationPatterns;
+import com.io7m.jpita.core.JPIncrementalLayout;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutChange;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class JPIncrementalLayoutTest
+{
+  private static final String[] VOCABULARY = {
+    "a",
+    "an",
+    "the",
+    "",
+    "lorem",
+    "ipsum",
+    "consectetur",
+    "adipiscing",
+    "exercitationem",
+    "https://www.io7m.com/software/jpita",
+  };
+
+  private static List<JPLayoutSpec> specs(
+    final int width)
+  {
+    return List.of(
+      JPLayoutSpec.alignLeft(width),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        width),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        width));
+  }
+
+  /**
+   * Check that the layout matches a layout from scratch, and that the
+   * reported change transforms the previous lines into the current lines.
+   */
+
+  private static void check(
+    final JPIncrementalLayout layout,
+    final List<String> previous,
+    final JPLayoutChange change)
+  {
+    final List<String> lines = layout.lines();
+    Assert.assertEquals(
+      JPLayouts.format(layout.spec(), layout.words()), lines);
+
+    final List<String> expected = new ArrayList<>(previous);
+    final List<String> replaced = expected.subList(
+      change.firstLine(), change.firstLine() + change.removedLines());
+    replaced.clear();
+    replaced.addAll(lines.subList(
+      change.firstLine(), change.firstLine() + change.addedLines()));
+    Assert.assertEquals(expected, lines);
+  }
+
+  @Test
+  public void testInitial()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(
+        JPIncrementalLayoutTest.class, "lorem.txt");
+
+    for (final JPLayoutSpec spec : specs(40)) {
+      final JPIncrementalLayout layout =
+        JPIncrementalLayout.create(spec, words);
+      Assert.assertEquals(JPLayouts.format(spec, words), layout.lines());
+      Assert.assertEquals(0L, (long) layout.lineFirstWord(0));
+    }
+  }
+
+  @Test
+  public void testEmpty()
+  {
+    final JPIncrementalLayout layout =
+      JPIncrementalLayout.create(JPLayoutSpec.alignLeft(20));
+    Assert.assertEquals(List.of(), layout.lines());
+
+    final JPLayoutChange c0 = layout.insert(0, "  Hello ");
+    Assert.assertEquals(new JPLayoutChange(0, 0, 1), c0);
+    Assert.assertEquals(List.of("Hello"), layout.words());
+    Assert.assertEquals(List.of("Hello"), layout.lines());
+
+    final JPLayoutChange c1 = layout.delete(0);
+    Assert.assertEquals(new JPLayoutChange(0, 1, 0), c1);
+    Assert.assertEquals(List.of(), layout.lines());
+  }
+
+  @Test
+  public void testEditIsLocal()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(
+        JPIncrementalLayoutTest.class, "lorem.txt");
+    final JPIncrementalLayout layout =
+      JPIncrementalLayout.create(JPLayoutSpec.alignLeft(40), words);
+    final int count = layout.lines().size();
+
+    final int line = count / 2;
+    final int middle = layout.lineFirstWord(line) + 1;
+    final String replacement =
+      "x".repeat(layout.words().get(middle).length());
+
+    final List<String> previous = List.copyOf(layout.lines());
+    final JPLayoutChange change = layout.replace(middle, replacement);
+    check(layout, previous, change);
+    Assert.assertEquals(new JPLayoutChange(line, 1, 1), change);
+
+    final List<String> again = List.copyOf(layout.lines());
+    final JPLayoutChange none = layout.replace(middle, replacement);
+    check(layout, again, none);
+    Assert.assertTrue(none.isEmpty());
+  }
+
+  @Test
+  public void testRandomEdits()
+  {
+    final Random random = new Random(0x6a706974L);
+
+    for (int width = 4; width <= 40; width += 3) {
+      for (final JPLayoutSpec spec : specs(width)) {
+        final JPIncrementalLayout layout = JPIncrementalLayout.create(spec);
+        for (int edit = 0; edit < 300; ++edit) {
+          final List<String> previous = List.copyOf(layout.lines());
+          final int count = layout.words().size();
+          final String word =
+            VOCABULARY[random.nextInt(VOCABULARY.length)];
+
+          final int kind = count < 10 ? 0 : random.nextInt(3);
+          final JPLayoutChange change = switch (kind) {
+            case 0 -> layout.insert(random.nextInt(count + 1), word);
+            case 1 -> layout.delete(random.nextInt(count));
+            default -> layout.replace(random.nextInt(count), word);
+          };
+          check(layout, previous, change);
+        }
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOptimalUnsupported()
+  {
+    JPIncrementalLayout.create(
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        40));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testHyphenationUnsupported()
+  {
+    JPIncrementalLayout.create(
+      JPLayoutSpec.alignLeft(40).withHyphenation(
+        JPHyphenationPatterns.compile(List.of("hy3ph"), List.of(), 2, 3)));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testDeleteOutOfRange()
+  {
+    JPIncrementalLayout.create(JPLayoutSpec.alignLeft(40)).delete(0);
+  }
+}
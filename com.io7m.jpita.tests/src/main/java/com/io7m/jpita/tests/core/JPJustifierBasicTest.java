@@ -22,6 +22,8 @@ import com.io7m.jpita.core.JPOverflowBehaviour;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.CharBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 public final class JPJustifierBasicTest
@@ -219,4 +221,107 @@ public final class JPJustifierBasicTest
     }
   }
 
+  @Test
+  public void testWordsStreaming()
+    throws Exception
+  {
+    final int width = 20;
+    final List<String> received = new ArrayList<>();
+    final JPAlignerType a = JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width,
+      line -> received.add(line.toString()));
+    final JPAlignerType b = JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+
+    final List<String> words = new ArrayList<>();
+    words.addAll(JPTestUtilities.resourceAsWords(
+      JPJustifierBasicTest.class, "lorem.txt"));
+    words.addAll(JPTestUtilities.resourceAsWords(
+      JPJustifierBasicTest.class, "uri.txt"));
+    JPTestUtilities.addAll(a, words);
+    a.breakLine();
+    JPTestUtilities.addAll(b, words);
+    b.breakLine();
+
+    Assert.assertEquals(35L, (long) received.size());
+    Assert.assertTrue(a.finish().isEmpty());
+    Assert.assertEquals(b.finish(), received);
+  }
+
+  @Test
+  public void testWordRanges()
+    throws Exception
+  {
+    final int width = 20;
+    final JPAlignerType a = JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+    final JPAlignerType b = JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+
+    final List<String> words = new ArrayList<>();
+    words.addAll(JPTestUtilities.resourceAsWords(
+      JPJustifierBasicTest.class, "lorem.txt"));
+    words.addAll(JPTestUtilities.resourceAsWords(
+      JPJustifierBasicTest.class, "uri.txt"));
+
+    final String text = "  " + String.join(" \t ", words) + "  ";
+    final CharBuffer chars = CharBuffer.wrap(text.toCharArray());
+
+    int start = 0;
+    for (int index = 0; index < words.size(); ++index) {
+      final int end = text.indexOf(words.get(index), start) + words.get(index).length();
+      a.addWord(chars, start, end);
+      start = end;
+    }
+    JPTestUtilities.addAll(b, words);
+
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+    Assert.assertEquals(b.finish(), rs);
+    Assert.assertTrue(rs.get(rs.size() - 1).endsWith("…"));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testWordRangeInvalid()
+  {
+    final JPAlignerType a = JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      80);
+    a.addWord("Hello", -1, 2);
+  }
+
+  @Test
+  public void testSpaceDistribution()
+  {
+    final int width = 20;
+    final JPAlignerType a = JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      width);
+
+    a.addWord("a");
+    a.addWord("b");
+    a.addWord("c");
+    a.addWord("d");
+    a.breakLine();
+    a.addWord("aa");
+    a.addWord("b");
+    a.addWord("cc");
+    a.addWord("d");
+    a.addWord("ee");
+
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+    Assert.assertEquals("a      b     c     d", rs.get(0));
+    Assert.assertEquals("aa   b   cc   d   ee", rs.get(1));
+  }
 }
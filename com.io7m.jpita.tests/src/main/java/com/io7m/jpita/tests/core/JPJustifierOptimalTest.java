@@ -0,0 +1,315 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPJustifierOptimal;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class JPJustifierOptimalTest
+{
+  private static List<String> lorem()
+    throws Exception
+  {
+    return JPTestUtilities.resourceAsWords(
+      JPJustifierOptimalTest.class, "lorem.txt");
+  }
+
+  private static List<String> wordsOf(
+    final List<String> lines)
+  {
+    final List<String> words = new ArrayList<>();
+    for (final String line : lines) {
+      if (!line.isEmpty()) {
+        words.addAll(Arrays.asList(line.trim().split("\\s+")));
+      }
+    }
+    return words;
+  }
+
+  private static int largestGap(
+    final List<String> lines)
+  {
+    int largest = 0;
+    for (final String line : lines) {
+      int gap = 0;
+      for (int index = 0; index < line.length(); ++index) {
+        if (line.charAt(index) == ' ') {
+          ++gap;
+          largest = Math.max(largest, gap);
+        } else {
+          gap = 0;
+        }
+      }
+    }
+    return largest;
+  }
+
+  private static int unjustifiedLines(
+    final List<String> lines,
+    final int width)
+  {
+    int count = 0;
+    for (int index = 0; index < lines.size() - 1; ++index) {
+      if (lines.get(index).length() != width) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void testOneWord()
+  {
+    final int width = 80;
+    final JPAlignerType a =
+      JPJustifierOptimal.create(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        width);
+    a.addWord("One");
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+
+    Assert.assertEquals(List.of("One"), rs);
+  }
+
+  @Test
+  public void testBreakLinesOnly()
+  {
+    final int width = 80;
+    final JPAlignerType a =
+      JPJustifierOptimal.create(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        width);
+    a.breakLine();
+    a.breakLine();
+    a.breakLine();
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+
+    Assert.assertEquals(List.of("", "", ""), rs);
+  }
+
+  @Test
+  public void testBreakLinesWords()
+  {
+    final int width = 80;
+    final JPAlignerType a =
+      JPJustifierOptimal.create(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        width);
+    a.addWord("a");
+    a.breakLine();
+    a.addWord("b");
+    a.breakLine();
+    a.breakLine();
+    a.addWord("c");
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+
+    Assert.assertEquals(List.of("a", "b", "", "c"), rs);
+  }
+
+  @Test
+  public void testWords()
+    throws Exception
+  {
+    final int width = 60;
+    final JPAlignerType a = JPJustifierOptimal.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      width);
+    final List<String> words = lorem();
+    JPTestUtilities.addAll(a, words);
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+
+    Assert.assertEquals(words, wordsOf(rs));
+    for (final String line : rs) {
+      Assert.assertEquals((long) width, (long) line.length());
+      Assert.assertFalse(Character.isWhitespace(line.codePointAt(0)));
+      Assert.assertFalse(Character.isWhitespace(line.codePointAt(width - 1)));
+    }
+  }
+
+  @Test
+  public void testWordsNarrowBetterThanGreedy()
+    throws Exception
+  {
+    final int width = 20;
+    final List<String> words = lorem();
+
+    final JPAlignerType a = JPJustifierOptimal.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+    JPTestUtilities.addAll(a, words);
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+
+    final JPAlignerType b = JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+    JPTestUtilities.addAll(b, words);
+    final List<String> greedy = b.finish();
+
+    Assert.assertEquals(words, wordsOf(rs));
+    for (final String line : rs) {
+      Assert.assertTrue(line.length() <= width);
+    }
+
+    Assert.assertTrue(
+      unjustifiedLines(rs, width) <= unjustifiedLines(greedy, width));
+    Assert.assertTrue(largestGap(rs) <= largestGap(greedy));
+  }
+
+  @Test
+  public void testAvoidsLooseLines()
+  {
+    final int width = 14;
+    final String text = "aaa bb c dddd eeee ff gg hhhhhhh i jj kkk";
+
+    final JPAlignerType a = JPJustifierOptimal.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      width);
+    a.addText(text);
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+
+    final JPAlignerType b = JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      width);
+    b.addText(text);
+    final List<String> greedy = b.finish();
+    JPTestUtilities.show(width, greedy);
+
+    Assert.assertEquals(
+      List.of(
+        "aaa    bb    c",
+        "dddd  eeee  ff",
+        "gg     hhhhhhh",
+        "i    jj    kkk"),
+      rs);
+    Assert.assertEquals("jj         kkk", greedy.get(greedy.size() - 1));
+    Assert.assertTrue(largestGap(rs) < largestGap(greedy));
+  }
+
+  @Test
+  public void testWordsCannotFitOverflow()
+    throws Exception
+  {
+    final int width = 20;
+    final JPAlignerType a = JPJustifierOptimal.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+    a.addWord("a");
+    a.addWord("b");
+    JPTestUtilities.addAll(
+      a, JPTestUtilities.resourceAsWords(
+        JPJustifierOptimalTest.class, "uri.txt"));
+    a.addWord("c");
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+
+    Assert.assertEquals(3L, (long) rs.size());
+    Assert.assertTrue(rs.get(1).length() > width);
+    Assert.assertEquals("c", rs.get(2));
+  }
+
+  @Test
+  public void testWordsCannotFitTruncate()
+    throws Exception
+  {
+    final int width = 20;
+    final JPAlignerType a = JPJustifierOptimal.create(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+    JPTestUtilities.addAll(
+      a, JPTestUtilities.resourceAsWords(
+        JPJustifierOptimalTest.class, "uri.txt"));
+    final List<String> rs = a.finish();
+    JPTestUtilities.show(width, rs);
+
+    Assert.assertEquals(1L, (long) rs.size());
+    Assert.assertEquals((long) width, (long) rs.get(0).length());
+    Assert.assertTrue(rs.get(0).endsWith("…"));
+  }
+
+  @Test
+  public void testStreaming()
+    throws Exception
+  {
+    final int width = 30;
+    final List<String> words = lorem();
+    final List<String> received = new ArrayList<>();
+
+    final JPAlignerType a = JPJustifierOptimal.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width,
+      line -> received.add(line.toString()));
+    JPTestUtilities.addAll(a, words);
+    Assert.assertEquals(0L, (long) received.size());
+    a.breakLine();
+    final int lines = received.size();
+    Assert.assertTrue(lines > 0);
+    JPTestUtilities.addAll(a, words);
+    Assert.assertTrue(a.finish().isEmpty());
+
+    final JPAlignerType b = JPJustifierOptimal.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+    JPTestUtilities.addAll(b, words);
+    b.breakLine();
+    JPTestUtilities.addAll(b, words);
+    Assert.assertEquals(b.finish(), received);
+  }
+
+  @Test
+  public void testLargeParagraph()
+    throws Exception
+  {
+    final int width = 72;
+    final List<String> words = lorem();
+    final JPAlignerType a = JPJustifierOptimal.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      width);
+
+    for (int index = 0; index < 2000; ++index) {
+      JPTestUtilities.addAll(a, words);
+    }
+    final List<String> rs = a.finish();
+    Assert.assertEquals(words.size() * 2000L, (long) wordsOf(rs).size());
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public final class JPLayoutEventsTest
+{
+  private static final String TEXT =
+    "The quick brown fox jumps over the lazy dog.\n\n"
+      + "Antidisestablishmentarianism is long.";
+
+  private static List<RecordedEvent> record(
+    final JPLayoutSpec spec,
+    final String text,
+    final boolean enable)
+    throws Exception
+  {
+    final Path file = Files.createTempFile("jpita-", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        if (enable) {
+          recording.enable("jpita.Paragraph");
+          recording.enable("jpita.Finish");
+        }
+        recording.start();
+        final JPAlignerType a = spec.createAligner();
+        a.addText(text);
+        a.finish();
+        recording.stop();
+        recording.dump(file);
+      }
+      return RecordingFile.readAllEvents(file)
+        .stream()
+        .filter(e -> e.getEventType().getName().startsWith("jpita."))
+        .toList();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static List<RecordedEvent> named(
+    final List<RecordedEvent> events,
+    final String name)
+  {
+    return events.stream()
+      .filter(e -> e.getEventType().getName().equals(name))
+      .toList();
+  }
+
+  @Test
+  public void testDisabledByDefault()
+    throws Exception
+  {
+    Assert.assertEquals(
+      List.of(), record(JPLayoutSpec.alignLeft(20), TEXT, false));
+  }
+
+  @Test
+  public void testJustifyBasic()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      20);
+    final List<String> lines = JPLayouts.formatText(spec, TEXT);
+    final List<RecordedEvent> events = record(spec, TEXT, true);
+
+    final List<RecordedEvent> paragraphs = named(events, "jpita.Paragraph");
+    Assert.assertEquals(2L, (long) paragraphs.size());
+    Assert.assertEquals(9L, (long) paragraphs.get(0).getInt("words"));
+    Assert.assertEquals(3L, (long) paragraphs.get(1).getInt("words"));
+    Assert.assertEquals(0L, (long) paragraphs.get(0).getInt("overflows"));
+    Assert.assertEquals(1L, (long) paragraphs.get(1).getInt("overflows"));
+    Assert.assertEquals(20L, (long) paragraphs.get(0).getInt("width"));
+
+    final List<RecordedEvent> finishes = named(events, "jpita.Finish");
+    Assert.assertEquals(1L, (long) finishes.size());
+    final RecordedEvent finish = finishes.get(0);
+    Assert.assertEquals(2L, (long) finish.getInt("paragraphs"));
+    Assert.assertEquals(12L, (long) finish.getInt("words"));
+    Assert.assertEquals((long) lines.size(), (long) finish.getInt("lines"));
+    Assert.assertEquals(1L, (long) finish.getInt("overflows"));
+  }
+
+  @Test
+  public void testUnjustified()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      (space, text) -> false,
+      20);
+    final List<String> lines = JPLayouts.formatText(spec, TEXT);
+    final RecordedEvent finish =
+      named(record(spec, TEXT, true), "jpita.Finish").get(0);
+
+    final long multi = lines.stream()
+      .filter(line -> line.trim().contains(" "))
+      .count();
+    Assert.assertEquals(multi, (long) finish.getInt("unjustified"));
+    Assert.assertEquals(1L, (long) finish.getInt("overflows"));
+  }
+
+  @Test
+  public void testOptimal()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justifyOptimal(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      20);
+    final List<String> lines = JPLayouts.formatText(spec, TEXT);
+    final List<RecordedEvent> events = record(spec, TEXT, true);
+
+    Assert.assertEquals(2L, (long) named(events, "jpita.Paragraph").size());
+    final RecordedEvent finish = named(events, "jpita.Finish").get(0);
+    Assert.assertEquals(12L, (long) finish.getInt("words"));
+    Assert.assertEquals((long) lines.size(), (long) finish.getInt("lines"));
+    Assert.assertEquals(0L, (long) finish.getInt("unjustified"));
+  }
+
+  @Test
+  public void testAlignLeft()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(20);
+    final List<String> lines = JPLayouts.formatText(spec, TEXT);
+    final RecordedEvent finish =
+      named(record(spec, TEXT, true), "jpita.Finish").get(0);
+
+    Assert.assertEquals(12L, (long) finish.getInt("words"));
+    Assert.assertEquals((long) lines.size(), (long) finish.getInt("lines"));
+    Assert.assertEquals(1L, (long) finish.getInt("overflows"));
+    Assert.assertTrue(finish.getDuration().toNanos() >= 0L);
+  }
+}
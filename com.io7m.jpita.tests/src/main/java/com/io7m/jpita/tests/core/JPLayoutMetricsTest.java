@@ -0,0 +1,349 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLatencyHistogram;
+import com.io7m.jpita.core.JPLayoutCountsType;
+import com.io7m.jpita.core.JPLayoutMetrics;
+import com.io7m.jpita.core.JPLayoutMetricsType;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public final class JPLayoutMetricsTest
+{
+  private static final String TEXT =
+    "The quick brown fox jumps over the lazy dog.\n\n"
+      + "Antidisestablishmentarianism is long.";
+
+  /**
+   * A listener that records the counts of each paragraph.
+   */
+
+  private static final class Recorder implements JPLayoutMetricsType
+  {
+    private final List<int[]> paragraphs;
+    private int finishes;
+
+    Recorder()
+    {
+      this.paragraphs = new ArrayList<>();
+    }
+
+    @Override
+    public void onParagraph(
+      final JPLayoutCountsType counts)
+    {
+      this.paragraphs.add(new int[]{
+        counts.words(),
+        counts.lines(),
+        counts.overflows(),
+        counts.truncations(),
+      });
+    }
+
+    @Override
+    public void onFinish(
+      final long nanoseconds)
+    {
+      Assert.assertTrue(nanoseconds >= 0L);
+      ++this.finishes;
+    }
+  }
+
+  private static JPLayoutSpec justify(
+    final JPOverflowBehaviour overflow)
+  {
+    return JPLayoutSpec.justify(
+      overflow, JPJustifierBasic.JUSTIFY_UNDER_HALF, 20);
+  }
+
+  @Test
+  public void testNoneByDefault()
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(20);
+    Assert.assertSame(JPLayoutMetricsType.none(), spec.metrics());
+    Assert.assertFalse(spec.metrics().isEnabled());
+
+    final JPLayoutMetrics metrics = JPLayoutMetrics.create();
+    Assert.assertTrue(metrics.isEnabled());
+    Assert.assertNotEquals(spec, spec.withMetrics(metrics));
+    Assert.assertEquals(
+      spec.withMetrics(metrics), spec.withMetrics(metrics));
+    Assert.assertSame(metrics, spec.withMetrics(metrics).metrics());
+  }
+
+  @Test
+  public void testJustifyBasic()
+  {
+    final JPLayoutMetrics metrics = JPLayoutMetrics.create();
+    final JPLayoutSpec spec =
+      justify(JPOverflowBehaviour.OVERFLOW_TRUNCATE).withMetrics(metrics);
+    final List<String> lines = JPLayouts.formatText(spec, TEXT);
+
+    Assert.assertEquals(2L, metrics.paragraphs());
+    Assert.assertEquals(12L, metrics.words());
+    Assert.assertEquals((long) lines.size(), metrics.lines());
+    Assert.assertEquals(
+      metrics.lines(),
+      metrics.justifiedLines() + metrics.unjustifiedLines());
+    Assert.assertEquals(1L, metrics.overflows());
+    Assert.assertEquals(1L, metrics.truncations());
+    Assert.assertEquals(1L, metrics.finishLatency().count());
+  }
+
+  @Test
+  public void testUnjustified()
+  {
+    final JPLayoutMetrics metrics = JPLayoutMetrics.create();
+    final JPLayoutSpec spec = JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      (space, text) -> false,
+      20).withMetrics(metrics);
+    final List<String> lines = JPLayouts.formatText(spec, TEXT);
+
+    final long multi = lines.stream()
+      .filter(line -> line.trim().contains(" "))
+      .count();
+    Assert.assertEquals(multi, metrics.unjustifiedLines());
+    Assert.assertEquals(1L, metrics.overflows());
+    Assert.assertEquals(0L, metrics.truncations());
+  }
+
+  @Test
+  public void testAlignLeft()
+  {
+    final JPLayoutMetrics metrics = JPLayoutMetrics.create();
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(20).withMetrics(metrics);
+    final List<String> lines = JPLayouts.formatText(spec, TEXT);
+
+    Assert.assertEquals(12L, metrics.words());
+    Assert.assertEquals((long) lines.size(), metrics.lines());
+    Assert.assertEquals(0L, metrics.justifiedLines());
+    Assert.assertEquals(0L, metrics.unjustifiedLines());
+    Assert.assertEquals(1L, metrics.overflows());
+
+    metrics.reset();
+    Assert.assertEquals(0L, metrics.words());
+    Assert.assertEquals(0L, metrics.finishLatency().count());
+  }
+
+  @Test
+  public void testOptimalParagraphs()
+  {
+    final Recorder recorder = new Recorder();
+    final JPLayoutSpec spec = JPLayoutSpec.justifyOptimal(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      20).withMetrics(recorder);
+
+    final JPAlignerType a = spec.createAligner();
+    a.addText(TEXT);
+    final List<String> lines = a.finish();
+
+    Assert.assertEquals(1L, (long) recorder.finishes);
+    Assert.assertEquals(2L, (long) recorder.paragraphs.size());
+    Assert.assertEquals(9L, (long) recorder.paragraphs.get(0)[0]);
+    Assert.assertEquals(3L, (long) recorder.paragraphs.get(1)[0]);
+    Assert.assertEquals(1L, (long) recorder.paragraphs.get(1)[2]);
+    Assert.assertEquals(1L, (long) recorder.paragraphs.get(1)[3]);
+    Assert.assertEquals(
+      (long) lines.size(),
+      (long) recorder.paragraphs.get(0)[1] + recorder.paragraphs.get(1)[1]);
+  }
+
+  private static List<JPLayoutSpec> engines()
+  {
+    return List.of(
+      JPLayoutSpec.alignLeft(20),
+      justify(JPOverflowBehaviour.OVERFLOW_TRUNCATE),
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        20));
+  }
+
+  @Test
+  public void testFinishIncludesOutput()
+    throws Exception
+  {
+    for (final JPLayoutSpec engine : engines()) {
+      final StringBuilder output = new StringBuilder(128);
+      final int[] written = {-1};
+      final JPLayoutSpec spec = engine.withMetrics(new JPLayoutMetricsType()
+      {
+        @Override
+        public void onParagraph(
+          final JPLayoutCountsType counts)
+        {
+
+        }
+
+        @Override
+        public void onFinish(
+          final long nanoseconds)
+        {
+          written[0] = output.length();
+        }
+      });
+
+      final JPAlignerType a = spec.createAligner();
+      a.addText(TEXT);
+      a.finishTo(output, "\n");
+
+      Assert.assertTrue(output.length() > 0);
+      Assert.assertEquals((long) output.length(), (long) written[0]);
+    }
+  }
+
+  @Test
+  public void testFinishFailure()
+  {
+    for (final JPLayoutSpec engine : engines()) {
+      final Recorder recorder = new Recorder();
+      final JPAlignerType a = engine.withMetrics(recorder).createAligner();
+      a.addText(TEXT);
+
+      final Appendable output = new Appendable()
+      {
+        @Override
+        public Appendable append(
+          final CharSequence text)
+          throws IOException
+        {
+          throw new IOException("Failed");
+        }
+
+        @Override
+        public Appendable append(
+          final CharSequence text,
+          final int start,
+          final int end)
+          throws IOException
+        {
+          throw new IOException("Failed");
+        }
+
+        @Override
+        public Appendable append(
+          final char c)
+          throws IOException
+        {
+          throw new IOException("Failed");
+        }
+      };
+
+      Assert.assertThrows(IOException.class, () -> a.finishTo(output, "\n"));
+      Assert.assertEquals(1L, (long) recorder.finishes);
+    }
+  }
+
+  @Test
+  public void testConcurrent()
+    throws Exception
+  {
+    final JPLayoutMetrics metrics = JPLayoutMetrics.create();
+    final JPLayoutSpec spec =
+      justify(JPOverflowBehaviour.OVERFLOW_ANYWAY).withMetrics(metrics);
+    final int lines = JPLayouts.formatText(spec, TEXT).size();
+    metrics.reset();
+
+    final int threads = 4;
+    final int iterations = 500;
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<?>> futures = new ArrayList<>(threads);
+      for (int thread = 0; thread < threads; ++thread) {
+        futures.add(executor.submit(() -> {
+          for (int index = 0; index < iterations; ++index) {
+            JPLayouts.formatText(spec, TEXT);
+          }
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      Assert.assertTrue(executor.awaitTermination(10L, TimeUnit.SECONDS));
+    }
+
+    final long runs = (long) threads * (long) iterations;
+    Assert.assertEquals(runs * 12L, metrics.words());
+    Assert.assertEquals(runs * (long) lines, metrics.lines());
+    Assert.assertEquals(runs * 2L, metrics.paragraphs());
+    Assert.assertEquals(runs, metrics.finishLatency().count());
+  }
+
+  @Test
+  public void testHistogramBuckets()
+  {
+    for (long value = 0L; value < 100_000L; ++value) {
+      final int bucket = JPLatencyHistogram.bucketOf(value);
+      Assert.assertTrue(value <= JPLatencyHistogram.bucketUpperBound(bucket));
+      if (bucket > 0) {
+        Assert.assertTrue(
+          value > JPLatencyHistogram.bucketUpperBound(bucket - 1));
+      }
+    }
+
+    final int last = JPLatencyHistogram.BUCKET_COUNT - 1;
+    Assert.assertEquals(last, JPLatencyHistogram.bucketOf(Long.MAX_VALUE));
+    Assert.assertEquals(
+      Long.MAX_VALUE, JPLatencyHistogram.bucketUpperBound(last));
+    Assert.assertEquals(0L, (long) JPLatencyHistogram.bucketOf(-1L));
+  }
+
+  @Test
+  public void testHistogramPercentiles()
+  {
+    final JPLatencyHistogram h = JPLatencyHistogram.create();
+    Assert.assertEquals(0L, h.percentile(50.0));
+
+    for (int index = 0; index < 90; ++index) {
+      h.record(1000L);
+    }
+    for (int index = 0; index < 10; ++index) {
+      h.record(1_000_000L);
+    }
+
+    Assert.assertEquals(100L, h.count());
+    final long p50 = h.percentile(50.0);
+    final long p99 = h.percentile(99.0);
+    Assert.assertTrue(p50 >= 1000L && p50 < 1250L);
+    Assert.assertTrue(p99 >= 1_000_000L && p99 < 1_250_000L);
+    Assert.assertEquals(100L, Arrays.stream(h.snapshot()).sum());
+
+    Assert.assertThrows(
+      IllegalArgumentException.class, () -> h.percentile(101.0));
+    Assert.assertThrows(
+      IllegalArgumentException.class, () -> h.percentile(Double.NaN));
+  }
+}
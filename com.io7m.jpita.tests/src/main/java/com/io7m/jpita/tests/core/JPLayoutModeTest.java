@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPLayoutMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public final class JPLayoutModeTest
+{
+  @Test
+  public void testNameValues()
+  {
+    final Set<String> s = new HashSet<>(16);
+    for (final JPLayoutMode v : JPLayoutMode.values()) {
+      Assert.assertFalse(s.contains(v.getName()));
+      s.add(v.getName());
+    }
+  }
+
+  @Test
+  public void testStringValues()
+  {
+    final Set<String> s = new HashSet<>(16);
+    for (final JPLayoutMode v : JPLayoutMode.values()) {
+      Assert.assertFalse(s.contains(v.toString()));
+      s.add(v.toString());
+    }
+  }
+}
@@ -0,0 +1,476 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutProcessor;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+public final class JPLayoutProcessorTest
+{
+  private static final JPLayoutSpec SPEC =
+    JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      30);
+
+  /**
+   * A publisher of a list of items that honours demand and records the
+   * largest number of items that were requested but not yet delivered.
+   */
+
+  private static final class ListPublisher implements Flow.Publisher<String>
+  {
+    private final List<String> items;
+    private final Throwable error;
+    private Flow.Subscriber<? super String> subscriber;
+    private int next;
+    private long outstanding;
+    private long outstanding_max;
+    private boolean cancelled;
+    private boolean emitting;
+
+    ListPublisher(
+      final List<String> in_items,
+      final Throwable in_error)
+    {
+      this.items = in_items;
+      this.error = in_error;
+    }
+
+    @Override
+    public void subscribe(
+      final Flow.Subscriber<? super String> in_subscriber)
+    {
+      this.subscriber = in_subscriber;
+      in_subscriber.onSubscribe(new Flow.Subscription()
+      {
+        @Override
+        public void request(
+          final long n)
+        {
+          ListPublisher.this.outstanding += n;
+          ListPublisher.this.outstanding_max = Math.max(
+            ListPublisher.this.outstanding_max,
+            ListPublisher.this.outstanding);
+          ListPublisher.this.emit();
+        }
+
+        @Override
+        public void cancel()
+        {
+          ListPublisher.this.cancelled = true;
+        }
+      });
+    }
+
+    private void emit()
+    {
+      if (this.emitting) {
+        return;
+      }
+      this.emitting = true;
+      while (!this.cancelled && this.outstanding > 0L
+        && this.next < this.items.size()) {
+        --this.outstanding;
+        this.subscriber.onNext(this.items.get(this.next));
+        ++this.next;
+      }
+      if (!this.cancelled && this.next == this.items.size()) {
+        this.next = Integer.MAX_VALUE;
+        if (this.error != null) {
+          this.subscriber.onError(this.error);
+        } else {
+          this.subscriber.onComplete();
+        }
+      }
+      this.emitting = false;
+    }
+  }
+
+  /**
+   * A subscriber that requests lines only when asked to.
+   */
+
+  private static final class ManualSubscriber
+    implements Flow.Subscriber<String>
+  {
+    private final List<String> lines;
+    private Flow.Subscription subscription;
+    private Throwable error;
+    private int subscribed;
+    private boolean completed;
+
+    ManualSubscriber()
+    {
+      this.lines = new ArrayList<>();
+    }
+
+    @Override
+    public void onSubscribe(
+      final Flow.Subscription in_subscription)
+    {
+      ++this.subscribed;
+      this.subscription = in_subscription;
+    }
+
+    @Override
+    public void onNext(
+      final String item)
+    {
+      Assert.assertFalse(this.completed);
+      this.lines.add(item);
+    }
+
+    @Override
+    public void onError(
+      final Throwable throwable)
+    {
+      this.error = throwable;
+    }
+
+    @Override
+    public void onComplete()
+    {
+      this.completed = true;
+    }
+  }
+
+  private static List<String> items()
+    throws Exception
+  {
+    final List<String> items = new ArrayList<>();
+    items.addAll(JPTestUtilities.resourceAsWords(
+      JPLayoutProcessorTest.class, "lorem.txt"));
+    items.add("");
+    items.add("Antidisestablishmentarianism-and-more");
+    items.add("follows.");
+    items.add(" ");
+    items.add("End.");
+    return items;
+  }
+
+  private static boolean isBreak(
+    final String item)
+  {
+    return item.chars().allMatch(c -> c == ' ' || (c >= '\t' && c <= '\r'));
+  }
+
+  private static List<String> expected(
+    final JPLayoutSpec spec,
+    final List<String> items)
+  {
+    final JPAlignerType a = spec.createAligner();
+    for (final String item : items) {
+      if (isBreak(item)) {
+        a.breakLine();
+      } else {
+        a.addWord(item);
+      }
+    }
+    return a.finish();
+  }
+
+  @Test
+  public void testSameAsAligner()
+    throws Exception
+  {
+    final List<String> items = items();
+    final ListPublisher publisher = new ListPublisher(items, null);
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber subscriber = new ManualSubscriber();
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    Assert.assertEquals(expected(SPEC, items), subscriber.lines);
+    Assert.assertTrue(subscriber.completed);
+    Assert.assertEquals(1L, publisher.outstanding_max);
+  }
+
+  @Test
+  public void testBackpressure()
+    throws Exception
+  {
+    final List<String> items = items();
+    final List<String> expected = expected(SPEC, items);
+    final ListPublisher publisher = new ListPublisher(items, null);
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber subscriber = new ManualSubscriber();
+
+    processor.subscribe(subscriber);
+    publisher.subscribe(processor);
+    Assert.assertEquals(0L, (long) publisher.next);
+
+    for (int index = 0; index < expected.size(); ++index) {
+      subscriber.subscription.request(1L);
+      Assert.assertEquals(index + 1L, (long) subscriber.lines.size());
+
+      /*
+       * The processor stops requesting words as soon as it has a line that
+       * it cannot deliver, so no more than a line's worth of words beyond
+       * the delivered lines have been consumed.
+       */
+
+      final long consumed = Math.min(publisher.next, items.size());
+      final long words = expected.subList(0, index + 1)
+        .stream()
+        .mapToLong(line -> line.isBlank() ? 1L : line.split(" +").length)
+        .sum();
+      Assert.assertTrue(consumed <= words + 31L);
+      Assert.assertTrue(publisher.outstanding <= 1L);
+    }
+
+    Assert.assertEquals(expected, subscriber.lines);
+    Assert.assertEquals(1L, publisher.outstanding_max);
+    Assert.assertTrue(subscriber.completed);
+  }
+
+  @Test
+  public void testNoDemandNoRequests()
+    throws Exception
+  {
+    final ListPublisher publisher = new ListPublisher(items(), null);
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber subscriber = new ManualSubscriber();
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+    Assert.assertEquals(0L, publisher.outstanding_max);
+    Assert.assertEquals(List.of(), subscriber.lines);
+  }
+
+  @Test
+  public void testError()
+    throws Exception
+  {
+    final RuntimeException error = new RuntimeException("Upstream failed");
+    final ListPublisher publisher = new ListPublisher(items(), error);
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber subscriber = new ManualSubscriber();
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    Assert.assertSame(error, subscriber.error);
+    Assert.assertFalse(subscriber.completed);
+  }
+
+  @Test
+  public void testCancel()
+    throws Exception
+  {
+    final ListPublisher publisher = new ListPublisher(items(), null);
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber subscriber = new ManualSubscriber();
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+    subscriber.subscription.request(2L);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(2L);
+
+    Assert.assertTrue(publisher.cancelled);
+    Assert.assertEquals(2L, (long) subscriber.lines.size());
+    Assert.assertFalse(subscriber.completed);
+    Assert.assertNull(subscriber.error);
+  }
+
+  @Test
+  public void testNonPositiveRequest()
+    throws Exception
+  {
+    final ListPublisher publisher = new ListPublisher(items(), null);
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber subscriber = new ManualSubscriber();
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+    subscriber.subscription.request(0L);
+
+    Assert.assertTrue(publisher.cancelled);
+    Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+  }
+
+  @Test
+  public void testSubscribeAfterComplete()
+    throws Exception
+  {
+    final ListPublisher publisher = new ListPublisher(items(), null);
+    final ListPublisher late = new ListPublisher(items(), null);
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber subscriber = new ManualSubscriber();
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    Assert.assertTrue(subscriber.completed);
+
+    final int count = subscriber.lines.size();
+    late.subscribe(processor);
+
+    Assert.assertTrue(late.cancelled);
+    Assert.assertEquals(0L, late.outstanding_max);
+    Assert.assertEquals((long) count, (long) subscriber.lines.size());
+  }
+
+  @Test
+  public void testCancelBeforeUpstream()
+    throws Exception
+  {
+    final ListPublisher publisher = new ListPublisher(items(), null);
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber subscriber = new ManualSubscriber();
+
+    processor.subscribe(subscriber);
+    subscriber.subscription.request(2L);
+    subscriber.subscription.cancel();
+    publisher.subscribe(processor);
+
+    Assert.assertTrue(publisher.cancelled);
+    Assert.assertEquals(0L, publisher.outstanding_max);
+    Assert.assertEquals(List.of(), subscriber.lines);
+  }
+
+  @Test
+  public void testNonPositiveRequestBeforeUpstream()
+    throws Exception
+  {
+    final ListPublisher publisher = new ListPublisher(items(), null);
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber subscriber = new ManualSubscriber();
+
+    processor.subscribe(subscriber);
+    subscriber.subscription.request(0L);
+    publisher.subscribe(processor);
+
+    Assert.assertTrue(publisher.cancelled);
+    Assert.assertEquals(0L, publisher.outstanding_max);
+    Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+  }
+
+  @Test
+  public void testUnicodeSpaceIsWord()
+  {
+    final List<String> items = List.of("a", "\u2003", "b");
+    final ListPublisher publisher = new ListPublisher(items, null);
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber subscriber = new ManualSubscriber();
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    final JPAlignerType a = SPEC.createAligner();
+    a.addWord("a");
+    a.addWord("\u2003");
+    a.addWord("b");
+    Assert.assertEquals(a.finish(), subscriber.lines);
+    Assert.assertEquals(1L, (long) subscriber.lines.size());
+  }
+
+  @Test
+  public void testSingleSubscriber()
+  {
+    final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+    final ManualSubscriber first = new ManualSubscriber();
+    final ManualSubscriber second = new ManualSubscriber();
+
+    processor.subscribe(first);
+    processor.subscribe(second);
+
+    Assert.assertNull(first.error);
+    Assert.assertEquals(1L, (long) second.subscribed);
+    Assert.assertTrue(second.error instanceof IllegalStateException);
+  }
+
+  @Test
+  public void testAsynchronous()
+    throws Exception
+  {
+    final List<String> items = items();
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final JPLayoutProcessor processor = JPLayoutProcessor.create(SPEC);
+      final List<String> lines = new ArrayList<>();
+      final CompletableFuture<List<String>> done = new CompletableFuture<>();
+
+      try (SubmissionPublisher<String> publisher =
+             new SubmissionPublisher<>(executor, 4)) {
+        publisher.subscribe(processor);
+        processor.subscribe(new Flow.Subscriber<>()
+        {
+          private Flow.Subscription subscription;
+
+          @Override
+          public void onSubscribe(
+            final Flow.Subscription in_subscription)
+          {
+            this.subscription = in_subscription;
+            in_subscription.request(1L);
+          }
+
+          @Override
+          public void onNext(
+            final String item)
+          {
+            lines.add(item);
+            this.subscription.request(1L);
+          }
+
+          @Override
+          public void onError(
+            final Throwable throwable)
+          {
+            done.completeExceptionally(throwable);
+          }
+
+          @Override
+          public void onComplete()
+          {
+            done.complete(lines);
+          }
+        });
+
+        for (final String item : items) {
+          publisher.submit(item);
+        }
+      }
+
+      Assert.assertEquals(
+        expected(SPEC, items), done.get(10L, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdown();
+      Assert.assertTrue(executor.awaitTermination(10L, TimeUnit.SECONDS));
+    }
+  }
+}
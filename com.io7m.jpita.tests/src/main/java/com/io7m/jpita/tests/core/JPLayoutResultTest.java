@@ -0,0 +1,213 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutResult;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPParagraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class JPLayoutResultTest
+{
+  private static List<JPLayoutSpec> specs()
+  {
+    return List.of(
+      JPLayoutSpec.alignLeft(30),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        30),
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        30));
+  }
+
+  @Test
+  public void testFinishCompact()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPLayoutResultTest.class, "lorem.txt");
+
+    for (final JPLayoutSpec spec : specs()) {
+      final JPAlignerType a = spec.createAligner();
+      JPTestUtilities.addAll(a, words);
+      final List<String> expected = a.finish();
+
+      JPTestUtilities.addAll(a, words);
+      final JPLayoutResult result = a.finishCompact();
+      Assert.assertEquals(expected, result.toList());
+      Assert.assertEquals((long) expected.size(), result.lineCount());
+
+      int length = 0;
+      for (int index = 0; index < expected.size(); ++index) {
+        final String line = expected.get(index);
+        Assert.assertEquals(line, result.lineString(index));
+        Assert.assertEquals(line, result.line(index).toString());
+        Assert.assertEquals(
+          (long) line.length(), (long) result.lineLength(index));
+        length += line.length();
+      }
+      Assert.assertEquals((long) length, (long) result.textLength());
+
+      JPTestUtilities.addAll(a, words);
+      Assert.assertEquals(expected, a.finish());
+    }
+  }
+
+  @Test
+  public void testFinishCompactStreaming()
+  {
+    final List<String> received = new ArrayList<>();
+    final JPAlignerType a = JPLayoutSpec.alignLeft(11)
+      .createAligner(line -> received.add(line.toString()));
+    JPTestUtilities.addAll(a, List.of("one", "two", "three", "four"));
+
+    final JPLayoutResult result = a.finishCompact();
+    Assert.assertEquals(0L, (long) result.lineCount());
+    Assert.assertEquals(List.of("one two", "three four"), received);
+  }
+
+  @Test
+  public void testFormatCompact()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPLayoutResultTest.class, "uri.txt");
+    for (final JPLayoutSpec spec : specs()) {
+      Assert.assertEquals(
+        JPLayouts.format(spec, words),
+        JPLayouts.formatCompact(spec, words).toList());
+    }
+  }
+
+  @Test
+  public void testFormatAllCompact()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPLayoutResultTest.class, "lorem.txt");
+    final List<JPParagraph> paragraphs = new ArrayList<>();
+    for (int index = 0; index < 1000; ++index) {
+      final int start = (index * 7) % words.size();
+      final int end = Math.min(words.size(), start + (index % 23));
+      paragraphs.add(new JPParagraph(words.subList(start, end)));
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (final JPLayoutSpec spec : specs()) {
+        Assert.assertEquals(
+          JPLayouts.formatAll(paragraphs, spec, Runnable::run),
+          JPLayouts.formatAllCompact(paragraphs, spec, executor).toList());
+        Assert.assertEquals(
+          JPLayouts.formatAll(paragraphs.subList(0, 3), spec, Runnable::run),
+          JPLayouts.formatAllCompact(
+            paragraphs.subList(0, 3), spec, executor).toList());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testOf()
+    throws Exception
+  {
+    final JPLayoutResult result =
+      JPLayoutResult.of(List.of("Hello", "", "World!"));
+
+    Assert.assertEquals(List.of("Hello", "", "World!"), result.toList());
+    Assert.assertEquals("", result.lineString(1));
+    Assert.assertEquals("orl", result.line(2).subSequence(1, 4).toString());
+    Assert.assertEquals('W', result.line(2).charAt(0));
+
+    final StringBuilder output = new StringBuilder();
+    result.writeTo(output, "\n");
+    Assert.assertEquals("Hello\n\nWorld!\n", output.toString());
+  }
+
+  @Test
+  public void testOfWide()
+    throws Exception
+  {
+    final JPLayoutResult result =
+      JPLayoutResult.of(List.of("Hello", "漢字", "Ünïcödé"));
+
+    Assert.assertEquals(List.of("Hello", "漢字", "Ünïcödé"), result.toList());
+    Assert.assertEquals('字', result.line(1).charAt(1));
+    Assert.assertEquals("Ünïcödé", result.line(2).toString());
+    Assert.assertEquals(14L, (long) result.textLength());
+
+    final StringBuilder output = new StringBuilder();
+    result.writeTo(output, "\n");
+    Assert.assertEquals("Hello\n漢字\nÜnïcödé\n", output.toString());
+  }
+
+  @Test
+  public void testFormatAllCompactMixed()
+  {
+    final List<JPParagraph> paragraphs = new ArrayList<>();
+    for (int index = 0; index < 1000; ++index) {
+      final String word = index == 900 ? "漢字" : "word" + index;
+      paragraphs.add(JPParagraph.of(word, "Ünïcödé", "text"));
+    }
+
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(12);
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Assert.assertEquals(
+        JPLayouts.formatAll(paragraphs, spec, Runnable::run),
+        JPLayouts.formatAllCompact(paragraphs, spec, executor).toList());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testEmpty()
+  {
+    final JPLayoutResult result = JPLayoutResult.empty();
+    Assert.assertEquals(0L, (long) result.lineCount());
+    Assert.assertEquals(0L, (long) result.textLength());
+    Assert.assertEquals(List.of(), result.toList());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testLineOutOfRange()
+  {
+    JPLayoutResult.of(List.of("a")).line(1);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testLineReadOnly()
+  {
+    ((CharBuffer) JPLayoutResult.of(List.of("漢字")).line(0)).put('b');
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerBasic;
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPJustifierOptimal;
+import com.io7m.jpita.core.JPLayoutMode;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import com.io7m.jranges.RangeCheckException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class JPLayoutSpecTest
+{
+  private static void checkSame(
+    final JPAlignerType expected,
+    final JPLayoutSpec spec)
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPLayoutSpecTest.class, "lorem.txt");
+
+    final JPAlignerType a = spec.createAligner();
+    JPTestUtilities.addAll(a, words);
+    JPTestUtilities.addAll(expected, words);
+    final List<String> lines = expected.finish();
+    Assert.assertEquals(lines, a.finish());
+
+    final List<String> received = new ArrayList<>();
+    final JPAlignerType b =
+      spec.createAligner(line -> received.add(line.toString()));
+    JPTestUtilities.addAll(b, words);
+    b.finish();
+    Assert.assertEquals(lines, received);
+  }
+
+  @Test
+  public void testAlignLeft()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(40);
+    Assert.assertEquals(JPLayoutMode.MODE_ALIGN_LEFT, spec.mode());
+    Assert.assertEquals(40L, (long) spec.width());
+    checkSame(JPAlignerBasic.create(40), spec);
+  }
+
+  @Test
+  public void testJustify()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      30);
+    Assert.assertEquals(JPLayoutMode.MODE_JUSTIFY, spec.mode());
+    checkSame(JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      30), spec);
+  }
+
+  @Test
+  public void testJustifyOptimal()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justifyOptimal(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      30);
+    Assert.assertEquals(JPLayoutMode.MODE_JUSTIFY_OPTIMAL, spec.mode());
+    checkSame(JPJustifierOptimal.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      30), spec);
+  }
+
+  @Test
+  public void testMeasurer()
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(40);
+    Assert.assertSame(JPWidthMeasurers.CODE_UNITS, spec.measurer());
+    final JPLayoutSpec terminal =
+      spec.withMeasurer(JPWidthMeasurers.TERMINAL);
+    Assert.assertSame(JPWidthMeasurers.TERMINAL, terminal.measurer());
+    Assert.assertNotEquals(spec, terminal);
+    Assert.assertEquals(spec.width(), terminal.width());
+  }
+
+  @Test
+  public void testEquality()
+  {
+    Assert.assertEquals(
+      JPLayoutSpec.alignLeft(40), JPLayoutSpec.alignLeft(40));
+    Assert.assertNotEquals(
+      JPLayoutSpec.alignLeft(40), JPLayoutSpec.alignLeft(41));
+  }
+
+  @Test
+  public void testInvalidWidth()
+  {
+    Assert.assertThrows(
+      RangeCheckException.class, () -> JPLayoutSpec.alignLeft(0));
+  }
+
+  @Test
+  public void testInvalidNull()
+  {
+    Assert.assertThrows(
+      NullPointerException.class,
+      () -> JPLayoutSpec.justify(null, JPJustifierBasic.JUSTIFY_ALWAYS, 10));
+    Assert.assertThrows(
+      NullPointerException.class,
+      () -> JPLayoutSpec.justify(JPOverflowBehaviour.OVERFLOW_ANYWAY, null, 10));
+    Assert.assertThrows(
+      NullPointerException.class,
+      () -> new JPLayoutSpec(
+        null,
+        10,
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        JPWidthMeasurers.CODE_UNITS));
+    Assert.assertThrows(
+      NullPointerException.class,
+      () -> JPLayoutSpec.alignLeft(10).withMeasurer(null));
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerBasic;
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPJustifierOptimal;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPParagraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+public final class JPLayoutsTest
+{
+  private static List<JPParagraph> paragraphs()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPLayoutsTest.class, "lorem.txt");
+
+    final List<JPParagraph> paragraphs = new ArrayList<>();
+    for (int index = 0; index < 1000; ++index) {
+      final int start = (index * 7) % words.size();
+      final int end = Math.min(words.size(), start + (index % 23));
+      paragraphs.add(new JPParagraph(words.subList(start, end)));
+    }
+    return paragraphs;
+  }
+
+  private static List<String> sequential(
+    final List<JPParagraph> paragraphs,
+    final Supplier<JPAlignerType> aligners)
+  {
+    final JPAlignerType a = aligners.get();
+    for (int index = 0; index < paragraphs.size(); ++index) {
+      if (index > 0) {
+        a.breakLine();
+      }
+      JPTestUtilities.addAll(a, paragraphs.get(index).words());
+    }
+    return a.finish();
+  }
+
+  private static void checkEquivalent(
+    final Supplier<JPAlignerType> aligners)
+    throws Exception
+  {
+    final List<JPParagraph> paragraphs = paragraphs();
+    final List<String> expected = sequential(paragraphs, aligners);
+    Assert.assertEquals(
+      expected, JPLayouts.formatAll(paragraphs, aligners));
+    Assert.assertEquals(
+      expected, JPLayouts.formatAll(paragraphs, aligners, Runnable::run));
+
+    try (ExecutorService executor =
+           Executors.newVirtualThreadPerTaskExecutor()) {
+      Assert.assertEquals(
+        expected, JPLayouts.formatAll(paragraphs, aligners, executor));
+    }
+  }
+
+  @Test
+  public void testAligner()
+    throws Exception
+  {
+    checkEquivalent(() -> JPAlignerBasic.create(40));
+  }
+
+  @Test
+  public void testJustifier()
+    throws Exception
+  {
+    checkEquivalent(() -> JPJustifierBasic.create(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      30));
+  }
+
+  @Test
+  public void testJustifierOptimal()
+    throws Exception
+  {
+    checkEquivalent(() -> JPJustifierOptimal.create(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      30));
+  }
+
+  @Test
+  public void testEmptyParagraphs()
+  {
+    final List<JPParagraph> paragraphs = new ArrayList<>();
+    for (int index = 0; index < 200; ++index) {
+      paragraphs.add(JPParagraph.of());
+    }
+    paragraphs.add(JPParagraph.of("a", "b"));
+
+    final List<String> rs =
+      JPLayouts.formatAll(paragraphs, () -> JPAlignerBasic.create(10));
+    Assert.assertEquals(201L, (long) rs.size());
+    Assert.assertEquals("", rs.get(199));
+    Assert.assertEquals("a b", rs.get(200));
+  }
+
+  @Test
+  public void testNone()
+  {
+    Assert.assertEquals(
+      List.of(),
+      JPLayouts.formatAll(List.of(), () -> JPAlignerBasic.create(10)));
+  }
+
+  private static void checkFailure(
+    final List<JPParagraph> paragraphs)
+  {
+    final CompletionException e =
+      Assert.assertThrows(
+        CompletionException.class,
+        () -> JPLayouts.formatAll(
+          paragraphs,
+          () -> {
+            throw new IllegalStateException("Failed!");
+          }));
+    Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    Assert.assertEquals("Failed!", e.getCause().getMessage());
+  }
+
+  @Test
+  public void testFailure()
+    throws Exception
+  {
+    checkFailure(List.of(JPParagraph.of("a")));
+    checkFailure(paragraphs());
+  }
+
+  @Test
+  public void testFormat()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPLayoutsTest.class, "lorem.txt");
+    final JPLayoutSpec spec = JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      40);
+
+    final JPAlignerType a = spec.createAligner();
+    JPTestUtilities.addAll(a, words);
+    final List<String> expected = a.finish();
+
+    for (int index = 0; index < 3; ++index) {
+      Assert.assertEquals(expected, JPLayouts.format(spec, words));
+    }
+    Assert.assertEquals(List.of(), JPLayouts.format(spec, List.of()));
+  }
+
+  @Test
+  public void testFormatText()
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(10);
+    for (int index = 0; index < 3; ++index) {
+      Assert.assertEquals(
+        List.of("Hello", "World", "New", "paragraph."),
+        JPLayouts.formatText(spec, "Hello World\n\nNew paragraph."));
+    }
+  }
+
+  @Test
+  public void testFormatFailureNotReused()
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(10);
+    final List<String> bad = new ArrayList<>();
+    bad.add("a");
+    bad.add(null);
+
+    Assert.assertThrows(
+      NullPointerException.class, () -> JPLayouts.format(spec, bad));
+    Assert.assertEquals(
+      List.of("b"), JPLayouts.format(spec, List.of("b")));
+  }
+
+  @Test
+  public void testFormatManySpecs()
+  {
+    for (int width = 1; width < 200; ++width) {
+      Assert.assertEquals(
+        List.of("a"),
+        JPLayouts.format(JPLayoutSpec.alignLeft(width), List.of("a")));
+    }
+  }
+
+  @Test
+  public void testFormatConcurrent()
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPLayoutsTest.class, "lorem.txt");
+    final JPLayoutSpec spec = JPLayoutSpec.justifyOptimal(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      30);
+    final List<String> expected = JPLayouts.format(spec, words);
+
+    final List<Future<List<String>>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      for (int index = 0; index < 200; ++index) {
+        results.add(executor.submit(() -> JPLayouts.format(spec, words)));
+      }
+      for (final Future<List<String>> result : results) {
+        Assert.assertEquals(expected, result.get());
+      }
+    }
+  }
+
+  @Test
+  public void testFormatAllSpec()
+    throws Exception
+  {
+    final List<JPParagraph> paragraphs = paragraphs();
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(40);
+    Assert.assertEquals(
+      sequential(paragraphs, spec::createAligner),
+      JPLayouts.formatAll(paragraphs, spec, Runnable::run));
+  }
+}
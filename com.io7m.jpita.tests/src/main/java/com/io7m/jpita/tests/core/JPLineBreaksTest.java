@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPDocumentLayout;
+import com.io7m.jpita.core.JPHyphenationPatterns;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPLineBreaks;
+import com.io7m.jpita.core.JPMeasuredDocument;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPParagraph;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class JPLineBreaksTest
+{
+  private static List<JPLayoutSpec> specs()
+  {
+    return List.of(
+      JPLayoutSpec.alignLeft(80),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        80),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        80),
+      JPLayoutSpec.alignLeft(80)
+        .withMeasurer(JPWidthMeasurers.TERMINAL));
+  }
+
+  private static List<String> words()
+    throws Exception
+  {
+    final List<String> words = new ArrayList<>();
+    words.addAll(
+      JPTestUtilities.resourceAsWords(JPLineBreaksTest.class, "lorem.txt"));
+    words.addAll(List.of("  spaced ", "", "漢字", "words"));
+    words.add("overflowing-in-the-middle-of-a-paragraph");
+    words.addAll(
+      JPTestUtilities.resourceAsWords(JPLineBreaksTest.class, "uri.txt"));
+    return words;
+  }
+
+  @Test
+  public void testSameAsFormat()
+    throws Exception
+  {
+    final List<String> words = words();
+
+    for (final JPLayoutSpec base : specs()) {
+      for (int width = 1; width <= 100; ++width) {
+        final JPLayoutSpec spec = base.withWidth(width);
+        final List<String> expected = JPLayouts.format(spec, words);
+        final JPLineBreaks breaks = JPLineBreaks.measure(spec, words);
+        final JPDocumentLayout layout =
+          JPMeasuredDocument.create(spec, List.of(new JPParagraph(words)))
+            .layout();
+
+        Assert.assertEquals(
+          spec.toString(), (long) expected.size(), breaks.lineCount());
+        Assert.assertEquals(
+          (long) expected.size(), JPLineBreaks.countLines(spec, words));
+
+        for (int line = 0; line < breaks.lineCount(); ++line) {
+          Assert.assertEquals(
+            (long) layout.lineFirstWord(line), breaks.lineStart(line));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBoundaries()
+  {
+    final JPLineBreaks breaks = JPLineBreaks.measure(
+      JPLayoutSpec.alignLeft(11),
+      List.of("one", "two", "three", "four", "five"));
+
+    Assert.assertArrayEquals(new int[]{0, 2, 4, 5}, breaks.boundaries());
+    Assert.assertEquals(3L, (long) breaks.lineCount());
+    Assert.assertEquals(2L, (long) breaks.lineStart(1));
+    Assert.assertEquals(4L, (long) breaks.lineEnd(1));
+  }
+
+  @Test
+  public void testOverflowOwnLine()
+  {
+    final JPLineBreaks breaks = JPLineBreaks.measure(
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        8),
+      List.of("a", "abcdefghijkl", "b"));
+
+    Assert.assertArrayEquals(new int[]{0, 1, 2, 3}, breaks.boundaries());
+  }
+
+  @Test
+  public void testEmpty()
+  {
+    final JPLineBreaks breaks =
+      JPLineBreaks.measure(JPLayoutSpec.alignLeft(80), List.of());
+    Assert.assertEquals(0L, (long) breaks.lineCount());
+    Assert.assertArrayEquals(new int[]{0}, breaks.boundaries());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testLineOutOfRange()
+  {
+    JPLineBreaks.measure(JPLayoutSpec.alignLeft(80), List.of("a"))
+      .lineEnd(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testHyphenationUnsupported()
+  {
+    JPLineBreaks.countLines(
+      JPLayoutSpec.alignLeft(80)
+        .withHyphenation(
+          JPHyphenationPatterns.compile(List.of("a1b"), List.of(), 1, 1)),
+      List.of("a"));
+  }
+}
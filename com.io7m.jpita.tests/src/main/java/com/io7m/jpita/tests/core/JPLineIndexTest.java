@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPLineIndex;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPParagraph;
+import com.io7m.jranges.RangeCheckException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class JPLineIndexTest
+{
+  private static List<JPLayoutSpec> specs()
+  {
+    return List.of(
+      JPLayoutSpec.alignLeft(40),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        40),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        12));
+  }
+
+  private static List<JPParagraph> document()
+    throws Exception
+  {
+    final List<String> lorem =
+      JPTestUtilities.resourceAsWords(JPLineIndexTest.class, "lorem.txt");
+    final List<String> uri =
+      JPTestUtilities.resourceAsWords(JPLineIndexTest.class, "uri.txt");
+
+    final List<JPParagraph> paragraphs = new ArrayList<>();
+    paragraphs.add(JPParagraph.of());
+    paragraphs.add(new JPParagraph(lorem));
+    paragraphs.add(JPParagraph.of("overflowing-at-the-end-of-a-paragraph"));
+    paragraphs.add(JPParagraph.of());
+    paragraphs.add(new JPParagraph(uri));
+    paragraphs.add(JPParagraph.of("  spaced ", "", "words"));
+    paragraphs.add(new JPParagraph(lorem.subList(0, 30)));
+    paragraphs.add(JPParagraph.of("overflowing-at-the-end-of-a-paragraph"));
+    return paragraphs;
+  }
+
+  @Test
+  public void testAllWindows()
+    throws Exception
+  {
+    final List<JPParagraph> paragraphs = document();
+
+    for (final JPLayoutSpec spec : specs()) {
+      final List<String> expected =
+        JPLayouts.formatAll(paragraphs, spec, Runnable::run);
+
+      for (final int interval : new int[]{1, 3, 16, 1000}) {
+        final JPLineIndex index =
+          JPLineIndex.create(spec, paragraphs, interval);
+
+        Assert.assertEquals((long) expected.size(), index.lineCount());
+        Assert.assertEquals(
+          (long) (expected.size() / interval + 1), index.checkpointCount());
+        Assert.assertEquals(
+          expected, index.lines(0, index.lineCount()));
+
+        for (int from = 0; from < expected.size(); ++from) {
+          Assert.assertEquals(expected.get(from), index.line(from));
+          final int to = Math.min(expected.size(), from + 7);
+          Assert.assertEquals(
+            expected.subList(from, to), index.lines(from, to));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRandomWindows()
+  {
+    final Random random = new Random(0x5eedL);
+    final List<JPParagraph> paragraphs = new ArrayList<>();
+    for (int p = 0; p < 200; ++p) {
+      final List<String> words = new ArrayList<>();
+      final int count = random.nextInt(60);
+      for (int w = 0; w < count; ++w) {
+        words.add("x".repeat(1 + random.nextInt(14)));
+      }
+      paragraphs.add(new JPParagraph(words));
+    }
+
+    final JPLayoutSpec spec = JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      10);
+    final List<String> expected =
+      JPLayouts.formatAll(paragraphs, spec, Runnable::run);
+    final JPLineIndex index = JPLineIndex.create(spec, paragraphs, 32);
+
+    for (int test = 0; test < 200; ++test) {
+      final int from = random.nextInt(expected.size());
+      final int to = from + random.nextInt(expected.size() - from + 1);
+      Assert.assertEquals(
+        expected.subList(from, to), index.lines(from, to));
+    }
+  }
+
+  @Test
+  public void testEmpty()
+  {
+    final JPLineIndex index =
+      JPLineIndex.create(JPLayoutSpec.alignLeft(80), List.of(), 8);
+    Assert.assertEquals(0L, (long) index.lineCount());
+    Assert.assertEquals(1L, (long) index.checkpointCount());
+    Assert.assertEquals(List.of(), index.lines(0, 0));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testLineOutOfRange()
+  {
+    JPLineIndex.create(JPLayoutSpec.alignLeft(80), List.of(), 8).line(0);
+  }
+
+  @Test(expected = RangeCheckException.class)
+  public void testIntervalInvalid()
+  {
+    JPLineIndex.create(JPLayoutSpec.alignLeft(80), List.of(), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOptimalUnsupported()
+  {
+    JPLineIndex.create(
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        40),
+      List.of(),
+      8);
+  }
+}
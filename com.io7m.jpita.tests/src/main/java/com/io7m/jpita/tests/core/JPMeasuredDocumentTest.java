@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPDocumentLayout;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLayouts;
+import com.io7m.jpita.core.JPMeasuredDocument;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPParagraph;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class JPMeasuredDocumentTest
+{
+  private static List<JPLayoutSpec> specs()
+  {
+    return List.of(
+      JPLayoutSpec.alignLeft(80),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        80),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        80),
+      JPLayoutSpec.alignLeft(80)
+        .withMeasurer(JPWidthMeasurers.TERMINAL));
+  }
+
+  private static List<JPParagraph> document()
+    throws Exception
+  {
+    final List<String> lorem =
+      JPTestUtilities.resourceAsWords(JPMeasuredDocumentTest.class, "lorem.txt");
+    final List<String> uri =
+      JPTestUtilities.resourceAsWords(JPMeasuredDocumentTest.class, "uri.txt");
+
+    final List<JPParagraph> paragraphs = new ArrayList<>();
+    paragraphs.add(new JPParagraph(lorem));
+    paragraphs.add(JPParagraph.of());
+    paragraphs.add(new JPParagraph(uri));
+    paragraphs.add(JPParagraph.of("  spaced ", "", "漢字", "words"));
+    paragraphs.add(JPParagraph.of("overflowing-at-the-end-of-a-paragraph"));
+    paragraphs.add(new JPParagraph(lorem.subList(0, 20)));
+    paragraphs.add(JPParagraph.of());
+    return paragraphs;
+  }
+
+  @Test
+  public void testSameAsFormatAll()
+    throws Exception
+  {
+    final List<JPParagraph> paragraphs = document();
+
+    for (final JPLayoutSpec spec : specs()) {
+      final JPMeasuredDocument document =
+        JPMeasuredDocument.create(spec, paragraphs);
+      Assert.assertEquals((long) paragraphs.size(), document.paragraphCount());
+
+      for (int width = 1; width <= 100; ++width) {
+        final JPLayoutSpec resized = spec.withWidth(width);
+        final List<String> expected =
+          JPLayouts.formatAll(paragraphs, resized, Runnable::run);
+        final JPDocumentLayout layout = document.layout(width);
+
+        Assert.assertEquals(
+          resized.toString(), expected, layout.lines());
+        Assert.assertEquals((long) width, (long) layout.width());
+        Assert.assertEquals((long) expected.size(), layout.lineCount());
+      }
+
+      Assert.assertEquals(
+        JPLayouts.formatAll(paragraphs, spec, Runnable::run),
+        document.layout().lines());
+    }
+  }
+
+  @Test
+  public void testVisibleLines()
+    throws Exception
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      30);
+    final JPDocumentLayout layout =
+      JPMeasuredDocument.create(spec, document()).layout();
+    final List<String> all = layout.lines();
+
+    Assert.assertEquals(all.subList(5, 10), layout.lines(5, 10));
+    Assert.assertEquals(all.get(7), layout.line(7));
+    Assert.assertEquals(0L, (long) layout.lineFirstWord(0));
+    Assert.assertEquals(List.of(), layout.lines(3, 3));
+  }
+
+  @Test
+  public void testEmpty()
+  {
+    final JPMeasuredDocument document =
+      JPMeasuredDocument.create(JPLayoutSpec.alignLeft(80), List.of());
+    Assert.assertEquals(0L, (long) document.wordCount());
+    Assert.assertEquals(0L, (long) document.layout().lineCount());
+    Assert.assertEquals(0L, (long) document.layout(10).lineCount());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testLineOutOfRange()
+  {
+    JPMeasuredDocument.create(JPLayoutSpec.alignLeft(80), List.of())
+      .layout()
+      .line(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOptimalUnsupported()
+  {
+    JPMeasuredDocument.create(
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        40),
+      List.of());
+  }
+}
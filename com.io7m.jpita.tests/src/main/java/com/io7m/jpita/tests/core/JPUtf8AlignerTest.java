@@ -0,0 +1,331 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPUtf8Aligner;
+import com.io7m.jpita.core.JPWidthMeasurerType;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public final class JPUtf8AlignerTest
+{
+  private static final String MIXED =
+    "Hello   world.\n\n  漢字 and ｆｕｌｌｗｉｄｔｈ text, 👍🏽 emoji,\t"
+      + "\u001b[31mred\u001b[0m words, combining é marks and "
+      + "an-extraordinarily-long-word-that-cannot-fit-anywhere. "
+      + "\u001b[32mgreen-and-also-too-long-to-fit-anywhere\u001b[0m.\n\n\n"
+      + "Ünïcödé Latin-1. Last paragraph\r\n\r\n";
+
+  private static List<JPLayoutSpec> specs()
+  {
+    return List.of(
+      JPLayoutSpec.alignLeft(20),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        20),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        20),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        20).withMeasurer(JPWidthMeasurers.TERMINAL),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_UNDER_HALF,
+        20).withMeasurer(JPWidthMeasurers.TERMINAL_ANSI),
+      JPLayoutSpec.alignLeft(20)
+        .withMeasurer(JPWidthMeasurers.CODE_UNITS_ANSI),
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        20).withMeasurer(new DoubleWidth()));
+  }
+
+  /**
+   * A measurer that is not one of the standard measurers, and that
+   * therefore requires every word to be decoded.
+   */
+
+  private static final class DoubleWidth implements JPWidthMeasurerType
+  {
+    DoubleWidth()
+    {
+
+    }
+
+    @Override
+    public int measure(
+      final CharSequence text,
+      final int start,
+      final int end)
+    {
+      return 2 * (end - start);
+    }
+
+    @Override
+    public int truncate(
+      final CharSequence text,
+      final int start,
+      final int end,
+      final int columns)
+    {
+      return start + Math.min(end - start, columns / 2);
+    }
+  }
+
+  private static String lorem()
+    throws Exception
+  {
+    try (InputStream is =
+           JPUtf8AlignerTest.class.getResourceAsStream("lorem.txt")) {
+      return new String(IOUtils.toByteArray(is), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static String expected(
+    final JPLayoutSpec spec,
+    final String text)
+  {
+    final JPAlignerType a = spec.createAligner();
+    a.addText(text);
+    final StringBuilder b = new StringBuilder();
+    for (final String line : a.finish()) {
+      b.append(line);
+      b.append('\n');
+    }
+    return b.toString();
+  }
+
+  /**
+   * Format the given bytes, presenting them to the aligner in chunks of
+   * the given size, and draining the output through a small buffer.
+   */
+
+  private static byte[] formatChunked(
+    final JPUtf8Aligner a,
+    final byte[] input,
+    final int chunk,
+    final boolean direct)
+  {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final ByteBuffer drain =
+      direct ? ByteBuffer.allocateDirect(7) : ByteBuffer.allocate(7);
+
+    for (int start = 0; start < input.length; start += chunk) {
+      final int length = Math.min(chunk, input.length - start);
+      final ByteBuffer buffer;
+      if (direct) {
+        buffer = ByteBuffer.allocateDirect(length);
+        buffer.put(input, start, length);
+        buffer.flip();
+      } else {
+        buffer = ByteBuffer.wrap(input, start, length).slice();
+      }
+      a.addText(buffer);
+      Assert.assertFalse(buffer.hasRemaining());
+      drainAll(a, drain, output);
+    }
+
+    a.finish();
+    drainAll(a, drain, output);
+    return output.toByteArray();
+  }
+
+  private static void drainAll(
+    final JPUtf8Aligner a,
+    final ByteBuffer drain,
+    final ByteArrayOutputStream output)
+  {
+    while (true) {
+      final boolean done = a.drainTo(drain);
+      drain.flip();
+      while (drain.hasRemaining()) {
+        output.write(drain.get());
+      }
+      drain.clear();
+      if (done) {
+        Assert.assertEquals(0L, (long) a.pendingBytes());
+        return;
+      }
+    }
+  }
+
+  @Test
+  public void testSameAsAligner()
+    throws Exception
+  {
+    for (final String text : List.of(MIXED, lorem())) {
+      final byte[] input = text.getBytes(StandardCharsets.UTF_8);
+      for (final JPLayoutSpec spec : specs()) {
+        final String expected = expected(spec, text);
+        final JPUtf8Aligner a = JPUtf8Aligner.create(spec);
+
+        for (final int chunk : new int[]{1, 2, 3, 5, 64, input.length}) {
+          for (final boolean direct : new boolean[]{false, true}) {
+            final byte[] output = formatChunked(a, input, chunk, direct);
+            Assert.assertEquals(
+              spec + " chunk " + chunk,
+              expected,
+              new String(output, StandardCharsets.UTF_8));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testWidths()
+    throws Exception
+  {
+    final String text = lorem();
+    final byte[] input = text.getBytes(StandardCharsets.UTF_8);
+    for (final JPLayoutSpec base : specs().subList(0, 3)) {
+      for (int width = 1; width <= 60; ++width) {
+        final JPLayoutSpec spec = base.withWidth(width);
+        final byte[] output = formatChunked(
+          JPUtf8Aligner.create(spec), input, 4096, true);
+        Assert.assertEquals(
+          expected(spec, text), new String(output, StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  @Test
+  public void testBreakLine()
+  {
+    final JPLayoutSpec spec = JPLayoutSpec.alignLeft(40);
+    final JPUtf8Aligner a = JPUtf8Aligner.create(spec, "\r\n");
+    a.addText(ByteBuffer.wrap("first para".getBytes(StandardCharsets.UTF_8)));
+    a.breakLine();
+    a.addText(ByteBuffer.wrap("second".getBytes(StandardCharsets.UTF_8)));
+    a.finish();
+
+    final ByteBuffer output = ByteBuffer.allocateDirect(64);
+    Assert.assertTrue(a.drainTo(output));
+    output.flip();
+    final byte[] bytes = new byte[output.remaining()];
+    output.get(bytes);
+    Assert.assertEquals(
+      "first para\r\nsecond\r\n", new String(bytes, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testMalformedCopied()
+  {
+    final JPUtf8Aligner a = JPUtf8Aligner.create(JPLayoutSpec.alignLeft(40));
+    a.addText(ByteBuffer.wrap(new byte[]{'a', (byte) 0xff, 'b', ' ', 'c'}));
+    a.finish();
+
+    final ByteBuffer output = ByteBuffer.allocate(64);
+    Assert.assertTrue(a.drainTo(output));
+    output.flip();
+    Assert.assertEquals(
+      ByteBuffer.wrap(new byte[]{'a', (byte) 0xff, 'b', ' ', 'c', '\n'}),
+      output);
+  }
+
+  /**
+   * Malformed sequences of every kind are delimited exactly as the JDK
+   * decoder delimits them, so that lines break in the same places as they
+   * do for the decoded text.
+   */
+
+  @Test
+  public void testMalformedSameAsAligner()
+  {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final int[][] malformed = {
+      {0xf8, 0x90, 0x80, 0x80},
+      {0xff, 0xfe},
+      {0xf5, 0x80, 0x80, 0x80},
+      {0xc0, 0x80},
+      {0xc1, 0xbf, 'a'},
+      {0xe0, 0x80, 0x80},
+      {0xe0, 0xa0},
+      {0xe2, 0x82},
+      {0xe2, 0x82, 'a'},
+      {0xed, 0xa0, 0x80},
+      {0xf0, 0x80, 0x80, 0x80},
+      {0xf0, 0x90, 0x80},
+      {0xf0, 0x90, 0x80, 'a'},
+      {0xf0, 0x90, 'a'},
+      {0xf4, 0x90, 0x80, 0x80},
+      {0x80, 0xbf, 'a', 0x80},
+    };
+    for (final int[] word : malformed) {
+      bytes.write('x');
+      for (final int b : word) {
+        bytes.write(b);
+      }
+      bytes.write(' ');
+    }
+    final byte[] input = bytes.toByteArray();
+    final String text = new String(input, StandardCharsets.UTF_8);
+
+    for (final JPLayoutSpec base : specs()) {
+      for (int width = 1; width <= 12; ++width) {
+        final JPLayoutSpec spec = base.withWidth(width);
+        final byte[] output = formatChunked(
+          JPUtf8Aligner.create(spec), input, 3, false);
+        Assert.assertEquals(
+          spec.toString(),
+          expected(spec, text),
+          new String(output, StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  @Test
+  public void testReset()
+  {
+    final JPUtf8Aligner a = JPUtf8Aligner.create(JPLayoutSpec.alignLeft(40));
+    a.addText(
+      ByteBuffer.wrap("discarded words".getBytes(StandardCharsets.UTF_8)));
+    a.breakLine();
+    Assert.assertTrue(a.pendingBytes() > 0);
+
+    a.reset();
+    Assert.assertEquals(0L, (long) a.pendingBytes());
+    a.finish();
+    Assert.assertEquals(0L, (long) a.pendingBytes());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOptimalUnsupported()
+  {
+    JPUtf8Aligner.create(
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        40));
+  }
+}
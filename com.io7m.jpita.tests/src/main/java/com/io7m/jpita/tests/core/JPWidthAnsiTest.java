@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPLineIndex;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPParagraph;
+import com.io7m.jpita.core.JPWidthMeasurerType;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public final class JPWidthAnsiTest
+{
+  private static final Pattern ESCAPES =
+    Pattern.compile("\u001b\\[[0-?]*[ -/]*[@-~]|\u001b\\][^\u0007]*\u0007");
+
+  private static String strip(
+    final String text)
+  {
+    return ESCAPES.matcher(text).replaceAll("");
+  }
+
+  private static String red(
+    final String text)
+  {
+    return "\u001b[1;31m" + text + "\u001b[0m";
+  }
+
+  private static String link(
+    final String text)
+  {
+    return "\u001b]8;;https://www.io7m.com\u0007" + text + "\u001b]8;;\u0007";
+  }
+
+  private static long measure(
+    final JPWidthMeasurerType m,
+    final String text)
+  {
+    return m.measure(text, 0, text.length());
+  }
+
+  private static void checkMeasure(
+    final JPWidthMeasurerType m)
+  {
+    Assert.assertEquals(3L, measure(m, red("red")));
+    Assert.assertEquals(4L, measure(m, link("link")));
+    Assert.assertEquals(0L, measure(m, "\u001b(B"));
+    Assert.assertEquals(0L, measure(m, "\u001b"));
+    Assert.assertEquals(0L, measure(m, "\u001b[31"));
+    Assert.assertEquals(2L, measure(m, "a\u001bP1$r\u001b\\b"));
+    Assert.assertEquals(
+      5L, measure(m, "\u001b[31mab\u001b[0m\u001b[32mcde"));
+  }
+
+  private static void checkTruncate(
+    final JPWidthMeasurerType m)
+  {
+    final String text = red("redword");
+    final int cut = m.truncate(text, 0, text.length(), 3);
+    Assert.assertEquals("\u001b[1;31mred", text.substring(0, cut));
+    Assert.assertEquals(
+      text.length(), m.truncate(text, 0, text.length(), 7));
+    Assert.assertEquals(
+      "\u001b[1;31m", text.substring(0, m.truncate(text, 0, text.length(), 0)));
+
+    final StringBuilder retained = new StringBuilder();
+    m.truncationSuffix(text, cut, text.length(), retained);
+    Assert.assertEquals("\u001b[0m", retained.toString());
+
+    final String linked = link("linked") + "!";
+    retained.setLength(0);
+    m.truncationSuffix(linked, m.truncate(linked, 0, linked.length(), 2),
+      linked.length(), retained);
+    Assert.assertEquals("\u001b]8;;\u0007", retained.toString());
+  }
+
+  @Test
+  public void testPlainRetainsNothing()
+  {
+    final String text = red("redword");
+    final StringBuilder retained = new StringBuilder();
+    JPWidthMeasurers.TERMINAL.truncationSuffix(
+      text, 3, text.length(), retained);
+    JPWidthMeasurers.CODE_UNITS.truncationSuffix(
+      text, 3, text.length(), retained);
+    Assert.assertEquals("", retained.toString());
+  }
+
+  /**
+   * A truncated word keeps the escape sequences that followed the
+   * truncation point, after the ellipsis, so that its color does not leak
+   * into the text that follows.
+   */
+
+  @Test
+  public void testTruncatedKeepsReset()
+    throws Exception
+  {
+    final List<String> words = List.of(red("abcdefghijklmnop"), "after");
+    final List<String> expected =
+      List.of("\u001b[1;31mabcdefghi…\u001b[0m", "after");
+
+    for (final JPLayoutSpec base : List.of(
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        10),
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        10))) {
+      for (final JPWidthMeasurerType m : List.of(
+        JPWidthMeasurers.TERMINAL_ANSI, JPWidthMeasurers.CODE_UNITS_ANSI)) {
+        final JPAlignerType a = base.withMeasurer(m).createAligner();
+        JPTestUtilities.addAll(a, words);
+        Assert.assertEquals(expected, a.finish());
+      }
+    }
+
+    final JPLineIndex index = JPLineIndex.create(
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        10).withMeasurer(JPWidthMeasurers.TERMINAL_ANSI),
+      List.of(new JPParagraph(words)),
+      8);
+    Assert.assertEquals(expected.get(0), index.line(0));
+  }
+
+  @Test
+  public void testCodeUnits()
+  {
+    checkMeasure(JPWidthMeasurers.CODE_UNITS_ANSI);
+    checkTruncate(JPWidthMeasurers.CODE_UNITS_ANSI);
+  }
+
+  @Test
+  public void testTerminal()
+  {
+    checkMeasure(JPWidthMeasurers.TERMINAL_ANSI);
+    checkTruncate(JPWidthMeasurers.TERMINAL_ANSI);
+
+    final String wide = red("漢字");
+    Assert.assertEquals(4L, measure(JPWidthMeasurers.TERMINAL_ANSI, wide));
+  }
+
+  @Test
+  public void testPlainUnaffected()
+  {
+    final String text = "café漢字";
+    Assert.assertEquals(
+      JPWidthMeasurers.TERMINAL.measure(text, 0, text.length()),
+      JPWidthMeasurers.TERMINAL_ANSI.measure(text, 0, text.length()));
+    Assert.assertEquals(
+      JPWidthMeasurers.CODE_UNITS.measure(text, 0, text.length()),
+      JPWidthMeasurers.CODE_UNITS_ANSI.measure(text, 0, text.length()));
+  }
+
+  private static void checkLayout(
+    final JPLayoutSpec spec)
+    throws Exception
+  {
+    final List<String> words =
+      JPTestUtilities.resourceAsWords(JPWidthAnsiTest.class, "lorem.txt");
+    final List<String> colored = new ArrayList<>(words.size());
+    for (int index = 0; index < words.size(); ++index) {
+      final String word = words.get(index);
+      colored.add(switch (index % 3) {
+        case 0 -> red(word);
+        case 1 -> link(word);
+        default -> word;
+      });
+    }
+
+    final JPAlignerType plain = spec.createAligner();
+    JPTestUtilities.addAll(plain, words);
+    final List<String> expected = plain.finish();
+
+    final JPAlignerType ansi =
+      spec.withMeasurer(JPWidthMeasurers.TERMINAL_ANSI).createAligner();
+    JPTestUtilities.addAll(ansi, colored);
+    final List<String> lines = ansi.finish();
+
+    Assert.assertEquals(expected.size(), lines.size());
+    for (int index = 0; index < lines.size(); ++index) {
+      Assert.assertEquals(expected.get(index), strip(lines.get(index)));
+    }
+    Assert.assertTrue(lines.get(0).contains("\u001b[1;31m"));
+  }
+
+  @Test
+  public void testLayoutAlignLeft()
+    throws Exception
+  {
+    checkLayout(JPLayoutSpec.alignLeft(40));
+  }
+
+  @Test
+  public void testLayoutJustify()
+    throws Exception
+  {
+    checkLayout(JPLayoutSpec.justify(
+      JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+      JPJustifierBasic.JUSTIFY_ALWAYS,
+      30));
+  }
+
+  @Test
+  public void testLayoutJustifyOptimal()
+    throws Exception
+  {
+    checkLayout(JPLayoutSpec.justifyOptimal(
+      JPOverflowBehaviour.OVERFLOW_ANYWAY,
+      JPJustifierBasic.JUSTIFY_UNDER_HALF,
+      30));
+  }
+}
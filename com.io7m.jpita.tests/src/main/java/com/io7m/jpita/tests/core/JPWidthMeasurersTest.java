@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jpita.tests.core;
+
+import com.io7m.jpita.core.JPAlignerType;
+import com.io7m.jpita.core.JPJustifierBasic;
+import com.io7m.jpita.core.JPLayoutSpec;
+import com.io7m.jpita.core.JPOverflowBehaviour;
+import com.io7m.jpita.core.JPWidthMeasurerType;
+import com.io7m.jpita.core.JPWidthMeasurers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class JPWidthMeasurersTest
+{
+  private static final JPWidthMeasurerType TERMINAL =
+    JPWidthMeasurers.TERMINAL;
+
+  private static int width(
+    final String text)
+  {
+    return TERMINAL.measure(text, 0, text.length());
+  }
+
+  private static List<String> mixedWords()
+  {
+    final String[] vocabulary = {
+      "plain",
+      "café",
+      "漢字",
+      "日本語の",
+      "문자",
+      "😀",
+      "👍🏽",
+      "été",
+      "👨\u200D👩\u200D👧",
+      "🇳🇿",
+      "ｆｕｌｌ",
+    };
+
+    final List<String> words = new ArrayList<>();
+    for (int index = 0; index < 300; ++index) {
+      words.add(vocabulary[(index * 7) % vocabulary.length]);
+    }
+    return words;
+  }
+
+  @Test
+  public void testCodeUnits()
+  {
+    final JPWidthMeasurerType m = JPWidthMeasurers.CODE_UNITS;
+    Assert.assertEquals(4L, (long) m.measure("漢字😀", 0, 4));
+    Assert.assertEquals(2L, (long) m.measure("abcd", 1, 3));
+    Assert.assertEquals(4L, (long) m.truncate("abcd", 1, 4, 5));
+    Assert.assertEquals(3L, (long) m.truncate("abcd", 1, 4, 2));
+  }
+
+  @Test
+  public void testCodeUnitsTruncateSurrogates()
+  {
+    for (final JPWidthMeasurerType m : List.of(
+      JPWidthMeasurers.CODE_UNITS, JPWidthMeasurers.CODE_UNITS_ANSI)) {
+      Assert.assertEquals(1L, (long) m.truncate("a😀b", 0, 4, 2));
+      Assert.assertEquals(3L, (long) m.truncate("a😀b", 0, 4, 3));
+      Assert.assertEquals(0L, (long) m.truncate("😀", 0, 2, 1));
+      Assert.assertEquals(2L, (long) m.truncate("a\uD800b", 0, 3, 2));
+    }
+  }
+
+  @Test
+  public void testTerminalSimple()
+  {
+    Assert.assertEquals(0L, (long) width(""));
+    Assert.assertEquals(5L, (long) width("hello"));
+    Assert.assertEquals(4L, (long) width("café"));
+    Assert.assertEquals(6L, (long) width("naïveÿ"));
+    Assert.assertEquals(2L, (long) TERMINAL.measure("hello", 1, 3));
+  }
+
+  /**
+   * Every character that the fast path accepts is measured as the slow
+   * path measures it.
+   */
+
+  @Test
+  public void testTerminalFastPathAgreesWithSlowPath()
+  {
+    for (char c = 0x20; c <= 0x2FF; ++c) {
+      final String text = String.valueOf(c);
+      Assert.assertEquals(
+        Integer.toHexString(c),
+        (long) width(text + "漢") - 2L,
+        (long) width(text));
+    }
+    Assert.assertEquals(10L, (long) width("soft\u00ADhyphen"));
+  }
+
+  @Test
+  public void testTerminalWide()
+  {
+    Assert.assertEquals(4L, (long) width("漢字"));
+    Assert.assertEquals(4L, (long) width("문자"));
+    Assert.assertEquals(8L, (long) width("ｆｕｌｌ"));
+    Assert.assertEquals(2L, (long) width("😀"));
+    Assert.assertEquals(5L, (long) width("a漢字"));
+    Assert.assertEquals(4L, (long) width("𠀀𠀁"));
+  }
+
+  @Test
+  public void testTerminalZeroWidth()
+  {
+    Assert.assertEquals(1L, (long) width("é"));
+    Assert.assertEquals(3L, (long) width("été"));
+    Assert.assertEquals(2L, (long) width("a\u200Bb"));
+    Assert.assertEquals(2L, (long) width("👍🏽"));
+    Assert.assertEquals(2L, (long) width("👨\u200D👩\u200D👧"));
+    Assert.assertEquals(2L, (long) width("🇳🇿"));
+    Assert.assertEquals(1L, (long) width("a\u0085"));
+    Assert.assertEquals(1L, (long) width("a\u0007"));
+  }
+
+  @Test
+  public void testTerminalUnpairedSurrogate()
+  {
+    Assert.assertEquals(1L, (long) width("a\uD800"));
+    Assert.assertEquals(1L, (long) width("\uDC00a"));
+  }
+
+  @Test
+  public void testTerminalTruncate()
+  {
+    Assert.assertEquals(3L, (long) TERMINAL.truncate("abcdef", 0, 6, 3));
+    Assert.assertEquals(1L, (long) TERMINAL.truncate("漢字漢", 0, 3, 3));
+    Assert.assertEquals(2L, (long) TERMINAL.truncate("漢字漢", 0, 3, 4));
+    Assert.assertEquals(0L, (long) TERMINAL.truncate("😀x", 0, 3, 1));
+    Assert.assertEquals(2L, (long) TERMINAL.truncate("éx", 0, 3, 1));
+    Assert.assertEquals(
+      8L, (long) TERMINAL.truncate("👨\u200D👩\u200D👧x", 0, 9, 2));
+  }
+
+  private static void checkLines(
+    final JPLayoutSpec spec,
+    final boolean exact)
+  {
+    final JPAlignerType a = spec.createAligner();
+    final List<String> words = mixedWords();
+    JPTestUtilities.addAll(a, words);
+    final List<String> lines = a.finish();
+    JPTestUtilities.show(spec.width(), lines);
+
+    final List<String> found = new ArrayList<>();
+    for (int index = 0; index < lines.size(); ++index) {
+      final String line = lines.get(index);
+      final int w = width(line);
+      Assert.assertTrue(line, w <= spec.width());
+      if (exact && index + 1 < lines.size()) {
+        Assert.assertEquals(line, (long) spec.width(), (long) w);
+      }
+      found.addAll(List.of(line.trim().split(" +")));
+    }
+    Assert.assertEquals(words, found);
+  }
+
+  @Test
+  public void testAlignLeft()
+  {
+    checkLines(
+      JPLayoutSpec.alignLeft(20).withMeasurer(TERMINAL), false);
+  }
+
+  @Test
+  public void testJustify()
+  {
+    checkLines(
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        20).withMeasurer(TERMINAL),
+      true);
+  }
+
+  @Test
+  public void testJustifyOptimal()
+  {
+    checkLines(
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_ANYWAY,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        20).withMeasurer(TERMINAL),
+      true);
+  }
+
+  @Test
+  public void testTruncateWide()
+  {
+    final JPLayoutSpec spec =
+      JPLayoutSpec.justify(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        10).withMeasurer(TERMINAL);
+
+    final JPAlignerType a = spec.createAligner();
+    a.addWord("漢字漢字漢字漢字");
+    final List<String> lines = a.finish();
+    Assert.assertEquals(List.of("漢字漢字…"), lines);
+    Assert.assertEquals(9L, (long) width(lines.get(0)));
+  }
+
+  @Test
+  public void testTruncateWideOptimal()
+  {
+    final JPLayoutSpec spec =
+      JPLayoutSpec.justifyOptimal(
+        JPOverflowBehaviour.OVERFLOW_TRUNCATE,
+        JPJustifierBasic.JUSTIFY_ALWAYS,
+        10).withMeasurer(TERMINAL);
+
+    final JPAlignerType a = spec.createAligner();
+    a.addWord("漢字漢字漢字漢字");
+    Assert.assertEquals(List.of("漢字漢字…"), a.finish());
+  }
+}